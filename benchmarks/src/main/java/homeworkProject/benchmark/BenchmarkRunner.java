@@ -0,0 +1,37 @@
+package homeworkProject.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Main class for running every benchmark and writing the results
+ * in JSON, so the results of the releases can be compared.
+ *
+ * @author Mario Posta
+ */
+public final class BenchmarkRunner {
+
+	/**
+	 * Constructor which prevents instantiation.
+	 */
+	private BenchmarkRunner() {
+	}
+
+	/**
+	 * Runs the benchmarks.
+	 * @param args the path of the result file, {@code jmh-result.json} by default,
+	 * and optionally a regular expression of the benchmarks to run
+	 * @throws RunnerException if the benchmarks cannot be run
+	 */
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(args.length > 1 ? args[1] : BenchmarkRunner.class.getPackage().getName() + ".*")
+				.resultFormat(ResultFormatType.JSON)
+				.result(args.length > 0 ? args[0] : "jmh-result.json")
+				.build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,60 @@
+package homeworkProject.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import homeworkProject.data.TicketService;
+import homeworkProject.data.WeekendInventory;
+import homeworkProject.model.Grandstand;
+
+/**
+ * Class for creating the embedded database of the benchmarks.
+ * The persistence unit of the application is reused with an in-memory H2 database.
+ *
+ * @author Mario Posta
+ */
+final class EmbeddedDatabase {
+
+	/**
+	 * Amount of the tickets of every grandstand, large enough to never run out during a trial.
+	 * Every ticket is a seat of a bitmap and a 3-day pass of the weekend inventory, so the amount is not unlimited.
+	 */
+	static final int STOCK = WeekendInventory.MAX_AMOUNT;
+
+	/**
+	 * Constructor which prevents instantiation.
+	 */
+	private EmbeddedDatabase() {
+	}
+
+	/**
+	 * Creates an EntityManagerFactory for a new in-memory database.
+	 * @param name the name of the database
+	 * @return the EntityManagerFactory of the database
+	 */
+	static EntityManagerFactory create(String name) {
+		Map<String, String> properties = new HashMap<>();
+		properties.put("javax.persistence.jdbc.driver", "org.h2.Driver");
+		properties.put("javax.persistence.jdbc.url", "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+		properties.put("javax.persistence.jdbc.user", "sa");
+		properties.put("javax.persistence.jdbc.password", "");
+		properties.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+		properties.put("hibernate.show_sql", "false");
+		properties.put("hibernate.format_sql", "false");
+		properties.put("hibernate.use_sql_comments", "false");
+		return Persistence.createEntityManagerFactory("TicketDataPersistenceUnit", properties);
+	}
+
+	/**
+	 * Fills the database with the stock of every grandstand.
+	 * @param ticketService the ticketService object of the database
+	 */
+	static void seed(TicketService ticketService) {
+		for (Grandstand grandstand : Grandstand.values()) {
+			ticketService.createTicket(grandstand.getType(), STOCK);
+		}
+	}
+}
@@ -0,0 +1,156 @@
+package homeworkProject.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import homeworkProject.data.TicketInventory;
+import homeworkProject.data.WeekendInventory;
+import homeworkProject.model.Grandstand;
+import homeworkProject.model.RacePass;
+
+/**
+ * Benchmarks of the in-memory inventory under contention,
+ * either on the same grandstand or spread over the grandstands.
+ *
+ * @author Mario Posta
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class InventoryBenchmark {
+
+	/**
+	 * The inventory under benchmark.
+	 */
+	private final TicketInventory inventory = new TicketInventory();
+
+	/**
+	 * The inventory of the days of the weekend under benchmark.
+	 */
+	private final WeekendInventory weekendInventory = new WeekendInventory();
+
+	/**
+	 * Counter for giving every thread its own grandstand.
+	 */
+	private final AtomicInteger threads = new AtomicInteger();
+
+	/**
+	 * Class for the grandstand of one benchmark thread.
+	 */
+	@State(Scope.Thread)
+	public static class ThreadGrandstand {
+
+		/**
+		 * Type of the ticket of the thread.
+		 */
+		String type;
+
+		/**
+		 * Chooses the grandstand of the thread in round robin.
+		 * @param benchmark the shared state of the benchmark
+		 */
+		@Setup(Level.Trial)
+		public void setUp(InventoryBenchmark benchmark) {
+			Grandstand[] grandstands = Grandstand.values();
+			type = grandstands[benchmark.threads.getAndIncrement() % grandstands.length].getType();
+		}
+	}
+
+	/**
+	 * Fills the inventory before every iteration.
+	 */
+	@Setup(Level.Iteration)
+	public void setUp() {
+		for (Grandstand grandstand : Grandstand.values()) {
+			inventory.register(grandstand.getType(), EmbeddedDatabase.STOCK);
+			weekendInventory.register(grandstand, WeekendInventory.MAX_AMOUNT);
+		}
+	}
+
+	/**
+	 * Reserves and releases a ticket of the same grandstand on every thread.
+	 * @return the result of the reservation
+	 */
+	@Benchmark
+	public boolean reserveSameGrandstand() {
+		int[] seats = inventory.claim(Grandstand.SUPER_GOLD.getType(), 1);
+		if (seats == null)
+			return false;
+		inventory.release(Grandstand.SUPER_GOLD.getType(), seats);
+		return true;
+	}
+
+	/**
+	 * Reserves and releases two numbered seats of the same grandstand on every thread.
+	 * @return the numbers of the reserved seats
+	 */
+	@Benchmark
+	public int[] claimSeatsSameGrandstand() {
+		int[] seats = inventory.claim(Grandstand.SUPER_GOLD.getType(), 2);
+		inventory.release(Grandstand.SUPER_GOLD.getType(), seats);
+		return seats;
+	}
+
+	/**
+	 * Reserves and releases the best eight adjacent seats of the same grandstand on every thread.
+	 * @return the numbers of the reserved seats
+	 */
+	@Benchmark
+	public int[] claimGroupSameGrandstand() {
+		int[] seats = inventory.claim(Grandstand.SUPER_GOLD.getType(), 8);
+		inventory.release(Grandstand.SUPER_GOLD.getType(), seats);
+		return seats;
+	}
+
+	/**
+	 * Reserves and releases a 3-day pass of the same grandstand on every thread.
+	 * @return the result of the reservation
+	 */
+	@Benchmark
+	public boolean reserveWeekendPassSameGrandstand() {
+		boolean reserved = weekendInventory.tryReserve(Grandstand.SILVER_2, RacePass.WEEKEND, 2);
+		if (reserved)
+			weekendInventory.release(Grandstand.SILVER_2, RacePass.WEEKEND, 2);
+		return reserved;
+	}
+
+	/**
+	 * Finds the days of every grandstand which still have eight tickets.
+	 * @return the masks of the days
+	 */
+	@Benchmark
+	public int[] daysWithTickets() {
+		return weekendInventory.daysWithTickets(8);
+	}
+
+	/**
+	 * Reserves and releases a ticket on every thread, each thread on its own grandstand.
+	 * @param grandstand the grandstand of the thread
+	 * @return the result of the reservation
+	 */
+	@Benchmark
+	public boolean reservePerGrandstand(ThreadGrandstand grandstand) {
+		int[] seats = inventory.claim(grandstand.type, 1);
+		if (seats == null)
+			return false;
+		inventory.release(grandstand.type, seats);
+		return true;
+	}
+}
@@ -0,0 +1,120 @@
+package homeworkProject.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import homeworkProject.businessLogic.TicketHandling;
+import homeworkProject.model.Grandstand;
+import homeworkProject.model.Ticket;
+
+/**
+ * Benchmarks of the shopping cart and the input validation of the business logic.
+ *
+ * @author Mario Posta
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TicketHandlingBenchmark {
+
+	/**
+	 * The shopping cart which contains every grandstand.
+	 */
+	private TicketHandling fullCart;
+
+	/**
+	 * The shopping cart which is emptied after every operation.
+	 */
+	private TicketHandling emptyCart;
+
+	/**
+	 * Index of the next grandstand.
+	 */
+	private int next;
+
+	/**
+	 * Fills the shopping carts.
+	 */
+	@Setup(Level.Iteration)
+	public void setUp() {
+		fullCart = new TicketHandling();
+		emptyCart = new TicketHandling();
+		for (Grandstand grandstand : Grandstand.values()) {
+			fullCart.addToCart(fullCart.createTicket(grandstand, 1));
+		}
+	}
+
+	/**
+	 * Returns the next grandstand in round robin.
+	 * @return the next grandstand
+	 */
+	private Grandstand nextGrandstand() {
+		Grandstand[] grandstands = Grandstand.values();
+		next = (next + 1) % grandstands.length;
+		return grandstands[next];
+	}
+
+	/**
+	 * Adds a ticket to a shopping cart which already has a line of its type.
+	 */
+	@Benchmark
+	public void addToCartMerge() {
+		fullCart.addToCart(new Ticket(nextGrandstand().getType(), 0, 0));
+	}
+
+	/**
+	 * Adds a new line to the shopping cart and removes it.
+	 */
+	@Benchmark
+	public void addAndRemoveFromCart() {
+		Ticket ticket = new Ticket(nextGrandstand().getType(), 100, 1);
+		emptyCart.addToCart(ticket);
+		emptyCart.removeFromCart(ticket);
+	}
+
+	/**
+	 * Removes the last line of the full shopping cart and adds it back.
+	 */
+	@Benchmark
+	public void removeFromFullCart() {
+		Ticket ticket = fullCart.getShoppingCart().get(fullCart.getShoppingCart().size() - 1);
+		fullCart.removeFromCart(ticket);
+		fullCart.addToCart(ticket);
+	}
+
+	/**
+	 * Validates a valid and an invalid amount.
+	 * @param blackhole the sink of the results
+	 */
+	@Benchmark
+	public void isInputValidTickets(Blackhole blackhole) {
+		blackhole.consume(fullCart.isInputValidTickets("12"));
+		blackhole.consume(fullCart.isInputValidTickets("abc"));
+	}
+
+	/**
+	 * Validates valid and invalid personal informations.
+	 * @param blackhole the sink of the results
+	 */
+	@Benchmark
+	public void isInputValidPerson(Blackhole blackhole) {
+		blackhole.consume(fullCart.isInputValidPerson("Test Person", "test@example.com", "123",
+				"4000", "Debrecen", "Main street"));
+		blackhole.consume(fullCart.isInputValidPerson("", null, "123", "", "Debrecen", null));
+	}
+}
@@ -0,0 +1,295 @@
+package homeworkProject.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import homeworkProject.data.CheckoutResult;
+import homeworkProject.data.JpaTicketStore;
+import homeworkProject.data.LocalTicketStore;
+import homeworkProject.data.OrderSequencer;
+import homeworkProject.data.TicketService;
+import homeworkProject.data.TicketStore;
+import homeworkProject.data.WriteBehindLog;
+import homeworkProject.model.Grandstand;
+import homeworkProject.model.Ticket;
+import homeworkProject.model.TicketData;
+
+/**
+ * Benchmarks of the availability and decrement paths of the TicketService
+ * against an embedded database and against the local storage engine.
+ * The contended benchmarks run on eight threads either on the same grandstand
+ * or spread over the grandstands.
+ *
+ * @author Mario Posta
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TicketServiceBenchmark {
+
+	/**
+	 * Number of the threads of the contended benchmarks.
+	 */
+	private static final int CONTENDED_THREADS = 8;
+
+	/**
+	 * Storage engine under benchmark, {@code jpa} for the embedded database
+	 * or {@code local} for the local storage engine.
+	 */
+	@Param({"jpa", "local"})
+	public String store;
+
+	/**
+	 * TicketStore of the TicketService.
+	 */
+	private TicketStore ticketStore;
+
+	/**
+	 * The TicketService under benchmark.
+	 */
+	private TicketService ticketService;
+
+	/**
+	 * TicketStore of the sequenced TicketService.
+	 */
+	private TicketStore sequencedStore;
+
+	/**
+	 * TicketService in write-behind mode, whose checkouts go through the sequencer.
+	 */
+	private TicketService sequencedService;
+
+	/**
+	 * Directory of the write-behind log of the sequenced TicketService.
+	 */
+	private Path logDirectory;
+
+	/**
+	 * Write-behind log of the sequenced TicketService.
+	 */
+	private WriteBehindLog writeBehindLog;
+
+	/**
+	 * Sequencer of the checkouts of the sequenced TicketService.
+	 */
+	private OrderSequencer sequencer;
+
+	/**
+	 * Counter for giving every thread its own grandstand.
+	 */
+	private final AtomicInteger threads = new AtomicInteger();
+
+	/**
+	 * Class for the grandstand of one benchmark thread.
+	 */
+	@State(Scope.Thread)
+	public static class ThreadGrandstand {
+
+		/**
+		 * Type of the ticket of the thread.
+		 */
+		String type;
+
+		/**
+		 * Chooses the grandstand of the thread in round robin.
+		 * @param benchmark the shared state of the benchmark
+		 */
+		@Setup(Level.Trial)
+		public void setUp(TicketServiceBenchmark benchmark) {
+			Grandstand[] grandstands = Grandstand.values();
+			type = grandstands[benchmark.threads.getAndIncrement() % grandstands.length].getType();
+		}
+	}
+
+	/**
+	 * Class for the shopping cart of one benchmark thread.
+	 */
+	@State(Scope.Thread)
+	public static class ThreadCart {
+
+		/**
+		 * A shopping cart with three grandstands.
+		 */
+		List<Ticket> cart = new ArrayList<>();
+
+		/**
+		 * Fills the shopping cart.
+		 */
+		@Setup(Level.Trial)
+		public void setUp() {
+			cart.add(new Ticket(Grandstand.SUPER_GOLD.getType(), 450, 1));
+			cart.add(new Ticket(Grandstand.GOLD_1.getType(), 300, 1));
+			cart.add(new Ticket(Grandstand.BRONZE_2.getType(), 100, 1));
+		}
+	}
+
+	/**
+	 * Creates and fills the storage engines, and starts the sequencer in write-behind mode,
+	 * which it requires, over a storage engine of its own.
+	 * @throws IOException if the write-behind log cannot be opened
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		ticketStore = "local".equals(store) ? new LocalTicketStore() : new JpaTicketStore(EmbeddedDatabase.create("service"));
+		ticketService = new TicketService(ticketStore);
+		EmbeddedDatabase.seed(ticketService);
+		sequencedStore = "local".equals(store) ? new LocalTicketStore() : new JpaTicketStore(EmbeddedDatabase.create("sequenced"));
+		sequencedService = new TicketService(sequencedStore);
+		EmbeddedDatabase.seed(sequencedService);
+		logDirectory = Files.createTempDirectory("sequencer-benchmark");
+		writeBehindLog = new WriteBehindLog(sequencedService, logDirectory,
+				WriteBehindLog.DEFAULT_FLUSH_MILLIS, WriteBehindLog.DEFAULT_MAX_LAG_MILLIS);
+		sequencedService.setWriteBehindLog(writeBehindLog);
+		writeBehindLog.start();
+		sequencer = new OrderSequencer(sequencedService, OrderSequencer.DEFAULT_CAPACITY);
+		sequencer.start();
+	}
+
+	/**
+	 * Closes the storage engines and deletes the write-behind log.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		sequencer.shutdown(10000);
+		sequencedService.setWriteBehindLog(null);
+		writeBehindLog.drain();
+		sequencedStore.close();
+		ticketStore.close();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(logDirectory)) {
+			for (Path segment : stream)
+				Files.delete(segment);
+			Files.delete(logDirectory);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Checks the availability of one grandstand.
+	 * @param grandstand the grandstand of the thread
+	 * @return the result of the check
+	 */
+	@Benchmark
+	public boolean checkAvailableTickets(ThreadGrandstand grandstand) {
+		return ticketService.checkAvailableTickets(grandstand.type, 1);
+	}
+
+	/**
+	 * Checks the availability of every line of a shopping cart with three grandstands at once.
+	 * @param cart the shopping cart of the thread
+	 * @return the missing tickets of the shopping cart
+	 */
+	@Benchmark
+	public Map<String, Integer> checkAvailableTicketsCart(ThreadCart cart) {
+		return ticketService.checkAvailableTickets(cart.cart);
+	}
+
+	/**
+	 * Queries the content of the database.
+	 * @return the content of the database
+	 */
+	@Benchmark
+	public List<TicketData> getAvailableTickets() {
+		return ticketService.getAvailableTickets();
+	}
+
+	/**
+	 * Sells one ticket of one grandstand.
+	 * @param grandstand the grandstand of the thread
+	 * @return the result of the decrement
+	 */
+	@Benchmark
+	public boolean modifyTicketData(ThreadGrandstand grandstand) {
+		return ticketService.modifyTicketData(grandstand.type, 1);
+	}
+
+	/**
+	 * Sells a shopping cart with three grandstands.
+	 * @param cart the shopping cart of the thread
+	 * @return the result of the checkout
+	 */
+	@Benchmark
+	public CheckoutResult checkout(ThreadCart cart) {
+		return ticketService.checkout(cart.cart);
+	}
+
+	/**
+	 * Checks the availability of the same grandstand on every thread.
+	 * @return the result of the check
+	 */
+	@Benchmark
+	@Threads(CONTENDED_THREADS)
+	public boolean checkAvailableTicketsSameGrandstand() {
+		return ticketService.checkAvailableTickets(Grandstand.SUPER_GOLD.getType(), 1);
+	}
+
+	/**
+	 * Sells tickets of the same grandstand on every thread.
+	 * @return the result of the decrement
+	 */
+	@Benchmark
+	@Threads(CONTENDED_THREADS)
+	public boolean modifyTicketDataSameGrandstand() {
+		return ticketService.modifyTicketData(Grandstand.SUPER_GOLD.getType(), 1);
+	}
+
+	/**
+	 * Sells tickets on every thread, each thread on its own grandstand.
+	 * @param grandstand the grandstand of the thread
+	 * @return the result of the decrement
+	 */
+	@Benchmark
+	@Threads(CONTENDED_THREADS)
+	public boolean modifyTicketDataPerGrandstand(ThreadGrandstand grandstand) {
+		return ticketService.modifyTicketData(grandstand.type, 1);
+	}
+
+	/**
+	 * Sells shopping carts with three grandstands on every thread.
+	 * @param cart the shopping cart of the thread
+	 * @return the result of the checkout
+	 */
+	@Benchmark
+	@Threads(CONTENDED_THREADS)
+	public CheckoutResult checkoutContended(ThreadCart cart) {
+		return ticketService.checkout(cart.cart);
+	}
+
+	/**
+	 * Sells shopping carts with three grandstands on every thread through the single-writer sequencer
+	 * in write-behind mode.
+	 * @param cart the shopping cart of the thread
+	 * @return the result of the checkout
+	 */
+	@Benchmark
+	@Threads(CONTENDED_THREADS)
+	public CheckoutResult checkoutSequenced(ThreadCart cart) {
+		return sequencer.checkout(cart.cart, null);
+	}
+}
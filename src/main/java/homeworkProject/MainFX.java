@@ -1,22 +1,44 @@
 package homeworkProject;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
-import javax.persistence.EntityManager;
-import javax.persistence.EntityManagerFactory;
+import javax.mail.MessagingException;
 import javax.persistence.Persistence;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import homeworkProject.api.CheckoutServer;
+import homeworkProject.businessLogic.HoldManager;
 import homeworkProject.businessLogic.TicketHandling;
+import homeworkProject.businessLogic.TicketHold;
+import homeworkProject.data.AsyncTicketService;
+import homeworkProject.data.JpaTicketStore;
+import homeworkProject.data.LocalTicketStore;
+import homeworkProject.data.OrderJournal;
+import homeworkProject.data.OrderSequencer;
+import homeworkProject.data.PoolMetrics;
 import homeworkProject.data.TicketService;
+import homeworkProject.data.TicketStore;
+import homeworkProject.data.WriteBehindLog;
+import homeworkProject.mail.ConfirmationMailer;
+import homeworkProject.mail.MailOutbox;
+import homeworkProject.mail.SmtpMailTransport;
 import homeworkProject.model.Person;
 import homeworkProject.view.AckViewController;
+import homeworkProject.view.MapImageCache;
 import homeworkProject.view.MapViewController;
 import homeworkProject.view.OrderViewController;
 import homeworkProject.view.StartViewController;
 import homeworkProject.view.TicketViewController;
+import homeworkProject.view.ViewRegistry;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
@@ -25,7 +47,6 @@ import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.BorderPane;
-import javafx.stage.Modality;
 import javafx.stage.Stage;
 
 /**
@@ -35,6 +56,31 @@ import javafx.stage.Stage;
  */
 public class MainFX extends Application {
 	
+	/**
+	 * FXML file of the map view.
+	 */
+	private static final String MAP_VIEW = "MapView.fxml";
+	
+	/**
+	 * Image of the circuit map.
+	 */
+	private static final String MAP_IMAGE = "Hungaroring.jpg";
+	
+	/**
+	 * FXML file of the ticket view.
+	 */
+	private static final String TICKET_VIEW = "TicketView.fxml";
+	
+	/**
+	 * FXML file of the order view.
+	 */
+	private static final String ORDER_VIEW = "OrderView.fxml";
+	
+	/**
+	 * FXML file of the acknowledge view.
+	 */
+	private static final String ACK_VIEW = "AckView.fxml";
+	
     /**
      * Logger for tracking the application.
      */
@@ -51,69 +97,333 @@ public class MainFX extends Application {
     private BorderPane rootLayout;
     
     /**
-     * EntityManagerFactory for creating connection.
+     * TicketStore for storing the ticket amounts.
      */
-	private EntityManagerFactory entityManagerFactory;
+	private TicketStore ticketStore;
 	
 	/**
-	 * EntityManager for database.
+	 * TicketService for managing database transactions.
 	 */
-	private EntityManager entityManager;
+	private TicketService ticketService;
 	
 	/**
-	 * TicketService for managing database transactions.
+	 * AsyncTicketService for running the database transactions off the JavaFX application thread.
 	 */
-	private TicketService ticketService;
+	private AsyncTicketService asyncTicketService;
 	
 	/**
 	 * TicketHandling for managing the ticket transactions.
 	 */
 	private TicketHandling ticketHandling;
 	
+	/**
+	 * HoldManager for holding the tickets while the order is finalized.
+	 */
+	private HoldManager holdManager;
+	
+	/**
+	 * WriteBehindLog for persisting the sales in the background, {@code null} if it is not enabled.
+	 */
+	private WriteBehindLog writeBehindLog;
+	
+	/**
+	 * OrderSequencer for selling the checkouts in batches, {@code null} if it is not enabled.
+	 */
+	private OrderSequencer orderSequencer;
+	
+	/**
+	 * OrderJournal for recording the orders.
+	 */
+	private OrderJournal orderJournal;
+	
+	/**
+	 * ConfirmationMailer for sending the confirmation e-mails, {@code null} if it is not enabled.
+	 */
+	private ConfirmationMailer confirmationMailer;
+	
+	/**
+	 * CheckoutServer for selling the tickets over HTTP, {@code null} if it is not enabled.
+	 */
+	private CheckoutServer checkoutServer;
+	
+	/**
+	 * Timer of the phases of the startup.
+	 */
+	private StartupTimer startupTimer;
+	
+	/**
+	 * Bootstrap of the persistence and the services, which runs in the background.
+	 */
+	private CompletableFuture<Void> bootstrap;
+	
+	/**
+	 * Controller of the start view, which is usable when the bootstrap has finished.
+	 */
+	private StartViewController startViewController;
+	
+	/**
+	 * Registry of the dialog views, which are loaded once and reused.
+	 */
+	private ViewRegistry viewRegistry;
+	
+	/**
+	 * Cache of the decoded levels of the circuit map.
+	 */
+	private MapImageCache mapImageCache;
+	
 	/**
 	 * Method for closing database connections.
 	 */
 	@Override
 	public void stop ()	{
-		if (entityManagerFactory != null)	{
-			entityManager.close();
-			entityManagerFactory.close();
-			logger.debug("EntityManager has been closed");
+		if (bootstrap != null)	{
+			try {
+				bootstrap.join();
+			} catch (CompletionException e) {
+				logger.debug("Closing the application after a failed startup");
+			}
+		}
+		if (checkoutServer != null)
+			checkoutServer.stop();
+		if (asyncTicketService != null)
+			asyncTicketService.shutdown(5000);
+		if (holdManager != null)
+			holdManager.shutdown();
+		if (orderSequencer != null)	{
+			holdManager.setOrderSequencer(null);
+			orderSequencer.shutdown(5000);
+			logger.debug("Order sequencer has been stopped");
+		}
+		if (confirmationMailer != null)	{
+			confirmationMailer.shutdown(5000);
+			logger.debug("Confirmation e-mails have been stopped");
+		}
+		if (orderJournal != null)	{
+			orderJournal.close();
+			logger.debug("Order journal has been closed");
+		}
+		if (writeBehindLog != null)	{
+			ticketService.setWriteBehindLog(null);
+			writeBehindLog.drain();
+			logger.debug("Write-behind log has been drained");
+		}
+		if (ticketStore != null)	{
+			logger.debug("Connection pool: " + new PoolMetrics(PoolMetrics.POOL_NAME));
+			ticketStore.close();
+			logger.debug("TicketStore has been closed");
 		}
 		logger.debug("Application has been closed");
 	}
 	
     /**
      * Start method of the application.
-     * Loads the initial stage, scene and database content.
+     * Shows the initial stage at once, and bootstraps the persistence and the services
+     * on a background thread. The start view is usable when the bootstrap has finished.
      */
     @Override
     public void start(Stage primaryStage) {
         this.primaryStage = primaryStage;
         this.primaryStage.setTitle("Welcome to the Ticket System!");
+        this.startupTimer = new StartupTimer();
+        
+        long phase = startupTimer.begin();
+        initRootLayout();
+        showStartView();
+        registerViews();
+        startupTimer.end("views", phase);
+        logger.debug("Initial stage has been opened");
         
+        bootstrap = CompletableFuture.runAsync(this::bootstrap, runnable -> {
+        	Thread thread = new Thread(runnable, "bootstrap");
+        	thread.setDaemon(true);
+        	thread.start();
+        });
+        Platform.runLater(this::preloadViews);
+        bootstrap.whenCompleteAsync(this::bootstrapFinished, Platform::runLater);
+    }
+    
+    /**
+     * Opens the persistence, loads the inventory and starts the services.
+     * Runs on the bootstrap thread.
+     * @throws UncheckedIOException if a file of the services cannot be opened
+     */
+    private void bootstrap() {
     	try {
-    		this.entityManagerFactory = Persistence.createEntityManagerFactory("TicketDataPersistenceUnit");
-    		this.entityManager = entityManagerFactory.createEntityManager();
-    		this.ticketService = new TicketService(entityManager);
-    		this.ticketHandling = new TicketHandling();
-        	ticketService.initializeDatabase();
+    		long phase = startupTimer.begin();
+    		this.ticketStore = createTicketStore();
+    		startupTimer.end("persistence", phase);
+    		
+    		phase = startupTimer.begin();
+    		this.ticketService = new TicketService(ticketStore);
+    		int seeded = ticketService.initializeInventory();
+    		if (seeded > 0)
+    			logger.info(seeded + " grandstand(s) have been seeded with the initial amount");
+    		startupTimer.end("inventory", phase);
+    		
+    		phase = startupTimer.begin();
+    		this.asyncTicketService = new AsyncTicketService(ticketService,
+    				Integer.getInteger("ticketSystem.async.threads", AsyncTicketService.DEFAULT_THREADS));
+        	startWriteBehindLog();
+    		this.holdManager = new HoldManager(ticketService, HoldManager.DEFAULT_HOLD_MILLIS);
+    		this.orderJournal = new OrderJournal(Paths.get(System.getProperty("ticketSystem.orders.dir",
+    				Paths.get(System.getProperty("user.home"), ".ticketSystem", "orders").toString())),
+    				OrderJournal.DEFAULT_SEGMENT_SIZE);
+    		holdManager.setOrderJournal(orderJournal);
+    		startConfirmationMailer();
+    		startOrderSequencer();
+    		this.ticketHandling = new TicketHandling(holdManager);
+    		startCheckoutServer();
+    		startupTimer.end("services", phase);
         	logger.debug("Instances are ready");
-		} catch (Exception e) {
-	        logger.error("No connection with the database");;
+    	} catch (IOException e) {
+    		throw new UncheckedIOException(e);
+    	}
+    }
+    
+    /**
+     * Makes the start view usable after a successful bootstrap, or closes the application.
+     * Called on the JavaFX application thread.
+     * @param result unused, the bootstrap has no result
+     * @param error the cause of the failure, {@code null} if the bootstrap has succeeded
+     */
+    private void bootstrapFinished(Void result, Throwable error) {
+    	if (error != null)	{
+	        logger.error("No connection with the database", error);
 	        Alert alert = new Alert(AlertType.ERROR);
+	        alert.initOwner(primaryStage);
 	        alert.setTitle("Error");
 	        alert.setHeaderText("No connection");
 	        alert.setContentText("Sorry, there is no connection with the database");
 	        alert.showAndWait();
 	        Platform.exit();
-		}
-    	
-        logger.debug("Initial stage has been opened");
-        
-        initRootLayout();
-
-        showStartView();
+	        return;
+    	}
+    	long phase = startupTimer.begin();
+    	startViewController.setTicketHandling(ticketHandling);
+    	startViewController.setAsyncTicketService(asyncTicketService);
+    	startViewController.initStartView();
+    	startViewController.setLoading(false);
+    	startupTimer.end("start view", phase);
+    	logger.info("Startup: " + startupTimer.report());
+    }
+    
+    /**
+     * Creates the storage engine which is selected by the {@code ticketSystem.store} system property.
+     * The {@code local} engine keeps the ticket amounts in memory, or in the file given by
+     * the {@code ticketSystem.store.file} system property. Otherwise the database is used.
+     * @return the storage engine of the ticket amounts
+     * @throws IOException if the file of the local engine cannot be opened
+     */
+    private TicketStore createTicketStore() throws IOException {
+    	if ("local".equals(System.getProperty("ticketSystem.store")))	{
+    		String file = System.getProperty("ticketSystem.store.file");
+    		return file == null ? new LocalTicketStore() : new LocalTicketStore(Paths.get(file));
+    	}
+    	return new JpaTicketStore(Persistence.createEntityManagerFactory("TicketDataPersistenceUnit", persistenceProperties()));
+    }
+    
+    /**
+     * Returns the settings of the persistence unit which are given by system properties.
+     * The schema is validated, migrated or rebuilt as {@code ticketSystem.schema} says,
+     * with the values {@code validate}, {@code update} or {@code create}.
+     * The connection pool is sized by {@code ticketSystem.pool.size} and
+     * {@code ticketSystem.pool.timeoutMillis}.
+     * The settings which are not given are taken from the persistence unit.
+     * @return the settings of the persistence unit
+     */
+    private Map<String, String> persistenceProperties() {
+    	Map<String, String> properties = new HashMap<>();
+    	String schema = System.getProperty("ticketSystem.schema");
+    	if (schema != null)
+    		properties.put("hibernate.hbm2ddl.auto", schema);
+    	String size = System.getProperty("ticketSystem.pool.size");
+    	if (size != null)
+    		properties.put("hibernate.hikari.maximumPoolSize", size);
+    	String timeout = System.getProperty("ticketSystem.pool.timeoutMillis");
+    	if (timeout != null)
+    		properties.put("hibernate.hikari.connectionTimeout", timeout);
+    	return properties;
+    }
+    
+    /**
+     * Switches the TicketService to write-behind mode if the {@code ticketSystem.writeBehind.dir}
+     * system property gives the directory of the log. The flush interval and the maximal lag
+     * are given in milliseconds by {@code ticketSystem.writeBehind.flushMillis}
+     * and {@code ticketSystem.writeBehind.maxLagMillis}.
+     * @throws IOException if the log cannot be opened
+     */
+    private void startWriteBehindLog() throws IOException {
+    	String directory = System.getProperty("ticketSystem.writeBehind.dir");
+    	if (directory != null)	{
+    		writeBehindLog = new WriteBehindLog(ticketService, Paths.get(directory),
+    				Long.getLong("ticketSystem.writeBehind.flushMillis", WriteBehindLog.DEFAULT_FLUSH_MILLIS),
+    				Long.getLong("ticketSystem.writeBehind.maxLagMillis", WriteBehindLog.DEFAULT_MAX_LAG_MILLIS));
+    		ticketService.setWriteBehindLog(writeBehindLog);
+    		writeBehindLog.start();
+    	}
+    }
+    
+    /**
+     * Sells the confirmed holds of the views and of the checkout API through an order sequencer
+     * if the {@code ticketSystem.sequencer} system property is {@code true}.
+     * The sequencer needs the write-behind mode, without it the holds are sold one by one.
+     */
+    private void startOrderSequencer() {
+    	if (Boolean.getBoolean("ticketSystem.sequencer"))	{
+    		if (writeBehindLog == null)	{
+    			logger.warn("The order sequencer needs ticketSystem.writeBehind.dir, it is not started");
+    			return;
+    		}
+    		orderSequencer = new OrderSequencer(ticketService,
+    				Integer.getInteger("ticketSystem.sequencer.capacity", OrderSequencer.DEFAULT_CAPACITY));
+    		orderSequencer.start();
+    		holdManager.setOrderSequencer(orderSequencer);
+    	}
+    }
+    
+    /**
+     * Starts sending the confirmation e-mails if the {@code ticketSystem.mail.host} system property
+     * gives the SMTP server. The port, the user, the password and the sender are given by
+     * {@code ticketSystem.mail.port}, {@code ticketSystem.mail.user}, {@code ticketSystem.mail.password}
+     * and {@code ticketSystem.mail.from}, the number of the SMTP sessions by {@code ticketSystem.mail.sessions},
+     * and the outbox is kept under {@code ~/.ticketSystem/outbox}, or in {@code ticketSystem.mail.dir}.
+     * @throws IOException if the outbox cannot be opened
+     */
+    private void startConfirmationMailer() throws IOException {
+    	String host = System.getProperty("ticketSystem.mail.host");
+    	if (host != null)	{
+    		int sessions = Integer.getInteger("ticketSystem.mail.sessions", 2);
+    		MailOutbox outbox = new MailOutbox(Paths.get(System.getProperty("ticketSystem.mail.dir",
+    				Paths.get(System.getProperty("user.home"), ".ticketSystem", "outbox").toString())));
+    		SmtpMailTransport transport;
+    		try {
+    			transport = new SmtpMailTransport(host, Integer.getInteger("ticketSystem.mail.port", 25),
+    					System.getProperty("ticketSystem.mail.user"), System.getProperty("ticketSystem.mail.password"),
+    					System.getProperty("ticketSystem.mail.from", "tickets@localhost"), sessions);
+    		} catch (MessagingException e) {
+    			throw new IOException("Invalid sender of the confirmation e-mails", e);
+    		}
+    		confirmationMailer = new ConfirmationMailer(outbox, transport, sessions);
+    		confirmationMailer.start();
+    		holdManager.setConfirmationMailer(confirmationMailer);
+    	}
+    }
+    
+    /**
+     * Starts the HTTP checkout API if the {@code ticketSystem.api.port}
+     * system property gives its port. The idle time of the carts is given
+     * by {@code ticketSystem.api.sessionIdleMillis}, and the maximal number of the open carts
+     * by {@code ticketSystem.api.maxSessions}.
+     * @throws IOException if the port cannot be bound
+     */
+    private void startCheckoutServer() throws IOException {
+    	Integer port = Integer.getInteger("ticketSystem.api.port");
+    	if (port != null)	{
+    		checkoutServer = new CheckoutServer(ticketService, holdManager, new InetSocketAddress(port),
+    				Long.getLong("ticketSystem.api.sessionIdleMillis", CheckoutServer.DEFAULT_SESSION_IDLE_MILLIS),
+    				Integer.getInteger("ticketSystem.api.maxSessions", CheckoutServer.DEFAULT_MAX_SESSIONS));
+    		checkoutServer.start();
+    	}
     }
     
     /**
@@ -137,134 +447,107 @@ public class MainFX extends Application {
     }
     
     /**
-     * Opens a new stage with an image of the track map,
+     * Registers the dialog views, which are loaded once and reused by every showing.
+     */
+    private void registerViews() {
+    	viewRegistry = new ViewRegistry(primaryStage);
+    	mapImageCache = new MapImageCache(MAP_IMAGE, MapImageCache.DEFAULT_MAX_PIXELS);
+    	viewRegistry.register(MAP_VIEW, "Choose the proper grandstand!", (MapViewController controller, Stage dialogStage) -> {
+    		controller.setMapImageCache(mapImageCache);
+    		controller.setDialogStage(dialogStage);
+    	});
+    	viewRegistry.register(TICKET_VIEW, "These are the available ticket now",
+    			(TicketViewController controller, Stage dialogStage) -> controller.setDialogStage(dialogStage));
+    	viewRegistry.register(ORDER_VIEW, "Finalize your order!", (OrderViewController controller, Stage dialogStage) -> {
+    		controller.setDialogStage(dialogStage);
+    		controller.setMainFX(this);
+    	});
+    	viewRegistry.register(ACK_VIEW, "Ack",
+    			(AckViewController controller, Stage dialogStage) -> controller.setDialogStage(dialogStage));
+    }
+    
+    /**
+     * Loads the dialog views in advance, so the first click does not parse them either.
+     */
+    private void preloadViews() {
+    	long phase = startupTimer.begin();
+    	try {
+    		viewRegistry.preload();
+    		mapImageCache.preload();
+    	} catch (RuntimeException e) {
+    		logger.error("The views cannot be preloaded", e);
+    	}
+    	startupTimer.end("preload", phase);
+    }
+    
+    /**
+     * Opens a stage with an image of the track map,
      * that helps the user to utilize the application.
      */
     public void showMapView() {
-        try {
-            FXMLLoader loader = new FXMLLoader();
-            loader.setLocation(MainFX.class.getClassLoader().getResource("MapView.fxml"));
-            AnchorPane page = (AnchorPane) loader.load();
-
-            Stage dialogStage = new Stage();
-            dialogStage.setTitle("Choose the proper grandstand!");
-            dialogStage.initModality(Modality.WINDOW_MODAL);
-            dialogStage.initOwner(primaryStage);
-            Scene scene = new Scene(page);
-            dialogStage.setScene(scene);
-
-            logger.debug("Circuit map window has been opened");
+        ViewRegistry.View<MapViewController> view = viewRegistry.get(MAP_VIEW);
 
-            MapViewController controller = loader.getController();
-            controller.setDialogStage(dialogStage);
+        logger.debug("Circuit map window has been opened");
 
-            dialogStage.showAndWait();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        view.getStage().showAndWait();
     }
     
     /**
-     * Opens a new stage with the ticket database informations.
+     * Opens a stage with the ticket database informations.
      * Users can check the amounts of the tickets.
      */
     public void showTicketView() {
-        try {
-            FXMLLoader loader = new FXMLLoader();
-            loader.setLocation(MainFX.class.getClassLoader().getResource("TicketView.fxml"));
-            AnchorPane page = (AnchorPane) loader.load();
-
-            Stage dialogStage = new Stage();
-            dialogStage.setTitle("These are the available ticket now");
-            dialogStage.initModality(Modality.WINDOW_MODAL);
-            dialogStage.initOwner(primaryStage);
-            Scene scene = new Scene(page);
-            dialogStage.setScene(scene);
+        ViewRegistry.View<TicketViewController> view = viewRegistry.get(TICKET_VIEW);
+        view.getController().setTicketService(ticketService);
 
-            logger.debug("Ticket available window has been opened");
+        logger.debug("Ticket available window has been opened");
 
-            TicketViewController controller = loader.getController();
-            controller.setTicketService(ticketService);
-            controller.setDialogStage(dialogStage);
-
-            dialogStage.showAndWait();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        view.getStage().showAndWait();
     }
     
     /**
-     * Opens a new stage when the user clicks on the Next button of the StartView
+     * Opens a stage when the user clicks on the Next button of the StartView
      * to ask for personal informations and finalize the order.
      * Shows the OrderView fxml file.
      * @param person the person who gives personal informations to order
+     * @param ticketHold the tickets which are held while the order is finalized
      * @return {@code true} if the user clicked on the Order button of the OrderView,
      * {@code false} otherwise
      */
-    public boolean showOrderView(Person person) {
-        try {
-            FXMLLoader loader = new FXMLLoader();
-            loader.setLocation(MainFX.class.getClassLoader().getResource("OrderView.fxml"));
-            AnchorPane page = (AnchorPane) loader.load();
+    public boolean showOrderView(Person person, TicketHold ticketHold) {
+        ViewRegistry.View<OrderViewController> view = viewRegistry.get(ORDER_VIEW);
+        OrderViewController controller = view.getController();
+        controller.setTicketHandling(ticketHandling);
+        controller.setAsyncTicketService(asyncTicketService);
+        controller.setPerson(person);
+        controller.setTicketHold(ticketHold);
 
-            Stage dialogStage = new Stage();
-            dialogStage.setTitle("Finalize your order!");
-            dialogStage.initModality(Modality.WINDOW_MODAL);
-            dialogStage.initOwner(primaryStage);
-            Scene scene = new Scene(page);
-            dialogStage.setScene(scene);
-            
-            logger.debug("Order window has been opened");
+        logger.debug("Order window has been opened");
 
-            OrderViewController controller = loader.getController();
-            controller.setDialogStage(dialogStage);
-            controller.setMainFX(this);
-            controller.setPerson(person);
-            controller.setTicketService(ticketService);
-            controller.setTicketHandling(ticketHandling);
-
-            dialogStage.showAndWait();
-            return controller.isOrderClicked();
-        } catch (IOException e) {
-            e.printStackTrace();
-            return false;
-        }
+        view.getStage().showAndWait();
+        return controller.isOrderClicked();
     }
     
     /**
-     * Opens a new stage when the user clicks on the Order button of the OrderView
+     * Opens a stage when the user clicks on the Order button of the OrderView
      * to finalize the order. Shows the AckView fxml file.
      * @param person the person who has been sent the order and whose informations
      * is displayed on the AckView
      */
     public void showAckView(Person person) {
-        try {
-            FXMLLoader loader = new FXMLLoader();
-            loader.setLocation(MainFX.class.getClassLoader().getResource("AckView.fxml"));
-            AnchorPane page = (AnchorPane) loader.load();
-
-            Stage dialogStage = new Stage();
-            dialogStage.setTitle("Ack");
-            dialogStage.initModality(Modality.WINDOW_MODAL);
-            dialogStage.initOwner(primaryStage);
-            Scene scene = new Scene(page);
-            dialogStage.setScene(scene);
-            
-            logger.debug("Acknowledge window has been opened");
+        ViewRegistry.View<AckViewController> view = viewRegistry.get(ACK_VIEW);
+        view.getController().setPerson(person);
 
-            AckViewController controller = loader.getController();
-            controller.setPerson(person);
-            controller.setDialogStage(dialogStage);
+        logger.debug("Acknowledge window has been opened");
 
-            dialogStage.showAndWait();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        view.getStage().showAndWait();
     }
 
+
     /**
      * Shows the initial view of this application. Materalizes the start point of
-     * this application with the StartView fxml.
+     * this application with the StartView fxml. The view is loading until the
+     * bootstrap has finished.
      */
     public void showStartView() {
         try {
@@ -274,11 +557,9 @@ public class MainFX extends Application {
             
             logger.debug("Start window has been opened");
             
-            StartViewController controller = loader.getController();
-            controller.setMainFX(this);
-            controller.setTicketService(ticketService);
-            controller.setTicketHandling(ticketHandling);
-            controller.initStartView();
+            startViewController = loader.getController();
+            startViewController.setMainFX(this);
+            startViewController.setLoading(true);
 
             rootLayout.setCenter(startView);
         } catch (IOException e) {
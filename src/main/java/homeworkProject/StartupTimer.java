@@ -0,0 +1,75 @@
+package homeworkProject;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class for measuring the phases of the startup of the application.
+ * The phases may run on different threads, e.g. the views are loaded on the
+ * JavaFX application thread while the persistence is bootstrapped in the background,
+ * so the report contains the time of every phase and the time since the start.
+ *
+ * @author Mario Posta
+ */
+public class StartupTimer {
+
+	/**
+	 * Time of the start of the application in nanoseconds.
+	 */
+	private final long startNanos;
+
+	/**
+	 * Durations of the finished phases in nanoseconds, in the order of their finish.
+	 */
+	private final Map<String, Long> phases = new LinkedHashMap<>();
+
+	/**
+	 * Constructor for StartupTimer, which starts the timer.
+	 */
+	public StartupTimer() {
+		this.startNanos = System.nanoTime();
+	}
+
+	/**
+	 * Returns the current time to start a phase with.
+	 * @return the current time in nanoseconds
+	 */
+	public long begin() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * Records the duration of a finished phase.
+	 * @param phase the name of the phase
+	 * @param beginNanos the start of the phase which has been returned by {@link #begin()}
+	 */
+	public synchronized void end(String phase, long beginNanos) {
+		phases.put(phase, System.nanoTime() - beginNanos);
+	}
+
+	/**
+	 * Returns the durations of the finished phases.
+	 * @return the durations in milliseconds keyed by the name of the phase
+	 */
+	public synchronized Map<String, Long> getPhases() {
+		Map<String, Long> millis = new LinkedHashMap<>();
+		for (Map.Entry<String, Long> phase : phases.entrySet()) {
+			millis.put(phase.getKey(), TimeUnit.NANOSECONDS.toMillis(phase.getValue()));
+		}
+		return millis;
+	}
+
+	/**
+	 * Returns the report of the finished phases and the time since the start.
+	 * @return the report, e.g. {@code "views 180 ms, persistence 2400 ms, total 2450 ms"}
+	 */
+	public String report() {
+		StringBuilder report = new StringBuilder();
+		for (Map.Entry<String, Long> phase : getPhases().entrySet()) {
+			report.append(phase.getKey()).append(' ').append(phase.getValue()).append(" ms, ");
+		}
+		return report.append("total ").append(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos))
+				.append(" ms").toString();
+	}
+}
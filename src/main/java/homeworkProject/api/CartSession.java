@@ -0,0 +1,141 @@
+package homeworkProject.api;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import homeworkProject.businessLogic.HoldManager;
+import homeworkProject.businessLogic.TicketHandling;
+import homeworkProject.businessLogic.TicketHold;
+import homeworkProject.businessLogic.TimingWheel;
+
+/**
+ * Class for representing the checkout session of one client of the HTTP API.
+ * The shopping cart and the hold of a session must be used while holding its lock, which is a
+ * {@link ReentrantLock}, so a virtual thread waiting for it does not pin its carrier thread.
+ *
+ * @author Mario Posta
+ */
+class CartSession {
+
+	/**
+	 * Identifier of the session.
+	 */
+	private final String id;
+
+	/**
+	 * TicketHandling for managing the shopping cart of the session.
+	 */
+	private final TicketHandling ticketHandling;
+
+	/**
+	 * The tickets which are held for the session, {@code null} if there is no hold.
+	 */
+	private TicketHold ticketHold;
+
+	/**
+	 * Lock of the session, which serializes the requests of the session.
+	 */
+	private final ReentrantLock lock = new ReentrantLock();
+
+	/**
+	 * The monotonic time of the last request of the session in milliseconds.
+	 */
+	private volatile long lastAccessMillis;
+
+	/**
+	 * The scheduled expiry of the session, {@code null} if it has not been scheduled.
+	 */
+	private volatile TimingWheel.Timeout expiry;
+
+	/**
+	 * Constructor for this class.
+	 * @param id the identifier of the session
+	 * @param holdManager the holdManager object to hold and sell the tickets
+	 */
+	CartSession(String id, HoldManager holdManager) {
+		this.id = id;
+		this.ticketHandling = new TicketHandling(holdManager);
+	}
+
+	/**
+	 * Returns the identifier of the session.
+	 * @return the identifier of the session
+	 */
+	String getId() {
+		return id;
+	}
+
+	/**
+	 * Returns the TicketHandling of the session.
+	 * @return the TicketHandling of the session
+	 */
+	TicketHandling getTicketHandling() {
+		return ticketHandling;
+	}
+
+	/**
+	 * Returns the lock of the session.
+	 * @return the lock of the session
+	 */
+	ReentrantLock getLock() {
+		return lock;
+	}
+
+	/**
+	 * Returns the monotonic time of the last request of the session.
+	 * @return the time of the last request in milliseconds
+	 */
+	long getLastAccessMillis() {
+		return lastAccessMillis;
+	}
+
+	/**
+	 * Records a request of the session, so it is not expired while it is in use.
+	 * @param nowMillis the monotonic time of the request in milliseconds
+	 */
+	void touch(long nowMillis) {
+		this.lastAccessMillis = nowMillis;
+	}
+
+	/**
+	 * Returns the scheduled expiry of the session.
+	 * @return the expiry of the session, {@code null} if it has not been scheduled
+	 */
+	TimingWheel.Timeout getExpiry() {
+		return expiry;
+	}
+
+	/**
+	 * Sets the scheduled expiry of the session.
+	 * @param expiry the expiry of the session
+	 */
+	void setExpiry(TimingWheel.Timeout expiry) {
+		this.expiry = expiry;
+	}
+
+	/**
+	 * Returns the tickets which are held for the session.
+	 * @return the hold of the session, {@code null} if there is no hold
+	 */
+	TicketHold getTicketHold() {
+		return ticketHold;
+	}
+
+	/**
+	 * Sets the tickets which are held for the session.
+	 * @param ticketHold the hold of the session
+	 */
+	void setTicketHold(TicketHold ticketHold) {
+		this.ticketHold = ticketHold;
+	}
+
+	/**
+	 * Releases the hold of the session if there is one.
+	 * Called when the shopping cart changes or the session ends.
+	 */
+	void releaseHold() {
+		if (ticketHold != null) {
+			ticketHandling.releaseHold(ticketHold);
+			ticketHold = null;
+		}
+	}
+}
@@ -0,0 +1,726 @@
+package homeworkProject.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import homeworkProject.businessLogic.HoldManager;
+import homeworkProject.businessLogic.TicketHandling;
+import homeworkProject.businessLogic.TicketHold;
+import homeworkProject.businessLogic.TimingWheel;
+import homeworkProject.data.CheckoutResult;
+import homeworkProject.data.TicketService;
+import homeworkProject.model.Grandstand;
+import homeworkProject.model.Person;
+import homeworkProject.model.Ticket;
+
+/**
+ * Class for serving the checkout of the Ticket System over HTTP,
+ * so web and partner channels sell the same inventory as the desktop application.
+ * Every request runs on its own virtual thread when the JVM supports them,
+ * otherwise on a cached thread pool.
+ * <p>
+ * Endpoints, request bodies are form encoded, responses are JSON:
+ * <ul>
+ * <li>{@code GET /availability} the available amount of every grandstand</li>
+ * <li>{@code POST /carts} creates a shopping cart</li>
+ * <li>{@code GET /carts/{id}} the content of the shopping cart</li>
+ * <li>{@code DELETE /carts/{id}} drops the shopping cart and releases its hold</li>
+ * <li>{@code POST /carts/{id}/lines} adds {@code amount} tickets of {@code type}</li>
+ * <li>{@code DELETE /carts/{id}/lines/{type}} removes the tickets of the type</li>
+ * <li>{@code GET /carts/{id}/availability} the missing tickets of the shopping cart by type,
+ * without holding them</li>
+ * <li>{@code POST /carts/{id}/hold} holds the tickets of the shopping cart</li>
+ * <li>{@code POST /carts/{id}/checkout} sells the tickets to the person given by
+ * {@code name}, {@code email}, {@code telephone}, {@code postalCode}, {@code city}
+ * and {@code street}</li>
+ * </ul>
+ * A checkout with an {@code Idempotency-Key} header is run only once for the key,
+ * a retried request gets the original result, even after the cart has been dropped.
+ * The checkouts go through the order sequencer of the holdManager if it has one.
+ * A cart which has not been used for the idle time of the sessions is dropped
+ * and its hold is released by the timing wheel of the holds. The number of the open carts
+ * is limited, a new cart is refused with 503 while the limit is reached.
+ *
+ * @author Mario Posta
+ */
+public class CheckoutServer {
+
+	/**
+	 * Default idle time of a checkout session in milliseconds.
+	 */
+	public static final long DEFAULT_SESSION_IDLE_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+	/**
+	 * Default maximal number of the open checkout sessions.
+	 */
+	public static final int DEFAULT_MAX_SESSIONS = 10000;
+
+	/**
+	 * Logger for tracking the application.
+	 */
+	private Logger logger = LoggerFactory.getLogger(CheckoutServer.class);
+
+	/**
+	 * Prefix of the paths of the shopping carts.
+	 */
+	private static final String CARTS = "/carts";
+
+	/**
+	 * Header of the idempotency key of the checkout.
+	 */
+	private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+	/**
+	 * TicketService for reading the inventory.
+	 */
+	private final TicketService ticketService;
+
+	/**
+	 * HoldManager for holding and selling the tickets of the shopping carts.
+	 */
+	private final HoldManager holdManager;
+
+	/**
+	 * The open checkout sessions keyed by their identifier.
+	 */
+	private final Map<String, CartSession> sessions = new ConcurrentHashMap<>();
+
+	/**
+	 * Time in milliseconds after the last request of a session when the session expires.
+	 */
+	private final long sessionIdleMillis;
+
+	/**
+	 * Maximal number of the open checkout sessions.
+	 */
+	private final int maxSessions;
+
+	/**
+	 * Number of the open checkout sessions, including the sessions which are being created.
+	 */
+	private final AtomicInteger sessionCount = new AtomicInteger();
+
+	/**
+	 * The embedded HTTP server.
+	 */
+	private final HttpServer server;
+
+	/**
+	 * Executor which runs the requests.
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * Constructor for this class with the default idle time of the sessions.
+	 * The server is bound but not started.
+	 * @param ticketService the ticketService object to read the inventory
+	 * @param holdManager the holdManager object to hold and sell the tickets
+	 * @param address the address to bind, port {@code 0} chooses a free port
+	 * @throws IOException if the address cannot be bound
+	 */
+	public CheckoutServer(TicketService ticketService, HoldManager holdManager, InetSocketAddress address)
+			throws IOException {
+		this(ticketService, holdManager, address, DEFAULT_SESSION_IDLE_MILLIS);
+	}
+
+	/**
+	 * Constructor for this class with the default maximal number of the sessions.
+	 * The server is bound but not started.
+	 * @param ticketService the ticketService object to read the inventory
+	 * @param holdManager the holdManager object to hold and sell the tickets
+	 * @param address the address to bind, port {@code 0} chooses a free port
+	 * @param sessionIdleMillis the time in milliseconds after the last request of a session when the session expires
+	 * @throws IOException if the address cannot be bound
+	 * @throws IllegalArgumentException if the idle time is not positive
+	 */
+	public CheckoutServer(TicketService ticketService, HoldManager holdManager, InetSocketAddress address,
+			long sessionIdleMillis) throws IOException {
+		this(ticketService, holdManager, address, sessionIdleMillis, DEFAULT_MAX_SESSIONS);
+	}
+
+	/**
+	 * Constructor for this class. The server is bound but not started.
+	 * @param ticketService the ticketService object to read the inventory
+	 * @param holdManager the holdManager object to hold and sell the tickets
+	 * @param address the address to bind, port {@code 0} chooses a free port
+	 * @param sessionIdleMillis the time in milliseconds after the last request of a session when the session expires
+	 * @param maxSessions the maximal number of the open sessions
+	 * @throws IOException if the address cannot be bound
+	 * @throws IllegalArgumentException if the idle time or the maximal number of the sessions is not positive
+	 */
+	public CheckoutServer(TicketService ticketService, HoldManager holdManager, InetSocketAddress address,
+			long sessionIdleMillis, int maxSessions) throws IOException {
+		if (sessionIdleMillis <= 0)
+			throw new IllegalArgumentException("The idle time of the sessions must be positive: " + sessionIdleMillis);
+		if (maxSessions <= 0)
+			throw new IllegalArgumentException("The maximal number of the sessions must be positive: " + maxSessions);
+		this.ticketService = ticketService;
+		this.holdManager = holdManager;
+		this.sessionIdleMillis = sessionIdleMillis;
+		this.maxSessions = maxSessions;
+		this.executor = newRequestExecutor();
+		this.server = HttpServer.create(address, 0);
+		this.server.createContext("/availability", this::handleAvailability);
+		this.server.createContext(CARTS, this::handleCarts);
+		this.server.setExecutor(executor);
+	}
+
+	/**
+	 * Starts serving the requests.
+	 */
+	public void start() {
+		server.start();
+		logger.info("Checkout API is listening on port " + getPort());
+	}
+
+	/**
+	 * Stops the server, releases the holds of the open sessions
+	 * and stops the executor.
+	 */
+	public void stop() {
+		server.stop(0);
+		for (CartSession session : sessions.values()) {
+			ReentrantLock lock = session.getLock();
+			lock.lock();
+			try {
+				cancelExpiry(session);
+				session.releaseHold();
+			} finally {
+				lock.unlock();
+			}
+		}
+		sessions.clear();
+		sessionCount.set(0);
+		executor.shutdown();
+		logger.info("Checkout API has been stopped");
+	}
+
+	/**
+	 * Returns the port where the server is listening.
+	 * @return the port of the server
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Creates the executor of the requests. Uses one virtual thread per request
+	 * if the JVM supports them, otherwise a cached pool of platform threads.
+	 * @return the executor of the requests
+	 */
+	static ExecutorService newRequestExecutor() {
+		try {
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool();
+		}
+	}
+
+	/**
+	 * Handles the requests of the availability.
+	 * @param exchange the HTTP request and response
+	 * @throws IOException if the response cannot be sent
+	 */
+	private void handleAvailability(HttpExchange exchange) throws IOException {
+		try {
+			if (!"GET".equals(exchange.getRequestMethod())) {
+				sendError(exchange, 405, "Method not allowed");
+				return;
+			}
+			send(exchange, 200, appendAmounts(new StringBuilder(), ticketService.getInventory().snapshot()).toString());
+		} catch (RuntimeException e) {
+			logger.error("Availability request has failed", e);
+			sendError(exchange, 500, "Internal error");
+		}
+	}
+
+	/**
+	 * Handles the requests of the shopping carts.
+	 * @param exchange the HTTP request and response
+	 * @throws IOException if the response cannot be sent
+	 */
+	private void handleCarts(HttpExchange exchange) throws IOException {
+		try {
+			String method = exchange.getRequestMethod();
+			String[] path = exchange.getRequestURI().getRawPath().substring(CARTS.length()).split("/");
+			if (path.length <= 1) {
+				if ("POST".equals(method))
+					createCart(exchange);
+				else
+					sendError(exchange, 405, "Method not allowed");
+				return;
+			}
+
+			CartSession session = sessions.get(path[1]);
+			String action = path.length > 2 ? path[2] : "";
+			if (session != null) {
+				ReentrantLock lock = session.getLock();
+				lock.lock();
+				try {
+					if (sessions.get(session.getId()) == session) {
+						session.touch(TimingWheel.monotonicMillis());
+						handleSession(exchange, session, method, path, action);
+						return;
+					}
+				} finally {
+					lock.unlock();
+				}
+			}
+			if ("checkout".equals(action) && "POST".equals(method))
+				replayCheckout(exchange);
+			else
+				sendError(exchange, 404, "Unknown cart");
+		} catch (RuntimeException e) {
+			logger.error("Cart request has failed", e);
+			sendError(exchange, 500, "Internal error");
+		}
+	}
+
+	/**
+	 * Handles a request of an open checkout session. Called while holding the lock of the session.
+	 * @param exchange the HTTP request and response
+	 * @param session the checkout session
+	 * @param method the HTTP method
+	 * @param path the segments of the path after the prefix of the shopping carts
+	 * @param action the segment of the path after the identifier of the session
+	 * @throws IOException if the request cannot be read or the response cannot be sent
+	 */
+	private void handleSession(HttpExchange exchange, CartSession session, String method, String[] path,
+			String action) throws IOException {
+		if (action.isEmpty() && "GET".equals(method))
+			send(exchange, 200, cartJson(session));
+		else if (action.isEmpty() && "DELETE".equals(method))
+			deleteCart(exchange, session);
+		else if ("lines".equals(action) && path.length == 3 && "POST".equals(method))
+			addLine(exchange, session);
+		else if ("lines".equals(action) && path.length == 4 && "DELETE".equals(method))
+			removeLine(exchange, session, decode(path[3]));
+		else if ("availability".equals(action) && "GET".equals(method))
+			checkAvailability(exchange, session);
+		else if ("hold".equals(action) && "POST".equals(method))
+			hold(exchange, session);
+		else if ("checkout".equals(action) && "POST".equals(method))
+			checkout(exchange, session);
+		else
+			sendError(exchange, 404, "Unknown endpoint");
+	}
+
+	/**
+	 * Creates a new checkout session, or refuses it with 503 if the maximal number of the sessions is open.
+	 * @param exchange the HTTP request and response
+	 * @throws IOException if the response cannot be sent
+	 */
+	private void createCart(HttpExchange exchange) throws IOException {
+		int count;
+		do {
+			count = sessionCount.get();
+			if (count >= maxSessions) {
+				logger.warn("The maximal number of the carts is open");
+				sendError(exchange, 503, "Too many open carts");
+				return;
+			}
+		} while (!sessionCount.compareAndSet(count, count + 1));
+		CartSession session = new CartSession(UUID.randomUUID().toString(), holdManager);
+		session.touch(TimingWheel.monotonicMillis());
+		sessions.put(session.getId(), session);
+		scheduleExpiry(session, sessionIdleMillis);
+		StringBuilder json = new StringBuilder("{\"cartId\":");
+		appendString(json, session.getId()).append('}');
+		send(exchange, 201, json.toString());
+	}
+
+	/**
+	 * Drops the checkout session and releases its hold.
+	 * @param exchange the HTTP request and response
+	 * @param session the checkout session
+	 * @throws IOException if the response cannot be sent
+	 */
+	private void deleteCart(HttpExchange exchange, CartSession session) throws IOException {
+		session.releaseHold();
+		removeSession(session);
+		exchange.sendResponseHeaders(204, -1);
+		exchange.close();
+	}
+
+	/**
+	 * Removes the checkout session and cancels its expiry.
+	 * @param session the checkout session
+	 */
+	private void removeSession(CartSession session) {
+		if (sessions.remove(session.getId(), session))
+			sessionCount.decrementAndGet();
+		cancelExpiry(session);
+	}
+
+	/**
+	 * Schedules the expiry of the session on the timing wheel of the holds.
+	 * @param session the checkout session
+	 * @param delayMillis the delay of the expiry in milliseconds
+	 */
+	private void scheduleExpiry(CartSession session, long delayMillis) {
+		session.setExpiry(holdManager.schedule(() -> expireSession(session), delayMillis));
+	}
+
+	/**
+	 * Cancels the scheduled expiry of the session.
+	 * @param session the checkout session
+	 */
+	private static void cancelExpiry(CartSession session) {
+		TimingWheel.Timeout expiry = session.getExpiry();
+		if (expiry != null)
+			expiry.cancel();
+	}
+
+	/**
+	 * Drops the session and releases its hold if it has been idle for the idle time of the sessions,
+	 * otherwise schedules the expiry again for the end of its idle time. Runs on the thread of the
+	 * timing wheel, so it never waits for the lock of a session which is in use.
+	 * @param session the checkout session
+	 */
+	private void expireSession(CartSession session) {
+		if (sessions.get(session.getId()) != session)
+			return;
+		long remaining = sessionIdleMillis;
+		ReentrantLock lock = session.getLock();
+		if (lock.tryLock()) {
+			try {
+				remaining = session.getLastAccessMillis() + sessionIdleMillis - TimingWheel.monotonicMillis();
+				if (remaining <= 0) {
+					if (sessions.remove(session.getId(), session)) {
+						sessionCount.decrementAndGet();
+						session.releaseHold();
+						logger.debug("Cart session has expired");
+					}
+					return;
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+		if (sessions.get(session.getId()) == session)
+			scheduleExpiry(session, remaining);
+	}
+
+	/**
+	 * Adds tickets to the shopping cart of the session.
+	 * @param exchange the HTTP request and response
+	 * @param session the checkout session
+	 * @throws IOException if the request cannot be read or the response cannot be sent
+	 */
+	private void addLine(HttpExchange exchange, CartSession session) throws IOException {
+		Map<String, String> form = readForm(exchange);
+		Grandstand grandstand = Grandstand.fromType(form.get("type"));
+		if (grandstand == null) {
+			sendError(exchange, 400, "Unknown grandstand");
+			return;
+		}
+		if (!session.getTicketHandling().addToCart(grandstand, form.get("amount"))) {
+			sendError(exchange, 400, "Please give an integer which is greater than 0");
+			return;
+		}
+		session.releaseHold();
+		send(exchange, 200, cartJson(session));
+	}
+
+	/**
+	 * Removes the tickets of a type from the shopping cart of the session.
+	 * @param exchange the HTTP request and response
+	 * @param session the checkout session
+	 * @param type the type of the ticket
+	 * @throws IOException if the response cannot be sent
+	 */
+	private void removeLine(HttpExchange exchange, CartSession session, String type) throws IOException {
+		session.getTicketHandling().removeFromCart(new Ticket(type, 0, 0));
+		session.releaseHold();
+		send(exchange, 200, cartJson(session));
+	}
+
+	/**
+	 * Checks every line of the shopping cart of the session at once, without holding the tickets.
+	 * @param exchange the HTTP request and response
+	 * @param session the checkout session
+	 * @throws IOException if the response cannot be sent
+	 */
+	private void checkAvailability(HttpExchange exchange, CartSession session) throws IOException {
+		Map<String, Integer> shortfalls = ticketService.checkAvailableTickets(session.getTicketHandling().getShoppingCart());
+		StringBuilder json = new StringBuilder("{\"available\":").append(shortfalls.isEmpty())
+				.append(",\"shortfalls\":");
+		send(exchange, 200, appendAmounts(json, shortfalls).append('}').toString());
+	}
+
+	/**
+	 * Holds the tickets of the shopping cart of the session.
+	 * @param exchange the HTTP request and response
+	 * @param session the checkout session
+	 * @throws IOException if the response cannot be sent
+	 */
+	private void hold(HttpExchange exchange, CartSession session) throws IOException {
+		TicketHandling ticketHandling = session.getTicketHandling();
+		if (ticketHandling.isShoppingCartEmpty()) {
+			sendError(exchange, 400, "Shopping cart is empty");
+			return;
+		}
+		session.releaseHold();
+		TicketHold ticketHold = ticketHandling.holdShoppingCart();
+		StringBuilder json = new StringBuilder("{\"holdId\":").append(ticketHold.getId())
+				.append(",\"active\":").append(ticketHold.isActive())
+				.append(",\"rejected\":");
+		appendStrings(json, ticketHold.getReservation().getRejectedTypes()).append(",\"shortfalls\":");
+		appendAmounts(json, ticketHold.getReservation().getShortfalls()).append('}');
+		if (ticketHold.isActive())
+			session.setTicketHold(ticketHold);
+		send(exchange, ticketHold.isActive() ? 200 : 409, json.toString());
+	}
+
+	/**
+	 * Answers a retried checkout of a dropped cart with the original result.
+	 * @param exchange the HTTP request and response
+	 * @throws IOException if the response cannot be sent
+	 */
+	private void replayCheckout(HttpExchange exchange) throws IOException {
+		String idempotencyKey = exchange.getRequestHeaders().getFirst(IDEMPOTENCY_KEY);
+		CheckoutResult result = idempotencyKey == null ? null : ticketService.findCheckout(idempotencyKey);
+		if (result == null) {
+			sendError(exchange, 404, "Unknown cart");
+			return;
+		}
+		send(exchange, result.isSuccessful() ? 200 : 409, checkoutJson(result, result.getTotalPrice()));
+	}
+
+	/**
+	 * Sells the tickets of the shopping cart of the session.
+	 * Holds the tickets first if they are not held yet.
+	 * @param exchange the HTTP request and response
+	 * @param session the checkout session
+	 * @throws IOException if the request cannot be read or the response cannot be sent
+	 */
+	private void checkout(HttpExchange exchange, CartSession session) throws IOException {
+		TicketHandling ticketHandling = session.getTicketHandling();
+		Map<String, String> form = readForm(exchange);
+		String errorMessage = ticketHandling.isInputValidPerson(form.get("name"), form.get("email"),
+				form.get("telephone"), form.get("postalCode"), form.get("city"), form.get("street"));
+		if (errorMessage != null) {
+			sendError(exchange, 400, errorMessage.trim());
+			return;
+		}
+		if (ticketHandling.isShoppingCartEmpty()) {
+			sendError(exchange, 400, "Shopping cart is empty");
+			return;
+		}
+
+		TicketHold ticketHold = session.getTicketHold();
+		if (ticketHold == null)
+			ticketHold = ticketHandling.holdShoppingCart();
+		session.setTicketHold(null);
+		Person customer = new Person(form.get("name"), form.get("email"), form.get("telephone"),
+				form.get("postalCode"), form.get("city"), form.get("street"));
+		String idempotencyKey = exchange.getRequestHeaders().getFirst(IDEMPOTENCY_KEY);
+		CheckoutResult result = ticketHold.isActive()
+				? ticketHandling.checkout(ticketHold, customer, idempotencyKey) : ticketHold.getReservation();
+		if (result.isSuccessful())
+			removeSession(session);
+		send(exchange, result.isSuccessful() ? 200 : 409, checkoutJson(result, ticketHandling.getTotalPrice()));
+	}
+
+	/**
+	 * Creates the JSON representation of the result of a checkout.
+	 * @param result the result of the checkout
+	 * @param totalPrice the total price of the shopping cart
+	 * @return the result of the checkout as JSON
+	 */
+	private static String checkoutJson(CheckoutResult result, int totalPrice) {
+		StringBuilder json = new StringBuilder("{\"successful\":").append(result.isSuccessful())
+				.append(",\"total\":").append(totalPrice)
+				.append(",\"replayed\":").append(result.isReplayed())
+				.append(",\"lines\":[");
+		List<CheckoutResult.Line> lines = result.getLines();
+		for (int i = 0; i < lines.size(); i++) {
+			if (i > 0)
+				json.append(',');
+			json.append("{\"type\":");
+			appendString(json, lines.get(i).getType())
+					.append(",\"amount\":").append(lines.get(i).getAmount())
+					.append(",\"accepted\":").append(lines.get(i).isAccepted()).append('}');
+		}
+		json.append("],\"shortfalls\":");
+		return appendAmounts(json, result.getShortfalls()).append('}').toString();
+	}
+
+	/**
+	 * Creates the JSON representation of the shopping cart of the session.
+	 * @param session the checkout session
+	 * @return the shopping cart as JSON
+	 */
+	private static String cartJson(CartSession session) {
+		TicketHandling ticketHandling = session.getTicketHandling();
+		StringBuilder json = new StringBuilder("{\"cartId\":");
+		appendString(json, session.getId()).append(",\"held\":").append(session.getTicketHold() != null)
+				.append(",\"total\":").append(ticketHandling.getTotalPrice()).append(",\"lines\":[");
+		List<Ticket> cart = ticketHandling.getShoppingCart();
+		for (int i = 0; i < cart.size(); i++) {
+			if (i > 0)
+				json.append(',');
+			json.append("{\"type\":");
+			appendString(json, cart.get(i).getType())
+					.append(",\"amount\":").append(cart.get(i).getAmount())
+					.append(",\"price\":").append(cart.get(i).getPrice()).append('}');
+		}
+		return json.append("]}").toString();
+	}
+
+	/**
+	 * Reads the form encoded body and the query parameters of the request.
+	 * @param exchange the HTTP request and response
+	 * @return the parameters of the request
+	 * @throws IOException if the body cannot be read
+	 */
+	private static Map<String, String> readForm(HttpExchange exchange) throws IOException {
+		Map<String, String> form = new HashMap<>();
+		parseForm(exchange.getRequestURI().getRawQuery(), form);
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		try (InputStream in = exchange.getRequestBody()) {
+			byte[] buffer = new byte[1024];
+			int read;
+			while ((read = in.read(buffer)) != -1)
+				body.write(buffer, 0, read);
+		}
+		parseForm(new String(body.toByteArray(), StandardCharsets.UTF_8), form);
+		return form;
+	}
+
+	/**
+	 * Parses form encoded parameters.
+	 * @param encoded the form encoded parameters, may be {@code null}
+	 * @param form the map to put the parameters to
+	 */
+	private static void parseForm(String encoded, Map<String, String> form) {
+		if (encoded == null || encoded.isEmpty())
+			return;
+		for (String pair : encoded.split("&")) {
+			int separator = pair.indexOf('=');
+			if (separator > 0)
+				form.put(decode(pair.substring(0, separator)), decode(pair.substring(separator + 1)));
+		}
+	}
+
+	/**
+	 * Decodes a URL encoded text.
+	 * @param text the encoded text
+	 * @return the decoded text
+	 */
+	private static String decode(String text) {
+		try {
+			return URLDecoder.decode(text, "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Appends a JSON string.
+	 * @param json the JSON to append to
+	 * @param text the text of the string
+	 * @return the given JSON
+	 */
+	private static StringBuilder appendString(StringBuilder json, String text) {
+		json.append('"');
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == '"' || c == '\\')
+				json.append('\\').append(c);
+			else if (c == '\n')
+				json.append("\\n");
+			else if (c < 0x20)
+				json.append(String.format("\\u%04x", (int) c));
+			else
+				json.append(c);
+		}
+		return json.append('"');
+	}
+
+	/**
+	 * Appends a JSON array of strings.
+	 * @param json the JSON to append to
+	 * @param texts the texts of the strings
+	 * @return the given JSON
+	 */
+	private static StringBuilder appendStrings(StringBuilder json, List<String> texts) {
+		json.append('[');
+		for (int i = 0; i < texts.size(); i++) {
+			if (i > 0)
+				json.append(',');
+			appendString(json, texts.get(i));
+		}
+		return json.append(']');
+	}
+
+	/**
+	 * Appends a JSON object of amounts keyed by the type of the ticket.
+	 * @param json the JSON to append to
+	 * @param amounts the amounts keyed by the type of the ticket
+	 * @return the given JSON
+	 */
+	private static StringBuilder appendAmounts(StringBuilder json, Map<String, Integer> amounts) {
+		json.append('{');
+		boolean first = true;
+		for (Map.Entry<String, Integer> amount : amounts.entrySet()) {
+			if (!first)
+				json.append(',');
+			appendString(json, amount.getKey()).append(':').append(amount.getValue());
+			first = false;
+		}
+		return json.append('}');
+	}
+
+	/**
+	 * Sends an error response.
+	 * @param exchange the HTTP request and response
+	 * @param status the HTTP status code
+	 * @param message the message of the error
+	 * @throws IOException if the response cannot be sent
+	 */
+	private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+		StringBuilder json = new StringBuilder("{\"error\":");
+		send(exchange, status, appendString(json, message).append('}').toString());
+	}
+
+	/**
+	 * Sends a JSON response.
+	 * @param exchange the HTTP request and response
+	 * @param status the HTTP status code
+	 * @param json the body of the response
+	 * @throws IOException if the response cannot be sent
+	 */
+	private static void send(HttpExchange exchange, int status, String json) throws IOException {
+		byte[] body = json.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+		exchange.sendResponseHeaders(status, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+}
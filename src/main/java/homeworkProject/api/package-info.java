@@ -0,0 +1,8 @@
+/**
+ * 
+ */
+/**
+ * @author Mario Posta
+ *
+ */
+package homeworkProject.api;
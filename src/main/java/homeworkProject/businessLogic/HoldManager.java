@@ -0,0 +1,343 @@
+package homeworkProject.businessLogic;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import homeworkProject.data.CheckoutResult;
+import homeworkProject.data.OrderJournal;
+import homeworkProject.data.OrderSequencer;
+import homeworkProject.data.TicketService;
+import homeworkProject.mail.ConfirmationMailer;
+import homeworkProject.model.Order;
+import homeworkProject.model.OrderLine;
+import homeworkProject.model.Ticket;
+
+/**
+ * Class for holding tickets while the customer finalizes the order.
+ * A hold reserves the tickets of the shopping cart in the inventory,
+ * and it is either converted to a sale, released by the customer,
+ * or released by the timing wheel when it expires.
+ *
+ * @author Mario Posta
+ */
+public class HoldManager {
+
+	/**
+	 * Logger for tracking the application.
+	 */
+	private Logger logger = LoggerFactory.getLogger(HoldManager.class);
+
+	/**
+	 * Default duration of a hold in milliseconds.
+	 */
+	public static final long DEFAULT_HOLD_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+	/**
+	 * Duration of one tick of the timing wheel in milliseconds.
+	 */
+	private static final long TICK_MILLIS = 100;
+
+	/**
+	 * TicketService for reserving and selling the tickets.
+	 */
+	private final TicketService ticketService;
+
+	/**
+	 * Timing wheel which expires the holds.
+	 */
+	private final TimingWheel timingWheel;
+
+	/**
+	 * Duration of a hold in milliseconds.
+	 */
+	private final long holdMillis;
+
+	/**
+	 * Generator of the identifiers of the holds.
+	 */
+	private final AtomicLong nextId = new AtomicLong();
+
+	/**
+	 * Journal of the orders, {@code null} if the orders are not journaled.
+	 */
+	private volatile OrderJournal orderJournal;
+
+	/**
+	 * Sender of the confirmation e-mails, {@code null} if no e-mail is sent.
+	 */
+	private volatile ConfirmationMailer confirmationMailer;
+
+	/**
+	 * Sequencer of the checkouts, {@code null} if the holds are sold on the confirming threads.
+	 */
+	private volatile OrderSequencer orderSequencer;
+
+	/**
+	 * Constructor for this class.
+	 * Starts the timing wheel which expires the holds.
+	 * @param ticketService the ticketService object to control ticket transactions
+	 * @param holdMillis the duration of a hold in milliseconds
+	 */
+	public HoldManager(TicketService ticketService, long holdMillis) {
+		this.ticketService = ticketService;
+		this.holdMillis = holdMillis;
+		this.timingWheel = new TimingWheel(TICK_MILLIS, TimingWheel.monotonicMillis());
+		this.timingWheel.start();
+	}
+
+	/**
+	 * Sets the journal which records the confirmed orders.
+	 * @param orderJournal the journal of the orders, {@code null} to stop journaling
+	 */
+	public void setOrderJournal(OrderJournal orderJournal) {
+		this.orderJournal = orderJournal;
+	}
+
+	/**
+	 * Returns the journal which records the confirmed orders.
+	 * @return the journal of the orders, {@code null} if the orders are not journaled
+	 */
+	public OrderJournal getOrderJournal() {
+		return orderJournal;
+	}
+
+	/**
+	 * Sets the sender of the confirmation e-mails of the confirmed orders.
+	 * @param confirmationMailer the sender of the e-mails, {@code null} to stop sending e-mails
+	 */
+	public void setConfirmationMailer(ConfirmationMailer confirmationMailer) {
+		this.confirmationMailer = confirmationMailer;
+	}
+
+	/**
+	 * Returns the sender of the confirmation e-mails.
+	 * @return the sender of the e-mails, {@code null} if no e-mail is sent
+	 */
+	public ConfirmationMailer getConfirmationMailer() {
+		return confirmationMailer;
+	}
+
+	/**
+	 * Sets the sequencer which sells the confirmed holds in batches on its writer thread.
+	 * Every TicketHandling and the checkout API confirm their holds here, so they all go through it.
+	 * @param orderSequencer the running sequencer, {@code null} to sell the holds on the confirming threads
+	 */
+	public void setOrderSequencer(OrderSequencer orderSequencer) {
+		this.orderSequencer = orderSequencer;
+	}
+
+	/**
+	 * Returns the sequencer of the checkouts.
+	 * @return the sequencer, {@code null} if the holds are sold on the confirming threads
+	 */
+	public OrderSequencer getOrderSequencer() {
+		return orderSequencer;
+	}
+
+	/**
+	 * Reserves the tickets of the shopping cart for the duration of a hold.
+	 * @param cart the lines of the shopping cart
+	 * @return the hold, which is active if every line has been reserved
+	 */
+	public TicketHold placeHold(List<Ticket> cart) {
+		logger.debug("Placing a hold is in progress");
+
+		TicketHold hold = new TicketHold(nextId.incrementAndGet(), ticketService.reserve(cart));
+		if (hold.isActive())
+			hold.setTimeout(timingWheel.schedule(() -> expire(hold), TimingWheel.monotonicMillis() + holdMillis));
+		else
+			logger.warn("There is no enough ticket for the hold");
+		return hold;
+	}
+
+	/**
+	 * Converts the hold to a sale. If the hold has already expired,
+	 * the tickets are checked out again from the inventory.
+	 * A hold is sold only once, a repeated confirmation returns the replayed result.
+	 * @param hold the hold to confirm
+	 * @return the result of the checkout
+	 */
+	public CheckoutResult confirm(TicketHold hold) {
+		return confirm(hold, null);
+	}
+
+	/**
+	 * Converts the hold to a sale and saves the order with the sale.
+	 * If the order has an idempotency key, the hold is converted only once
+	 * and a repeated confirmation returns the original result.
+	 * @param hold the hold to confirm
+	 * @param order the order of the hold, {@code null} if there is no order to save
+	 * @return the result of the checkout
+	 */
+	public CheckoutResult confirm(TicketHold hold, Order order) {
+		if (order != null && order.getIdempotencyKey() != null)
+			return ticketService.checkoutOnce(order.getIdempotencyKey(), () -> confirmHold(hold, order));
+		return confirmHold(hold, order);
+	}
+
+	/**
+	 * Converts the hold to a sale and saves the order with the sale.
+	 * An active hold is sold from its reservation, an expired hold is checked out again.
+	 * The hold stays confirmed only if the sale succeeds, otherwise its tickets have been given back
+	 * and it becomes expired, so it can be confirmed again. A confirmed hold returns its replayed result,
+	 * and a released or rejected hold is rejected.
+	 * @param hold the hold to confirm
+	 * @param order the order of the hold, {@code null} if there is no order to save
+	 * @return the result of the checkout
+	 */
+	private CheckoutResult confirmHold(TicketHold hold, Order order) {
+		logger.debug("Confirming a hold is in progress");
+
+		if (hold.finish(TicketHold.State.CONFIRMED))
+			return sell(hold, () -> commit(hold.getReservation(), order));
+
+		if (hold.transition(TicketHold.State.EXPIRED, TicketHold.State.CONFIRMED)) {
+			logger.warn("The hold has expired, checking out again");
+			return sell(hold, () -> checkout(toCart(hold.getReservation(), order), order));
+		}
+
+		CheckoutResult result = hold.getResult();
+		if (result != null)
+			return result.replay();
+		logger.warn("The hold is not active anymore");
+		return new CheckoutResult();
+	}
+
+	/**
+	 * Runs the sale of a hold which has been claimed as confirmed. The result is kept
+	 * by the hold if the sale succeeds, otherwise the hold becomes expired.
+	 * @param hold the claimed hold
+	 * @param sale the sale of the hold
+	 * @return the result of the sale
+	 */
+	private CheckoutResult sell(TicketHold hold, Supplier<CheckoutResult> sale) {
+		CheckoutResult result;
+		try {
+			result = sale.get();
+		} catch (RuntimeException e) {
+			hold.transition(TicketHold.State.CONFIRMED, TicketHold.State.EXPIRED);
+			throw e;
+		}
+		if (!result.isSuccessful()) {
+			hold.transition(TicketHold.State.CONFIRMED, TicketHold.State.EXPIRED);
+			return result;
+		}
+		hold.setResult(result);
+		return result;
+	}
+
+	/**
+	 * Sells a reservation through the sequencer, or on the calling thread
+	 * if there is no sequencer or it has been stopped.
+	 * @param reservation the reservation of the hold
+	 * @param order the order of the hold, {@code null} if there is no order to save
+	 * @return the given reservation with the result of the checkout
+	 */
+	private CheckoutResult commit(CheckoutResult reservation, Order order) {
+		OrderSequencer sequencer = orderSequencer;
+		if (sequencer != null) {
+			try {
+				return sequencer.commit(reservation, order);
+			} catch (RejectedExecutionException e) {
+				logger.warn("The order sequencer is not running, selling the hold directly");
+			}
+		}
+		return ticketService.commitReservation(reservation, order);
+	}
+
+	/**
+	 * Reserves and sells the lines of a shopping cart through the sequencer, or on the calling thread
+	 * if there is no sequencer or it has been stopped.
+	 * @param cart the lines of the shopping cart
+	 * @param order the order of the shopping cart, {@code null} if there is no order to save
+	 * @return the result of the checkout
+	 */
+	private CheckoutResult checkout(List<Ticket> cart, Order order) {
+		OrderSequencer sequencer = orderSequencer;
+		if (sequencer != null) {
+			try {
+				return sequencer.checkout(cart, order);
+			} catch (RejectedExecutionException e) {
+				logger.warn("The order sequencer is not running, checking out directly");
+			}
+		}
+		return ticketService.checkout(cart, order);
+	}
+
+	/**
+	 * Gives back the tickets of the hold to the inventory.
+	 * Does nothing if the hold is not active.
+	 * @param hold the hold to release
+	 */
+	public void release(TicketHold hold) {
+		if (hold.finish(TicketHold.State.RELEASED)) {
+			ticketService.release(hold.getReservation());
+			logger.debug("Hold has been released");
+		}
+	}
+
+	/**
+	 * Schedules a task on the timing wheel of the holds, so other expiring state
+	 * does not need a timer thread of its own. The task runs on the thread of the wheel,
+	 * so it must not block.
+	 * @param task the task to run
+	 * @param delayMillis the delay of the task in milliseconds
+	 * @return the timeout of the task, which may be cancelled
+	 */
+	public TimingWheel.Timeout schedule(Runnable task, long delayMillis) {
+		return timingWheel.schedule(task, TimingWheel.monotonicMillis() + delayMillis);
+	}
+
+	/**
+	 * Stops the timing wheel of the holds.
+	 */
+	public void shutdown() {
+		timingWheel.stop();
+	}
+
+	/**
+	 * Gives back the tickets of the hold when it expires.
+	 * @param hold the expired hold
+	 */
+	private void expire(TicketHold hold) {
+		if (hold.finish(TicketHold.State.EXPIRED)) {
+			ticketService.release(hold.getReservation());
+			logger.debug("Hold has expired");
+		}
+	}
+
+	/**
+	 * Creates the lines of a shopping cart from the lines of the reservation of a hold.
+	 * Every line of a hold has been reserved, so a line which the database has rejected
+	 * at an earlier confirmation is checked out again as well.
+	 * The prices are taken from the lines of the order with the same type and amount.
+	 * @param reservation the reservation of the tickets
+	 * @param order the order of the hold, {@code null} if there is no order
+	 * @return the lines of the shopping cart
+	 */
+	private static List<Ticket> toCart(CheckoutResult reservation, Order order) {
+		List<OrderLine> orderLines = order == null ? new ArrayList<>() : new ArrayList<>(order.getLines());
+		List<Ticket> cart = new ArrayList<>();
+		for (CheckoutResult.Line line : reservation.getLines()) {
+			int price = 0;
+			for (Iterator<OrderLine> iterator = orderLines.iterator(); iterator.hasNext();) {
+				OrderLine orderLine = iterator.next();
+				if (orderLine.getType().equals(line.getType()) && orderLine.getAmount() == line.getAmount()) {
+					price = orderLine.getPrice();
+					iterator.remove();
+					break;
+				}
+			}
+			cart.add(new Ticket(line.getType(), price, line.getAmount()));
+		}
+		return cart;
+	}
+}
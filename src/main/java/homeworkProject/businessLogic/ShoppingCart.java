@@ -0,0 +1,313 @@
+package homeworkProject.businessLogic;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import homeworkProject.model.Grandstand;
+import homeworkProject.model.Ticket;
+
+/**
+ * Class for representing a shopping cart.
+ * Every ticket type has its own slot, the grandstands use their ordinal
+ * and other types get a free slot after them, which is reused when their line is removed.
+ * The amounts and prices are kept in primitive arrays by slot, the Ticket of a slot
+ * is only the view of its line and is updated when the line is merged.
+ * The slots of the lines are kept in a dense array, where a removed line is replaced
+ * by the last line, so adding, merging, removing and reading a line is O(1),
+ * and the total price is kept up to date on every change.
+ *
+ * @author Mario Posta
+ */
+public class ShoppingCart {
+
+	/**
+	 * Interface for being notified when the content of the shopping cart changes.
+	 */
+	public interface Listener {
+
+		/**
+		 * Called after every change of the shopping cart.
+		 * @param shoppingCart the changed shopping cart
+		 */
+		void cartChanged(ShoppingCart shoppingCart);
+	}
+
+	/**
+	 * Number of the slots of the grandstands.
+	 */
+	private static final int GRANDSTAND_SLOTS = Grandstand.values().length;
+
+	/**
+	 * Slots of the ticket types which are not grandstands, {@code null} if there is no such line.
+	 */
+	private Map<String, Integer> extraSlots;
+
+	/**
+	 * Slots after the grandstands which have been freed by a removal, as a stack.
+	 */
+	private int[] freeSlots = new int[0];
+
+	/**
+	 * Number of the freed slots on the stack.
+	 */
+	private int freeCount;
+
+	/**
+	 * Number of the slots which have been taken so far.
+	 */
+	private int slotCount = GRANDSTAND_SLOTS;
+
+	/**
+	 * Amounts of the tickets by slot.
+	 */
+	private int[] amounts = new int[GRANDSTAND_SLOTS];
+
+	/**
+	 * Prices of the lines by slot.
+	 */
+	private int[] prices = new int[GRANDSTAND_SLOTS];
+
+	/**
+	 * Views of the lines by slot, {@code null} if the slot is empty.
+	 */
+	private Ticket[] lines = new Ticket[GRANDSTAND_SLOTS];
+
+	/**
+	 * Positions of the lines in the list by slot, {@code -1} if the slot is empty.
+	 */
+	private int[] positions = new int[GRANDSTAND_SLOTS];
+
+	/**
+	 * Slots of the lines by position in the list.
+	 */
+	private int[] order = new int[GRANDSTAND_SLOTS];
+
+	/**
+	 * Number of the lines of the shopping cart.
+	 */
+	private int size;
+
+	/**
+	 * Total price of the shopping cart.
+	 */
+	private int totalPrice;
+
+	/**
+	 * Listener of the changes, {@code null} if nobody listens.
+	 */
+	private Listener listener;
+
+	/**
+	 * Read-only view of the lines of the shopping cart.
+	 */
+	private final List<Ticket> view = new AbstractList<Ticket>() {
+
+		@Override
+		public Ticket get(int index) {
+			if (index < 0 || index >= size)
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+			return lines[order[index]];
+		}
+
+		@Override
+		public Ticket remove(int index) {
+			Ticket ticket = get(index);
+			ShoppingCart.this.remove(ticket.getType());
+			return ticket;
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	};
+
+	/**
+	 * Constructor for ShoppingCart.
+	 */
+	public ShoppingCart() {
+		Arrays.fill(positions, -1);
+	}
+
+	/**
+	 * Adds the ticket to the shopping cart. If there is a line of the same type,
+	 * the amount and the price of the ticket are merged into that line.
+	 * @param ticket the ticket to add
+	 * @return {@code true} if a new line has been added,
+	 * {@code false} if the ticket has been merged
+	 */
+	public boolean add(Ticket ticket) {
+		int slot = slotOf(ticket.getType(), true);
+		int amount = ticket.getAmount();
+		int price = ticket.getPrice();
+		boolean added = lines[slot] == null;
+		if (added) {
+			lines[slot] = ticket;
+			amounts[slot] = amount;
+			prices[slot] = price;
+			positions[slot] = size;
+			order[size++] = slot;
+		} else {
+			amounts[slot] += amount;
+			prices[slot] += price;
+			lines[slot].setAmount(amounts[slot]);
+			lines[slot].setPrice(prices[slot]);
+		}
+		totalPrice += price;
+		changed();
+		return added;
+	}
+
+	/**
+	 * Removes the line of the given type. The last line takes the position of the removed line.
+	 * @param type the type of the ticket
+	 * @return {@code true} if a line has been removed, {@code false} otherwise
+	 */
+	public boolean remove(String type) {
+		int slot = slotOf(type, false);
+		if (slot < 0 || lines[slot] == null)
+			return false;
+		totalPrice -= prices[slot];
+		int position = positions[slot];
+		int last = order[--size];
+		order[position] = last;
+		positions[last] = position;
+		positions[slot] = -1;
+		lines[slot] = null;
+		amounts[slot] = 0;
+		prices[slot] = 0;
+		if (slot >= GRANDSTAND_SLOTS)
+			freeSlot(type, slot);
+		changed();
+		return true;
+	}
+
+	/**
+	 * Removes every line of the shopping cart.
+	 */
+	public void clear() {
+		Arrays.fill(lines, null);
+		Arrays.fill(amounts, 0);
+		Arrays.fill(prices, 0);
+		Arrays.fill(positions, -1);
+		extraSlots = null;
+		freeCount = 0;
+		slotCount = GRANDSTAND_SLOTS;
+		size = 0;
+		totalPrice = 0;
+		changed();
+	}
+
+	/**
+	 * Decides whether the shopping cart is empty.
+	 * @return {@code true} if there is no line, {@code false} otherwise
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the number of the lines.
+	 * @return the number of the lines
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the total price of the shopping cart.
+	 * @return the total price of the shopping cart
+	 */
+	public int getTotalPrice() {
+		return totalPrice;
+	}
+
+	/**
+	 * Returns the amount of the tickets of the given type.
+	 * @param type the type of the ticket
+	 * @return the amount of the tickets, {@code 0} if there is no such line
+	 */
+	public int getAmount(String type) {
+		int slot = slotOf(type, false);
+		return slot < 0 ? 0 : amounts[slot];
+	}
+
+	/**
+	 * Returns the lines of the shopping cart in the order of their addition.
+	 * The list follows the changes of the shopping cart, it supports
+	 * removal but not addition.
+	 * @return the lines of the shopping cart
+	 */
+	public List<Ticket> asList() {
+		return view;
+	}
+
+	/**
+	 * Sets the listener of the changes.
+	 * @param listener the listener, {@code null} to detach it
+	 */
+	public void setListener(Listener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Notifies the listener about a change.
+	 */
+	private void changed() {
+		if (listener != null)
+			listener.cartChanged(this);
+	}
+
+	/**
+	 * Returns the slot of the given ticket type.
+	 * @param type the type of the ticket
+	 * @param create whether a free slot is taken for a type which has no slot
+	 * @return the slot of the type, {@code -1} if it has no slot and none has been taken
+	 */
+	private int slotOf(String type, boolean create) {
+		Grandstand grandstand = Grandstand.fromType(type);
+		if (grandstand != null)
+			return grandstand.ordinal();
+		Integer slot = extraSlots == null ? null : extraSlots.get(type);
+		if (slot != null)
+			return slot;
+		if (!create)
+			return -1;
+		int taken = freeCount > 0 ? freeSlots[--freeCount] : slotCount++;
+		if (taken == lines.length)
+			grow(taken * 2);
+		if (extraSlots == null)
+			extraSlots = new HashMap<>();
+		extraSlots.put(type, taken);
+		return taken;
+	}
+
+	/**
+	 * Gives back the slot of a ticket type which is not a grandstand.
+	 * @param type the type of the ticket
+	 * @param slot the slot of the type
+	 */
+	private void freeSlot(String type, int slot) {
+		extraSlots.remove(type);
+		if (freeCount == freeSlots.length)
+			freeSlots = Arrays.copyOf(freeSlots, Math.max(4, freeCount * 2));
+		freeSlots[freeCount++] = slot;
+	}
+
+	/**
+	 * Grows the arrays of the slots.
+	 * @param capacity the new number of the slots
+	 */
+	private void grow(int capacity) {
+		int oldCapacity = lines.length;
+		amounts = Arrays.copyOf(amounts, capacity);
+		prices = Arrays.copyOf(prices, capacity);
+		lines = Arrays.copyOf(lines, capacity);
+		order = Arrays.copyOf(order, capacity);
+		positions = Arrays.copyOf(positions, capacity);
+		Arrays.fill(positions, oldCapacity, capacity, -1);
+	}
+}
@@ -1,16 +1,27 @@
 package homeworkProject.businessLogic;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import homeworkProject.MainFX;
+import homeworkProject.data.CheckoutResult;
+import homeworkProject.data.OrderJournal;
+import homeworkProject.data.OrderRecord;
+import homeworkProject.mail.ConfirmationMailer;
+import homeworkProject.model.Customer;
+import homeworkProject.model.Grandstand;
+import homeworkProject.model.Order;
+import homeworkProject.model.Person;
 import homeworkProject.model.Ticket;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 
 /**
  * Class for representing the business logic of this application
  * and controlling the Ticket System.
+ * It does not depend on JavaFX, so one instance can serve one checkout
+ * session of any client, and the views are only adapters over it.
  * 
  * @author Mario Posta
  */
@@ -19,19 +30,48 @@ public class TicketHandling {
     /**
      * Logger for tracking the application.
      */
-    private Logger logger = LoggerFactory.getLogger(MainFX.class);
+    private Logger logger = LoggerFactory.getLogger(TicketHandling.class);
     
 	/**
-	 * List to representing the shopping cart.
+	 * The shopping cart of the session.
 	 */
-    private ObservableList<Ticket> shoppingCart = FXCollections.observableArrayList();
+    private final ShoppingCart shoppingCart = new ShoppingCart();
+    
+    /**
+     * HoldManager for holding and selling the tickets of the shopping cart.
+     */
+    private final HoldManager holdManager;
+    
+    /**
+     * Constructor for a session which only handles the shopping cart.
+     */
+    public TicketHandling() {
+    	this(null);
+    }
+    
+    /**
+     * Constructor for a session which can also check out the shopping cart.
+     * @param holdManager the holdManager object to hold and sell the tickets
+     */
+    public TicketHandling(HoldManager holdManager) {
+    	this.holdManager = holdManager;
+    }
 
 	/**
      * Returns a List which contains the tickets which were added to the shopping cart.
+     * The list follows the changes of the shopping cart.
      * @return a List that represents the shopping cart
      */
-    public ObservableList<Ticket> getShoppingCart() {
-        return shoppingCart;
+    public List<Ticket> getShoppingCart() {
+        return shoppingCart.asList();
+    }
+    
+    /**
+     * Returns the shopping cart, for example to attach a view to it.
+     * @return the shopping cart of the session
+     */
+    public ShoppingCart getCart() {
+    	return shoppingCart;
     }
 	
     /**
@@ -111,6 +151,32 @@ public class TicketHandling {
         }
     }
     
+    /**
+     * Creates a ticket of the grandstand with the price of the given amount.
+     * @param grandstand the grandstand of the ticket
+     * @param amount the amount of the ticket
+     * @return a new ticket with the total price of the amount
+     */
+    public Ticket createTicket(Grandstand grandstand, int amount) {
+    	return new Ticket(grandstand.getType(), grandstand.getPrice() * amount, amount);
+    }
+    
+    /**
+     * Validates the amount text and adds the priced tickets to the shopping cart.
+     * @param grandstand the grandstand of the ticket
+     * @param amountText the amount of the ticket as text
+     * @return {@code true} if the tickets have been added,
+     * {@code false} if the amount is not valid
+     */
+    public boolean addToCart(Grandstand grandstand, String amountText) {
+    	if (!isInputValidTickets(amountText))	{
+    		logger.warn("Bad amount of " + grandstand.getType() + " tickets");
+    		return false;
+    	}
+    	addToCart(createTicket(grandstand, Integer.parseInt(amountText)));
+    	return true;
+    }
+    
     /**
      * Adds tickets to the shopping cart.
      * Called when the user clicks on the Add to Cart button of the Start View;
@@ -119,21 +185,10 @@ public class TicketHandling {
     public void addToCart(Ticket ticket){
         logger.debug("Adding to cart is in progress");
 
-    	boolean ticketExisted = false;
-    	for (Ticket ticketIterator : shoppingCart) {
-			if (ticketIterator.getType().equals(ticket.getType()))	{
-				ticketIterator.setPrice(ticketIterator.getPrice() + ticket.getPrice());
-				ticketIterator.setAmount(ticketIterator.getAmount() + ticket.getAmount());
-				ticketExisted = true;
-				
-				logger.debug("Ticket has been overwritten in the shopping cart");
-			}
-		}
-		if (!ticketExisted)	{
-			shoppingCart.add(ticket);
-			
+		if (shoppingCart.add(ticket))
 			logger.debug("A new ticket has been added to the shopping cart");
-		}		
+		else
+			logger.debug("Ticket has been overwritten in the shopping cart");
     }
     
     
@@ -142,12 +197,22 @@ public class TicketHandling {
      * @param ticketToRemove the ticket to remove from the shopping cart
      */
     public void removeFromCart(Ticket ticketToRemove){
-    	for (Ticket ticket : shoppingCart) {
-			if (ticketToRemove.getType() == ticket.getType())	{
-				shoppingCart.remove(ticket);
-				break;
-			}
-		}
+    	shoppingCart.remove(ticketToRemove.getType());
+    }
+    
+    /**
+     * Removes every ticket from the shopping cart.
+     */
+    public void clearShoppingCart() {
+    	shoppingCart.clear();
+    }
+    
+    /**
+     * Returns the total price of the tickets in the shopping cart.
+     * @return the total price of the shopping cart
+     */
+    public int getTotalPrice() {
+    	return shoppingCart.getTotalPrice();
     }
     
     /**
@@ -160,4 +225,95 @@ public class TicketHandling {
 
     	return shoppingCart.isEmpty();
     }
+    
+    /**
+     * Holds the tickets of the shopping cart while the order is finalized.
+     * @return the hold, which is active if there is enough ticket for every line
+     */
+    public TicketHold holdShoppingCart() {
+        logger.debug("Holding the shopping cart is in progress");
+
+    	return holdManager.placeHold(shoppingCart.asList());
+    }
+    
+    /**
+     * Sells the held tickets of the shopping cart.
+     * @param ticketHold the hold of the shopping cart
+     * @return the result of the checkout with a result for every line
+     */
+    public CheckoutResult checkout(TicketHold ticketHold) {
+        logger.debug("Checkout of the shopping cart is in progress");
+
+    	return holdManager.confirm(ticketHold);
+    }
+    
+    /**
+     * Sells the held tickets of the shopping cart to the customer, saves the order
+     * with the sale, and records the order in the journal of the holdManager.
+     * @param ticketHold the hold of the shopping cart
+     * @param customer the customer of the order
+     * @return the result of the checkout with a result for every line
+     */
+    public CheckoutResult checkout(TicketHold ticketHold, Person customer) {
+    	return checkout(ticketHold, customer, null);
+    }
+    
+    /**
+     * Sells the held tickets of the shopping cart to the customer only once for the idempotency key.
+     * A repeated key, e.g. a double click or a retried request, returns the original result
+     * without selling and journaling the tickets again. The confirmation e-mail is only queued,
+     * it is sent in the background. If the holdManager has an order sequencer, the hold is sold
+     * in a batch of the sequencer, and the order is journaled and confirmed the same way.
+     * @param ticketHold the hold of the shopping cart
+     * @param customer the customer of the order
+     * @param idempotencyKey the idempotency key of the checkout, {@code null} if there is no key
+     * @return the result of the checkout with a result for every line
+     */
+    public CheckoutResult checkout(TicketHold ticketHold, Person customer, String idempotencyKey) {
+        logger.debug("Checkout of the shopping cart is in progress");
+
+    	Order order = new Order(idempotencyKey, new Customer(customer), System.currentTimeMillis(), shoppingCart.getTotalPrice());
+    	for (Ticket ticket : shoppingCart.asList())
+    		order.addLine(ticket.getType(), ticket.getPrice(), ticket.getAmount());
+    	CheckoutResult result = holdManager.confirm(ticketHold, order);
+    	if (result.isReplayed())
+    		holdManager.release(ticketHold);
+    	OrderJournal orderJournal = holdManager.getOrderJournal();
+    	if (result.isSuccessful() && !result.isReplayed() && orderJournal != null)	{
+    		try {
+    			orderJournal.append(new OrderRecord(customer, shoppingCart.asList(), shoppingCart.getTotalPrice()));
+    		} catch (RuntimeException e) {
+    			logger.error("The order cannot be written to the journal", e);
+    		}
+    	}
+    	ConfirmationMailer confirmationMailer = holdManager.getConfirmationMailer();
+    	if (result.isSuccessful() && !result.isReplayed() && confirmationMailer != null)
+    		confirmationMailer.submit(order);
+    	return result;
+    }
+    
+    /**
+     * Describes the rejected lines of a checkout with their missing tickets,
+     * e.g. {@code "Gold 1 (2 missing), Bronze 2"}.
+     * @param result the result of the checkout or the hold
+     * @return the description of the rejected lines
+     */
+    public String describeShortfalls(CheckoutResult result) {
+    	List<String> descriptions = new ArrayList<>();
+    	for (Map.Entry<String, Integer> shortfall : result.getShortfalls().entrySet()) {
+    		if (shortfall.getValue() > 0)
+    			descriptions.add(shortfall.getKey() + " (" + shortfall.getValue() + " missing)");
+    		else
+    			descriptions.add(shortfall.getKey());
+    	}
+    	return String.join(", ", descriptions);
+    }
+    
+    /**
+     * Gives back the held tickets of the shopping cart.
+     * @param ticketHold the hold of the shopping cart
+     */
+    public void releaseHold(TicketHold ticketHold) {
+    	holdManager.release(ticketHold);
+    }
 }
@@ -0,0 +1,159 @@
+package homeworkProject.businessLogic;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import homeworkProject.data.CheckoutResult;
+
+/**
+ * Class for representing the tickets which are held for a customer
+ * while the order is being finalized.
+ *
+ * @author Mario Posta
+ */
+public class TicketHold {
+
+	/**
+	 * States of a hold.
+	 */
+	public enum State {
+		/**
+		 * The tickets are reserved for the customer.
+		 */
+		ACTIVE,
+		/**
+		 * The tickets could not be reserved.
+		 */
+		REJECTED,
+		/**
+		 * The tickets have been sold.
+		 */
+		CONFIRMED,
+		/**
+		 * The tickets have been given back by the customer.
+		 */
+		RELEASED,
+		/**
+		 * The tickets have been given back because the hold has expired.
+		 */
+		EXPIRED
+	}
+
+	/**
+	 * Identifier of the hold.
+	 */
+	private final long id;
+
+	/**
+	 * Reservation of the tickets in the inventory.
+	 */
+	private final CheckoutResult reservation;
+
+	/**
+	 * State of the hold.
+	 */
+	private final AtomicReference<State> state;
+
+	/**
+	 * Timeout which expires the hold.
+	 */
+	private volatile TimingWheel.Timeout timeout;
+
+	/**
+	 * Result of the confirmation of the hold, {@code null} if the hold has not been confirmed yet.
+	 */
+	private volatile CheckoutResult result;
+
+	/**
+	 * Constructor for this class.
+	 * @param id the identifier of the hold
+	 * @param reservation the reservation of the tickets
+	 */
+	TicketHold(long id, CheckoutResult reservation) {
+		this.id = id;
+		this.reservation = reservation;
+		this.state = new AtomicReference<>(reservation.isSuccessful() ? State.ACTIVE : State.REJECTED);
+	}
+
+	/**
+	 * Returns the identifier of the hold.
+	 * @return the identifier of the hold
+	 */
+	public long getId() {
+		return id;
+	}
+
+	/**
+	 * Returns the reservation of the tickets with a result for every line.
+	 * @return the reservation of the tickets
+	 */
+	public CheckoutResult getReservation() {
+		return reservation;
+	}
+
+	/**
+	 * Returns the state of the hold.
+	 * @return the state of the hold
+	 */
+	public State getState() {
+		return state.get();
+	}
+
+	/**
+	 * Decides whether the tickets are still held.
+	 * @return {@code true} if the hold is active, {@code false} otherwise
+	 */
+	public boolean isActive() {
+		return state.get() == State.ACTIVE;
+	}
+
+	/**
+	 * Finishes the active hold with the given state.
+	 * Only one caller can finish a hold.
+	 * @param finalState the state after the hold
+	 * @return {@code true} if the hold has been finished by this call,
+	 * {@code false} if it was not active
+	 */
+	boolean finish(State finalState) {
+		if (!state.compareAndSet(State.ACTIVE, finalState))
+			return false;
+		TimingWheel.Timeout scheduled = timeout;
+		if (scheduled != null && finalState != State.EXPIRED)
+			scheduled.cancel();
+		return true;
+	}
+
+	/**
+	 * Changes the state of the hold if it is in the expected state.
+	 * Only one caller can change the state from the same state.
+	 * @param expected the expected state of the hold
+	 * @param next the next state of the hold
+	 * @return {@code true} if the state has been changed by this call, {@code false} otherwise
+	 */
+	boolean transition(State expected, State next) {
+		return state.compareAndSet(expected, next);
+	}
+
+	/**
+	 * Returns the result of the confirmation of the hold.
+	 * @return the result of the checkout, {@code null} if the hold has not been confirmed yet
+	 */
+	public CheckoutResult getResult() {
+		return result;
+	}
+
+	/**
+	 * Sets the result of the confirmation of the hold.
+	 * @param result the result of the checkout
+	 */
+	void setResult(CheckoutResult result) {
+		this.result = result;
+	}
+
+	/**
+	 * Sets the timeout which expires the hold.
+	 * @param timeout the timeout of the hold
+	 */
+	void setTimeout(TimingWheel.Timeout timeout) {
+		this.timeout = timeout;
+	}
+}
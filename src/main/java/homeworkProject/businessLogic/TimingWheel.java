@@ -0,0 +1,284 @@
+package homeworkProject.businessLogic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Class for scheduling timeouts on a hierarchical timing wheel.
+ * The wheel has four levels with 64 slots each. Scheduling and cancelling
+ * a timeout costs O(1), and a timeout is moved down at most once per level
+ * before it expires, so expiring a huge amount of timeouts never scans them.
+ * The wheel does not read the clock itself, the time is given to
+ * {@link #advance(long)} either by the caller or by the ticker thread
+ * started with {@link #start()}.
+ *
+ * @author Mario Posta
+ */
+public class TimingWheel {
+
+	/**
+	 * Logger for tracking the application.
+	 */
+	private Logger logger = LoggerFactory.getLogger(TimingWheel.class);
+
+	/**
+	 * Number of the levels of the wheel.
+	 */
+	private static final int LEVELS = 4;
+
+	/**
+	 * Number of the bits of the slot index on one level.
+	 */
+	private static final int SLOT_BITS = 6;
+
+	/**
+	 * Number of the slots on one level.
+	 */
+	private static final int SLOTS = 1 << SLOT_BITS;
+
+	/**
+	 * Mask for the slot index on one level.
+	 */
+	private static final int SLOT_MASK = SLOTS - 1;
+
+	/**
+	 * The farthest tick that can be placed on the wheel directly.
+	 */
+	private static final long MAX_DELTA = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+	/**
+	 * Class for representing a scheduled task.
+	 */
+	public static final class Timeout {
+
+		/**
+		 * The wheel which holds this timeout.
+		 */
+		private final TimingWheel wheel;
+
+		/**
+		 * The task to run when the timeout expires.
+		 */
+		private final Runnable task;
+
+		/**
+		 * The tick when the timeout expires.
+		 */
+		private long deadlineTick;
+
+		/**
+		 * The previous timeout in the same slot.
+		 */
+		private Timeout previous;
+
+		/**
+		 * The next timeout in the same slot.
+		 */
+		private Timeout next;
+
+		/**
+		 * Indicates whether the timeout is on the wheel.
+		 */
+		private boolean scheduled;
+
+		/**
+		 * Constructor for this class.
+		 * @param wheel the wheel which holds this timeout
+		 * @param task the task to run when the timeout expires
+		 */
+		private Timeout(TimingWheel wheel, Runnable task) {
+			this.wheel = wheel;
+			this.task = task;
+		}
+
+		/**
+		 * Removes the timeout from the wheel, so its task never runs.
+		 * @return {@code true} if the timeout has been cancelled,
+		 * {@code false} if it had already expired or been cancelled
+		 */
+		public boolean cancel() {
+			synchronized (wheel) {
+				if (!scheduled)
+					return false;
+				unlink();
+				return true;
+			}
+		}
+
+		/**
+		 * Removes the timeout from the list of its slot.
+		 */
+		private void unlink() {
+			previous.next = next;
+			next.previous = previous;
+			previous = null;
+			next = null;
+			scheduled = false;
+		}
+	}
+
+	/**
+	 * Sentinel nodes of the slot lists for every level.
+	 */
+	private final Timeout[][] slots = new Timeout[LEVELS][SLOTS];
+
+	/**
+	 * Duration of one tick in milliseconds.
+	 */
+	private final long tickMillis;
+
+	/**
+	 * The time of the tick zero in milliseconds.
+	 */
+	private final long startMillis;
+
+	/**
+	 * The last tick which has been processed.
+	 */
+	private long currentTick;
+
+	/**
+	 * Executor of the ticker thread, {@code null} if the ticker has not been started.
+	 */
+	private ScheduledExecutorService ticker;
+
+	/**
+	 * Constructor for this class.
+	 * @param tickMillis the duration of one tick in milliseconds
+	 * @param startMillis the current time in milliseconds
+	 */
+	public TimingWheel(long tickMillis, long startMillis) {
+		if (tickMillis < 1)
+			throw new IllegalArgumentException("The tick must be at least one millisecond");
+		this.tickMillis = tickMillis;
+		this.startMillis = startMillis;
+		for (int level = 0; level < LEVELS; level++) {
+			for (int slot = 0; slot < SLOTS; slot++) {
+				Timeout sentinel = new Timeout(this, null);
+				sentinel.previous = sentinel;
+				sentinel.next = sentinel;
+				slots[level][slot] = sentinel;
+			}
+		}
+	}
+
+	/**
+	 * Returns the milliseconds of a monotonic clock.
+	 * @return the milliseconds of a monotonic clock
+	 */
+	public static long monotonicMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+	}
+
+	/**
+	 * Schedules a task to run at the given time.
+	 * @param task the task to run
+	 * @param deadlineMillis the time of the expiry in milliseconds
+	 * @return the timeout which can be cancelled
+	 */
+	public Timeout schedule(Runnable task, long deadlineMillis) {
+		Timeout timeout = new Timeout(this, task);
+		long deadlineTick = (deadlineMillis - startMillis + tickMillis - 1) / tickMillis;
+		synchronized (this) {
+			timeout.deadlineTick = Math.max(deadlineTick, currentTick + 1);
+			place(timeout);
+		}
+		return timeout;
+	}
+
+	/**
+	 * Processes every tick until the given time and runs the expired tasks.
+	 * @param nowMillis the current time in milliseconds
+	 * @return the number of the expired tasks
+	 */
+	public int advance(long nowMillis) {
+		long targetTick = (nowMillis - startMillis) / tickMillis;
+		List<Timeout> expired = new ArrayList<>();
+		synchronized (this) {
+			while (currentTick < targetTick) {
+				currentTick++;
+				cascade();
+				Timeout sentinel = slots[0][(int) (currentTick & SLOT_MASK)];
+				while (sentinel.next != sentinel) {
+					Timeout timeout = sentinel.next;
+					timeout.unlink();
+					expired.add(timeout);
+				}
+			}
+		}
+		for (Timeout timeout : expired) {
+			try {
+				timeout.task.run();
+			} catch (RuntimeException e) {
+				logger.error("Expired task has failed", e);
+			}
+		}
+		return expired.size();
+	}
+
+	/**
+	 * Starts a daemon thread which advances the wheel in every tick.
+	 */
+	public synchronized void start() {
+		if (ticker != null)
+			return;
+		ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "timing-wheel");
+			thread.setDaemon(true);
+			return thread;
+		});
+		ticker.scheduleAtFixedRate(() -> advance(monotonicMillis()), tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops the ticker thread.
+	 */
+	public synchronized void stop() {
+		if (ticker != null) {
+			ticker.shutdownNow();
+			ticker = null;
+		}
+	}
+
+	/**
+	 * Moves the timeouts of the higher levels down when the current tick
+	 * reaches the start of their slot.
+	 */
+	private void cascade() {
+		for (int level = LEVELS - 1; level > 0; level--) {
+			int shift = SLOT_BITS * level;
+			if ((currentTick & ((1L << shift) - 1)) != 0)
+				continue;
+			Timeout sentinel = slots[level][(int) ((currentTick >>> shift) & SLOT_MASK)];
+			while (sentinel.next != sentinel) {
+				Timeout timeout = sentinel.next;
+				timeout.unlink();
+				place(timeout);
+			}
+		}
+	}
+
+	/**
+	 * Puts the timeout in the slot which belongs to its deadline.
+	 * @param timeout the timeout to place
+	 */
+	private void place(Timeout timeout) {
+		long delta = timeout.deadlineTick - currentTick;
+		long tick = delta > MAX_DELTA ? currentTick + MAX_DELTA : timeout.deadlineTick;
+		int level = 0;
+		while (level < LEVELS - 1 && delta >= (1L << (SLOT_BITS * (level + 1))))
+			level++;
+		Timeout sentinel = slots[level][(int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK)];
+		timeout.previous = sentinel.previous;
+		timeout.next = sentinel;
+		sentinel.previous.next = timeout;
+		sentinel.previous = timeout;
+		timeout.scheduled = true;
+	}
+}
@@ -0,0 +1,258 @@
+package homeworkProject.data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import homeworkProject.model.Order;
+import homeworkProject.model.Ticket;
+import homeworkProject.model.TicketData;
+
+/**
+ * Class for calling the {@link TicketService} without waiting for the database.
+ * Every operation runs on a dedicated pool of worker threads and returns a
+ * {@link CompletableFuture}, so the caller, e.g. the JavaFX application thread,
+ * only reacts to the result when it is ready. The given lists and maps are copied
+ * on the calling thread, so the caller may change them after the call.
+ *
+ * @author Mario Posta
+ */
+public class AsyncTicketService {
+
+	/**
+	 * Default number of the worker threads.
+	 */
+	public static final int DEFAULT_THREADS = 4;
+
+	/**
+	 * Logger for tracking the application.
+	 */
+	private Logger logger = LoggerFactory.getLogger(AsyncTicketService.class);
+
+	/**
+	 * The TicketService which is called by the worker threads.
+	 */
+	private final TicketService ticketService;
+
+	/**
+	 * Executor of the worker threads.
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * Constructor for AsyncTicketService.
+	 * @param ticketService the TicketService to call
+	 * @param threads the number of the worker threads
+	 */
+	public AsyncTicketService(TicketService ticketService, int threads) {
+		this.ticketService = ticketService;
+		AtomicInteger nextThread = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "ticket-service-" + nextThread.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Returns the TicketService which is called by the worker threads.
+	 * @return the TicketService
+	 */
+	public TicketService getTicketService() {
+		return ticketService;
+	}
+
+	/**
+	 * Runs an operation on the worker threads, e.g. a business operation
+	 * which calls the TicketService several times.
+	 * @param <T> the type of the result
+	 * @param operation the operation to run
+	 * @return the future of the result, which completes exceptionally if the operation fails
+	 */
+	public <T> CompletableFuture<T> supply(Supplier<T> operation) {
+		return CompletableFuture.supplyAsync(operation, executor);
+	}
+
+	/**
+	 * Runs {@link TicketService#initializeDatabase()} on the worker threads.
+	 * @return the future which completes when the database has been initialized
+	 */
+	public CompletableFuture<Void> initializeDatabase() {
+		return CompletableFuture.runAsync(ticketService::initializeDatabase, executor);
+	}
+
+	/**
+	 * Runs {@link TicketService#initializeInventory()} on the worker threads.
+	 * @return the future of the number of the seeded grandstands
+	 */
+	public CompletableFuture<Integer> initializeInventory() {
+		return supply(ticketService::initializeInventory);
+	}
+
+	/**
+	 * Runs {@link TicketService#loadInventory()} on the worker threads.
+	 * @return the future which completes when the inventory has been loaded
+	 */
+	public CompletableFuture<Void> loadInventory() {
+		return CompletableFuture.runAsync(ticketService::loadInventory, executor);
+	}
+
+	/**
+	 * Runs {@link TicketService#getAvailableTickets()} on the worker threads.
+	 * @return the future of the content of the database
+	 */
+	public CompletableFuture<List<TicketData>> getAvailableTickets() {
+		return supply(ticketService::getAvailableTickets);
+	}
+
+	/**
+	 * Runs {@link TicketService#createTicket(String, Integer)} on the worker threads.
+	 * @param type the type of the ticket
+	 * @param amount the amount of the ticket
+	 * @return the future of the created TicketData object
+	 */
+	public CompletableFuture<TicketData> createTicket(String type, Integer amount) {
+		return supply(() -> ticketService.createTicket(type, amount));
+	}
+
+	/**
+	 * Runs {@link TicketService#modifyTicketData(String, Integer)} on the worker threads.
+	 * @param type the type of the ticket
+	 * @param amount the amount of the ticket to sell
+	 * @return the future of whether the tickets have been sold
+	 */
+	public CompletableFuture<Boolean> modifyTicketData(String type, Integer amount) {
+		return supply(() -> ticketService.modifyTicketData(type, amount));
+	}
+
+	/**
+	 * Runs {@link TicketService#checkAvailableTickets(String, Integer)} on the worker threads.
+	 * @param type the type of the ticket
+	 * @param amount the amount of the ticket
+	 * @return the future of whether there is enough ticket
+	 */
+	public CompletableFuture<Boolean> checkAvailableTickets(String type, Integer amount) {
+		return supply(() -> ticketService.checkAvailableTickets(type, amount));
+	}
+
+	/**
+	 * Runs {@link TicketService#checkAvailableTickets(List)} on the worker threads.
+	 * @param cart the lines of the shopping cart
+	 * @return the future of the number of the missing tickets keyed by the type of the ticket
+	 */
+	public CompletableFuture<Map<String, Integer>> checkAvailableTickets(List<Ticket> cart) {
+		List<Ticket> lines = new ArrayList<>(cart);
+		return supply(() -> ticketService.checkAvailableTickets(lines));
+	}
+
+	/**
+	 * Runs {@link TicketService#checkout(List)} on the worker threads.
+	 * @param cart the lines of the shopping cart
+	 * @return the future of the result of the checkout
+	 */
+	public CompletableFuture<CheckoutResult> checkout(List<Ticket> cart) {
+		return checkout(cart, null);
+	}
+
+	/**
+	 * Runs {@link TicketService#checkout(List, Order)} on the worker threads.
+	 * @param cart the lines of the shopping cart
+	 * @param order the order of the shopping cart, {@code null} if there is no order to save
+	 * @return the future of the result of the checkout
+	 */
+	public CompletableFuture<CheckoutResult> checkout(List<Ticket> cart, Order order) {
+		List<Ticket> lines = new ArrayList<>(cart);
+		return supply(() -> ticketService.checkout(lines, order));
+	}
+
+	/**
+	 * Runs {@link TicketService#checkoutOnce(String, Supplier)} on the worker threads.
+	 * @param idempotencyKey the idempotency key of the checkout
+	 * @param checkout the checkout to run
+	 * @return the future of the result of the checkout
+	 */
+	public CompletableFuture<CheckoutResult> checkoutOnce(String idempotencyKey, Supplier<CheckoutResult> checkout) {
+		return supply(() -> ticketService.checkoutOnce(idempotencyKey, checkout));
+	}
+
+	/**
+	 * Runs {@link TicketService#findCheckout(String)} on the worker threads.
+	 * @param idempotencyKey the idempotency key of the checkout
+	 * @return the future of the replayed result, which is {@code null} if the key is unknown
+	 */
+	public CompletableFuture<CheckoutResult> findCheckout(String idempotencyKey) {
+		return supply(() -> ticketService.findCheckout(idempotencyKey));
+	}
+
+	/**
+	 * Runs {@link TicketService#reserve(List)} on the worker threads.
+	 * @param cart the lines of the shopping cart
+	 * @return the future of the reservation
+	 */
+	public CompletableFuture<CheckoutResult> reserve(List<Ticket> cart) {
+		List<Ticket> lines = new ArrayList<>(cart);
+		return supply(() -> ticketService.reserve(lines));
+	}
+
+	/**
+	 * Runs {@link TicketService#release(CheckoutResult)} on the worker threads.
+	 * @param reservation the reservation to release
+	 * @return the future which completes when the reservation has been released
+	 */
+	public CompletableFuture<Void> release(CheckoutResult reservation) {
+		return CompletableFuture.runAsync(() -> ticketService.release(reservation), executor);
+	}
+
+	/**
+	 * Runs {@link TicketService#commitReservation(CheckoutResult)} on the worker threads.
+	 * @param reservation the reservation to sell
+	 * @return the future of the result of the checkout
+	 */
+	public CompletableFuture<CheckoutResult> commitReservation(CheckoutResult reservation) {
+		return commitReservation(reservation, null);
+	}
+
+	/**
+	 * Runs {@link TicketService#commitReservation(CheckoutResult, Order)} on the worker threads.
+	 * @param reservation the reservation to sell
+	 * @param order the order of the reservation, {@code null} if there is no order to save
+	 * @return the future of the result of the checkout
+	 */
+	public CompletableFuture<CheckoutResult> commitReservation(CheckoutResult reservation, Order order) {
+		return supply(() -> ticketService.commitReservation(reservation, order));
+	}
+
+	/**
+	 * Runs {@link TicketService#applySales(Map)} on the worker threads.
+	 * @param sales the sold amounts keyed by the type of the ticket
+	 * @return the future which completes when the sales have been applied
+	 */
+	public CompletableFuture<Void> applySales(Map<String, Integer> sales) {
+		Map<String, Integer> amounts = new HashMap<>(sales);
+		return CompletableFuture.runAsync(() -> ticketService.applySales(amounts), executor);
+	}
+
+	/**
+	 * Stops the worker threads after the submitted operations have finished.
+	 * @param timeoutMillis the maximal time to wait for the operations in milliseconds
+	 */
+	public void shutdown(long timeoutMillis) {
+		executor.shutdown();
+		try {
+			if (!executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS))
+				logger.warn("The database operations have not finished in time");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,264 @@
+package homeworkProject.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import homeworkProject.model.Order;
+import homeworkProject.model.OrderLine;
+
+/**
+ * Class for representing the result of a checkout.
+ * Contains one line for every line of the shopping cart.
+ *
+ * @author Mario Posta
+ */
+public class CheckoutResult {
+
+	/**
+	 * Class for representing the result of one line of the shopping cart.
+	 */
+	public static class Line {
+
+		/**
+		 * Type of the ticket.
+		 */
+		private final String type;
+
+		/**
+		 * Requested amount of the ticket.
+		 */
+		private final int amount;
+
+		/**
+		 * Indicates whether there was enough ticket for this line.
+		 */
+		private boolean accepted;
+
+		/**
+		 * Number of the missing tickets of a rejected line, {@code 0} if it is not known.
+		 */
+		private int shortfall;
+
+		/**
+		 * Numbers of the reserved seats of an accepted line, {@code null} if the line is rejected.
+		 */
+		private final int[] seats;
+
+		/**
+		 * Constructor for this class.
+		 * @param type the type of the ticket
+		 * @param amount the requested amount of the ticket
+		 * @param accepted whether there was enough ticket for this line
+		 * @param seats the numbers of the reserved seats, {@code null} if the line is rejected
+		 */
+		private Line(String type, int amount, boolean accepted, int[] seats) {
+			this.type = type;
+			this.amount = amount;
+			this.accepted = accepted;
+			this.seats = seats;
+		}
+
+		/**
+		 * Returns the type of the ticket.
+		 * @return the type of the ticket
+		 */
+		public String getType() {
+			return type;
+		}
+
+		/**
+		 * Returns the requested amount of the ticket.
+		 * @return the requested amount of the ticket
+		 */
+		public int getAmount() {
+			return amount;
+		}
+
+		/**
+		 * Returns whether there was enough ticket for this line.
+		 * @return {@code true} if there was enough ticket, {@code false} otherwise
+		 */
+		public boolean isAccepted() {
+			return accepted;
+		}
+
+		/**
+		 * Returns the number of the missing tickets of a rejected line.
+		 * @return the number of the missing tickets, {@code 0} if the line is accepted or the number is not known
+		 */
+		public int getShortfall() {
+			return shortfall;
+		}
+
+		/**
+		 * Returns the numbers of the reserved seats of the line.
+		 * @return the numbers of the seats in ascending order, empty if the line is rejected
+		 */
+		public int[] getSeats() {
+			return seats == null ? new int[0] : seats.clone();
+		}
+	}
+
+	/**
+	 * Results of the lines of the shopping cart.
+	 */
+	private final List<Line> lines = new ArrayList<>();
+
+	/**
+	 * Indicates whether the whole order has been sold.
+	 */
+	private boolean successful;
+
+	/**
+	 * Total price of the order, {@code 0} if the checkout had no order.
+	 */
+	private int totalPrice;
+
+	/**
+	 * Indicates whether this is the result of an earlier checkout with the same idempotency key.
+	 */
+	private boolean replayed;
+
+	/**
+	 * Creates the successful result of a saved order.
+	 * @param order the saved order
+	 * @return the result of the checkout of the order
+	 */
+	static CheckoutResult fromOrder(Order order) {
+		CheckoutResult result = new CheckoutResult();
+		for (OrderLine line : order.getLines()) {
+			result.lines.add(new Line(line.getType(), line.getAmount(), true, line.getSeats()));
+		}
+		result.successful = true;
+		result.totalPrice = order.getTotalPrice();
+		return result;
+	}
+
+	/**
+	 * Creates a copy of this result, which is marked as replayed.
+	 * @return the replayed copy
+	 */
+	public CheckoutResult replay() {
+		CheckoutResult copy = new CheckoutResult();
+		for (Line line : lines) {
+			Line copied = new Line(line.type, line.amount, line.accepted, line.seats);
+			copied.shortfall = line.shortfall;
+			copy.lines.add(copied);
+		}
+		copy.successful = successful;
+		copy.totalPrice = totalPrice;
+		copy.replayed = true;
+		return copy;
+	}
+
+	/**
+	 * Adds the result of a line whose seats have been reserved by the inventory.
+	 * @param type the type of the ticket
+	 * @param seats the numbers of the reserved seats
+	 */
+	void addLine(String type, int[] seats) {
+		lines.add(new Line(type, seats.length, true, seats));
+	}
+
+	/**
+	 * Adds the result of a line which has been rejected by the inventory.
+	 * @param type the type of the ticket
+	 * @param amount the requested amount of the ticket
+	 * @param shortfall the number of the missing tickets
+	 */
+	void addRejectedLine(String type, int amount, int shortfall) {
+		Line line = new Line(type, amount, false, null);
+		line.shortfall = shortfall;
+		lines.add(line);
+	}
+
+	/**
+	 * Marks the line of the given type as rejected.
+	 * @param type the type of the ticket
+	 */
+	void reject(String type) {
+		for (Line line : lines) {
+			if (line.type.equals(type))
+				line.accepted = false;
+		}
+	}
+
+	/**
+	 * Sets whether the whole order has been sold.
+	 * @param successful {@code true} if every line has been sold
+	 */
+	void setSuccessful(boolean successful) {
+		this.successful = successful;
+	}
+
+	/**
+	 * Sets the total price of the order.
+	 * @param totalPrice the total price of the order
+	 */
+	void setTotalPrice(int totalPrice) {
+		this.totalPrice = totalPrice;
+	}
+
+	/**
+	 * Returns the results of the lines of the shopping cart.
+	 * @return the results of the lines
+	 */
+	public List<Line> getLines() {
+		return Collections.unmodifiableList(lines);
+	}
+
+	/**
+	 * Returns the types of the lines which have no enough ticket.
+	 * @return the types of the rejected lines
+	 */
+	public List<String> getRejectedTypes() {
+		List<String> types = new ArrayList<>();
+		for (Line line : lines) {
+			if (!line.accepted)
+				types.add(line.type);
+		}
+		return types;
+	}
+
+	/**
+	 * Returns the number of the missing tickets of every rejected line.
+	 * @return the number of the missing tickets keyed by the type of the ticket,
+	 * the number is {@code 0} if it is not known
+	 */
+	public Map<String, Integer> getShortfalls() {
+		Map<String, Integer> shortfalls = new LinkedHashMap<>();
+		for (Line line : lines) {
+			if (!line.accepted)
+				shortfalls.put(line.type, line.shortfall);
+		}
+		return shortfalls;
+	}
+
+	/**
+	 * Returns whether the whole order has been sold.
+	 * @return {@code true} if every line has been sold, {@code false} otherwise
+	 */
+	public boolean isSuccessful() {
+		return successful;
+	}
+
+	/**
+	 * Returns the total price of the order.
+	 * @return the total price of the order, {@code 0} if the checkout had no order
+	 */
+	public int getTotalPrice() {
+		return totalPrice;
+	}
+
+	/**
+	 * Returns whether this is the result of an earlier checkout with the same idempotency key.
+	 * A replayed result has not modified the inventory.
+	 * @return {@code true} if the result is replayed, {@code false} otherwise
+	 */
+	public boolean isReplayed() {
+		return replayed;
+	}
+}
@@ -0,0 +1,93 @@
+package homeworkProject.data;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+
+/**
+ * Class for running units of work against the database.
+ * Every unit of work gets its own short-lived EntityManager, which is closed
+ * at the end of the unit, so the connection goes back to the pool and
+ * the persistence contexts are never shared between threads.
+ *
+ * @author Mario Posta
+ */
+public class DataAccess {
+
+	/**
+	 * Interface for representing a unit of work.
+	 * @param <T> the type of the result of the unit of work
+	 */
+	public interface Work<T> {
+
+		/**
+		 * Runs the unit of work.
+		 * @param entityManager the EntityManager of the unit of work
+		 * @return the result of the unit of work
+		 */
+		T execute(EntityManager entityManager);
+	}
+
+	/**
+	 * EntityManagerFactory for creating the EntityManagers.
+	 */
+	private final EntityManagerFactory entityManagerFactory;
+
+	/**
+	 * Constructor for DataAccess.
+	 * @param entityManagerFactory the EntityManagerFactory of the database
+	 */
+	public DataAccess(EntityManagerFactory entityManagerFactory) {
+		this.entityManagerFactory = entityManagerFactory;
+	}
+
+	/**
+	 * Returns the EntityManagerFactory of the database.
+	 * @return the EntityManagerFactory of the database
+	 */
+	public EntityManagerFactory getEntityManagerFactory() {
+		return entityManagerFactory;
+	}
+
+	/**
+	 * Runs a unit of work which only reads the database.
+	 * @param work the unit of work
+	 * @param <T> the type of the result of the unit of work
+	 * @return the result of the unit of work
+	 */
+	public <T> T read(Work<T> work) {
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		try {
+			return work.execute(entityManager);
+		} finally {
+			entityManager.close();
+		}
+	}
+
+	/**
+	 * Runs a unit of work in a transaction. The transaction is committed,
+	 * unless the unit of work marks it for rollback or throws an exception.
+	 * @param work the unit of work
+	 * @param <T> the type of the result of the unit of work
+	 * @return the result of the unit of work
+	 */
+	public <T> T inTransaction(Work<T> work) {
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		EntityTransaction transaction = entityManager.getTransaction();
+		try {
+			transaction.begin();
+			T result = work.execute(entityManager);
+			if (transaction.getRollbackOnly())
+				transaction.rollback();
+			else
+				transaction.commit();
+			return result;
+		} catch (RuntimeException e) {
+			if (transaction.isActive())
+				transaction.rollback();
+			throw e;
+		} finally {
+			entityManager.close();
+		}
+	}
+}
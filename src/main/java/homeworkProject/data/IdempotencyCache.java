@@ -0,0 +1,397 @@
+package homeworkProject.data;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Class for running every checkout only once for its idempotency key.
+ * The results are kept in memory for a limited time and up to a limited number of keys,
+ * the oldest finished keys are evicted first. A repeated key is answered with a copy of the original
+ * result, which is marked as replayed. The keys of the successful checkouts and of the stored orders
+ * are added to a Bloom filter, and a key which is not in memory is looked up in the order store by
+ * the loader only if the filter may contain it, so the successful checkouts stay idempotent after
+ * they have been evicted and after a restart, while a new key costs no query.
+ * The keys of the stored orders are loaded once, before the first key is looked up.
+ * A concurrent repeat waits for the running checkout. A checkout which throws an exception
+ * or is not successful is not remembered, so it can be retried.
+ *
+ * @author Mario Posta
+ */
+public class IdempotencyCache {
+
+	/**
+	 * Default maximal number of the remembered keys.
+	 */
+	public static final int DEFAULT_MAX_ENTRIES = 10000;
+
+	/**
+	 * Default time while a key is remembered in milliseconds.
+	 */
+	public static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+	/**
+	 * Number of the bits of the Bloom filter of the known keys, a power of two.
+	 */
+	private static final int FILTER_BITS = 1 << 23;
+
+	/**
+	 * Number of the bits which are set in the Bloom filter for a key.
+	 */
+	private static final int FILTER_HASHES = 4;
+
+	/**
+	 * Class for representing the statistics of the cache.
+	 */
+	public static class Stats {
+
+		/**
+		 * Number of the repeats which have been answered from memory.
+		 */
+		private final long hits;
+
+		/**
+		 * Number of the repeats which have been answered from the order store.
+		 */
+		private final long storeHits;
+
+		/**
+		 * Number of the checkouts which have been run.
+		 */
+		private final long misses;
+
+		/**
+		 * Constructor for Stats.
+		 * @param hits the number of the hits from memory
+		 * @param storeHits the number of the hits from the order store
+		 * @param misses the number of the checkouts which have been run
+		 */
+		Stats(long hits, long storeHits, long misses) {
+			this.hits = hits;
+			this.storeHits = storeHits;
+			this.misses = misses;
+		}
+
+		/**
+		 * Returns the number of the repeats which have been answered from memory.
+		 * @return the number of the hits
+		 */
+		public long getHits() {
+			return hits;
+		}
+
+		/**
+		 * Returns the number of the repeats which have been answered from the order store.
+		 * @return the number of the store hits
+		 */
+		public long getStoreHits() {
+			return storeHits;
+		}
+
+		/**
+		 * Returns the number of the checkouts which have been run.
+		 * @return the number of the misses
+		 */
+		public long getMisses() {
+			return misses;
+		}
+
+		@Override
+		public String toString() {
+			return "hits=" + hits + ", storeHits=" + storeHits + ", misses=" + misses;
+		}
+	}
+
+	/**
+	 * Class for representing the result of a key.
+	 */
+	private static class Entry {
+
+		/**
+		 * The result of the checkout, completed when the checkout has finished.
+		 */
+		private final CompletableFuture<CheckoutResult> result = new CompletableFuture<>();
+
+		/**
+		 * Time when the key is forgotten, in milliseconds.
+		 */
+		private final long expiresMillis;
+
+		/**
+		 * Constructor for Entry.
+		 * @param expiresMillis the time when the key is forgotten
+		 */
+		Entry(long expiresMillis) {
+			this.expiresMillis = expiresMillis;
+		}
+	}
+
+	/**
+	 * Logger for tracking the application.
+	 */
+	private Logger logger = LoggerFactory.getLogger(IdempotencyCache.class);
+
+	/**
+	 * Loader of the stored result of a key, which returns {@code null} for an unknown key.
+	 */
+	private final Function<String, CheckoutResult> loader;
+
+	/**
+	 * Loader of the keys of the stored orders, {@code null} once the keys have been loaded.
+	 */
+	private volatile Supplier<? extends Iterable<String>> storedKeys;
+
+	/**
+	 * Bloom filter of the keys which may have a stored result.
+	 */
+	private final AtomicLongArray knownKeys = new AtomicLongArray(FILTER_BITS / Long.SIZE);
+
+	/**
+	 * Maximal number of the remembered keys.
+	 */
+	private final int maxEntries;
+
+	/**
+	 * Time while a key is remembered in milliseconds.
+	 */
+	private final long ttlMillis;
+
+	/**
+	 * The remembered keys in the order of their first checkout, guarded by itself.
+	 */
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+	/**
+	 * Counter of the hits from memory.
+	 */
+	private final LongAdder hits = new LongAdder();
+
+	/**
+	 * Counter of the hits from the order store.
+	 */
+	private final LongAdder storeHits = new LongAdder();
+
+	/**
+	 * Counter of the checkouts which have been run.
+	 */
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * Constructor for IdempotencyCache, which looks up only the keys it has remembered itself.
+	 * @param loader the loader of the stored result of a key
+	 * @param maxEntries the maximal number of the remembered keys
+	 * @param ttlMillis the time while a key is remembered in milliseconds
+	 */
+	public IdempotencyCache(Function<String, CheckoutResult> loader, int maxEntries, long ttlMillis) {
+		this(loader, Collections::emptyList, maxEntries, ttlMillis);
+	}
+
+	/**
+	 * Constructor for IdempotencyCache.
+	 * @param loader the loader of the stored result of a key
+	 * @param storedKeys the loader of the keys of the stored orders
+	 * @param maxEntries the maximal number of the remembered keys
+	 * @param ttlMillis the time while a key is remembered in milliseconds
+	 */
+	public IdempotencyCache(Function<String, CheckoutResult> loader, Supplier<? extends Iterable<String>> storedKeys,
+			int maxEntries, long ttlMillis) {
+		if (maxEntries <= 0 || ttlMillis <= 0)
+			throw new IllegalArgumentException("The size and the time of the cache must be positive");
+		this.loader = loader;
+		this.storedKeys = storedKeys;
+		this.maxEntries = maxEntries;
+		this.ttlMillis = ttlMillis;
+	}
+
+	/**
+	 * Runs the checkout unless the key has been checked out already.
+	 * @param key the idempotency key of the checkout
+	 * @param checkout the checkout to run
+	 * @return the result of the checkout, or a replayed copy of the original result
+	 */
+	public CheckoutResult execute(String key, Supplier<CheckoutResult> checkout) {
+		Entry entry;
+		boolean owner = false;
+		synchronized (entries) {
+			long now = System.currentTimeMillis();
+			evict(now);
+			entry = entries.get(key);
+			if (entry == null) {
+				entry = new Entry(now + ttlMillis);
+				entries.put(key, entry);
+				owner = true;
+			}
+		}
+		if (!owner) {
+			hits.increment();
+			return await(entry).replay();
+		}
+
+		try {
+			CheckoutResult stored = mightBeStored(key) ? loader.apply(key) : null;
+			if (stored != null) {
+				storeHits.increment();
+				entry.result.complete(stored);
+				return stored.replay();
+			}
+			misses.increment();
+			CheckoutResult result = checkout.get();
+			if (result.isSuccessful())
+				addKnownKey(key);
+			else {
+				synchronized (entries) {
+					entries.remove(key, entry);
+				}
+			}
+			entry.result.complete(result);
+			return result;
+		} catch (RuntimeException e) {
+			synchronized (entries) {
+				entries.remove(key, entry);
+			}
+			entry.result.completeExceptionally(e);
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the result of a key without running a checkout.
+	 * @param key the idempotency key of the checkout
+	 * @return a replayed copy of the result, {@code null} if the key is unknown
+	 */
+	public CheckoutResult find(String key) {
+		Entry entry;
+		synchronized (entries) {
+			evict(System.currentTimeMillis());
+			entry = entries.get(key);
+		}
+		if (entry != null) {
+			hits.increment();
+			return await(entry).replay();
+		}
+		CheckoutResult stored = mightBeStored(key) ? loader.apply(key) : null;
+		if (stored == null)
+			return null;
+		storeHits.increment();
+		return stored.replay();
+	}
+
+	/**
+	 * Returns the number of the remembered keys.
+	 * @return the number of the remembered keys
+	 */
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	/**
+	 * Returns the statistics of the cache.
+	 * @return the statistics of the cache
+	 */
+	public Stats getStats() {
+		return new Stats(hits.sum(), storeHits.sum(), misses.sum());
+	}
+
+	/**
+	 * Waits for the result of a key.
+	 * @param entry the entry of the key
+	 * @return the result of the checkout
+	 */
+	private CheckoutResult await(Entry entry) {
+		try {
+			return entry.result.join();
+		} catch (CompletionException e) {
+			logger.warn("The repeated checkout has failed");
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw e;
+		}
+	}
+
+	/**
+	 * Decides whether a key may have a stored result, the keys of the stored orders are loaded first.
+	 * @param key the idempotency key of the checkout
+	 * @return {@code false} if the key has no stored result for sure, {@code true} otherwise
+	 */
+	private boolean mightBeStored(String key) {
+		if (storedKeys != null) {
+			synchronized (knownKeys) {
+				Supplier<? extends Iterable<String>> keys = storedKeys;
+				if (keys != null) {
+					for (String storedKey : keys.get())
+						addKnownKey(storedKey);
+					storedKeys = null;
+				}
+			}
+		}
+		long hash = key.hashCode() * 0x9E3779B97F4A7C15L;
+		for (int i = 0; i < FILTER_HASHES; i++) {
+			int bit = filterBit(hash, i);
+			if ((knownKeys.get(bit / Long.SIZE) & 1L << bit) == 0)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Adds a key to the Bloom filter of the keys which may have a stored result.
+	 * @param key the idempotency key of the checkout
+	 */
+	private void addKnownKey(String key) {
+		long hash = key.hashCode() * 0x9E3779B97F4A7C15L;
+		for (int i = 0; i < FILTER_HASHES; i++) {
+			int bit = filterBit(hash, i);
+			long mask = 1L << bit;
+			for (;;) {
+				long bits = knownKeys.get(bit / Long.SIZE);
+				if ((bits & mask) != 0 || knownKeys.compareAndSet(bit / Long.SIZE, bits, bits | mask))
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Returns a bit of a key in the Bloom filter by double hashing.
+	 * @param hash the mixed hash code of the key
+	 * @param i the index of the hash function
+	 * @return the index of the bit
+	 */
+	private static int filterBit(long hash, int i) {
+		int first = (int) hash;
+		int second = (int) (hash >>> 32) | 1;
+		return first + i * second & FILTER_BITS - 1;
+	}
+
+	/**
+	 * Forgets the expired keys and the oldest keys over the maximal number.
+	 * The keys whose checkout is still running are kept, so a repeat never runs beside them.
+	 * Must be called while holding the lock of the entries.
+	 * @param now the current time in milliseconds
+	 */
+	private void evict(long now) {
+		Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+		int excess = entries.size() - maxEntries + 1;
+		while (iterator.hasNext()) {
+			Entry eldest = iterator.next().getValue();
+			if (excess <= 0 && eldest.expiresMillis > now)
+				break;
+			if (!eldest.result.isDone())
+				continue;
+			iterator.remove();
+			excess--;
+		}
+	}
+}
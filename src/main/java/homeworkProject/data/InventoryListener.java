@@ -0,0 +1,19 @@
+package homeworkProject.data;
+
+/**
+ * Interface for the subscribers of the changes of the in-memory inventory.
+ * The listeners are called on the thread which has changed the inventory,
+ * so they must return quickly and must not block.
+ *
+ * @author Mario Posta
+ */
+public interface InventoryListener {
+
+	/**
+	 * Called after the available amount of a ticket type has changed.
+	 * The current amount is read from the inventory, because the changes
+	 * of concurrent threads may be reported in a different order.
+	 * @param type the type of the ticket
+	 */
+	void inventoryChanged(String type);
+}
@@ -0,0 +1,250 @@
+package homeworkProject.data;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.LockModeType;
+
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import homeworkProject.model.Order;
+import homeworkProject.model.SeatBlock;
+import homeworkProject.model.TicketData;
+
+/**
+ * Class for storing the ticket amounts in the database through JPA.
+ * Every operation runs in its own unit of work through {@link DataAccess}.
+ * The orders are inserted in JDBC batches with pooled identifiers,
+ * as configured in the persistence unit. The sold seats are stored in
+ * {@link SeatBlock}s, so a sale only updates the blocks of its seats.
+ *
+ * @author Mario Posta
+ */
+public class JpaTicketStore implements TicketStore {
+
+	/**
+	 * Logger for tracking the application.
+	 */
+	private Logger logger = LoggerFactory.getLogger(JpaTicketStore.class);
+
+	/**
+	 * DataAccess for running the units of work against the database.
+	 */
+	private final DataAccess dataAccess;
+
+	/**
+	 * Constructor for JpaTicketStore.
+	 * @param entityManagerFactory the EntityManagerFactory of the database
+	 */
+	public JpaTicketStore(EntityManagerFactory entityManagerFactory) {
+		this.dataAccess = new DataAccess(entityManagerFactory);
+	}
+
+	@Override
+	public void createTickets(Map<String, Integer> amounts) {
+		dataAccess.inTransaction(entityManager -> {
+			for (Map.Entry<String, Integer> amount : amounts.entrySet()) {
+				entityManager.merge(new TicketData(amount.getKey(), amount.getValue()));
+				entityManager.createQuery("delete from SeatBlock b where b.type = :type")
+						.setParameter("type", amount.getKey())
+						.executeUpdate();
+				for (int block = 0; block * SeatBlock.SEATS < amount.getValue(); block++) {
+					entityManager.persist(new SeatBlock(amount.getKey(), block));
+				}
+			}
+			return null;
+		});
+	}
+
+	@Override
+	public void repairAmounts(Map<String, Integer> amounts) {
+		dataAccess.inTransaction(entityManager -> {
+			for (Map.Entry<String, Integer> amount : amounts.entrySet()) {
+				entityManager.createQuery(
+						"update homeworkProject.model.TicketData t set t.amount = :amount where t.type = :type"
+						)
+						.setParameter("amount", amount.getValue())
+						.setParameter("type", amount.getKey())
+						.executeUpdate();
+			}
+			return null;
+		});
+	}
+
+	@Override
+	public Map<String, byte[]> loadSoldSeats() {
+		List<SeatBlock> blocks = dataAccess.read(entityManager -> entityManager.createQuery(
+				"select b from SeatBlock b", SeatBlock.class
+				).getResultList());
+		Map<String, byte[]> soldSeats = new HashMap<>();
+		for (SeatBlock block : blocks) {
+			int offset = block.getBlockIndex() * block.getSeats().length;
+			byte[] bitmap = soldSeats.get(block.getType());
+			if (bitmap == null || bitmap.length < offset + block.getSeats().length) {
+				byte[] grown = new byte[offset + block.getSeats().length];
+				if (bitmap != null)
+					System.arraycopy(bitmap, 0, grown, 0, bitmap.length);
+				bitmap = grown;
+				soldSeats.put(block.getType(), bitmap);
+			}
+			System.arraycopy(block.getSeats(), 0, bitmap, offset, block.getSeats().length);
+		}
+		return soldSeats;
+	}
+
+	@Override
+	public List<TicketData> loadTickets() {
+		return dataAccess.read(entityManager -> entityManager.createQuery(
+				"select t from homeworkProject.model.TicketData t", TicketData.class
+				).getResultList());
+	}
+
+	@Override
+	public String decrement(List<CheckoutResult.Line> lines, Order order) {
+		return dataAccess.inTransaction(entityManager -> {
+			for (CheckoutResult.Line line : lines) {
+				if (decrementTicketData(entityManager, line.getType(), line.getAmount()) == 0) {
+					entityManager.getTransaction().setRollbackOnly();
+					return line.getType();
+				}
+			}
+			for (CheckoutResult.Line line : lines) {
+				markSold(entityManager, line.getType(), line.getSeats(), LockModeType.NONE);
+			}
+			if (order != null)
+				entityManager.persist(order);
+			return null;
+		});
+	}
+
+	@Override
+	public void saveOrder(Order order) {
+		dataAccess.inTransaction(entityManager -> {
+			entityManager.persist(order);
+			return null;
+		});
+	}
+
+	@Override
+	public Order findOrder(String idempotencyKey) {
+		List<Order> orders = dataAccess.read(entityManager -> entityManager.createQuery(
+				"select distinct o from TicketOrder o join fetch o.lines where o.idempotencyKey = :idempotencyKey",
+				Order.class
+				)
+				.setParameter("idempotencyKey", idempotencyKey)
+				.getResultList());
+		return orders.isEmpty() ? null : orders.get(0);
+	}
+
+	@Override
+	public List<String> loadOrderKeys() {
+		return dataAccess.read(entityManager -> entityManager.createQuery(
+				"select o.idempotencyKey from TicketOrder o where o.idempotencyKey is not null", String.class
+				).getResultList());
+	}
+
+	/**
+	 * Decrements the sold amounts in one transaction, with one JDBC batch of guarded updates.
+	 * @param sales the sold amounts keyed by the type of the ticket
+	 */
+	@Override
+	public Set<String> applySales(Map<String, Integer> sales, Map<String, int[]> seats, long segment) {
+		return dataAccess.inTransaction(entityManager -> {
+			Set<String> rejectedTypes = new TreeSet<>();
+			entityManager.unwrap(Session.class).doWork(connection -> applySales(connection, sales, segment, rejectedTypes));
+			for (Map.Entry<String, int[]> sold : seats.entrySet()) {
+				if (!rejectedTypes.contains(sold.getKey()))
+					markSold(entityManager, sold.getKey(), sold.getValue(), LockModeType.PESSIMISTIC_WRITE);
+			}
+			return rejectedTypes;
+		});
+	}
+
+	@Override
+	public void close() {
+		if (dataAccess.getEntityManagerFactory().isOpen())
+			dataAccess.getEntityManagerFactory().close();
+	}
+
+	/**
+	 * Decrements the sold amounts and stores the applied segment with one JDBC batch.
+	 * @param connection the connection of the transaction
+	 * @param sales the sold amounts keyed by the type of the ticket
+	 * @param segment the number of the last applied segment of the log, negative to leave it unchanged
+	 * @param rejected the set which receives the types whose amount has been left unchanged
+	 * @throws SQLException if the batch fails
+	 */
+	private void applySales(Connection connection, Map<String, Integer> sales, long segment, Set<String> rejected)
+			throws SQLException {
+		List<String> types = new ArrayList<>(sales.keySet());
+		try (PreparedStatement statement = connection.prepareStatement(
+				"update TicketData set amount = amount - ?, appliedSegment = greatest(coalesce(appliedSegment, -1), ?) "
+				+ "where type = ? and amount >= ?")) {
+			for (String type : types) {
+				statement.setInt(1, sales.get(type));
+				statement.setLong(2, segment);
+				statement.setString(3, type);
+				statement.setInt(4, sales.get(type));
+				statement.addBatch();
+			}
+			int[] updated = statement.executeBatch();
+			for (int i = 0; i < updated.length; i++) {
+				if (updated[i] == 0) {
+					rejected.add(types.get(i));
+					logger.error("The database has no enough ticket for a flushed sale of " + types.get(i));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Decrements the amount of the ticket in the database if there is enough ticket.
+	 * Must be called inside a transaction.
+	 * @param entityManager the EntityManager of the transaction
+	 * @param type the type of the ticket
+	 * @param amount the amount of the ticket to subtract
+	 * @return the number of the updated rows, {@code 0} if there is no enough ticket
+	 */
+	private int decrementTicketData(EntityManager entityManager, String type, int amount) {
+		return entityManager.createQuery(
+				"update homeworkProject.model.TicketData t set t.amount = t.amount - :amount "
+				+ "where t.type = :type and t.amount >= :amount"
+				)
+				.setParameter("amount", amount)
+				.setParameter("type", type)
+				.executeUpdate();
+	}
+
+	/**
+	 * Marks the seats as sold in their blocks. Must be called inside a transaction.
+	 * A missing block, which has not been created by an earlier version, is created.
+	 * @param entityManager the EntityManager of the transaction
+	 * @param type the type of the ticket
+	 * @param seats the numbers of the sold seats
+	 * @param lock the lock of the blocks, {@link LockModeType#NONE} if the ticket is locked already
+	 */
+	private void markSold(EntityManager entityManager, String type, int[] seats, LockModeType lock) {
+		Set<Integer> blocks = new TreeSet<>();
+		for (int seat : seats)
+			blocks.add(SeatBlock.blockOf(seat));
+		for (int index : blocks) {
+			SeatBlock block = entityManager.find(SeatBlock.class, SeatBlock.idOf(type, index), lock);
+			if (block == null) {
+				block = new SeatBlock(type, index);
+				entityManager.persist(block);
+			}
+			block.markSold(seats);
+		}
+	}
+}
@@ -0,0 +1,386 @@
+package homeworkProject.data;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import homeworkProject.model.Order;
+import homeworkProject.model.TicketData;
+
+/**
+ * Class for storing the ticket amounts in an embedded local engine.
+ * The amounts and the bitmaps of the sold seats are kept in memory. If a file is given,
+ * every change is appended to it as a journal record, the journal is replayed when the
+ * store is opened, and it is compacted to one record per type when the store is closed.
+ * The orders are only kept in memory.
+ * The engine needs no database, so on-sale simulations can run on a laptop.
+ *
+ * @author Mario Posta
+ */
+public class LocalTicketStore implements TicketStore {
+
+	/**
+	 * Journal record of a created ticket type.
+	 */
+	private static final String CREATE = "C";
+
+	/**
+	 * Journal record of a decremented ticket type.
+	 */
+	private static final String DECREMENT = "D";
+
+	/**
+	 * Journal record of a repaired ticket type, as its new amount.
+	 */
+	private static final String REPAIR = "R";
+
+	/**
+	 * Journal record of the sold seats of a ticket type, as a list of seat numbers.
+	 */
+	private static final String SEATS = "S";
+
+	/**
+	 * Journal record of a sale of the write-behind log, as the decremented amount and the applied segment.
+	 */
+	private static final String APPLIED = "A";
+
+	/**
+	 * Compacted journal record of a ticket type with its amount, capacity, Base64 bitmap of the sold seats
+	 * and the applied segment of the write-behind log, if there is one.
+	 */
+	private static final String SNAPSHOT = "T";
+
+	/**
+	 * Logger for tracking the application.
+	 */
+	private Logger logger = LoggerFactory.getLogger(LocalTicketStore.class);
+
+	/**
+	 * Amounts of the tickets keyed by the type of the ticket.
+	 */
+	private final Map<String, Integer> amounts = new TreeMap<>();
+
+	/**
+	 * Numbers of the seats keyed by the type of the ticket.
+	 */
+	private final Map<String, Integer> capacities = new HashMap<>();
+
+	/**
+	 * Sold seats keyed by the type of the ticket.
+	 */
+	private final Map<String, BitSet> soldSeats = new HashMap<>();
+
+	/**
+	 * Last applied segments of the write-behind log keyed by the type of the ticket.
+	 */
+	private final Map<String, Long> appliedSegments = new HashMap<>();
+
+	/**
+	 * The saved orders.
+	 */
+	private final List<Order> orders = new ArrayList<>();
+
+	/**
+	 * The saved orders keyed by their idempotency key.
+	 */
+	private final Map<String, Order> ordersByKey = new HashMap<>();
+
+	/**
+	 * File of the journal, {@code null} if the store is in-memory.
+	 */
+	private final Path file;
+
+	/**
+	 * Writer of the journal, {@code null} if the store is in-memory.
+	 */
+	private Writer journal;
+
+	/**
+	 * Constructor for an in-memory LocalTicketStore.
+	 */
+	public LocalTicketStore() {
+		this.file = null;
+	}
+
+	/**
+	 * Constructor for a file-backed LocalTicketStore.
+	 * Replays the journal if the file exists.
+	 * @param file the file of the journal
+	 * @throws IOException if the journal cannot be read or opened
+	 */
+	public LocalTicketStore(Path file) throws IOException {
+		this.file = file;
+		if (Files.exists(file))
+			replay();
+		this.journal = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+				StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+	}
+
+	@Override
+	public synchronized void createTickets(Map<String, Integer> amounts) {
+		for (Map.Entry<String, Integer> amount : amounts.entrySet()) {
+			create(amount.getKey(), amount.getValue());
+			record(CREATE, amount.getKey(), String.valueOf(amount.getValue()));
+		}
+		flushJournal();
+	}
+
+	@Override
+	public synchronized void repairAmounts(Map<String, Integer> amounts) {
+		for (Map.Entry<String, Integer> amount : amounts.entrySet()) {
+			if (!this.amounts.containsKey(amount.getKey()))
+				continue;
+			this.amounts.put(amount.getKey(), amount.getValue());
+			record(REPAIR, amount.getKey(), String.valueOf(amount.getValue()));
+		}
+		flushJournal();
+	}
+
+	@Override
+	public synchronized List<TicketData> loadTickets() {
+		List<TicketData> tickets = new ArrayList<>(amounts.size());
+		for (Map.Entry<String, Integer> amount : amounts.entrySet()) {
+			TicketData ticketData = new TicketData(amount.getKey(), amount.getValue(), capacities.get(amount.getKey()));
+			ticketData.setAppliedSegment(appliedSegments.get(amount.getKey()));
+			tickets.add(ticketData);
+		}
+		return tickets;
+	}
+
+	@Override
+	public synchronized Map<String, byte[]> loadSoldSeats() {
+		Map<String, byte[]> bitmaps = new HashMap<>();
+		for (Map.Entry<String, BitSet> seats : soldSeats.entrySet()) {
+			bitmaps.put(seats.getKey(), seats.getValue().toByteArray());
+		}
+		return bitmaps;
+	}
+
+	@Override
+	public synchronized String decrement(List<CheckoutResult.Line> lines, Order order) {
+		Map<String, Integer> requested = new TreeMap<>();
+		for (CheckoutResult.Line line : lines) {
+			int amount = requested.merge(line.getType(), line.getAmount(), Integer::sum);
+			Integer available = amounts.get(line.getType());
+			if (available == null || available < amount)
+				return line.getType();
+		}
+		for (CheckoutResult.Line line : lines) {
+			amounts.merge(line.getType(), -line.getAmount(), Integer::sum);
+			record(DECREMENT, line.getType(), String.valueOf(line.getAmount()));
+			markSold(line.getType(), line.getSeats());
+		}
+		flushJournal();
+		if (order != null)
+			saveOrder(order);
+		return null;
+	}
+
+	@Override
+	public synchronized void saveOrder(Order order) {
+		orders.add(order);
+		if (order.getIdempotencyKey() != null)
+			ordersByKey.put(order.getIdempotencyKey(), order);
+	}
+
+	@Override
+	public synchronized Order findOrder(String idempotencyKey) {
+		return ordersByKey.get(idempotencyKey);
+	}
+
+	@Override
+	public synchronized List<String> loadOrderKeys() {
+		return new ArrayList<>(ordersByKey.keySet());
+	}
+
+	/**
+	 * Returns the saved orders.
+	 * @return a copy of the saved orders
+	 */
+	public synchronized List<Order> getOrders() {
+		return Collections.unmodifiableList(new ArrayList<>(orders));
+	}
+
+	/**
+	 * Decrements the sold amounts of the write-behind log.
+	 * The seats of a type are journaled before its amount, and the amount is journaled with
+	 * the applied segment in one record, so a torn journal never decrements an amount
+	 * without storing its segment.
+	 */
+	@Override
+	public synchronized Set<String> applySales(Map<String, Integer> sales, Map<String, int[]> seats, long segment) {
+		Set<String> rejected = new TreeSet<>();
+		for (Map.Entry<String, Integer> sale : sales.entrySet()) {
+			Integer available = amounts.get(sale.getKey());
+			if (available == null || available < sale.getValue()) {
+				rejected.add(sale.getKey());
+				logger.error("The local store has no enough ticket for a flushed sale of " + sale.getKey());
+				continue;
+			}
+			markSold(sale.getKey(), seats.getOrDefault(sale.getKey(), new int[0]));
+			amounts.put(sale.getKey(), available - sale.getValue());
+			if (segment > appliedSegments.getOrDefault(sale.getKey(), -1L))
+				appliedSegments.put(sale.getKey(), segment);
+			record(APPLIED, sale.getKey(), sale.getValue() + "," + segment);
+		}
+		flushJournal();
+		return rejected;
+	}
+
+	/**
+	 * Closes the journal and compacts it to one record per type.
+	 */
+	@Override
+	public synchronized void close() {
+		if (journal == null)
+			return;
+		try {
+			journal.close();
+			journal = null;
+			Path compacted = file.resolveSibling(file.getFileName() + ".tmp");
+			try (Writer writer = Files.newBufferedWriter(compacted, StandardCharsets.UTF_8)) {
+				for (Map.Entry<String, Integer> amount : amounts.entrySet()) {
+					int capacity = capacities.get(amount.getKey());
+					BitSet seats = soldSeats.getOrDefault(amount.getKey(), new BitSet());
+					Long segment = appliedSegments.get(amount.getKey());
+					if (capacity == amount.getValue() && seats.isEmpty() && segment == null)
+						writer.write(CREATE + '\t' + amount.getKey() + '\t' + capacity + '\n');
+					else
+						writer.write(SNAPSHOT + '\t' + amount.getKey() + '\t' + amount.getValue() + ',' + capacity + ','
+								+ Base64.getEncoder().encodeToString(seats.toByteArray())
+								+ (segment == null ? "" : "," + segment) + '\n');
+				}
+			}
+			Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			throw new UncheckedIOException("The journal of the local store cannot be compacted", e);
+		}
+	}
+
+	/**
+	 * Replays the records of the journal.
+	 * @throws IOException if the journal cannot be read
+	 */
+	private void replay() throws IOException {
+		for (String record : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+			String[] fields = record.split("\t");
+			if (fields.length != 3) {
+				logger.warn("Torn record in the journal is skipped");
+				continue;
+			}
+			if (CREATE.equals(fields[0]))
+				create(fields[1], Integer.parseInt(fields[2]));
+			else if (DECREMENT.equals(fields[0]))
+				amounts.merge(fields[1], -Integer.parseInt(fields[2]), Integer::sum);
+			else if (REPAIR.equals(fields[0]))
+				amounts.put(fields[1], Integer.parseInt(fields[2]));
+			else if (APPLIED.equals(fields[0])) {
+				String[] applied = fields[2].split(",");
+				if (applied.length != 2) {
+					logger.warn("Torn record in the journal is skipped");
+					continue;
+				}
+				amounts.merge(fields[1], -Integer.parseInt(applied[0]), Integer::sum);
+				long segment = Long.parseLong(applied[1]);
+				if (segment > appliedSegments.getOrDefault(fields[1], -1L))
+					appliedSegments.put(fields[1], segment);
+			}
+			else if (SEATS.equals(fields[0])) {
+				BitSet seats = soldSeats.computeIfAbsent(fields[1], type -> new BitSet());
+				for (String seat : fields[2].split(","))
+					seats.set(Integer.parseInt(seat));
+			}
+			else if (SNAPSHOT.equals(fields[0])) {
+				String[] snapshot = fields[2].split(",", -1);
+				if (snapshot.length != 3 && snapshot.length != 4) {
+					logger.warn("Torn record in the journal is skipped");
+					continue;
+				}
+				amounts.put(fields[1], Integer.parseInt(snapshot[0]));
+				capacities.put(fields[1], Integer.parseInt(snapshot[1]));
+				soldSeats.put(fields[1], BitSet.valueOf(Base64.getDecoder().decode(snapshot[2])));
+				if (snapshot.length == 4)
+					appliedSegments.put(fields[1], Long.parseLong(snapshot[3]));
+			}
+		}
+	}
+
+	/**
+	 * Creates a ticket type whose every seat is available.
+	 * @param type the type of the ticket
+	 * @param amount the amount of the ticket
+	 */
+	private void create(String type, int amount) {
+		amounts.put(type, amount);
+		capacities.put(type, amount);
+		soldSeats.remove(type);
+		appliedSegments.remove(type);
+	}
+
+	/**
+	 * Marks the seats as sold and appends them to the journal.
+	 * @param type the type of the ticket
+	 * @param seats the numbers of the sold seats
+	 */
+	private void markSold(String type, int[] seats) {
+		if (seats.length == 0)
+			return;
+		BitSet sold = soldSeats.computeIfAbsent(type, key -> new BitSet());
+		StringBuilder record = new StringBuilder();
+		for (int seat : seats) {
+			sold.set(seat);
+			if (record.length() > 0)
+				record.append(',');
+			record.append(seat);
+		}
+		record(SEATS, type, record.toString());
+	}
+
+	/**
+	 * Appends a record to the journal, if the store is file-backed.
+	 * @param operation the operation of the record
+	 * @param type the type of the ticket
+	 * @param value the amount or the seats of the record
+	 */
+	private void record(String operation, String type, String value) {
+		if (journal == null)
+			return;
+		try {
+			journal.write(operation + '\t' + type + '\t' + value + '\n');
+		} catch (IOException e) {
+			throw new UncheckedIOException("The journal of the local store cannot be written", e);
+		}
+	}
+
+	/**
+	 * Flushes the written records to the file, if the store is file-backed.
+	 */
+	private void flushJournal() {
+		if (journal == null)
+			return;
+		try {
+			journal.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException("The journal of the local store cannot be written", e);
+		}
+	}
+}
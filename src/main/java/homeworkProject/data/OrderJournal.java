@@ -0,0 +1,260 @@
+package homeworkProject.data;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Class for recording every checkout in an append-only journal.
+ * The journal is a series of memory-mapped segment files, a new segment is started
+ * when the current one is full. An append returns when the order is on the disk.
+ * The concurrent appends share the syncs: one of the waiting threads syncs
+ * the segment for every order which has been written before, the others wait for it.
+ * The journal is read by {@link OrderJournalReader}.
+ *
+ * @author Mario Posta
+ */
+public class OrderJournal {
+
+	/**
+	 * Default size of a segment in bytes.
+	 */
+	public static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+	/**
+	 * Logger for tracking the application.
+	 */
+	private Logger logger = LoggerFactory.getLogger(OrderJournal.class);
+
+	/**
+	 * Directory of the segment files.
+	 */
+	private final Path directory;
+
+	/**
+	 * Size of a segment in bytes.
+	 */
+	private final int segmentSize;
+
+	/**
+	 * Lock of the appends.
+	 */
+	private final Object appendLock = new Object();
+
+	/**
+	 * Lock of the syncs.
+	 */
+	private final Object syncLock = new Object();
+
+	/**
+	 * Mapped content of the current segment, {@code null} if the journal is closed.
+	 */
+	private MappedByteBuffer segment;
+
+	/**
+	 * Sequence number of the last written order.
+	 */
+	private long lastSequence;
+
+	/**
+	 * Sequence number of the last order which is on the disk.
+	 */
+	private long syncedSequence;
+
+	/**
+	 * Whether a thread is syncing the current segment.
+	 */
+	private boolean syncing;
+
+	/**
+	 * Number of the syncs, for the monitoring of the group commit.
+	 */
+	private long syncs;
+
+	/**
+	 * Checksum of the records, used under the append lock.
+	 */
+	private final CRC32 crc = new CRC32();
+
+	/**
+	 * Constructor for OrderJournal.
+	 * Continues the last segment of the directory after its last valid record.
+	 * @param directory the directory of the segment files
+	 * @param segmentSize the size of a segment in bytes
+	 * @throws IOException if the journal cannot be opened
+	 */
+	public OrderJournal(Path directory, int segmentSize) throws IOException {
+		if (segmentSize <= OrderJournalReader.HEADER_SIZE)
+			throw new IllegalArgumentException("The segment is too small: " + segmentSize);
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+		Files.createDirectories(directory);
+		List<Path> segments = OrderJournalReader.segments(directory);
+		if (segments.isEmpty()) {
+			openSegment(1);
+		} else {
+			Path last = segments.get(segments.size() - 1);
+			segment = map(last, Math.max(segmentSize, (int) Files.size(last)));
+			lastSequence = OrderJournalReader.scan(segment, 0, null);
+			if (lastSequence == 0)
+				lastSequence = OrderJournalReader.firstSequence(last) - 1;
+			logger.debug("Order journal continues after order " + lastSequence);
+		}
+		syncedSequence = lastSequence;
+	}
+
+	/**
+	 * Appends an order to the journal and waits until it is on the disk.
+	 * @param order the order to append
+	 * @return the sequence number of the order
+	 * @throws UncheckedIOException if the journal cannot be written
+	 */
+	public long append(OrderRecord order) {
+		byte[] payload = OrderJournalReader.encode(order);
+		int size = OrderJournalReader.HEADER_SIZE + payload.length;
+		if (size > segmentSize)
+			throw new IllegalArgumentException("The order is larger than a segment");
+		long sequence;
+		synchronized (appendLock) {
+			if (segment == null)
+				throw new IllegalStateException("The order journal has been closed");
+			sequence = lastSequence + 1;
+			if (segment.remaining() < size)
+				rollSegment(sequence);
+			crc.reset();
+			crc.update(OrderJournalReader.sequence(sequence));
+			crc.update(payload);
+			int start = segment.position();
+			segment.position(start + Integer.BYTES);
+			segment.putLong(sequence).putInt((int) crc.getValue()).put(payload);
+			segment.putInt(start, payload.length);
+			lastSequence = sequence;
+		}
+		awaitSync(sequence);
+		return sequence;
+	}
+
+	/**
+	 * Returns the sequence number of the last written order.
+	 * @return the sequence number of the last order, {@code 0} if the journal is empty
+	 */
+	public long getLastSequence() {
+		synchronized (appendLock) {
+			return lastSequence;
+		}
+	}
+
+	/**
+	 * Returns the number of the syncs, which is less than the number of the appends
+	 * if the concurrent appends have shared the syncs.
+	 * @return the number of the syncs
+	 */
+	public long getSyncCount() {
+		synchronized (syncLock) {
+			return syncs;
+		}
+	}
+
+	/**
+	 * Syncs the current segment and closes the journal.
+	 */
+	public void close() {
+		synchronized (appendLock) {
+			if (segment != null) {
+				segment.force();
+				segment = null;
+			}
+		}
+	}
+
+	/**
+	 * Waits until the order with the given sequence number is on the disk.
+	 * If no other thread is syncing, the calling thread syncs every written order.
+	 * @param sequence the sequence number of the order
+	 */
+	private void awaitSync(long sequence) {
+		for (;;) {
+			synchronized (syncLock) {
+				while (syncing && syncedSequence < sequence) {
+					try {
+						syncLock.wait();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new IllegalStateException("Interrupted while waiting for the order journal", e);
+					}
+				}
+				if (syncedSequence >= sequence)
+					return;
+				syncing = true;
+			}
+			long target = 0;
+			try {
+				MappedByteBuffer current;
+				long written;
+				synchronized (appendLock) {
+					current = segment;
+					written = lastSequence;
+				}
+				if (current != null)
+					current.force();
+				target = written;
+			} finally {
+				synchronized (syncLock) {
+					syncing = false;
+					syncs++;
+					syncedSequence = Math.max(syncedSequence, target);
+					syncLock.notifyAll();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Syncs the current segment and starts a new one.
+	 * Must be called while holding the append lock.
+	 * @param firstSequence the sequence number of the first order of the new segment
+	 */
+	private void rollSegment(long firstSequence) {
+		segment.force();
+		try {
+			openSegment(firstSequence);
+		} catch (IOException e) {
+			throw new UncheckedIOException("The next segment of the order journal cannot be created", e);
+		}
+		logger.debug("Order journal has been rolled at order " + firstSequence);
+	}
+
+	/**
+	 * Creates and maps a new segment.
+	 * @param firstSequence the sequence number of the first order of the segment
+	 * @throws IOException if the segment cannot be created
+	 */
+	private void openSegment(long firstSequence) throws IOException {
+		Path file = directory.resolve(String.format("%s%020d%s",
+				OrderJournalReader.SEGMENT_PREFIX, firstSequence, OrderJournalReader.SEGMENT_SUFFIX));
+		segment = map(file, segmentSize);
+	}
+
+	/**
+	 * Maps a segment file for writing.
+	 * @param file the segment file
+	 * @param size the size of the mapping
+	 * @return the mapped content of the segment
+	 * @throws IOException if the segment cannot be mapped
+	 */
+	private static MappedByteBuffer map(Path file, int size) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+		}
+	}
+}
@@ -0,0 +1,227 @@
+package homeworkProject.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import homeworkProject.model.Person;
+import homeworkProject.model.Ticket;
+
+/**
+ * Class for reading the order journal sequentially.
+ * The segments are memory-mapped read-only and walked from the given sequence number.
+ * A record is framed by its length, sequence number and CRC32 checksum,
+ * and the reading of a segment stops at the first empty or torn record.
+ *
+ * @author Mario Posta
+ */
+public class OrderJournalReader {
+
+	/**
+	 * Size of the frame of a record: the length, the sequence number and the checksum.
+	 */
+	static final int HEADER_SIZE = Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+	/**
+	 * Prefix of the names of the segment files.
+	 */
+	static final String SEGMENT_PREFIX = "orders-";
+
+	/**
+	 * Suffix of the names of the segment files.
+	 */
+	static final String SEGMENT_SUFFIX = ".journal";
+
+	/**
+	 * Constructor which prevents instantiation.
+	 */
+	private OrderJournalReader() {
+	}
+
+	/**
+	 * Reads the orders of the journal in the order of their sequence numbers.
+	 * @param directory the directory of the journal
+	 * @param fromSequence the first sequence number to read
+	 * @param consumer the consumer of the orders
+	 * @return the sequence number of the last order of the journal, {@code 0} if the journal is empty
+	 * @throws IOException if the journal cannot be read
+	 */
+	public static long read(Path directory, long fromSequence, Consumer<OrderRecord> consumer) throws IOException {
+		long lastSequence = 0;
+		List<Path> segments = segments(directory);
+		for (int i = 0; i < segments.size(); i++) {
+			if (i + 1 < segments.size() && firstSequence(segments.get(i + 1)) <= fromSequence)
+				continue;
+			try (FileChannel channel = FileChannel.open(segments.get(i), StandardOpenOption.READ)) {
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+				long sequence = scan(buffer, fromSequence, consumer);
+				lastSequence = Math.max(lastSequence, sequence);
+			}
+		}
+		return lastSequence;
+	}
+
+	/**
+	 * Returns the segments of the journal in the order of their first sequence numbers.
+	 * @param directory the directory of the journal
+	 * @return the segment files
+	 * @throws IOException if the directory cannot be read
+	 */
+	static List<Path> segments(Path directory) throws IOException {
+		List<Path> segments = new ArrayList<>();
+		if (!Files.isDirectory(directory))
+			return segments;
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+			for (Path segment : stream)
+				segments.add(segment);
+		}
+		segments.sort((first, second) -> Long.compare(firstSequence(first), firstSequence(second)));
+		return segments;
+	}
+
+	/**
+	 * Returns the first sequence number of the segment from its file name.
+	 * @param segment the segment file
+	 * @return the first sequence number of the segment
+	 */
+	static long firstSequence(Path segment) {
+		String name = segment.getFileName().toString();
+		return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+	}
+
+	/**
+	 * Walks the records of a segment from the current position of the buffer.
+	 * The position of the buffer is left at the end of the last valid record.
+	 * @param buffer the content of the segment
+	 * @param fromSequence the first sequence number to pass to the consumer
+	 * @param consumer the consumer of the orders, {@code null} to skip the decoding
+	 * @return the sequence number of the last valid record, {@code 0} if there is no such record
+	 */
+	static long scan(ByteBuffer buffer, long fromSequence, Consumer<OrderRecord> consumer) {
+		long lastSequence = 0;
+		CRC32 crc = new CRC32();
+		while (buffer.remaining() >= HEADER_SIZE) {
+			int start = buffer.position();
+			int length = buffer.getInt(start);
+			if (length <= 0 || length > buffer.remaining() - HEADER_SIZE)
+				break;
+			long sequence = buffer.getLong(start + Integer.BYTES);
+			int checksum = buffer.getInt(start + Integer.BYTES + Long.BYTES);
+			ByteBuffer payload = buffer.duplicate();
+			payload.position(start + HEADER_SIZE).limit(start + HEADER_SIZE + length);
+			crc.reset();
+			crc.update(sequence(sequence));
+			crc.update(payload.duplicate());
+			if ((int) crc.getValue() != checksum)
+				break;
+			if (consumer != null && sequence >= fromSequence)
+				consumer.accept(decode(sequence, payload));
+			lastSequence = sequence;
+			buffer.position(start + HEADER_SIZE + length);
+		}
+		return lastSequence;
+	}
+
+	/**
+	 * Returns the bytes of the sequence number for the checksum.
+	 * @param sequence the sequence number
+	 * @return the bytes of the sequence number
+	 */
+	static byte[] sequence(long sequence) {
+		return ByteBuffer.allocate(Long.BYTES).putLong(sequence).array();
+	}
+
+	/**
+	 * Encodes the content of an order.
+	 * @param order the order to encode
+	 * @return the payload of the record
+	 */
+	static byte[] encode(OrderRecord order) {
+		Person customer = order.getCustomer();
+		List<byte[]> strings = new ArrayList<>();
+		strings.add(bytes(customer.getName()));
+		strings.add(bytes(customer.getEmail()));
+		strings.add(bytes(customer.getTelephone()));
+		strings.add(bytes(customer.getPostalCode()));
+		strings.add(bytes(customer.getCity()));
+		strings.add(bytes(customer.getStreet()));
+		for (Ticket line : order.getLines())
+			strings.add(bytes(line.getType()));
+		int size = Long.BYTES + Integer.BYTES + Integer.BYTES + order.getLines().size() * 2 * Integer.BYTES;
+		for (byte[] string : strings)
+			size += Integer.BYTES + string.length;
+		ByteBuffer payload = ByteBuffer.allocate(size);
+		payload.putLong(order.getTimeMillis());
+		for (int i = 0; i < 6; i++)
+			put(payload, strings.get(i));
+		payload.putInt(order.getTotalPrice());
+		payload.putInt(order.getLines().size());
+		for (int i = 0; i < order.getLines().size(); i++) {
+			Ticket line = order.getLines().get(i);
+			put(payload, strings.get(6 + i));
+			payload.putInt(line.getPrice());
+			payload.putInt(line.getAmount());
+		}
+		return payload.array();
+	}
+
+	/**
+	 * Decodes the content of an order.
+	 * @param sequence the sequence number of the order
+	 * @param payload the payload of the record
+	 * @return the decoded order
+	 */
+	private static OrderRecord decode(long sequence, ByteBuffer payload) {
+		long timeMillis = payload.getLong();
+		Person customer = new Person(string(payload), string(payload), string(payload),
+				string(payload), string(payload), string(payload));
+		int totalPrice = payload.getInt();
+		int count = payload.getInt();
+		List<Ticket> lines = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			String type = string(payload);
+			int price = payload.getInt();
+			lines.add(new Ticket(type, price, payload.getInt()));
+		}
+		return new OrderRecord(sequence, timeMillis, customer, lines, totalPrice);
+	}
+
+	/**
+	 * Returns the UTF-8 bytes of a string.
+	 * @param string the string, {@code null} is stored as an empty string
+	 * @return the bytes of the string
+	 */
+	private static byte[] bytes(String string) {
+		return string == null ? new byte[0] : string.getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Writes a length-prefixed string.
+	 * @param buffer the target buffer
+	 * @param string the bytes of the string
+	 */
+	private static void put(ByteBuffer buffer, byte[] string) {
+		buffer.putInt(string.length).put(string);
+	}
+
+	/**
+	 * Reads a length-prefixed string.
+	 * @param buffer the source buffer
+	 * @return the string
+	 */
+	private static String string(ByteBuffer buffer) {
+		byte[] string = new byte[buffer.getInt()];
+		buffer.get(string);
+		return new String(string, StandardCharsets.UTF_8);
+	}
+}
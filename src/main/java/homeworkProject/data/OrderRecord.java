@@ -0,0 +1,112 @@
+package homeworkProject.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import homeworkProject.model.Person;
+import homeworkProject.model.Ticket;
+
+/**
+ * Class for representing a checkout in the order journal:
+ * the customer, the sold lines and the total price.
+ *
+ * @author Mario Posta
+ */
+public class OrderRecord {
+
+	/**
+	 * Sequence number of the order in the journal, {@code -1} if it has not been journaled.
+	 */
+	private final long sequence;
+
+	/**
+	 * Time of the order in milliseconds.
+	 */
+	private final long timeMillis;
+
+	/**
+	 * The customer of the order.
+	 */
+	private final Person customer;
+
+	/**
+	 * The sold lines of the order, copied because the lines of a shopping cart change.
+	 */
+	private final List<Ticket> lines;
+
+	/**
+	 * Total price of the order.
+	 */
+	private final int totalPrice;
+
+	/**
+	 * Constructor for a new order which has not been journaled yet.
+	 * @param customer the customer of the order
+	 * @param lines the sold lines of the order
+	 * @param totalPrice the total price of the order
+	 */
+	public OrderRecord(Person customer, List<Ticket> lines, int totalPrice) {
+		this(-1, System.currentTimeMillis(), customer, lines, totalPrice);
+	}
+
+	/**
+	 * Constructor for an order which is read from the journal.
+	 * @param sequence the sequence number of the order
+	 * @param timeMillis the time of the order in milliseconds
+	 * @param customer the customer of the order
+	 * @param lines the sold lines of the order
+	 * @param totalPrice the total price of the order
+	 */
+	OrderRecord(long sequence, long timeMillis, Person customer, List<Ticket> lines, int totalPrice) {
+		this.sequence = sequence;
+		this.timeMillis = timeMillis;
+		this.customer = customer;
+		List<Ticket> copies = new ArrayList<>(lines.size());
+		for (Ticket line : lines) {
+			copies.add(new Ticket(line.getType(), line.getPrice(), line.getAmount()));
+		}
+		this.lines = Collections.unmodifiableList(copies);
+		this.totalPrice = totalPrice;
+	}
+
+	/**
+	 * Returns the sequence number of the order in the journal.
+	 * @return the sequence number, {@code -1} if the order has not been journaled
+	 */
+	public long getSequence() {
+		return sequence;
+	}
+
+	/**
+	 * Returns the time of the order.
+	 * @return the time of the order in milliseconds
+	 */
+	public long getTimeMillis() {
+		return timeMillis;
+	}
+
+	/**
+	 * Returns the customer of the order.
+	 * @return the customer of the order
+	 */
+	public Person getCustomer() {
+		return customer;
+	}
+
+	/**
+	 * Returns the sold lines of the order.
+	 * @return the read-only list of the sold lines
+	 */
+	public List<Ticket> getLines() {
+		return lines;
+	}
+
+	/**
+	 * Returns the total price of the order.
+	 * @return the total price of the order
+	 */
+	public int getTotalPrice() {
+		return totalPrice;
+	}
+}
@@ -0,0 +1,370 @@
+package homeworkProject.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import homeworkProject.model.Order;
+import homeworkProject.model.Ticket;
+
+/**
+ * Class for sequencing the checkouts through one writer thread.
+ * The checkouts are published to a preallocated ring buffer by any number of threads,
+ * and the writer thread takes them in the order of their sequence numbers. The writer
+ * reserves every checkout of a batch in the inventory, so the reservations never contend
+ * with each other, then sells the whole batch at once with {@link TicketService#commitReservations(List, List)},
+ * which writes the batch to the write-behind log with one sync, so the sequencer requires the write-behind mode.
+ * A publisher waits in its slot until the writer has stored the result there, then frees the slot,
+ * so a checkout allocates nothing in the sequencer, and the batches reuse the lists of the writer.
+ * While the sequencer runs, the checkouts of the shop should go through it, see
+ * {@link homeworkProject.businessLogic.HoldManager#setOrderSequencer(OrderSequencer)}.
+ *
+ * @author Mario Posta
+ */
+public class OrderSequencer {
+
+	/**
+	 * Default number of the slots of the ring buffer.
+	 */
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	/**
+	 * Number of the empty polls of the writer before it parks.
+	 */
+	private static final int SPINS = 100;
+
+	/**
+	 * Longest time the writer parks for in nanoseconds.
+	 */
+	private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	/**
+	 * Class for a slot of the ring buffer, which is reused by every checkout of its position.
+	 */
+	private static class Slot {
+
+		/**
+		 * The lines of the shopping cart to reserve, {@code null} if the checkout has been reserved already.
+		 */
+		List<Ticket> cart;
+
+		/**
+		 * The reservation of the checkout, made by the publisher or by the writer.
+		 */
+		CheckoutResult reservation;
+
+		/**
+		 * The order of the shopping cart, {@code null} if there is no order to save.
+		 */
+		Order order;
+
+		/**
+		 * The failure of the checkout, {@code null} if the checkout has been processed.
+		 */
+		RuntimeException failure;
+
+		/**
+		 * The publisher which waits for the result.
+		 */
+		Thread publisher;
+	}
+
+	/**
+	 * Logger for tracking the application.
+	 */
+	private Logger logger = LoggerFactory.getLogger(OrderSequencer.class);
+
+	/**
+	 * The TicketService which reserves and sells the checkouts.
+	 */
+	private final TicketService ticketService;
+
+	/**
+	 * Slots of the ring buffer.
+	 */
+	private final Slot[] slots;
+
+	/**
+	 * Mask of the index of a slot in a sequence number.
+	 */
+	private final int mask;
+
+	/**
+	 * Sequence numbers of the published checkouts by slot, {@code -1} if the slot has not been published yet.
+	 */
+	private final AtomicLongArray published;
+
+	/**
+	 * Sequence numbers of the processed checkouts by slot, whose result may be read by their publisher.
+	 */
+	private final AtomicLongArray processed;
+
+	/**
+	 * Sequence numbers of the checkouts whose result has been read by slot, so the slot may be reused.
+	 */
+	private final AtomicLongArray freed;
+
+	/**
+	 * Next sequence number to claim, negative once the sequencer has been shut down.
+	 */
+	private final AtomicLong nextSequence = new AtomicLong();
+
+	/**
+	 * Sequence number after the last claimed checkout, set when the sequencer is shut down.
+	 */
+	private volatile long end = Long.MAX_VALUE;
+
+	/**
+	 * Whether the writer is parked or about to park.
+	 */
+	private volatile boolean waiting;
+
+	/**
+	 * Whether the writer thread has been started and the sequencer has not been shut down.
+	 */
+	private volatile boolean running;
+
+	/**
+	 * Whether the shutdown has stopped waiting for the writer, so the writer leaves
+	 * the unpublished slots and the publishers stop waiting for a free slot.
+	 */
+	private volatile boolean abandoned;
+
+	/**
+	 * The writer thread, {@code null} if the sequencer has not been started.
+	 */
+	private volatile Thread writer;
+
+	/**
+	 * Reservations of the current batch, reused by every batch of the writer.
+	 */
+	private final List<CheckoutResult> reservations;
+
+	/**
+	 * Orders of the current batch, reused by every batch of the writer.
+	 */
+	private final List<Order> orders;
+
+	/**
+	 * Constructor for OrderSequencer.
+	 * @param ticketService the TicketService which reserves and sells the checkouts
+	 * @param capacity the number of the slots of the ring buffer, a power of two
+	 * @throws IllegalArgumentException if the capacity is not a positive power of two
+	 */
+	public OrderSequencer(TicketService ticketService, int capacity) {
+		if (capacity < 1 || Integer.bitCount(capacity) != 1)
+			throw new IllegalArgumentException("The capacity of the ring buffer must be a power of two: " + capacity);
+		this.ticketService = ticketService;
+		this.slots = new Slot[capacity];
+		this.mask = capacity - 1;
+		this.published = new AtomicLongArray(capacity);
+		this.processed = new AtomicLongArray(capacity);
+		this.freed = new AtomicLongArray(capacity);
+		for (int i = 0; i < capacity; i++) {
+			slots[i] = new Slot();
+			published.set(i, -1);
+			processed.set(i, -1);
+			freed.set(i, i - capacity);
+		}
+		this.reservations = new ArrayList<>(capacity);
+		this.orders = new ArrayList<>(capacity);
+	}
+
+	/**
+	 * Starts the writer thread.
+	 * @throws IllegalStateException if the TicketService is not in write-behind mode,
+	 * because every checkout of a batch would be a transaction of its own
+	 */
+	public synchronized void start() {
+		if (writer != null || end != Long.MAX_VALUE)
+			return;
+		if (ticketService.getWriteBehindLog() == null)
+			throw new IllegalStateException("The order sequencer requires the write-behind mode");
+		Thread thread = new Thread(this::runWriter, "order-sequencer");
+		thread.setDaemon(true);
+		writer = thread;
+		thread.start();
+		running = true;
+	}
+
+	/**
+	 * Reserves and sells the lines of a shopping cart on the writer thread, and waits for the result.
+	 * Waits for a free slot if the ring buffer is full.
+	 * @param cart the lines of the shopping cart, which must not change until the method returns
+	 * @param order the order of the shopping cart, {@code null} if there is no order to save
+	 * @return the result of the checkout with a result for every line
+	 * @throws RejectedExecutionException if the sequencer is not running, or it has stopped before the checkout
+	 * @throws RuntimeException if the checkout fails
+	 */
+	public CheckoutResult checkout(List<Ticket> cart, Order order) {
+		return sequence(cart, null, order);
+	}
+
+	/**
+	 * Sells a reservation, e.g. the reservation of a hold, on the writer thread, and waits for the result.
+	 * Waits for a free slot if the ring buffer is full.
+	 * @param reservation the reservation which has been made by {@link TicketService#reserve(List)}
+	 * @param order the order of the reservation, {@code null} if there is no order to save
+	 * @return the given reservation with the result of the checkout
+	 * @throws RejectedExecutionException if the sequencer is not running, or it has stopped before the checkout
+	 * @throws RuntimeException if the checkout fails
+	 */
+	public CheckoutResult commit(CheckoutResult reservation, Order order) {
+		return sequence(null, reservation, order);
+	}
+
+	/**
+	 * Publishes a checkout to the writer thread, waits for its result and frees its slot.
+	 * The checkout is rejected if the writer thread stops or is abandoned before it takes the checkout.
+	 * @param cart the lines of the shopping cart to reserve, {@code null} if the checkout has been reserved
+	 * @param reservation the reservation of the checkout, {@code null} if the cart is reserved by the writer
+	 * @param order the order of the checkout, {@code null} if there is no order to save
+	 * @return the result of the checkout
+	 */
+	private CheckoutResult sequence(List<Ticket> cart, CheckoutResult reservation, Order order) {
+		Thread thread = writer;
+		if (!running || !thread.isAlive())
+			throw new RejectedExecutionException("The order sequencer is not running");
+		long sequence = nextSequence.getAndIncrement();
+		if (sequence < 0)
+			throw new RejectedExecutionException("The order sequencer is not running");
+		int index = (int) sequence & mask;
+		while (freed.get(index) != sequence - slots.length) {
+			if (abandoned || !thread.isAlive())
+				throw new RejectedExecutionException("The order sequencer has stopped");
+			LockSupport.parkNanos(1000);
+		}
+		Slot slot = slots[index];
+		slot.cart = cart;
+		slot.reservation = reservation;
+		slot.order = order;
+		slot.publisher = Thread.currentThread();
+		published.set(index, sequence);
+		if (waiting)
+			LockSupport.unpark(writer);
+
+		boolean interrupted = false;
+		while (processed.get(index) != sequence) {
+			if (!thread.isAlive() && processed.get(index) != sequence) {
+				if (interrupted)
+					Thread.currentThread().interrupt();
+				throw new RejectedExecutionException("The order sequencer has stopped before the checkout");
+			}
+			LockSupport.parkNanos(this, PARK_NANOS);
+			if (Thread.interrupted())
+				interrupted = true;
+		}
+		CheckoutResult result = slot.reservation;
+		RuntimeException failure = slot.failure;
+		slot.reservation = null;
+		slot.failure = null;
+		slot.publisher = null;
+		freed.set(index, sequence);
+		if (interrupted)
+			Thread.currentThread().interrupt();
+		if (failure != null)
+			throw failure;
+		return result;
+	}
+
+	/**
+	 * Stops accepting checkouts, and stops the writer thread after the published checkouts have been processed.
+	 * @param timeoutMillis the maximal time to wait for the writer in milliseconds
+	 */
+	public void shutdown(long timeoutMillis) {
+		Thread stopped;
+		synchronized (this) {
+			if (end == Long.MAX_VALUE)
+				end = nextSequence.getAndSet(Long.MIN_VALUE);
+			running = false;
+			stopped = writer;
+		}
+		if (stopped != null) {
+			LockSupport.unpark(stopped);
+			try {
+				stopped.join(timeoutMillis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			if (stopped.isAlive()) {
+				abandoned = true;
+				LockSupport.unpark(stopped);
+				logger.warn("The order sequencer has not finished in time");
+			}
+		}
+	}
+
+	/**
+	 * Loop of the writer thread, which processes the published checkouts in batches
+	 * until the sequencer is stopped and every claimed slot has been processed,
+	 * or the shutdown has abandoned the slots which have not been published.
+	 */
+	private void runWriter() {
+		long next = 0;
+		int idle = 0;
+		for (;;) {
+			long last = next - 1;
+			while (last - next + 1 < slots.length && published.get((int) (last + 1) & mask) == last + 1)
+				last++;
+			if (last >= next) {
+				process(next, last);
+				next = last + 1;
+				idle = 0;
+				continue;
+			}
+			if (next == end || abandoned)
+				return;
+			if (++idle < SPINS) {
+				Thread.yield();
+				continue;
+			}
+			waiting = true;
+			if (published.get((int) next & mask) != next && next != end)
+				LockSupport.parkNanos(PARK_NANOS);
+			waiting = false;
+		}
+	}
+
+	/**
+	 * Processes a batch of published checkouts, then hands the results over to their publishers.
+	 * @param first the sequence number of the first checkout of the batch
+	 * @param last the sequence number of the last checkout of the batch
+	 */
+	private void process(long first, long last) {
+		for (long sequence = first; sequence <= last; sequence++) {
+			Slot slot = slots[(int) sequence & mask];
+			try {
+				if (slot.reservation == null)
+					slot.reservation = ticketService.reserve(slot.cart);
+				reservations.add(slot.reservation);
+				orders.add(slot.order);
+			} catch (RuntimeException e) {
+				slot.failure = e;
+			}
+			slot.cart = null;
+			slot.order = null;
+		}
+		try {
+			ticketService.commitReservations(reservations, orders);
+		} catch (RuntimeException e) {
+			logger.error("The batch of the order sequencer has failed", e);
+			for (long sequence = first; sequence <= last; sequence++)
+				slots[(int) sequence & mask].failure = e;
+		}
+		reservations.clear();
+		orders.clear();
+		for (long sequence = first; sequence <= last; sequence++) {
+			int index = (int) sequence & mask;
+			Thread publisher = slots[index].publisher;
+			processed.set(index, sequence);
+			LockSupport.unpark(publisher);
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package homeworkProject.data;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Class for reading the utilization of the JDBC connection pool.
+ * The pool registers its MBean on the platform MBean server,
+ * so the metrics are read through JMX and the pool is not referenced directly.
+ *
+ * @author Mario Posta
+ */
+public class PoolMetrics {
+
+	/**
+	 * Name of the connection pool of the application.
+	 */
+	public static final String POOL_NAME = "TicketSystem";
+
+	/**
+	 * Logger for tracking the application.
+	 */
+	private Logger logger = LoggerFactory.getLogger(PoolMetrics.class);
+
+	/**
+	 * Name of the MBean of the pool.
+	 */
+	private final ObjectName poolName;
+
+	/**
+	 * MBean server which holds the MBean of the pool.
+	 */
+	private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+	/**
+	 * Constructor for PoolMetrics.
+	 * @param poolName the name of the connection pool
+	 */
+	public PoolMetrics(String poolName) {
+		try {
+			this.poolName = new ObjectName("com.zaxxer.hikari:type=Pool (" + poolName + ")");
+		} catch (JMException e) {
+			throw new IllegalArgumentException("Invalid pool name: " + poolName, e);
+		}
+	}
+
+	/**
+	 * Decides whether the pool has registered its MBean.
+	 * @return {@code true} if the metrics can be read, {@code false} otherwise
+	 */
+	public boolean isAvailable() {
+		return mBeanServer.isRegistered(poolName);
+	}
+
+	/**
+	 * Returns the number of the connections which are in use.
+	 * @return the number of the active connections, {@code -1} if it cannot be read
+	 */
+	public int getActiveConnections() {
+		return read("ActiveConnections");
+	}
+
+	/**
+	 * Returns the number of the connections which are not in use.
+	 * @return the number of the idle connections, {@code -1} if it cannot be read
+	 */
+	public int getIdleConnections() {
+		return read("IdleConnections");
+	}
+
+	/**
+	 * Returns the number of the connections of the pool.
+	 * @return the number of the connections, {@code -1} if it cannot be read
+	 */
+	public int getTotalConnections() {
+		return read("TotalConnections");
+	}
+
+	/**
+	 * Returns the number of the threads which wait for a connection.
+	 * @return the number of the waiting threads, {@code -1} if it cannot be read
+	 */
+	public int getThreadsAwaitingConnection() {
+		return read("ThreadsAwaitingConnection");
+	}
+
+	@Override
+	public String toString() {
+		if (!isAvailable())
+			return "pool metrics are not available";
+		return "active=" + getActiveConnections() + ", idle=" + getIdleConnections()
+				+ ", total=" + getTotalConnections() + ", waiting=" + getThreadsAwaitingConnection();
+	}
+
+	/**
+	 * Reads an attribute of the MBean of the pool.
+	 * @param attribute the name of the attribute
+	 * @return the value of the attribute, {@code -1} if it cannot be read
+	 */
+	private int read(String attribute) {
+		try {
+			return ((Number) mBeanServer.getAttribute(poolName, attribute)).intValue();
+		} catch (JMException e) {
+			logger.debug("Pool metric cannot be read: " + attribute);
+			return -1;
+		}
+	}
+}
@@ -0,0 +1,643 @@
+package homeworkProject.data;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Class for holding the numbered seats of a grandstand as bitsets.
+ * The seats are numbered row by row from {@code 0}, and every seat is one bit
+ * of a word of 64 seats. A seat is claimed by a reservation or a hold, and a claimed
+ * seat becomes sold when its sale has been committed; sold seats are never released.
+ * The bits are claimed and released with compare-and-set operations on whole words,
+ * so concurrent reservations never block each other, and even the capacity of the
+ * whole circuit fits in a few kilobytes.
+ * The longest unclaimed run of every row is indexed by a segment tree, which is refreshed
+ * after every change of the bits, so a group finds the best adjacent seats of the grandstand
+ * by visiting only the rows which are long enough for it.
+ *
+ * @author Mario Posta
+ */
+public class SeatMap {
+
+	/**
+	 * Largest number of the seats of a grandstand.
+	 */
+	public static final int MAX_CAPACITY = 1 << 24;
+
+	/**
+	 * Number of the seats of a word.
+	 */
+	private static final int WORD_SIZE = 64;
+
+	/**
+	 * Stack of the nodes of the search of adjacent seats, one per thread, so a claim allocates no search state.
+	 * The tree has at most {@link #MAX_CAPACITY} leaves, so the stack holds at most one node more than its depth.
+	 */
+	private static final ThreadLocal<int[]> SEARCH_STACK = ThreadLocal.withInitial(() -> new int[2 * Integer.SIZE]);
+
+	/**
+	 * Number of the seats.
+	 */
+	private final int capacity;
+
+	/**
+	 * Number of the seats of a row.
+	 */
+	private final int seatsPerRow;
+
+	/**
+	 * Bits of the claimed seats, which include the sold seats.
+	 */
+	private final AtomicLongArray claimed;
+
+	/**
+	 * Bits of the sold seats.
+	 */
+	private final AtomicLongArray sold;
+
+	/**
+	 * Number of the unclaimed seats. Decremented before the bits are claimed and
+	 * incremented after the bits are released, so it never promises more seats than the bits have.
+	 */
+	private final AtomicInteger available;
+
+	/**
+	 * Index of the first word which may have an unclaimed seat.
+	 */
+	private final AtomicInteger firstFreeWord = new AtomicInteger();
+
+	/**
+	 * Number of the leaves of the segment tree, the smallest power of two which is not less than the rows.
+	 */
+	private final int leaves;
+
+	/**
+	 * Segment tree of the longest unclaimed runs, the root is at {@code 1}, the leaf of a row
+	 * is at {@code leaves + row}, and every inner node holds the maximum of its children.
+	 */
+	private final AtomicIntegerArray freeRuns;
+
+	/**
+	 * Trees of the row scores keyed by the quality, built by the first search of the quality.
+	 */
+	private final Map<SeatQuality, double[]> rowScoreTrees = new ConcurrentHashMap<>();
+
+	/**
+	 * Prefix sums of the seat scores of a full row and of the last row keyed by the quality,
+	 * built by the first search of the quality.
+	 */
+	private final Map<SeatQuality, double[][]> prefixScoreTables = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructor for an empty SeatMap.
+	 * @param capacity the number of the seats
+	 * @param seatsPerRow the number of the seats of a row
+	 * @throws IllegalArgumentException if the capacity is negative or larger than {@link #MAX_CAPACITY},
+	 * or the rows are empty
+	 */
+	public SeatMap(int capacity, int seatsPerRow) {
+		this(capacity, seatsPerRow, null);
+	}
+
+	/**
+	 * Constructor for a SeatMap with the sold seats of a bitmap.
+	 * @param capacity the number of the seats
+	 * @param seatsPerRow the number of the seats of a row
+	 * @param soldSeats the bitmap of the sold seats from the lowest bit of the first byte,
+	 * {@code null} if no seat is sold
+	 * @throws IllegalArgumentException if the capacity is negative or larger than {@link #MAX_CAPACITY},
+	 * or the rows are empty
+	 */
+	public SeatMap(int capacity, int seatsPerRow, byte[] soldSeats) {
+		if (capacity < 0 || capacity > MAX_CAPACITY)
+			throw new IllegalArgumentException("Invalid number of seats: " + capacity);
+		if (seatsPerRow < 1)
+			throw new IllegalArgumentException("Invalid number of seats per row: " + seatsPerRow);
+		this.capacity = capacity;
+		this.seatsPerRow = seatsPerRow;
+		int words = (capacity + WORD_SIZE - 1) / WORD_SIZE;
+		this.claimed = new AtomicLongArray(words);
+		this.sold = new AtomicLongArray(words);
+		int soldCount = 0;
+		if (soldSeats != null) {
+			for (int word = 0; word < words; word++) {
+				long bits = 0;
+				for (int b = 0; b < Long.BYTES; b++) {
+					int index = word * Long.BYTES + b;
+					if (index < soldSeats.length)
+						bits |= (soldSeats[index] & 0xFFL) << (b * Byte.SIZE);
+				}
+				bits &= validMask(word);
+				claimed.set(word, bits);
+				sold.set(word, bits);
+				soldCount += Long.bitCount(bits);
+			}
+		}
+		this.available = new AtomicInteger(capacity - soldCount);
+		int rows = getRows();
+		int size = 1;
+		while (size < rows)
+			size <<= 1;
+		this.leaves = size;
+		this.freeRuns = new AtomicIntegerArray(2 * size);
+		for (int row = 0; row < rows; row++)
+			freeRuns.set(size + row, longestFreeRun(row));
+		for (int node = size - 1; node > 0; node--)
+			freeRuns.set(node, Math.max(freeRuns.get(2 * node), freeRuns.get(2 * node + 1)));
+	}
+
+	/**
+	 * Returns the number of the seats.
+	 * @return the number of the seats
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Returns the number of the seats of a row.
+	 * @return the number of the seats of a row
+	 */
+	public int getSeatsPerRow() {
+		return seatsPerRow;
+	}
+
+	/**
+	 * Returns the number of the rows, the last row may be shorter than the others.
+	 * @return the number of the rows
+	 */
+	public int getRows() {
+		return (capacity + seatsPerRow - 1) / seatsPerRow;
+	}
+
+	/**
+	 * Returns the row of a seat.
+	 * @param seat the number of the seat
+	 * @return the row of the seat from {@code 0}
+	 */
+	public int getRow(int seat) {
+		return seat / seatsPerRow;
+	}
+
+	/**
+	 * Returns the position of a seat in its row.
+	 * @param seat the number of the seat
+	 * @return the position of the seat in its row from {@code 0}
+	 */
+	public int getSeatInRow(int seat) {
+		return seat % seatsPerRow;
+	}
+
+	/**
+	 * Returns the number of the unclaimed seats.
+	 * @return the number of the unclaimed seats
+	 */
+	public int getAvailable() {
+		return available.get();
+	}
+
+	/**
+	 * Decides whether a seat has been claimed.
+	 * @param seat the number of the seat
+	 * @return {@code true} if the seat is claimed or sold, {@code false} otherwise
+	 */
+	public boolean isClaimed(int seat) {
+		return (claimed.get(seat / WORD_SIZE) & bit(seat)) != 0;
+	}
+
+	/**
+	 * Decides whether a seat has been sold.
+	 * @param seat the number of the seat
+	 * @return {@code true} if the seat is sold, {@code false} otherwise
+	 */
+	public boolean isSold(int seat) {
+		return (sold.get(seat / WORD_SIZE) & bit(seat)) != 0;
+	}
+
+	/**
+	 * Returns the longest run of unclaimed adjacent seats in a row of the grandstand.
+	 * @return the size of the largest group which can still sit together
+	 */
+	public int getLongestFreeRun() {
+		return freeRuns.get(1);
+	}
+
+	/**
+	 * Claims the given number of seats, the first unclaimed seats of the grandstand.
+	 * The number of the seats is taken from the available counter first, so the bits
+	 * which are claimed afterwards surely exist.
+	 * @param amount the number of the seats to claim
+	 * @return the numbers of the claimed seats in ascending order,
+	 * {@code null} if there is no enough seat or the amount is not positive
+	 */
+	public int[] claim(int amount) {
+		if (amount < 1 || !takeAvailable(amount))
+			return null;
+		int[] seats = new int[amount];
+		int found = 0;
+		int words = claimed.length();
+		int word = firstFreeWord.get();
+		boolean wrapped = false;
+		while (found < amount) {
+			long bits = claimed.get(word);
+			long free = ~bits & validMask(word);
+			if (free == 0) {
+				if (word + 1 < words) {
+					firstFreeWord.compareAndSet(word, word + 1);
+					word++;
+				} else {
+					word = 0;
+					wrapped = true;
+				}
+				continue;
+			}
+			long taken = 0;
+			for (int i = found; i < amount && free != 0; i++) {
+				long lowest = Long.lowestOneBit(free);
+				taken |= lowest;
+				free ^= lowest;
+			}
+			if (claimed.compareAndSet(word, bits, bits | taken)) {
+				refresh(word, taken);
+				for (long rest = taken; rest != 0; rest &= rest - 1)
+					seats[found++] = word * WORD_SIZE + Long.numberOfTrailingZeros(rest);
+			}
+		}
+		if (wrapped)
+			Arrays.sort(seats);
+		return seats;
+	}
+
+	/**
+	 * Claims the given number of adjacent seats in one row, the group with the highest score.
+	 * Only the rows whose longest unclaimed run is long enough are visited, and the claim
+	 * is retried if a concurrent claim took a seat of the chosen group.
+	 * @param amount the number of the seats to claim
+	 * @param quality the scores of the seats
+	 * @return the numbers of the claimed seats in ascending order, {@code null} if there is
+	 * no enough adjacent seat in a row or the amount is not positive
+	 */
+	public int[] claimTogether(int amount, SeatQuality quality) {
+		if (amount < 1 || amount > seatsPerRow || !takeAvailable(amount))
+			return null;
+		for (;;) {
+			int first = findTogether(amount, quality);
+			if (first < 0) {
+				available.addAndGet(amount);
+				return null;
+			}
+			if (claimRange(first, amount)) {
+				int[] seats = new int[amount];
+				for (int i = 0; i < amount; i++)
+					seats[i] = first + i;
+				return seats;
+			}
+		}
+	}
+
+	/**
+	 * Finds the best group of adjacent unclaimed seats in a row.
+	 * The segment tree is searched by branch and bound: the subtrees of the better rows
+	 * are visited first, and a subtree is skipped if none of its rows is long enough for the group
+	 * or even its best row could not beat the best group found so far.
+	 * Ties are won by the group with the lower seat numbers.
+	 * @param amount the number of the seats of the group
+	 * @param quality the scores of the seats
+	 * @return the number of the first seat of the group, {@code -1} if there is no such group
+	 */
+	private int findTogether(int amount, SeatQuality quality) {
+		int rows = getRows();
+		double[] rowScores = rowScoreTrees.computeIfAbsent(quality, this::rowScoreTree);
+		double[][] prefixes = prefixScoreTables.computeIfAbsent(quality, this::prefixScoreTable);
+		double[] fullPrefix = prefixes[0];
+		double[] lastPrefix = prefixes[1];
+		double bestWindow = Math.max(bestWindow(fullPrefix, amount), bestWindow(lastPrefix, amount));
+		int best = -1;
+		double bestScore = Double.NEGATIVE_INFINITY;
+		int[] stack = SEARCH_STACK.get();
+		int top = 0;
+		stack[top++] = 1;
+		while (top > 0) {
+			int node = stack[--top];
+			if (freeRuns.get(node) < amount || amount * rowScores[node] + bestWindow < bestScore)
+				continue;
+			if (node < leaves) {
+				boolean leftFirst = rowScores[2 * node] >= rowScores[2 * node + 1];
+				stack[top++] = leftFirst ? 2 * node + 1 : 2 * node;
+				stack[top++] = leftFirst ? 2 * node : 2 * node + 1;
+				continue;
+			}
+			int row = node - leaves;
+			double[] prefix = row == rows - 1 ? lastPrefix : fullPrefix;
+			double rowScore = amount * rowScores[node];
+			int start = row * seatsPerRow;
+			int run = 0;
+			for (int i = 0; i < prefix.length - 1; i++) {
+				run = isClaimed(start + i) ? 0 : run + 1;
+				if (run < amount)
+					continue;
+				double score = rowScore + prefix[i + 1] - prefix[i + 1 - amount];
+				int first = start + i + 1 - amount;
+				if (score > bestScore || score == bestScore && first < best) {
+					bestScore = score;
+					best = first;
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Builds the tree of the row scores of a quality, which has the shape of the segment tree
+	 * and holds the best row score of every subtree.
+	 * @param quality the scores of the seats
+	 * @return the tree of the row scores
+	 */
+	private double[] rowScoreTree(SeatQuality quality) {
+		int rows = getRows();
+		double[] tree = new double[2 * leaves];
+		Arrays.fill(tree, Double.NEGATIVE_INFINITY);
+		for (int row = 0; row < rows; row++)
+			tree[leaves + row] = quality.getRowScore(row, rows);
+		for (int node = leaves - 1; node > 0; node--)
+			tree[node] = Math.max(tree[2 * node], tree[2 * node + 1]);
+		return tree;
+	}
+
+	/**
+	 * Builds the prefix sums of the seat scores of a full row and of the last row of a quality.
+	 * @param quality the scores of the seats
+	 * @return the prefix sums of a full row and of the last row, the same array if the last row is full
+	 */
+	private double[][] prefixScoreTable(SeatQuality quality) {
+		double[] fullPrefix = prefixScores(quality, seatsPerRow);
+		int lastLength = rowLength(getRows() - 1);
+		return new double[][] {fullPrefix, lastLength == seatsPerRow ? fullPrefix : prefixScores(quality, lastLength)};
+	}
+
+	/**
+	 * Returns the prefix sums of the seat scores of a row.
+	 * @param quality the scores of the seats
+	 * @param length the number of the seats of the row
+	 * @return the prefix sums, the first element is {@code 0}
+	 */
+	private static double[] prefixScores(SeatQuality quality, int length) {
+		double[] prefix = new double[length + 1];
+		for (int i = 0; i < length; i++)
+			prefix[i + 1] = prefix[i] + quality.getSeatScore(i, length);
+		return prefix;
+	}
+
+	/**
+	 * Returns the best seat score of a group in an empty row.
+	 * @param prefix the prefix sums of the seat scores of the row
+	 * @param amount the number of the seats of the group
+	 * @return the best seat score, negative infinity if the row is too short
+	 */
+	private static double bestWindow(double[] prefix, int amount) {
+		double best = Double.NEGATIVE_INFINITY;
+		for (int i = amount; i < prefix.length; i++)
+			best = Math.max(best, prefix[i] - prefix[i - amount]);
+		return best;
+	}
+
+	/**
+	 * Claims a range of seats if none of them is claimed.
+	 * @param first the number of the first seat
+	 * @param amount the number of the seats
+	 * @return {@code true} if the range has been claimed, {@code false} if a seat of it was claimed
+	 */
+	private boolean claimRange(int first, int amount) {
+		int last = first + amount - 1;
+		int firstWord = first / WORD_SIZE;
+		int lastWord = last / WORD_SIZE;
+		for (int word = firstWord; word <= lastWord; word++) {
+			long mask = rangeMask(word, first, last);
+			for (;;) {
+				long bits = claimed.get(word);
+				if ((bits & mask) != 0) {
+					for (int taken = firstWord; taken < word; taken++)
+						clearBits(taken, rangeMask(taken, first, last));
+					return false;
+				}
+				if (claimed.compareAndSet(word, bits, bits | mask))
+					break;
+			}
+		}
+		for (int word = firstWord; word <= lastWord; word++)
+			refresh(word, rangeMask(word, first, last));
+		return true;
+	}
+
+	/**
+	 * Clears claimed bits of a word without counting them as available, used to undo a partial claim.
+	 * A concurrent refresh or scan may have seen the bits claimed, so the segment tree
+	 * is refreshed and the first word with a free seat is lowered again.
+	 * @param word the index of the word
+	 * @param mask the bits to clear
+	 */
+	private void clearBits(int word, long mask) {
+		for (;;) {
+			long bits = claimed.get(word);
+			if (claimed.compareAndSet(word, bits, bits & ~mask))
+				break;
+		}
+		refresh(word, mask);
+		firstFreeWord.accumulateAndGet(word, Math::min);
+	}
+
+	/**
+	 * Takes the given number of seats from the available counter.
+	 * @param amount the number of the seats
+	 * @return {@code true} if there were enough seats, {@code false} otherwise
+	 */
+	private boolean takeAvailable(int amount) {
+		for (;;) {
+			int free = available.get();
+			if (free < amount)
+				return false;
+			if (available.compareAndSet(free, free - amount))
+				return true;
+		}
+	}
+
+	/**
+	 * Releases the given seats, the sold and the unclaimed seats are left unchanged.
+	 * @param seats the numbers of the seats to release
+	 * @return the number of the released seats
+	 */
+	public int release(int[] seats) {
+		int released = 0;
+		int i = 0;
+		while (i < seats.length) {
+			int word = seats[i] / WORD_SIZE;
+			long mask = 0;
+			for (; i < seats.length && seats[i] / WORD_SIZE == word; i++) {
+				if (seats[i] >= 0 && seats[i] < capacity)
+					mask |= bit(seats[i]);
+			}
+			released += releaseBits(word, mask);
+		}
+		return released;
+	}
+
+	/**
+	 * Marks the given claimed seats as sold.
+	 * @param seats the numbers of the claimed seats
+	 * @return the number of the newly sold seats
+	 */
+	public int markSold(int[] seats) {
+		int marked = 0;
+		for (int seat : seats) {
+			if (seat < 0 || seat >= capacity)
+				continue;
+			int word = seat / WORD_SIZE;
+			long bit = bit(seat);
+			for (;;) {
+				long bits = sold.get(word);
+				if ((bits & bit) != 0 || (claimed.get(word) & bit) == 0)
+					break;
+				if (sold.compareAndSet(word, bits, bits | bit)) {
+					marked++;
+					break;
+				}
+			}
+		}
+		return marked;
+	}
+
+	/**
+	 * Clears the claimed bits of a word which are not sold.
+	 * @param word the index of the word
+	 * @param mask the bits to clear
+	 * @return the number of the cleared bits
+	 */
+	private int releaseBits(int word, long mask) {
+		if (mask == 0)
+			return 0;
+		for (;;) {
+			long bits = claimed.get(word);
+			long cleared = bits & mask & ~sold.get(word);
+			if (cleared == 0)
+				return 0;
+			if (claimed.compareAndSet(word, bits, bits & ~cleared)) {
+				refresh(word, cleared);
+				firstFreeWord.accumulateAndGet(word, Math::min);
+				int count = Long.bitCount(cleared);
+				available.addAndGet(count);
+				return count;
+			}
+		}
+	}
+
+	/**
+	 * Refreshes the segment tree for the rows of the changed bits of a word.
+	 * @param word the index of the word
+	 * @param mask the changed bits
+	 */
+	private void refresh(int word, long mask) {
+		int firstRow = getRow(word * WORD_SIZE + Long.numberOfTrailingZeros(mask));
+		int lastRow = getRow(word * WORD_SIZE + WORD_SIZE - 1 - Long.numberOfLeadingZeros(mask));
+		for (int row = firstRow; row <= lastRow; row++)
+			refreshRow(row);
+	}
+
+	/**
+	 * Refreshes the leaf of a row and its ancestors in the segment tree.
+	 * Every node is rewritten until it agrees with what it was computed from, so a value
+	 * written late by a concurrent refresh is corrected by the refresh which wrote it.
+	 * @param row the row of the changed seats
+	 */
+	private void refreshRow(int row) {
+		int node = leaves + row;
+		for (;;) {
+			int run = longestFreeRun(row);
+			freeRuns.set(node, run);
+			if (longestFreeRun(row) == run)
+				break;
+		}
+		for (node >>>= 1; node > 0; node >>>= 1) {
+			for (;;) {
+				int max = Math.max(freeRuns.get(2 * node), freeRuns.get(2 * node + 1));
+				freeRuns.set(node, max);
+				if (Math.max(freeRuns.get(2 * node), freeRuns.get(2 * node + 1)) == max)
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Returns the longest run of unclaimed adjacent seats in a row.
+	 * @param row the row
+	 * @return the length of the longest run
+	 */
+	private int longestFreeRun(int row) {
+		int start = row * seatsPerRow;
+		int length = rowLength(row);
+		if (length <= WORD_SIZE) {
+			int word = start / WORD_SIZE;
+			int offset = start % WORD_SIZE;
+			long bits = claimed.get(word) >>> offset;
+			if (offset + length > WORD_SIZE)
+				bits |= claimed.get(word + 1) << (WORD_SIZE - offset);
+			long free = ~bits & (length == WORD_SIZE ? -1L : (1L << length) - 1);
+			int run = 0;
+			for (; free != 0; run++)
+				free &= free >>> 1;
+			return run;
+		}
+		int longest = 0;
+		int run = 0;
+		for (int i = 0; i < length; i++) {
+			run = isClaimed(start + i) ? 0 : run + 1;
+			longest = Math.max(longest, run);
+		}
+		return longest;
+	}
+
+	/**
+	 * Returns the number of the seats of a row, the last row may be shorter than the others.
+	 * @param row the row
+	 * @return the number of the seats of the row
+	 */
+	private int rowLength(int row) {
+		return Math.min(seatsPerRow, capacity - row * seatsPerRow);
+	}
+
+	/**
+	 * Returns the bits of a word which belong to a range of seats.
+	 * @param word the index of the word
+	 * @param first the number of the first seat of the range
+	 * @param last the number of the last seat of the range
+	 * @return the mask of the seats of the range in the word
+	 */
+	private static long rangeMask(int word, int first, int last) {
+		int from = Math.max(first, word * WORD_SIZE) - word * WORD_SIZE;
+		int to = Math.min(last, word * WORD_SIZE + WORD_SIZE - 1) - word * WORD_SIZE;
+		long upper = to == WORD_SIZE - 1 ? -1L : (1L << (to + 1)) - 1;
+		return upper & (-1L << from);
+	}
+
+	/**
+	 * Returns the bits of the existing seats of a word.
+	 * @param word the index of the word
+	 * @return the mask of the existing seats
+	 */
+	private long validMask(int word) {
+		int seats = capacity - word * WORD_SIZE;
+		return seats >= WORD_SIZE ? -1L : (1L << seats) - 1;
+	}
+
+	/**
+	 * Returns the bit of a seat in its word.
+	 * @param seat the number of the seat
+	 * @return the bit of the seat
+	 */
+	private static long bit(int seat) {
+		return 1L << (seat % WORD_SIZE);
+	}
+}
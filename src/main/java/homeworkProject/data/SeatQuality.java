@@ -0,0 +1,43 @@
+package homeworkProject.data;
+
+/**
+ * Interface for scoring the seats of a grandstand, the better seat has the higher score.
+ * The score of a seat is the sum of the score of its row and the score of its position
+ * in the row, and the score of a group is the sum of the scores of its seats.
+ *
+ * @author Mario Posta
+ */
+public interface SeatQuality {
+
+	/**
+	 * Quality which prefers the middle rows of the grandstand and the middle of the rows.
+	 */
+	SeatQuality CENTRE = new SeatQuality() {
+
+		@Override
+		public double getRowScore(int row, int rows) {
+			return 1 - Math.abs(row - (rows - 1) / 2.0) / rows;
+		}
+
+		@Override
+		public double getSeatScore(int seat, int seatsInRow) {
+			return 1 - Math.abs(seat - (seatsInRow - 1) / 2.0) / seatsInRow;
+		}
+	};
+
+	/**
+	 * Returns the score of a row.
+	 * @param row the row from {@code 0}
+	 * @param rows the number of the rows of the grandstand
+	 * @return the score of the row
+	 */
+	double getRowScore(int row, int rows);
+
+	/**
+	 * Returns the score of a position in a row.
+	 * @param seat the position of the seat in its row from {@code 0}
+	 * @param seatsInRow the number of the seats of the row
+	 * @return the score of the position
+	 */
+	double getSeatScore(int seat, int seatsInRow);
+}
@@ -0,0 +1,242 @@
+package homeworkProject.data;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import homeworkProject.model.Grandstand;
+import homeworkProject.model.RacePass;
+import homeworkProject.model.TicketData;
+
+/**
+ * Class for holding the authoritative ticket inventory in memory.
+ * Every grandstand type has its own {@link SeatMap} whose seats are claimed
+ * with compare-and-set operations, so concurrent reservations never oversell
+ * and never block each other. The available amount of a type is the number of
+ * the unclaimed seats of its seat map. The database is only the persistent
+ * backing store of the inventory. Every change is published to the
+ * subscribed {@link InventoryListener}s.
+ * A seat of a grandstand is sold for the whole weekend, so the {@link WeekendInventory}
+ * gives a 3-day pass for every claimed seat of a grandstand and takes it back with the seat,
+ * and it answers the amounts of the days without visiting the seat maps.
+ *
+ * @author Mario Posta
+ */
+public class TicketInventory {
+
+	/**
+	 * Number of the seats of a row of the types which are not grandstands.
+	 */
+	public static final int DEFAULT_SEATS_PER_ROW = 40;
+
+	/**
+	 * Seat maps of the tickets keyed by the type of the ticket.
+	 */
+	private final ConcurrentHashMap<String, SeatMap> seatMaps = new ConcurrentHashMap<>();
+
+	/**
+	 * Amounts of the days of the weekend of the grandstands.
+	 */
+	private final WeekendInventory weekendInventory = new WeekendInventory();
+
+	/**
+	 * Subscribers of the changes of the available amounts.
+	 */
+	private final CopyOnWriteArrayList<InventoryListener> listeners = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Subscribes a listener to the changes of the available amounts.
+	 * @param listener the listener to subscribe
+	 */
+	public void addListener(InventoryListener listener) {
+		listeners.addIfAbsent(listener);
+	}
+
+	/**
+	 * Unsubscribes a listener from the changes of the available amounts.
+	 * @param listener the listener to unsubscribe
+	 */
+	public void removeListener(InventoryListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Registers a grandstand type with its available amount, every seat is available.
+	 * Overwrites the seat map if the type has been registered before.
+	 * @param type the type of the ticket
+	 * @param amount the available amount of the ticket
+	 * @throws IllegalArgumentException if the amount is negative or larger than {@link SeatMap#MAX_CAPACITY},
+	 * or larger than {@link WeekendInventory#MAX_AMOUNT} for a grandstand
+	 */
+	public void register(String type, int amount) {
+		register(type, new SeatMap(amount, seatsPerRow(type)));
+	}
+
+	/**
+	 * Registers a grandstand type with its capacity and sold seats.
+	 * Overwrites the seat map if the type has been registered before. The available amount
+	 * is derived from the sold seats, the stored amount is only the capacity of a type
+	 * which has been stored without one.
+	 * @param ticketData the stored capacity of the ticket
+	 * @param soldSeats the bitmap of the sold seats, {@code null} if no seat has been stored
+	 * @throws IllegalArgumentException if the capacity is negative or larger than {@link SeatMap#MAX_CAPACITY},
+	 * or the available amount is larger than {@link WeekendInventory#MAX_AMOUNT} for a grandstand
+	 */
+	public void register(TicketData ticketData, byte[] soldSeats) {
+		String type = ticketData.getType();
+		int capacity = ticketData.getCapacity() == null ? ticketData.getAmount() : ticketData.getCapacity();
+		register(type, new SeatMap(capacity, seatsPerRow(type), soldSeats));
+	}
+
+	/**
+	 * Registers the seat map of a type, and the available amount of every day of a grandstand.
+	 * @param type the type of the ticket
+	 * @param seatMap the seat map of the type
+	 * @throws IllegalArgumentException if the available amount is larger than {@link WeekendInventory#MAX_AMOUNT}
+	 * for a grandstand
+	 */
+	private void register(String type, SeatMap seatMap) {
+		Grandstand grandstand = Grandstand.fromType(type);
+		if (grandstand != null)
+			weekendInventory.register(grandstand, seatMap.getAvailable());
+		seatMaps.put(type, seatMap);
+		publish(type);
+	}
+
+	/**
+	 * Tries to reserve the given amount of tickets, and returns their seats.
+	 * The seats are the best adjacent seats of a row by {@link SeatQuality#CENTRE},
+	 * or the first available seats if the group cannot sit together.
+	 * The tickets of a grandstand are taken from every day of the weekend first.
+	 * @param type the type of the ticket
+	 * @param amount the amount of the ticket to reserve
+	 * @return the numbers of the reserved seats in ascending order,
+	 * {@code null} if there is no enough ticket or the type is unknown
+	 */
+	public int[] claim(String type, int amount) {
+		SeatMap seatMap = seatMaps.get(type);
+		if (seatMap == null)
+			return null;
+		Grandstand grandstand = Grandstand.fromType(type);
+		if (grandstand != null && !weekendInventory.tryReserve(grandstand, RacePass.WEEKEND, amount))
+			return null;
+		int[] seats = seatMap.claimTogether(amount, SeatQuality.CENTRE);
+		if (seats == null)
+			seats = seatMap.claim(amount);
+		if (seats != null)
+			publish(type);
+		else if (grandstand != null)
+			weekendInventory.release(grandstand, RacePass.WEEKEND, amount);
+		return seats;
+	}
+
+	/**
+	 * Gives back the reserved seats to the inventory, and to every day of the weekend for a grandstand.
+	 * The sold seats are not released.
+	 * @param type the type of the ticket
+	 * @param seats the numbers of the reserved seats
+	 */
+	public void release(String type, int[] seats) {
+		SeatMap seatMap = seatMaps.get(type);
+		if (seatMap == null)
+			return;
+		int released = seatMap.release(seats);
+		if (released == 0)
+			return;
+		Grandstand grandstand = Grandstand.fromType(type);
+		if (grandstand != null)
+			weekendInventory.release(grandstand, RacePass.WEEKEND, released);
+		publish(type);
+	}
+
+	/**
+	 * Marks the reserved seats as sold, so they are never released.
+	 * @param type the type of the ticket
+	 * @param seats the numbers of the reserved seats
+	 */
+	public void markSold(String type, int[] seats) {
+		SeatMap seatMap = seatMaps.get(type);
+		if (seatMap != null)
+			seatMap.markSold(seats);
+	}
+
+	/**
+	 * Returns the amounts of the days of the weekend of the grandstands.
+	 * @return the weekend inventory
+	 */
+	public WeekendInventory getWeekendInventory() {
+		return weekendInventory;
+	}
+
+	/**
+	 * Returns the seat map of the given ticket type.
+	 * @param type the type of the ticket
+	 * @return the seat map, or {@code null} if the type is unknown
+	 */
+	public SeatMap getSeatMap(String type) {
+		return seatMaps.get(type);
+	}
+
+	/**
+	 * Returns the available amount of the given ticket type.
+	 * @param type the type of the ticket
+	 * @return the available amount, or {@code 0} if the type is unknown
+	 */
+	public int getAvailable(String type) {
+		SeatMap seatMap = seatMaps.get(type);
+		return seatMap == null ? 0 : seatMap.getAvailable();
+	}
+
+	/**
+	 * Decides whether the given amount of tickets is available.
+	 * @param type the type of the ticket
+	 * @param amount the amount of the ticket
+	 * @return {@code true} if there is enough ticket,
+	 * {@code false} otherwise
+	 */
+	public boolean isAvailable(String type, int amount) {
+		SeatMap seatMap = seatMaps.get(type);
+		return seatMap != null && seatMap.getAvailable() >= amount;
+	}
+
+	/**
+	 * Decides whether the given type has been registered.
+	 * @param type the type of the ticket
+	 * @return {@code true} if the type is known, {@code false} otherwise
+	 */
+	public boolean contains(String type) {
+		return seatMaps.containsKey(type);
+	}
+
+	/**
+	 * Returns the number of the seats of a row of the given type.
+	 * @param type the type of the ticket
+	 * @return the number of the seats of a row
+	 */
+	private static int seatsPerRow(String type) {
+		Grandstand grandstand = Grandstand.fromType(type);
+		return grandstand == null ? DEFAULT_SEATS_PER_ROW : grandstand.getSeatsPerRow();
+	}
+
+	/**
+	 * Notifies the listeners about the change of the available amount of a type.
+	 * @param type the type of the changed amount
+	 */
+	private void publish(String type) {
+		for (InventoryListener listener : listeners)
+			listener.inventoryChanged(type);
+	}
+
+	/**
+	 * Returns a copy of the available amounts of every type.
+	 * @return the available amounts keyed by the type of the ticket
+	 */
+	public Map<String, Integer> snapshot() {
+		Map<String, Integer> amounts = new TreeMap<>();
+		for (Map.Entry<String, SeatMap> entry : seatMaps.entrySet()) {
+			amounts.put(entry.getKey(), entry.getValue().getAvailable());
+		}
+		return amounts;
+	}
+}
@@ -1,18 +1,34 @@
 package homeworkProject.data;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
-import javax.persistence.EntityManager;
-import javax.persistence.TypedQuery;
+import javax.persistence.EntityManagerFactory;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import homeworkProject.MainFX;
+import homeworkProject.model.Grandstand;
+import homeworkProject.model.Order;
+import homeworkProject.model.OrderLine;
+import homeworkProject.model.Ticket;
 import homeworkProject.model.TicketData;
 
 /**
  * Class for managing the database.
+ * The ticket amounts are stored by a {@link TicketStore}, which is the database
+ * through JPA by default. The methods can be called from several threads at once.
+ * If a {@link WriteBehindLog} is set, the sales are written to the log
+ * and the database is updated by its background flusher.
+ * Every ticket is a numbered seat of the {@link TicketInventory}. The sold seats are
+ * stored with the amounts, or after the amounts have been flushed in write-behind mode.
  * 
  * @author Mario Posta
  */
@@ -21,51 +37,230 @@ public class TicketService {
     /**
      * Logger for tracking the application.
      */
-    private Logger logger = LoggerFactory.getLogger(MainFX.class);
+    private Logger logger = LoggerFactory.getLogger(TicketService.class);
     
 	/**
-	 * EntityManager for controll the database.
+	 * Initial amount of the tickets of every grandstand.
 	 */
-	public EntityManager entityManager;
+	public static final int INITIAL_AMOUNT = 100;
+    
+	/**
+	 * Storage engine of the ticket amounts.
+	 */
+	private final TicketStore ticketStore;
+
+	/**
+	 * In-memory inventory which holds the authoritative ticket counters.
+	 */
+	private final TicketInventory inventory = new TicketInventory();
+
+	/**
+	 * Cache of the results of the checkouts keyed by their idempotency key.
+	 */
+	private final IdempotencyCache idempotencyCache = new IdempotencyCache(this::loadCheckout, this::loadOrderKeys,
+			IdempotencyCache.DEFAULT_MAX_ENTRIES, IdempotencyCache.DEFAULT_TTL_MILLIS);
+
+	/**
+	 * Log of the sales in write-behind mode, {@code null} if the sales are written to the database directly.
+	 */
+	private volatile WriteBehindLog writeBehindLog;
 
 	/**
 	 * Contsructor for Ticket Service.
-	 * Initializes the Entity Manager
-	 * @param entityManager the only Entity Manager of the application
+	 * @param entityManagerFactory the EntityManagerFactory of the database
 	 */
-	public TicketService(EntityManager entityManager) {
-		this.entityManager = entityManager;
+	public TicketService(EntityManagerFactory entityManagerFactory) {
+		this(new JpaTicketStore(entityManagerFactory));
+	}
+	
+	/**
+	 * Contsructor for Ticket Service.
+	 * @param ticketStore the storage engine of the ticket amounts
+	 */
+	public TicketService(TicketStore ticketStore) {
+		this.ticketStore = ticketStore;
 	}
 	
 	/**
 	 * Initializes the database with initial ticket amounts.
+	 * Overwrites the amounts which are stored already.
 	 */
 	public void initializeDatabase()	{
         logger.debug("Database initialization is in progress");
 
-		entityManager.getTransaction().begin();
-		@SuppressWarnings("unused")
-		TicketData TicketData = this.createTicket("Super Gold", 100);
-		TicketData = this.createTicket("Gold 1", 100);
-		TicketData = this.createTicket("Gold 2", 100);
-		TicketData = this.createTicket("Silver 1", 100);
-		TicketData = this.createTicket("Silver 2", 100);
-		TicketData = this.createTicket("Bronze 1", 100);
-		TicketData = this.createTicket("Bronze 2", 100);
-		entityManager.getTransaction().commit();
+		Map<String, Integer> amounts = new LinkedHashMap<>();
+		for (Grandstand grandstand : Grandstand.values()) {
+			amounts.put(grandstand.getType(), INITIAL_AMOUNT);
+		}
+		ticketStore.createTickets(amounts);
+		for (Map.Entry<String, Integer> amount : amounts.entrySet()) {
+			inventory.register(amount.getKey(), amount.getValue());
+		}
+	}
+	
+	/**
+	 * Loads the ticket amounts of the database into the in-memory inventory, and seeds
+	 * only the grandstands which are missing from the database with the initial amount.
+	 * The stored amounts are kept, so a restart does not give back the sold tickets.
+	 * @return the number of the seeded grandstands
+	 */
+	public int initializeInventory() {
+		logger.debug("Inventory initialization is in progress");
+
+		Map<String, Integer> missing = new LinkedHashMap<>();
+		for (Grandstand grandstand : Grandstand.values()) {
+			missing.put(grandstand.getType(), INITIAL_AMOUNT);
+		}
+		for (TicketData TicketData : registerStoredTickets()) {
+			missing.remove(TicketData.getType());
+		}
+		if (!missing.isEmpty()) {
+			ticketStore.createTickets(missing);
+			for (Map.Entry<String, Integer> amount : missing.entrySet()) {
+				inventory.register(amount.getKey(), amount.getValue());
+			}
+		}
+		return missing.size();
+	}
+	
+	/**
+	 * Loads the ticket amounts of the database into the in-memory inventory.
+	 */
+	public void loadInventory() {
+		logger.debug("Inventory loading is in progress");
+
+		registerStoredTickets();
+	}
+
+	/**
+	 * Registers the stored types in the inventory with their sold seats. The available amounts
+	 * are derived from the sold seats, and a stored amount which differs from them, e.g. an amount
+	 * which has been decremented without storing the seats, is repaired in the database.
+	 * @return the stored types
+	 */
+	private List<TicketData> registerStoredTickets() {
+		Map<String, byte[]> soldSeats = ticketStore.loadSoldSeats();
+		List<TicketData> tickets = getAvailableTickets();
+		Map<String, Integer> repaired = new LinkedHashMap<>();
+		for (TicketData TicketData : tickets) {
+			String type = TicketData.getType();
+			inventory.register(TicketData, soldSeats.get(type));
+			int available = inventory.getAvailable(type);
+			if (available != TicketData.getAmount()) {
+				logger.warn("The stored amount of " + type + " is " + TicketData.getAmount()
+						+ ", but its sold seats leave " + available + ", the amount is repaired");
+				repaired.put(type, available);
+			}
+		}
+		if (!repaired.isEmpty())
+			ticketStore.repairAmounts(repaired);
+		return tickets;
+	}
+
+	/**
+	 * Sets the log of the sales, which switches the service to write-behind mode.
+	 * @param writeBehindLog the log of the sales, {@code null} to write the sales to the database directly
+	 */
+	public void setWriteBehindLog(WriteBehindLog writeBehindLog) {
+		this.writeBehindLog = writeBehindLog;
+	}
+
+	/**
+	 * Returns the log of the sales.
+	 * @return the log of the sales, {@code null} if the service is not in write-behind mode
+	 */
+	public WriteBehindLog getWriteBehindLog() {
+		return writeBehindLog;
+	}
+
+	/**
+	 * Returns the in-memory inventory of the tickets.
+	 * @return the inventory of the tickets
+	 */
+	public TicketInventory getInventory() {
+		return inventory;
+	}
+	
+	/**
+	 * Subscribes a listener to the changes of the available amounts of the inventory.
+	 * @param listener the listener to subscribe
+	 */
+	public void subscribe(InventoryListener listener) {
+		inventory.addListener(listener);
+	}
+
+	/**
+	 * Unsubscribes a listener from the changes of the inventory.
+	 * @param listener the listener to unsubscribe
+	 */
+	public void unsubscribe(InventoryListener listener) {
+		inventory.removeListener(listener);
+	}
+	
+	/**
+	 * Returns the storage engine of the ticket amounts.
+	 * @return the storage engine of the ticket amounts
+	 */
+	public TicketStore getTicketStore() {
+		return ticketStore;
+	}
+	
+	/**
+	 * Returns the cache of the results of the checkouts.
+	 * @return the cache of the results of the checkouts
+	 */
+	public IdempotencyCache getIdempotencyCache() {
+		return idempotencyCache;
+	}
+
+	/**
+	 * Runs the checkout only once for the idempotency key.
+	 * A repeated key is answered with the original result, without modifying the inventory.
+	 * @param idempotencyKey the idempotency key of the checkout
+	 * @param checkout the checkout to run
+	 * @return the result of the checkout, which is marked as replayed for a repeated key
+	 */
+	public CheckoutResult checkoutOnce(String idempotencyKey, Supplier<CheckoutResult> checkout) {
+		return idempotencyCache.execute(idempotencyKey, checkout);
+	}
+
+	/**
+	 * Returns the result of an earlier checkout without running a checkout.
+	 * @param idempotencyKey the idempotency key of the checkout
+	 * @return the replayed result, {@code null} if the key is unknown
+	 */
+	public CheckoutResult findCheckout(String idempotencyKey) {
+		return idempotencyCache.find(idempotencyKey);
+	}
+
+	/**
+	 * Loads the result of a checkout from its saved order.
+	 * @param idempotencyKey the idempotency key of the checkout
+	 * @return the result of the checkout, {@code null} if there is no saved order with the key
+	 */
+	private CheckoutResult loadCheckout(String idempotencyKey) {
+		Order order = ticketStore.findOrder(idempotencyKey);
+		return order == null ? null : CheckoutResult.fromOrder(order);
+	}
+
+	/**
+	 * Loads the idempotency keys of the saved orders.
+	 * @return the keys of the saved orders
+	 */
+	private List<String> loadOrderKeys() {
+		return ticketStore.loadOrderKeys();
 	}
 	
 	/**
-	 * Returns the content of the database.
+	 * Queries the content of the database.
+	 * The available amounts of the shop are answered by the in-memory inventory
+	 * without a query, the database may lag behind it in write-behind mode.
 	 * @return the content of the database
 	 */
 	public List<TicketData> getAvailableTickets() {
         logger.debug("Database qeury is in progress");
 
-		TypedQuery<TicketData> query = entityManager.createQuery(
-				"select t from homeworkProject.model.TicketData t", TicketData.class
-				);
-		return query.getResultList();
+		return ticketStore.loadTickets();
 	}
 	
 	/**
@@ -78,27 +273,364 @@ public class TicketService {
         logger.debug("Ticket creating is in progress");
 
 		TicketData TicketData = new TicketData(type, amount);
-		entityManager.persist(TicketData);
+		ticketStore.createTickets(Collections.singletonMap(type, amount));
+		inventory.register(type, amount);
 		return TicketData;
 	}
 	
 	/**
 	 * Method for modifying the content of the database.
+	 * The tickets are reserved in the in-memory inventory first, so the method
+	 * never oversells. The database is updated with a single decrementing statement,
+	 * or by the write-behind log in write-behind mode.
 	 * @param type the type of the ticket that will be modified in the database
 	 * @param amount the amount of the ticket to subtract from the proper ticket amount
+	 * @return {@code true} if the tickets have been sold,
+	 * {@code false} if there is no enough ticket
 	 */
-	public void modifyTicketData(String type, Integer amount)	{
+	public boolean modifyTicketData(String type, Integer amount)	{
 		logger.debug("Ticket modifying is in progress");
 
-		TicketData TicketData = entityManager.find(TicketData.class, type);
-		  
-		entityManager.getTransaction().begin();
-		TicketData.setAmount(TicketData.getAmount()-amount);
-		entityManager.getTransaction().commit();
+		int[] seats = inventory.claim(type, amount);
+		if (seats == null) {
+			logger.warn("There is no enough ticket to modify");
+			return false;
+		}
+		CheckoutResult reservation = new CheckoutResult();
+		reservation.addLine(type, seats);
+		reservation.setSuccessful(true);
+		return commitReservation(reservation).isSuccessful();
 	}
-	
+
+	/**
+	 * Method for selling every line of the shopping cart at once.
+	 * Either every line is sold or none of them. The lines are reserved in the
+	 * in-memory inventory, then decremented in the database in one transaction
+	 * with guarded updates, so the amounts never become negative.
+	 * @param cart the lines of the shopping cart
+	 * @return the result of the checkout with a result for every line
+	 */
+	public CheckoutResult checkout(List<Ticket> cart) {
+		return checkout(cart, null);
+	}
+
+	/**
+	 * Method for selling every line of the shopping cart at once, and saving the order
+	 * in the same transaction.
+	 * @param cart the lines of the shopping cart
+	 * @param order the order of the shopping cart, {@code null} if there is no order to save
+	 * @return the result of the checkout with a result for every line
+	 */
+	public CheckoutResult checkout(List<Ticket> cart, Order order) {
+		logger.debug("Checkout is in progress");
+
+		CheckoutResult reservation = reserve(cart);
+		if (order != null)
+			reservation.setTotalPrice(order.getTotalPrice());
+		if (!reservation.isSuccessful())
+			return reservation;
+		return commitReservation(reservation, order);
+	}
+
+	/**
+	 * Reserves every line of the shopping cart in the in-memory inventory.
+	 * Either every line is reserved or none of them. The database is not modified.
+	 * The numbers of the reserved seats are given by the lines of the reservation.
+	 * @param cart the lines of the shopping cart
+	 * @return the reservation with a result for every line
+	 */
+	public CheckoutResult reserve(List<Ticket> cart) {
+		logger.debug("Ticket reservation is in progress");
+
+		CheckoutResult reservation = new CheckoutResult();
+		boolean available = true;
+		for (Ticket ticket : cart) {
+			int[] seats = inventory.claim(ticket.getType(), ticket.getAmount());
+			if (seats != null)
+				reservation.addLine(ticket.getType(), seats);
+			else {
+				reservation.addRejectedLine(ticket.getType(), ticket.getAmount(),
+						Math.max(1, ticket.getAmount() - inventory.getAvailable(ticket.getType())));
+				available = false;
+			}
+		}
+		if (!available) {
+			releaseAccepted(reservation);
+			logger.warn("There is no enough ticket for the reservation");
+		}
+		reservation.setSuccessful(available);
+		return reservation;
+	}
+
+	/**
+	 * Gives back the tickets of a successful reservation to the inventory.
+	 * @param reservation the reservation to release
+	 */
+	public void release(CheckoutResult reservation) {
+		logger.debug("Ticket releasing is in progress");
+
+		if (reservation.isSuccessful()) {
+			releaseAccepted(reservation);
+			reservation.setSuccessful(false);
+		}
+	}
+
+	/**
+	 * Sells every line of a successful reservation.
+	 * In write-behind mode the lines are appended to the log, otherwise they are
+	 * decremented in the database by {@link #commitToDatabase(CheckoutResult, Order)}.
+	 * If the sale cannot be written, the reservation is released.
+	 * @param reservation the reservation which has been made by {@link #reserve(List)}
+	 * @return the given reservation with the result of the checkout
+	 */
+	public CheckoutResult commitReservation(CheckoutResult reservation) {
+		return commitReservation(reservation, null);
+	}
+
+	/**
+	 * Sells every line of a successful reservation and saves the order.
+	 * Without write-behind the order is saved in the transaction of the decrement,
+	 * in write-behind mode it is saved after the sale has been appended to the log.
+	 * @param reservation the reservation which has been made by {@link #reserve(List)}
+	 * @param order the order of the reservation, {@code null} if there is no order to save
+	 * @return the given reservation with the result of the checkout
+	 */
+	public CheckoutResult commitReservation(CheckoutResult reservation, Order order) {
+		logger.debug("Reservation commit is in progress");
+
+		if (order != null)
+			reservation.setTotalPrice(order.getTotalPrice());
+		if (!reservation.isSuccessful())
+			return reservation;
+		if (order != null)
+			assignSeats(reservation, order);
+		WriteBehindLog log = writeBehindLog;
+		if (log == null)
+			return commitToDatabase(reservation, order);
+		try {
+			log.append(reservation);
+		} catch (RuntimeException e) {
+			releaseAccepted(reservation);
+			reservation.setSuccessful(false);
+			logger.error("Writing the sale to the log has failed");
+			throw e;
+		}
+		markSold(reservation);
+		if (order != null) {
+			try {
+				ticketStore.saveOrder(order);
+			} catch (RuntimeException e) {
+				logger.error("The order of a logged sale cannot be saved", e);
+			}
+		}
+		return reservation;
+	}
+
+	/**
+	 * Sells every line of several successful reservations and saves their orders.
+	 * In write-behind mode the reservations are appended to the log with one write and one sync,
+	 * otherwise every reservation is decremented in the database in its own transaction.
+	 * A reservation which cannot be written is released and becomes unsuccessful,
+	 * the failure is only logged, so the other reservations are still sold.
+	 * @param reservations the reservations which have been made by {@link #reserve(List)}
+	 * @param orders the orders of the reservations in the same order,
+	 * with {@code null} elements for the reservations without an order to save
+	 */
+	public void commitReservations(List<CheckoutResult> reservations, List<Order> orders) {
+		logger.debug("Batch commit of the reservations is in progress");
+
+		WriteBehindLog log = writeBehindLog;
+		if (log == null) {
+			for (int i = 0; i < reservations.size(); i++) {
+				try {
+					commitReservation(reservations.get(i), orders.get(i));
+				} catch (RuntimeException e) {
+					logger.error("A checkout of the batch has failed", e);
+				}
+			}
+			return;
+		}
+		List<CheckoutResult> sold = new ArrayList<>();
+		for (int i = 0; i < reservations.size(); i++) {
+			if (orders.get(i) != null)
+				reservations.get(i).setTotalPrice(orders.get(i).getTotalPrice());
+			if (!reservations.get(i).isSuccessful())
+				continue;
+			if (orders.get(i) != null)
+				assignSeats(reservations.get(i), orders.get(i));
+			sold.add(reservations.get(i));
+		}
+		if (sold.isEmpty())
+			return;
+		try {
+			log.append(sold);
+		} catch (RuntimeException e) {
+			for (CheckoutResult reservation : sold) {
+				releaseAccepted(reservation);
+				reservation.setSuccessful(false);
+			}
+			logger.error("Writing the sales of the batch to the log has failed", e);
+			return;
+		}
+		for (int i = 0; i < reservations.size(); i++) {
+			if (!reservations.get(i).isSuccessful())
+				continue;
+			markSold(reservations.get(i));
+			if (orders.get(i) != null) {
+				try {
+					ticketStore.saveOrder(orders.get(i));
+				} catch (RuntimeException e) {
+					logger.error("The order of a logged sale cannot be saved", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Decrements every line of a successful reservation in the storage engine at once.
+	 * If the storage engine has no enough ticket for a line, nothing is modified
+	 * and the reservation is released.
+	 * @param reservation the reservation which has been made by {@link #reserve(List)}
+	 * @param order the order which is saved with the decrement, {@code null} if there is no order
+	 * @return the given reservation with the result of the checkout
+	 */
+	private CheckoutResult commitToDatabase(CheckoutResult reservation, Order order) {
+		try {
+			String rejectedType = ticketStore.decrement(reservation.getLines(), order);
+			if (rejectedType != null) {
+				releaseAccepted(reservation);
+				reservation.reject(rejectedType);
+				reservation.setSuccessful(false);
+				logger.warn("The database has no enough ticket for the checkout");
+				return reservation;
+			}
+		} catch (RuntimeException e) {
+			releaseAccepted(reservation);
+			reservation.setSuccessful(false);
+			logger.error("Checkout has failed");
+			throw e;
+		}
+		markSold(reservation);
+		return reservation;
+	}
+
+	/**
+	 * Decrements the sold amounts in the storage engine at once.
+	 * The amounts have been taken from the inventory already, so the inventory is not modified.
+	 * No seat is stored with the amounts, so the sold seats are the record of the sales:
+	 * the next load of the inventory repairs the amounts from the seats.
+	 * @param sales the sold amounts keyed by the type of the ticket
+	 */
+	public void applySales(Map<String, Integer> sales) {
+		applySales(sales, Collections.emptyMap(), -1);
+	}
+
+	/**
+	 * Decrements the sold amounts in the storage engine, stores their seats and the number
+	 * of the last applied segment of the write-behind log in one transaction.
+	 * The amounts have been taken from the inventory already, so the inventory is not modified.
+	 * @param sales the sold amounts keyed by the type of the ticket
+	 * @param seats the numbers of the sold seats keyed by the type of the ticket
+	 * @param segment the number of the last segment of the log whose sales are applied,
+	 * negative if the sales do not come from the log
+	 * @return the types whose amount has been left unchanged, because the storage engine has no enough ticket
+	 */
+	public Set<String> applySales(Map<String, Integer> sales, Map<String, int[]> seats, long segment) {
+		logger.debug("Applying the sales to the database is in progress");
+
+		try {
+			return ticketStore.applySales(sales, seats, segment);
+		} catch (RuntimeException e) {
+			logger.error("Applying the sales has failed");
+			throw e;
+		}
+	}
+
+	/**
+	 * Loads the number of the last applied segment of the write-behind log of every type.
+	 * @return the numbers of the segments keyed by the type of the ticket,
+	 * without the types which have no applied segment
+	 */
+	public Map<String, Long> loadAppliedSegments() {
+		Map<String, Long> segments = new HashMap<>();
+		for (TicketData ticketData : getAvailableTickets()) {
+			if (ticketData.getAppliedSegment() != null)
+				segments.put(ticketData.getType(), ticketData.getAppliedSegment());
+		}
+		return segments;
+	}
+
+	/**
+	 * Marks the reserved seats of the accepted lines as sold in the inventory.
+	 * @param result the result which contains the reserved lines
+	 */
+	private void markSold(CheckoutResult result) {
+		for (CheckoutResult.Line line : result.getLines()) {
+			if (line.isAccepted())
+				inventory.markSold(line.getType(), line.getSeats());
+		}
+	}
+
+	/**
+	 * Gives back the reserved tickets of the accepted lines to the inventory.
+	 * @param result the result which contains the reserved lines
+	 */
+	private void releaseAccepted(CheckoutResult result) {
+		for (CheckoutResult.Line line : result.getLines()) {
+			if (!line.isAccepted())
+				continue;
+			inventory.release(line.getType(), line.getSeats());
+		}
+	}
+
+	/**
+	 * Copies the reserved seats of the accepted lines to the lines of the order,
+	 * so the replayed result of the order gives the same seats. The lines are matched
+	 * by their type and amount in the order of the shopping cart.
+	 * @param reservation the reservation of the order
+	 * @param order the order of the reservation
+	 */
+	private void assignSeats(CheckoutResult reservation, Order order) {
+		List<CheckoutResult.Line> lines = new ArrayList<>(reservation.getLines());
+		for (OrderLine orderLine : order.getLines()) {
+			for (Iterator<CheckoutResult.Line> iterator = lines.iterator(); iterator.hasNext();) {
+				CheckoutResult.Line line = iterator.next();
+				if (line.isAccepted() && line.getType().equals(orderLine.getType()) && line.getAmount() == orderLine.getAmount()) {
+					orderLine.setSeats(line.getSeats());
+					iterator.remove();
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Method for checking every line of the shopping cart at once.
+	 * The check is answered by the in-memory inventory, so it needs no query at all,
+	 * and the lines of the same type are checked together.
+	 * @param cart the lines of the shopping cart
+	 * @return the number of the missing tickets keyed by the type of the ticket,
+	 * empty if there is enough ticket for every line
+	 */
+	public Map<String, Integer> checkAvailableTickets(List<Ticket> cart) {
+		logger.debug("Shopping cart availability check is in progress");
+
+		Map<String, Integer> requested = new LinkedHashMap<>();
+		for (Ticket ticket : cart) {
+			requested.merge(ticket.getType(), ticket.getAmount(), Integer::sum);
+		}
+		Map<String, Integer> shortfalls = new LinkedHashMap<>();
+		for (Map.Entry<String, Integer> amount : requested.entrySet()) {
+			int missing = amount.getValue() - inventory.getAvailable(amount.getKey());
+			if (missing > 0)
+				shortfalls.put(amount.getKey(), missing);
+		}
+		return shortfalls;
+	}
+
 	/**
 	 * Method for checking how many tickets are available.
+	 * The check is answered by the in-memory inventory.
 	 * @param type the type of the ticket
 	 * @param amount the amount of the ticket
 	 * @return {@code true} if there is enough ticket,
@@ -107,9 +639,6 @@ public class TicketService {
 	public boolean checkAvailableTickets(String type, Integer amount){
         logger.debug("Ticket availability check is in progress");
 
-		TicketData TicketData = entityManager.find(TicketData.class, type);
-		if (TicketData != null && TicketData.getAmount()-amount >= 0)
-			return true;
-		return false;
+		return inventory.isAvailable(type, amount);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+package homeworkProject.data;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import homeworkProject.model.Order;
+import homeworkProject.model.TicketData;
+
+/**
+ * Interface for the storage engines of the ticket amounts.
+ * {@link TicketService} programs against this interface, so the same
+ * business logic runs on the database or on an embedded local engine.
+ * The implementations must be thread-safe.
+ *
+ * @author Mario Posta
+ */
+public interface TicketStore {
+
+	/**
+	 * Stores the ticket amounts, overwriting the amounts of the existing types.
+	 * Every seat of the stored types becomes available.
+	 * @param amounts the amounts of the tickets keyed by the type of the ticket
+	 */
+	void createTickets(Map<String, Integer> amounts);
+
+	/**
+	 * Loads every ticket amount.
+	 * @return the stored ticket amounts
+	 */
+	List<TicketData> loadTickets();
+
+	/**
+	 * Overwrites the amounts of existing types, keeping their capacities, sold seats and applied segments.
+	 * Used to repair an amount which differs from the sold seats of its type.
+	 * @param amounts the repaired amounts keyed by the type of the ticket
+	 */
+	void repairAmounts(Map<String, Integer> amounts);
+
+	/**
+	 * Loads the sold seats of every type.
+	 * @return the bitmaps of the sold seats keyed by the type of the ticket,
+	 * from the lowest bit of the first byte
+	 */
+	Map<String, byte[]> loadSoldSeats();
+
+	/**
+	 * Decrements the amount of every line at once, and marks the seats of the lines as sold
+	 * and saves the order of the lines in the same transaction. Either every line is
+	 * decremented and the order is saved, or nothing is modified, and no amount becomes negative.
+	 * @param lines the lines to decrement
+	 * @param order the order of the lines, {@code null} if there is no order to save
+	 * @return {@code null} if every line has been decremented,
+	 * otherwise the type of the first line which has no enough ticket
+	 */
+	String decrement(List<CheckoutResult.Line> lines, Order order);
+
+	/**
+	 * Saves an order whose lines have been sold already, used in write-behind mode.
+	 * @param order the order to save
+	 */
+	void saveOrder(Order order);
+
+	/**
+	 * Finds the saved order of a checkout with its lines.
+	 * @param idempotencyKey the idempotency key of the checkout
+	 * @return the saved order, {@code null} if there is no order with the key
+	 */
+	Order findOrder(String idempotencyKey);
+
+	/**
+	 * Loads the idempotency keys of the saved orders.
+	 * @return the keys of the saved orders which have a key
+	 */
+	List<String> loadOrderKeys();
+
+	/**
+	 * Decrements the sold amounts, which have been coalesced by the write-behind log, marks their
+	 * seats as sold and stores the number of the last applied segment of the log with every
+	 * decremented amount, in one transaction. An amount which would become negative is left
+	 * unchanged with its seats and its segment. The stored segment is never lowered.
+	 * @param sales the sold amounts keyed by the type of the ticket
+	 * @param seats the numbers of the sold seats keyed by the type of the ticket
+	 * @param segment the number of the last segment of the log whose sales are applied,
+	 * negative if the sales do not come from the log
+	 * @return the types whose amount has been left unchanged
+	 */
+	Set<String> applySales(Map<String, Integer> sales, Map<String, int[]> seats, long segment);
+
+	/**
+	 * Releases the resources of the storage engine.
+	 */
+	void close();
+}
@@ -0,0 +1,198 @@
+package homeworkProject.data;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import homeworkProject.model.Grandstand;
+import homeworkProject.model.RaceDay;
+import homeworkProject.model.RacePass;
+
+/**
+ * Class for holding the available tickets of every day of the weekend and every grandstand.
+ * The amounts of the days of a grandstand are packed into one word, in a field of 21 bits per day
+ * from the lowest bits, and the highest bit of every field is kept clear as a guard bit.
+ * So a pass takes every day it covers with one compare-and-set, and the days which still have
+ * enough tickets are found for all the days at once by one subtraction, without a branch per day.
+ *
+ * @author Mario Posta
+ */
+public class WeekendInventory {
+
+	/**
+	 * Largest amount of a day of a grandstand, which leaves the guard bit of its field clear.
+	 */
+	public static final int MAX_AMOUNT = (1 << 20) - 1;
+
+	/**
+	 * Number of the bits of the field of a day.
+	 */
+	private static final int FIELD_SIZE = 21;
+
+	/**
+	 * Number of the days of the weekend.
+	 */
+	private static final int DAYS = RaceDay.values().length;
+
+	/**
+	 * Lowest bit of the field of every day.
+	 */
+	private static final long ONES = spread(1, (1 << DAYS) - 1);
+
+	/**
+	 * Guard bit of the field of every day.
+	 */
+	private static final long GUARDS = ONES << (FIELD_SIZE - 1);
+
+	/**
+	 * Packed amounts of the days indexed by the ordinal of the grandstand.
+	 */
+	private final AtomicLongArray amounts = new AtomicLongArray(Grandstand.values().length);
+
+	/**
+	 * Sets the amount of every day of a grandstand.
+	 * @param grandstand the grandstand
+	 * @param amount the amount of every day
+	 * @throws IllegalArgumentException if the amount is negative or larger than {@link #MAX_AMOUNT}
+	 */
+	public void register(Grandstand grandstand, int amount) {
+		checkAmount(amount);
+		amounts.set(grandstand.ordinal(), spread(amount, (1 << DAYS) - 1));
+	}
+
+	/**
+	 * Sets the amount of a day of a grandstand.
+	 * @param grandstand the grandstand
+	 * @param day the day
+	 * @param amount the amount of the day
+	 * @throws IllegalArgumentException if the amount is negative or larger than {@link #MAX_AMOUNT}
+	 */
+	public void register(Grandstand grandstand, RaceDay day, int amount) {
+		checkAmount(amount);
+		long field = spread(1, day.getMask()) * ((1L << FIELD_SIZE) - 1);
+		long value = spread(amount, day.getMask());
+		for (;;) {
+			long current = amounts.get(grandstand.ordinal());
+			if (amounts.compareAndSet(grandstand.ordinal(), current, current & ~field | value))
+				return;
+		}
+	}
+
+	/**
+	 * Returns the available amount of a day of a grandstand.
+	 * @param grandstand the grandstand
+	 * @param day the day
+	 * @return the available amount
+	 */
+	public int getAvailable(Grandstand grandstand, RaceDay day) {
+		return (int) (amounts.get(grandstand.ordinal()) >>> (day.ordinal() * FIELD_SIZE)) & ((1 << FIELD_SIZE) - 1);
+	}
+
+	/**
+	 * Tries to reserve the given amount of a pass, which takes the amount from every day the pass covers.
+	 * Either every day is taken or none of them.
+	 * @param grandstand the grandstand
+	 * @param pass the pass
+	 * @param amount the amount to reserve
+	 * @return {@code true} if the tickets have been reserved,
+	 * {@code false} if a covered day has no enough ticket or the amount is not positive
+	 */
+	public boolean tryReserve(Grandstand grandstand, RacePass pass, int amount) {
+		if (amount < 1 || amount > MAX_AMOUNT)
+			return false;
+		long requested = spread(amount, pass.getDays());
+		int index = grandstand.ordinal();
+		for (;;) {
+			long current = amounts.get(index);
+			if (((current | GUARDS) - requested & GUARDS) != GUARDS)
+				return false;
+			if (amounts.compareAndSet(index, current, current - requested))
+				return true;
+		}
+	}
+
+	/**
+	 * Gives back the given amount of a pass to every day the pass covers.
+	 * @param grandstand the grandstand
+	 * @param pass the pass
+	 * @param amount the amount to release
+	 * @throws IllegalArgumentException if the amount is negative, or a covered day would exceed {@link #MAX_AMOUNT}
+	 */
+	public void release(Grandstand grandstand, RacePass pass, int amount) {
+		checkAmount(amount);
+		long released = spread(amount, pass.getDays());
+		int index = grandstand.ordinal();
+		for (;;) {
+			long current = amounts.get(index);
+			long updated = current + released;
+			if ((updated & GUARDS) != 0)
+				throw new IllegalArgumentException("Too many released tickets of " + grandstand.getType());
+			if (amounts.compareAndSet(index, current, updated))
+				return;
+		}
+	}
+
+	/**
+	 * Returns the days on which a grandstand still has the given amount of tickets.
+	 * @param grandstand the grandstand
+	 * @param amount the amount of the tickets
+	 * @return the mask of the days, see {@link RaceDay#getMask()}
+	 */
+	public int daysWithTickets(Grandstand grandstand, int amount) {
+		return daysOf(amounts.get(grandstand.ordinal()), amount);
+	}
+
+	/**
+	 * Returns the days on which every grandstand still has the given amount of tickets.
+	 * @param amount the amount of the tickets
+	 * @return the masks of the days indexed by the ordinal of the grandstand, see {@link RaceDay#getMask()}
+	 */
+	public int[] daysWithTickets(int amount) {
+		int[] days = new int[amounts.length()];
+		for (int i = 0; i < days.length; i++) {
+			days[i] = daysOf(amounts.get(i), amount);
+		}
+		return days;
+	}
+
+	/**
+	 * Returns the days of a packed word which have the given amount.
+	 * The guard bit of a field survives the subtraction if and only if the field is not less than the amount.
+	 * @param packed the packed amounts of the days
+	 * @param amount the amount of the tickets
+	 * @return the mask of the days
+	 */
+	private static int daysOf(long packed, int amount) {
+		if (amount > MAX_AMOUNT)
+			return 0;
+		long guards = (packed | GUARDS) - spread(Math.max(amount, 0), (1 << DAYS) - 1) & GUARDS;
+		int days = 0;
+		for (int day = 0; day < DAYS; day++) {
+			days |= (int) (guards >>> (day * FIELD_SIZE + FIELD_SIZE - 1) & 1) << day;
+		}
+		return days;
+	}
+
+	/**
+	 * Packs an amount into the fields of the given days.
+	 * @param amount the amount
+	 * @param days the mask of the days
+	 * @return the packed word
+	 */
+	private static long spread(int amount, int days) {
+		long packed = 0;
+		for (int day = 0; day < DAYS; day++) {
+			if ((days & 1 << day) != 0)
+				packed |= (long) amount << (day * FIELD_SIZE);
+		}
+		return packed;
+	}
+
+	/**
+	 * Checks whether an amount fits the field of a day.
+	 * @param amount the amount
+	 * @throws IllegalArgumentException if the amount is negative or larger than {@link #MAX_AMOUNT}
+	 */
+	private static void checkAmount(int amount) {
+		if (amount < 0 || amount > MAX_AMOUNT)
+			throw new IllegalArgumentException("Invalid amount of a day: " + amount);
+	}
+}
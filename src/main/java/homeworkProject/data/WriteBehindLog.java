@@ -0,0 +1,531 @@
+package homeworkProject.data;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Class for persisting the sales behind the checkout.
+ * A sale is appended to a local log file with the numbers of its seats and synced to the disk
+ * before the checkout returns, then a background flusher coalesces the sold amounts per grandstand
+ * and applies them to the database in one JDBC batch, then stores the sold seats.
+ * The log is rolled to a new segment at every flush, and the old segments are deleted
+ * once the database has committed them. The database stores the number of the last applied
+ * segment with every amount in the transaction of the sales, so the segments which are left
+ * behind by a crash are replayed when the log is opened again, and a segment which has been
+ * committed but not deleted yet is skipped. The sales which the database rejects stay pending,
+ * and their segments are kept until a later flush applies them.
+ *
+ * @author Mario Posta
+ */
+public class WriteBehindLog {
+
+	/**
+	 * Default time between two flushes in milliseconds.
+	 */
+	public static final long DEFAULT_FLUSH_MILLIS = 200;
+
+	/**
+	 * Default maximal age of an unflushed sale in milliseconds.
+	 */
+	public static final long DEFAULT_MAX_LAG_MILLIS = 5000;
+
+	/**
+	 * Prefix of the names of the segment files.
+	 */
+	private static final String SEGMENT_PREFIX = "sales-";
+
+	/**
+	 * Suffix of the names of the segment files.
+	 */
+	private static final String SEGMENT_SUFFIX = ".log";
+
+	/**
+	 * Logger for tracking the application.
+	 */
+	private Logger logger = LoggerFactory.getLogger(WriteBehindLog.class);
+
+	/**
+	 * TicketService which applies the sales to the database.
+	 */
+	private final TicketService ticketService;
+
+	/**
+	 * Directory of the segment files.
+	 */
+	private final Path directory;
+
+	/**
+	 * Time between two flushes in milliseconds.
+	 */
+	private final long flushMillis;
+
+	/**
+	 * Maximal age of an unflushed sale in milliseconds.
+	 */
+	private final long maxLagMillis;
+
+	/**
+	 * Lock of the current segment and the pending amounts.
+	 */
+	private final Object lock = new Object();
+
+	/**
+	 * Lock which lets only one flush run at once.
+	 */
+	private final Object flushLock = new Object();
+
+	/**
+	 * Unflushed sold amounts keyed by the type of the ticket.
+	 */
+	private Map<String, Integer> pending = new HashMap<>();
+
+	/**
+	 * Seats of the unflushed sales keyed by the type of the ticket.
+	 */
+	private Map<String, List<int[]>> pendingSeats = new HashMap<>();
+
+	/**
+	 * Time of the oldest unflushed sale, {@code 0} if there is no such sale.
+	 */
+	private long oldestPendingMillis;
+
+	/**
+	 * Segments which hold the unflushed sales, the last one is the current segment.
+	 */
+	private List<Path> segments = new ArrayList<>();
+
+	/**
+	 * Channel of the current segment.
+	 */
+	private FileChannel channel;
+
+	/**
+	 * Number of the next segment.
+	 */
+	private long nextSegment;
+
+	/**
+	 * Executor of the background flushes, {@code null} if the flusher is not running.
+	 */
+	private ScheduledExecutorService flusher;
+
+	/**
+	 * Constructor for WriteBehindLog.
+	 * Replays the segments which are left in the directory and opens a new segment.
+	 * @param ticketService the TicketService which applies the sales to the database
+	 * @param directory the directory of the segment files
+	 * @param flushMillis the time between two flushes in milliseconds
+	 * @param maxLagMillis the maximal age of an unflushed sale in milliseconds,
+	 * older sales are flushed by the checkout itself
+	 * @throws IOException if the directory cannot be read or written
+	 */
+	public WriteBehindLog(TicketService ticketService, Path directory, long flushMillis, long maxLagMillis) throws IOException {
+		if (flushMillis < 1 || maxLagMillis < flushMillis)
+			throw new IllegalArgumentException("The flush interval must be positive and not greater than the maximal lag");
+		this.ticketService = ticketService;
+		this.directory = directory;
+		this.flushMillis = flushMillis;
+		this.maxLagMillis = maxLagMillis;
+		Files.createDirectories(directory);
+		recover();
+		openSegment();
+	}
+
+	/**
+	 * Starts the background flusher.
+	 */
+	public synchronized void start() {
+		if (flusher != null)
+			return;
+		flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "write-behind-flusher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		flusher.scheduleWithFixedDelay(this::flushQuietly, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops the background flusher, flushes every pending sale and closes the log.
+	 * The segment files are deleted if the database has committed every sale.
+	 */
+	public void drain() {
+		logger.debug("Write-behind log draining is in progress");
+
+		synchronized (this) {
+			if (flusher != null) {
+				flusher.shutdown();
+				try {
+					flusher.awaitTermination(maxLagMillis, TimeUnit.MILLISECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				flusher = null;
+			}
+		}
+		flush();
+		synchronized (lock) {
+			closeChannel();
+			if (pending.isEmpty()) {
+				for (Path segment : segments)
+					deleteSegment(segment);
+				segments.clear();
+			}
+		}
+	}
+
+	/**
+	 * Appends the accepted lines of the reservation to the log.
+	 * Returns when the lines are on the disk. If the oldest unflushed sale
+	 * is older than the maximal lag, the sales are flushed before returning.
+	 * @param reservation the reservation which has been sold
+	 * @throws UncheckedIOException if the log cannot be written
+	 */
+	public void append(CheckoutResult reservation) {
+		append(Collections.singletonList(reservation));
+	}
+
+	/**
+	 * Appends the accepted lines of several reservations to the log with one write and one sync.
+	 * A record holds the type, the amount and the seats of a line separated by tabs,
+	 * the seats are separated by commas. Returns when the lines are on the disk. If the oldest unflushed sale
+	 * is older than the maximal lag, the sales are flushed before returning. Once the lines are on the disk
+	 * the method does not fail, because the sales are final: if the flush fails, they stay pending.
+	 * @param reservations the reservations which have been sold
+	 * @throws UncheckedIOException if the log cannot be written
+	 */
+	public void append(List<CheckoutResult> reservations) {
+		StringBuilder record = new StringBuilder();
+		for (CheckoutResult reservation : reservations) {
+			for (CheckoutResult.Line line : reservation.getLines()) {
+				if (!line.isAccepted())
+					continue;
+				record.append(line.getType()).append('\t').append(line.getAmount()).append('\t');
+				int[] seats = line.getSeats();
+				for (int i = 0; i < seats.length; i++) {
+					if (i > 0)
+						record.append(',');
+					record.append(seats[i]);
+				}
+				record.append('\n');
+			}
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(record.toString().getBytes(StandardCharsets.UTF_8));
+		boolean lagging;
+		synchronized (lock) {
+			if (channel == null)
+				throw new IllegalStateException("The write-behind log has been drained");
+			long start;
+			try {
+				start = channel.position();
+			} catch (IOException e) {
+				throw new UncheckedIOException("The sale cannot be written to the log", e);
+			}
+			try {
+				while (buffer.hasRemaining())
+					channel.write(buffer);
+				channel.force(false);
+			} catch (IOException e) {
+				truncate(start);
+				throw new UncheckedIOException("The sale cannot be written to the log", e);
+			}
+			for (CheckoutResult reservation : reservations) {
+				for (CheckoutResult.Line line : reservation.getLines()) {
+					if (!line.isAccepted())
+						continue;
+					pending.merge(line.getType(), line.getAmount(), Integer::sum);
+					pendingSeats.computeIfAbsent(line.getType(), type -> new ArrayList<>()).add(line.getSeats());
+				}
+			}
+			long now = System.currentTimeMillis();
+			if (oldestPendingMillis == 0)
+				oldestPendingMillis = now;
+			lagging = now - oldestPendingMillis > maxLagMillis;
+		}
+		if (lagging) {
+			logger.warn("The database lags behind the sales, flushing in the checkout");
+			flushQuietly();
+		}
+	}
+
+	/**
+	 * Applies the pending sales to the database.
+	 * The log is rolled to a new segment, so the checkouts can go on while the database is updated.
+	 * If the database fails, the sales stay pending and are applied by the next flush.
+	 * If the database rejects the sales of a type, they stay pending and the flushed segments are kept.
+	 */
+	public void flush() {
+		synchronized (flushLock) {
+			Map<String, Integer> deltas;
+			Map<String, List<int[]>> seats;
+			List<Path> flushedSegments;
+			synchronized (lock) {
+				if (pending.isEmpty())
+					return;
+				flushedSegments = segments;
+				segments = new ArrayList<>();
+				if (channel != null) {
+					FileChannel current = channel;
+					try {
+						openSegment();
+					} catch (IOException e) {
+						channel = current;
+						segments = flushedSegments;
+						throw new UncheckedIOException("The next segment of the log cannot be opened", e);
+					}
+					close(current);
+				}
+				deltas = pending;
+				seats = pendingSeats;
+				pending = new HashMap<>();
+				pendingSeats = new HashMap<>();
+				oldestPendingMillis = 0;
+			}
+			Set<String> rejected;
+			try {
+				rejected = ticketService.applySales(deltas, mergeSeats(seats),
+						segmentNumber(flushedSegments.get(flushedSegments.size() - 1)));
+			} catch (RuntimeException e) {
+				keepPending(deltas, seats, flushedSegments);
+				throw e;
+			}
+			if (!rejected.isEmpty()) {
+				deltas.keySet().retainAll(rejected);
+				seats.keySet().retainAll(rejected);
+				keepPending(deltas, seats, flushedSegments);
+				logger.error("The database has rejected the flushed sales of " + rejected);
+				return;
+			}
+			for (Path segment : flushedSegments)
+				deleteSegment(segment);
+		}
+	}
+
+	/**
+	 * Gives back the sales of a flush which have not been applied to the pending sales,
+	 * and keeps their segments.
+	 * @param deltas the sold amounts which have not been applied
+	 * @param seats the seats of the sales which have not been applied
+	 * @param flushedSegments the segments of the flush
+	 */
+	private void keepPending(Map<String, Integer> deltas, Map<String, List<int[]>> seats, List<Path> flushedSegments) {
+		synchronized (lock) {
+			for (Map.Entry<String, Integer> delta : deltas.entrySet())
+				pending.merge(delta.getKey(), delta.getValue(), Integer::sum);
+			for (Map.Entry<String, List<int[]>> sold : seats.entrySet())
+				pendingSeats.computeIfAbsent(sold.getKey(), type -> new ArrayList<>()).addAll(sold.getValue());
+			flushedSegments.addAll(segments);
+			segments = flushedSegments;
+			oldestPendingMillis = System.currentTimeMillis();
+		}
+	}
+
+	/**
+	 * Returns the unflushed sold amounts.
+	 * @return the unflushed sold amounts keyed by the type of the ticket
+	 */
+	public Map<String, Integer> getPending() {
+		synchronized (lock) {
+			return Collections.unmodifiableMap(new HashMap<>(pending));
+		}
+	}
+
+	/**
+	 * Flushes the pending sales from the background flusher, and logs the failures.
+	 */
+	private void flushQuietly() {
+		try {
+			flush();
+		} catch (RuntimeException e) {
+			logger.error("Write-behind flush has failed", e);
+		}
+	}
+
+	/**
+	 * Replays the segments which are left in the directory by a previous run.
+	 * The seats of the records are stored with their amounts, so the inventory
+	 * is loaded with the seats which have been sold indeed. The records of a type in a segment
+	 * which the database has applied already are skipped, and the new segments are numbered
+	 * above every applied segment. A record whose number of seats differs from its amount
+	 * is torn, and it is skipped. The replayed sales which the database rejects stay pending.
+	 * @throws IOException if a segment cannot be read
+	 */
+	private void recover() throws IOException {
+		List<Path> leftSegments = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+			for (Path segment : stream)
+				leftSegments.add(segment);
+		}
+		leftSegments.sort((first, second) -> Long.compare(segmentNumber(first), segmentNumber(second)));
+		Map<String, Long> appliedSegments = ticketService.loadAppliedSegments();
+		for (long applied : appliedSegments.values())
+			nextSegment = Math.max(nextSegment, applied + 1);
+		Map<String, Integer> deltas = new HashMap<>();
+		Map<String, List<int[]>> seats = new HashMap<>();
+		for (Path segment : leftSegments) {
+			long number = segmentNumber(segment);
+			nextSegment = Math.max(nextSegment, number + 1);
+			for (String record : Files.readAllLines(segment, StandardCharsets.UTF_8)) {
+				String[] fields = record.split("\t", -1);
+				if (fields.length != 3 || number <= appliedSegments.getOrDefault(fields[0], -1L))
+					continue;
+				try {
+					int amount = Integer.parseInt(fields[1]);
+					int[] sold = parseSeats(fields[2]);
+					if (sold.length != amount)
+						throw new NumberFormatException("The record has " + sold.length + " seats for " + amount + " tickets");
+					deltas.merge(fields[0], amount, Integer::sum);
+					seats.computeIfAbsent(fields[0], type -> new ArrayList<>()).add(sold);
+				} catch (NumberFormatException e) {
+					logger.warn("Torn record in the log is skipped");
+				}
+			}
+		}
+		if (!deltas.isEmpty()) {
+			logger.debug("Replaying the unflushed sales of the log");
+			Set<String> rejected = ticketService.applySales(deltas, mergeSeats(seats), nextSegment - 1);
+			ticketService.loadInventory();
+			if (!rejected.isEmpty()) {
+				deltas.keySet().retainAll(rejected);
+				seats.keySet().retainAll(rejected);
+				pending = deltas;
+				pendingSeats = seats;
+				segments.addAll(leftSegments);
+				oldestPendingMillis = System.currentTimeMillis();
+				logger.error("The database has rejected the replayed sales of " + rejected);
+				return;
+			}
+		}
+		for (Path segment : leftSegments)
+			deleteSegment(segment);
+	}
+
+	/**
+	 * Parses the seats of a record.
+	 * @param field the seats of the record separated by commas
+	 * @return the numbers of the seats
+	 * @throws NumberFormatException if a seat is not a number
+	 */
+	private static int[] parseSeats(String field) {
+		if (field.isEmpty())
+			return new int[0];
+		String[] numbers = field.split(",");
+		int[] seats = new int[numbers.length];
+		for (int i = 0; i < numbers.length; i++)
+			seats[i] = Integer.parseInt(numbers[i]);
+		return seats;
+	}
+
+	/**
+	 * Merges the seats of the sales of every type into one array per type.
+	 * @param seats the seats of the sales keyed by the type of the ticket
+	 * @return the numbers of the sold seats keyed by the type of the ticket
+	 */
+	private static Map<String, int[]> mergeSeats(Map<String, List<int[]>> seats) {
+		Map<String, int[]> merged = new HashMap<>();
+		for (Map.Entry<String, List<int[]>> sold : seats.entrySet()) {
+			int count = 0;
+			for (int[] next : sold.getValue())
+				count += next.length;
+			int[] numbers = new int[count];
+			int position = 0;
+			for (int[] next : sold.getValue()) {
+				System.arraycopy(next, 0, numbers, position, next.length);
+				position += next.length;
+			}
+			merged.put(sold.getKey(), numbers);
+		}
+		return merged;
+	}
+
+	/**
+	 * Opens the next segment as the current segment.
+	 * @throws IOException if the segment cannot be created
+	 */
+	private void openSegment() throws IOException {
+		Path segment = directory.resolve(SEGMENT_PREFIX + nextSegment++ + SEGMENT_SUFFIX);
+		channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+		segments.add(segment);
+	}
+
+	/**
+	 * Closes the channel of the current segment.
+	 */
+	private void closeChannel() {
+		if (channel == null)
+			return;
+		close(channel);
+		channel = null;
+	}
+
+	/**
+	 * Closes the channel of a segment.
+	 * @param segmentChannel the channel to close
+	 */
+	private void close(FileChannel segmentChannel) {
+		try {
+			segmentChannel.close();
+		} catch (IOException e) {
+			logger.warn("The segment of the log cannot be closed");
+		}
+	}
+
+	/**
+	 * Cuts a partly written record off the current segment, so the recovery does not replay
+	 * the lines of a sale which has failed.
+	 * @param position the size of the segment before the record
+	 */
+	private void truncate(long position) {
+		try {
+			channel.truncate(position);
+			channel.position(position);
+		} catch (IOException e) {
+			logger.error("The failed record cannot be cut off the log", e);
+		}
+	}
+
+	/**
+	 * Deletes a segment whose sales have been committed.
+	 * @param segment the segment to delete
+	 */
+	private void deleteSegment(Path segment) {
+		try {
+			Files.deleteIfExists(segment);
+		} catch (IOException e) {
+			logger.warn("The segment of the log cannot be deleted: " + segment);
+		}
+	}
+
+	/**
+	 * Returns the number of the segment from its file name.
+	 * @param segment the segment file
+	 * @return the number of the segment
+	 */
+	private static long segmentNumber(Path segment) {
+		String name = segment.getFileName().toString();
+		try {
+			return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package homeworkProject.mail;
+
+/**
+ * Class for representing a confirmation e-mail of an order, which is waiting in the outbox.
+ *
+ * @author Mario Posta
+ */
+public class ConfirmationMail {
+
+	/**
+	 * Identifier of the e-mail in the outbox.
+	 */
+	private final long id;
+
+	/**
+	 * Address of the recipient.
+	 */
+	private final String recipient;
+
+	/**
+	 * Subject of the e-mail.
+	 */
+	private final String subject;
+
+	/**
+	 * Text of the e-mail.
+	 */
+	private final String text;
+
+	/**
+	 * Constructor for ConfirmationMail.
+	 * @param id the identifier of the e-mail in the outbox
+	 * @param recipient the address of the recipient
+	 * @param subject the subject of the e-mail
+	 * @param text the text of the e-mail
+	 */
+	public ConfirmationMail(long id, String recipient, String subject, String text) {
+		this.id = id;
+		this.recipient = recipient;
+		this.subject = subject;
+		this.text = text;
+	}
+
+	/**
+	 * Returns the identifier of the e-mail in the outbox.
+	 * @return the identifier of the e-mail
+	 */
+	public long getId() {
+		return id;
+	}
+
+	/**
+	 * Returns the address of the recipient.
+	 * @return the address of the recipient
+	 */
+	public String getRecipient() {
+		return recipient;
+	}
+
+	/**
+	 * Returns the subject of the e-mail.
+	 * @return the subject of the e-mail
+	 */
+	public String getSubject() {
+		return subject;
+	}
+
+	/**
+	 * Returns the text of the e-mail.
+	 * @return the text of the e-mail
+	 */
+	public String getText() {
+		return text;
+	}
+}
@@ -0,0 +1,453 @@
+package homeworkProject.mail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import homeworkProject.model.Order;
+import homeworkProject.model.OrderLine;
+
+/**
+ * Class for sending the confirmation e-mails of the orders in the background.
+ * A submitted e-mail is written to the outbox and put into a bounded queue, so the checkout
+ * never waits for the mail server. The sender threads take the queued e-mails in batches
+ * and send them through the transport, and a failed batch is retried with exponential backoff.
+ * If the queue is full, the e-mail waits only in the outbox, and it is queued again
+ * when the senders have caught up. The e-mails of the outbox are queued at the start.
+ *
+ * @author Mario Posta
+ */
+public class ConfirmationMailer {
+
+	/**
+	 * Default capacity of the queue.
+	 */
+	public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+	/**
+	 * Default maximal number of the e-mails of a batch.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 20;
+
+	/**
+	 * Default wait before the first retry in milliseconds.
+	 */
+	public static final long DEFAULT_INITIAL_BACKOFF_MILLIS = 500;
+
+	/**
+	 * Default maximal wait between the retries in milliseconds.
+	 */
+	public static final long DEFAULT_MAX_BACKOFF_MILLIS = 60000;
+
+	/**
+	 * Subject of the confirmation e-mails.
+	 */
+	private static final String SUBJECT = "Confirmation of your ticket order";
+
+	/**
+	 * Time while an idle sender waits for an e-mail in milliseconds.
+	 */
+	private static final long POLL_MILLIS = 100;
+
+	/**
+	 * Class for representing the statistics of the pipeline.
+	 */
+	public static class Stats {
+
+		/**
+		 * Number of the sent e-mails.
+		 */
+		private final long sent;
+
+		/**
+		 * Number of the failed batches.
+		 */
+		private final long failures;
+
+		/**
+		 * Number of the e-mails which have not fit into the queue.
+		 */
+		private final long overflows;
+
+		/**
+		 * Number of the queued e-mails.
+		 */
+		private final int queueDepth;
+
+		/**
+		 * Number of the sent e-mails per second since the start.
+		 */
+		private final double throughput;
+
+		/**
+		 * Constructor for Stats.
+		 * @param sent the number of the sent e-mails
+		 * @param failures the number of the failed batches
+		 * @param overflows the number of the e-mails which have not fit into the queue
+		 * @param queueDepth the number of the queued e-mails
+		 * @param throughput the number of the sent e-mails per second
+		 */
+		Stats(long sent, long failures, long overflows, int queueDepth, double throughput) {
+			this.sent = sent;
+			this.failures = failures;
+			this.overflows = overflows;
+			this.queueDepth = queueDepth;
+			this.throughput = throughput;
+		}
+
+		/**
+		 * Returns the number of the sent e-mails.
+		 * @return the number of the sent e-mails
+		 */
+		public long getSent() {
+			return sent;
+		}
+
+		/**
+		 * Returns the number of the failed batches.
+		 * @return the number of the failed batches
+		 */
+		public long getFailures() {
+			return failures;
+		}
+
+		/**
+		 * Returns the number of the e-mails which have not fit into the queue.
+		 * @return the number of the overflows
+		 */
+		public long getOverflows() {
+			return overflows;
+		}
+
+		/**
+		 * Returns the number of the queued e-mails.
+		 * @return the depth of the queue
+		 */
+		public int getQueueDepth() {
+			return queueDepth;
+		}
+
+		/**
+		 * Returns the number of the sent e-mails per second since the start.
+		 * @return the throughput of the pipeline
+		 */
+		public double getThroughput() {
+			return throughput;
+		}
+
+		@Override
+		public String toString() {
+			return "sent=" + sent + ", failures=" + failures + ", overflows=" + overflows
+					+ ", queueDepth=" + queueDepth + ", throughput=" + String.format("%.1f/s", throughput);
+		}
+	}
+
+	/**
+	 * Logger for tracking the application.
+	 */
+	private Logger logger = LoggerFactory.getLogger(ConfirmationMailer.class);
+
+	/**
+	 * Outbox which keeps the unsent e-mails on the disk.
+	 */
+	private final MailOutbox outbox;
+
+	/**
+	 * Transport which delivers the e-mails.
+	 */
+	private final MailTransport transport;
+
+	/**
+	 * Queue of the e-mails which are waiting for a sender.
+	 */
+	private final BlockingQueue<ConfirmationMail> queue;
+
+	/**
+	 * Identifiers of the queued e-mails and of the e-mails which are being sent.
+	 */
+	private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Whether the outbox has e-mails which have not fit into the queue.
+	 */
+	private final AtomicBoolean backlog = new AtomicBoolean();
+
+	/**
+	 * The sender threads.
+	 */
+	private final Thread[] senders;
+
+	/**
+	 * Maximal number of the e-mails of a batch.
+	 */
+	private final int batchSize;
+
+	/**
+	 * Wait before the first retry in milliseconds.
+	 */
+	private final long initialBackoffMillis;
+
+	/**
+	 * Maximal wait between the retries in milliseconds.
+	 */
+	private final long maxBackoffMillis;
+
+	/**
+	 * Whether the senders are running.
+	 */
+	private volatile boolean running;
+
+	/**
+	 * Time of the start in nanoseconds.
+	 */
+	private volatile long startNanos;
+
+	/**
+	 * Counter of the sent e-mails.
+	 */
+	private final LongAdder sent = new LongAdder();
+
+	/**
+	 * Counter of the failed batches.
+	 */
+	private final LongAdder failures = new LongAdder();
+
+	/**
+	 * Counter of the e-mails which have not fit into the queue.
+	 */
+	private final LongAdder overflows = new LongAdder();
+
+	/**
+	 * Constructor for ConfirmationMailer with the default queue, batch and backoff settings.
+	 * @param outbox the outbox which keeps the unsent e-mails
+	 * @param transport the transport which delivers the e-mails
+	 * @param senders the number of the sender threads
+	 */
+	public ConfirmationMailer(MailOutbox outbox, MailTransport transport, int senders) {
+		this(outbox, transport, senders, DEFAULT_QUEUE_CAPACITY, DEFAULT_BATCH_SIZE,
+				DEFAULT_INITIAL_BACKOFF_MILLIS, DEFAULT_MAX_BACKOFF_MILLIS);
+	}
+
+	/**
+	 * Constructor for ConfirmationMailer.
+	 * @param outbox the outbox which keeps the unsent e-mails
+	 * @param transport the transport which delivers the e-mails
+	 * @param senders the number of the sender threads
+	 * @param queueCapacity the capacity of the queue
+	 * @param batchSize the maximal number of the e-mails of a batch
+	 * @param initialBackoffMillis the wait before the first retry in milliseconds
+	 * @param maxBackoffMillis the maximal wait between the retries in milliseconds
+	 */
+	public ConfirmationMailer(MailOutbox outbox, MailTransport transport, int senders, int queueCapacity,
+			int batchSize, long initialBackoffMillis, long maxBackoffMillis) {
+		if (senders <= 0 || batchSize <= 0 || initialBackoffMillis <= 0 || maxBackoffMillis < initialBackoffMillis)
+			throw new IllegalArgumentException("Invalid settings of the confirmation e-mails");
+		this.outbox = outbox;
+		this.transport = transport;
+		this.queue = new ArrayBlockingQueue<>(queueCapacity);
+		this.senders = new Thread[senders];
+		this.batchSize = batchSize;
+		this.initialBackoffMillis = initialBackoffMillis;
+		this.maxBackoffMillis = maxBackoffMillis;
+	}
+
+	/**
+	 * Queues the e-mails of the outbox and starts the sender threads.
+	 */
+	public synchronized void start() {
+		if (running)
+			return;
+		running = true;
+		startNanos = System.nanoTime();
+		refill();
+		for (int i = 0; i < senders.length; i++) {
+			senders[i] = new Thread(this::run, "mail-sender-" + i);
+			senders[i].setDaemon(true);
+			senders[i].start();
+		}
+		logger.debug("Confirmation e-mails are sent by " + senders.length + " threads");
+	}
+
+	/**
+	 * Submits the confirmation e-mail of an order. Does not wait for the mail server.
+	 * @param order the order to confirm
+	 * @return {@code true} if the e-mail has been written to the outbox, {@code false} otherwise
+	 */
+	public boolean submit(Order order) {
+		ConfirmationMail mail;
+		try {
+			mail = outbox.add(order.getCustomer().getEmail(), SUBJECT, text(order));
+		} catch (RuntimeException e) {
+			logger.error("The confirmation e-mail cannot be written to the outbox", e);
+			return false;
+		}
+		enqueue(mail);
+		return true;
+	}
+
+	/**
+	 * Waits until the queued e-mails have been sent, then stops the sender threads.
+	 * The unsent e-mails stay in the outbox and are sent at the next start.
+	 * @param timeoutMillis the maximal wait for the queued e-mails in milliseconds
+	 */
+	public void shutdown(long timeoutMillis) {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+		while (running && !pending.isEmpty() && System.nanoTime() < deadline) {
+			try {
+				Thread.sleep(10);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+		synchronized (this) {
+			running = false;
+		}
+		for (Thread sender : senders) {
+			if (sender == null)
+				continue;
+			sender.interrupt();
+			try {
+				sender.join(1000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		queue.clear();
+		pending.clear();
+		transport.close();
+		logger.debug("Confirmation e-mails have been stopped: " + getStats());
+	}
+
+	/**
+	 * Returns the statistics of the pipeline.
+	 * @return the statistics of the pipeline
+	 */
+	public Stats getStats() {
+		long sentMails = sent.sum();
+		double seconds = (System.nanoTime() - startNanos) / 1e9;
+		return new Stats(sentMails, failures.sum(), overflows.sum(), queue.size(),
+				running && seconds > 0 ? sentMails / seconds : 0);
+	}
+
+	/**
+	 * Puts an e-mail into the queue, or marks the backlog of the outbox if the queue is full.
+	 * @param mail the e-mail to queue
+	 */
+	private void enqueue(ConfirmationMail mail) {
+		if (!pending.add(mail.getId()))
+			return;
+		if (!queue.offer(mail)) {
+			pending.remove(mail.getId());
+			overflows.increment();
+			backlog.set(true);
+		}
+	}
+
+	/**
+	 * Queues the e-mails of the outbox which are not queued or being sent.
+	 * An e-mail which has been sent since the outbox was read is skipped,
+	 * because its sender removes it from the outbox before it is not pending anymore.
+	 */
+	private void refill() {
+		for (ConfirmationMail mail : outbox.load()) {
+			if (!pending.add(mail.getId()))
+				continue;
+			if (!outbox.contains(mail.getId())) {
+				pending.remove(mail.getId());
+				continue;
+			}
+			if (!queue.offer(mail)) {
+				pending.remove(mail.getId());
+				backlog.set(true);
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Body of the sender threads.
+	 */
+	private void run() {
+		List<ConfirmationMail> batch = new ArrayList<>(batchSize);
+		while (running) {
+			try {
+				ConfirmationMail first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					if (backlog.compareAndSet(true, false))
+						refill();
+					continue;
+				}
+				batch.add(first);
+				queue.drainTo(batch, batchSize - 1);
+				sendWithRetry(batch);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (RuntimeException e) {
+				logger.error("The confirmation e-mails cannot be sent", e);
+			} finally {
+				for (ConfirmationMail mail : batch)
+					pending.remove(mail.getId());
+				batch.clear();
+			}
+		}
+	}
+
+	/**
+	 * Sends a batch until every e-mail is finished, waiting more and more between the failures.
+	 * Gives up when the senders are stopped, the unsent e-mails stay in the outbox.
+	 * @param batch the e-mails to send
+	 * @throws InterruptedException if the sender is stopped while waiting
+	 */
+	private void sendWithRetry(List<ConfirmationMail> batch) throws InterruptedException {
+		List<ConfirmationMail> remaining = new ArrayList<>(batch);
+		Set<Long> finished = new HashSet<>();
+		long backoffMillis = initialBackoffMillis;
+		while (!remaining.isEmpty()) {
+			try {
+				transport.send(remaining, mail -> {
+					outbox.remove(mail.getId());
+					finished.add(mail.getId());
+					sent.increment();
+				});
+				return;
+			} catch (IOException e) {
+				failures.increment();
+				remaining.removeIf(mail -> finished.contains(mail.getId()));
+				logger.warn("Sending " + remaining.size() + " e-mails has failed, retrying in "
+						+ backoffMillis + " ms: " + e.getMessage());
+				if (!running)
+					return;
+				Thread.sleep(backoffMillis);
+				backoffMillis = Math.min(backoffMillis * 2, maxBackoffMillis);
+			}
+		}
+	}
+
+	/**
+	 * Creates the text of the confirmation e-mail.
+	 * @param order the order to confirm
+	 * @return the text of the e-mail
+	 */
+	private static String text(Order order) {
+		StringBuilder text = new StringBuilder("Dear ").append(order.getCustomer().getName()).append(",\n\n")
+				.append("Thank you for your order. You have bought the following tickets:\n\n");
+		for (OrderLine line : order.getLines()) {
+			text.append(line.getAmount()).append(" x ").append(line.getType())
+					.append(": ").append(line.getPrice()).append('\n');
+		}
+		return text.append("\nTotal price: ").append(order.getTotalPrice()).append("\n\nTicket System\n").toString();
+	}
+}
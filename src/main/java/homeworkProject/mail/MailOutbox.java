@@ -0,0 +1,180 @@
+package homeworkProject.mail;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Class for keeping the unsent e-mails on the disk.
+ * Every e-mail is one file of the outbox directory, which is written atomically
+ * before the e-mail is queued and deleted after it has been sent,
+ * so the e-mails of a stopped or crashed run are sent at the next start.
+ *
+ * @author Mario Posta
+ */
+public class MailOutbox {
+
+	/**
+	 * Prefix of the names of the e-mail files.
+	 */
+	private static final String PREFIX = "mail-";
+
+	/**
+	 * Suffix of the names of the e-mail files.
+	 */
+	private static final String SUFFIX = ".properties";
+
+	/**
+	 * Logger for tracking the application.
+	 */
+	private Logger logger = LoggerFactory.getLogger(MailOutbox.class);
+
+	/**
+	 * Directory of the e-mail files.
+	 */
+	private final Path directory;
+
+	/**
+	 * Identifier of the last added e-mail.
+	 */
+	private final AtomicLong lastId = new AtomicLong();
+
+	/**
+	 * Constructor for MailOutbox.
+	 * Continues the identifiers after the last e-mail of the directory.
+	 * @param directory the directory of the e-mail files
+	 * @throws IOException if the directory cannot be created or read
+	 */
+	public MailOutbox(Path directory) throws IOException {
+		this.directory = directory;
+		Files.createDirectories(directory);
+		for (Path file : files())
+			lastId.set(Math.max(lastId.get(), id(file)));
+	}
+
+	/**
+	 * Adds an e-mail to the outbox.
+	 * @param recipient the address of the recipient
+	 * @param subject the subject of the e-mail
+	 * @param text the text of the e-mail
+	 * @return the added e-mail
+	 * @throws UncheckedIOException if the e-mail cannot be written
+	 */
+	public ConfirmationMail add(String recipient, String subject, String text) {
+		ConfirmationMail mail = new ConfirmationMail(lastId.incrementAndGet(), recipient, subject, text);
+		Properties properties = new Properties();
+		properties.setProperty("recipient", recipient);
+		properties.setProperty("subject", subject);
+		properties.setProperty("text", text);
+		Path file = file(mail.getId());
+		Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+		try {
+			try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+				properties.store(writer, null);
+			}
+			Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			throw new UncheckedIOException("The e-mail cannot be written to the outbox", e);
+		}
+		return mail;
+	}
+
+	/**
+	 * Removes a sent e-mail from the outbox.
+	 * @param id the identifier of the e-mail
+	 */
+	public void remove(long id) {
+		try {
+			Files.deleteIfExists(file(id));
+		} catch (IOException e) {
+			logger.error("The sent e-mail cannot be removed from the outbox", e);
+		}
+	}
+
+	/**
+	 * Returns whether an e-mail is still in the outbox.
+	 * @param id the identifier of the e-mail
+	 * @return {@code true} if the e-mail has not been removed, {@code false} otherwise
+	 */
+	public boolean contains(long id) {
+		return Files.exists(file(id));
+	}
+
+	/**
+	 * Reads every e-mail of the outbox in the order of their identifiers.
+	 * The files which cannot be read are skipped.
+	 * @return the e-mails of the outbox
+	 */
+	public List<ConfirmationMail> load() {
+		List<ConfirmationMail> mails = new ArrayList<>();
+		for (Path file : files()) {
+			Properties properties = new Properties();
+			try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+				properties.load(reader);
+			} catch (IOException e) {
+				logger.warn("The e-mail file cannot be read: " + file.getFileName());
+				continue;
+			}
+			mails.add(new ConfirmationMail(id(file), properties.getProperty("recipient"),
+					properties.getProperty("subject"), properties.getProperty("text")));
+		}
+		return mails;
+	}
+
+	/**
+	 * Returns the number of the e-mails in the outbox.
+	 * @return the number of the e-mails
+	 */
+	public int size() {
+		return files().size();
+	}
+
+	/**
+	 * Returns the e-mail files of the directory sorted by their identifiers.
+	 * @return the e-mail files
+	 */
+	private List<Path> files() {
+		List<Path> files = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+			for (Path file : stream)
+				files.add(file);
+		} catch (IOException e) {
+			throw new UncheckedIOException("The outbox cannot be read", e);
+		}
+		Collections.sort(files);
+		return files;
+	}
+
+	/**
+	 * Returns the file of an e-mail.
+	 * @param id the identifier of the e-mail
+	 * @return the file of the e-mail
+	 */
+	private Path file(long id) {
+		return directory.resolve(String.format("%s%020d%s", PREFIX, id, SUFFIX));
+	}
+
+	/**
+	 * Returns the identifier of an e-mail file.
+	 * @param file the e-mail file
+	 * @return the identifier of the e-mail
+	 */
+	private static long id(Path file) {
+		String name = file.getFileName().toString();
+		return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+	}
+}
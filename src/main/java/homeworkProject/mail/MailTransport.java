@@ -0,0 +1,29 @@
+package homeworkProject.mail;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Interface for delivering the e-mails to a mail server.
+ * The implementations must be thread-safe.
+ *
+ * @author Mario Posta
+ */
+public interface MailTransport {
+
+	/**
+	 * Sends a batch of e-mails. Every e-mail which is finished, because it has been sent
+	 * or it has been rejected permanently, is passed to the callback. If the batch fails,
+	 * the e-mails which have not been passed to the callback are sent again later.
+	 * @param mails the e-mails to send
+	 * @param finished the callback of the finished e-mails
+	 * @throws IOException if the mail server cannot be reached
+	 */
+	void send(List<ConfirmationMail> mails, Consumer<ConfirmationMail> finished) throws IOException;
+
+	/**
+	 * Closes the connections to the mail server.
+	 */
+	void close();
+}
@@ -0,0 +1,186 @@
+package homeworkProject.mail;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+
+import javax.mail.Authenticator;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.PasswordAuthentication;
+import javax.mail.SendFailedException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.internet.AddressException;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Class for delivering the e-mails over SMTP with JavaMail.
+ * The connected SMTP sessions are kept in a pool and reused by the next batches,
+ * so a batch does not pay for the connection and the greeting of the server.
+ * A session which has failed is closed instead of being returned to the pool.
+ * An e-mail with an invalid recipient is dropped, the other failures are reported to be retried.
+ *
+ * @author Mario Posta
+ */
+public class SmtpMailTransport implements MailTransport {
+
+	/**
+	 * Logger for tracking the application.
+	 */
+	private Logger logger = LoggerFactory.getLogger(SmtpMailTransport.class);
+
+	/**
+	 * JavaMail session which holds the settings of the SMTP server.
+	 */
+	private final Session session;
+
+	/**
+	 * Address of the sender.
+	 */
+	private final InternetAddress sender;
+
+	/**
+	 * The idle connected SMTP sessions.
+	 */
+	private final BlockingQueue<Transport> pool;
+
+	/**
+	 * Constructor for SmtpMailTransport.
+	 * @param host the host of the SMTP server
+	 * @param port the port of the SMTP server
+	 * @param user the user of the SMTP server, {@code null} if the server needs no authentication
+	 * @param password the password of the user
+	 * @param sender the address of the sender
+	 * @param sessions the maximal number of the idle SMTP sessions
+	 * @throws AddressException if the address of the sender is invalid
+	 */
+	public SmtpMailTransport(String host, int port, String user, String password, String sender, int sessions)
+			throws AddressException {
+		Properties properties = new Properties();
+		properties.setProperty("mail.smtp.host", host);
+		properties.setProperty("mail.smtp.port", String.valueOf(port));
+		properties.setProperty("mail.smtp.connectiontimeout", "10000");
+		properties.setProperty("mail.smtp.timeout", "10000");
+		if (user != null) {
+			properties.setProperty("mail.smtp.auth", "true");
+			properties.setProperty("mail.smtp.user", user);
+			properties.setProperty("mail.smtp.starttls.enable", "true");
+		}
+		this.session = Session.getInstance(properties, user == null ? null : new Authenticator() {
+			@Override
+			protected PasswordAuthentication getPasswordAuthentication() {
+				return new PasswordAuthentication(user, password);
+			}
+		});
+		this.sender = new InternetAddress(sender);
+		this.pool = new ArrayBlockingQueue<>(sessions);
+	}
+
+	@Override
+	public void send(List<ConfirmationMail> mails, Consumer<ConfirmationMail> finished) throws IOException {
+		Transport transport = borrow();
+		boolean healthy = false;
+		try {
+			for (ConfirmationMail mail : mails) {
+				MimeMessage message;
+				try {
+					message = message(mail);
+				} catch (AddressException e) {
+					logger.error("The e-mail has an invalid recipient and is dropped: " + mail.getRecipient());
+					finished.accept(mail);
+					continue;
+				}
+				try {
+					transport.sendMessage(message, message.getAllRecipients());
+				} catch (SendFailedException e) {
+					if (e.getInvalidAddresses() == null || e.getInvalidAddresses().length == 0)
+						throw e;
+					logger.error("The e-mail has been rejected by the server and is dropped: " + mail.getRecipient(), e);
+				}
+				finished.accept(mail);
+			}
+			healthy = true;
+		} catch (MessagingException e) {
+			throw new IOException("The e-mails cannot be sent", e);
+		} finally {
+			giveBack(transport, healthy);
+		}
+	}
+
+	@Override
+	public void close() {
+		Transport transport;
+		while ((transport = pool.poll()) != null)
+			closeQuietly(transport);
+	}
+
+	/**
+	 * Takes a connected SMTP session from the pool, or connects a new one.
+	 * @return the connected SMTP session
+	 * @throws IOException if the SMTP server cannot be reached
+	 */
+	private Transport borrow() throws IOException {
+		Transport transport = pool.poll();
+		while (transport != null && !transport.isConnected()) {
+			closeQuietly(transport);
+			transport = pool.poll();
+		}
+		if (transport != null)
+			return transport;
+		try {
+			transport = session.getTransport("smtp");
+			transport.connect();
+			return transport;
+		} catch (MessagingException e) {
+			throw new IOException("The SMTP server cannot be reached", e);
+		}
+	}
+
+	/**
+	 * Returns a healthy SMTP session to the pool, closes it otherwise or if the pool is full.
+	 * @param transport the SMTP session
+	 * @param healthy whether the session can be reused
+	 */
+	private void giveBack(Transport transport, boolean healthy) {
+		if (!healthy || !pool.offer(transport))
+			closeQuietly(transport);
+	}
+
+	/**
+	 * Creates the message of an e-mail.
+	 * @param mail the e-mail
+	 * @return the message
+	 * @throws MessagingException if the message cannot be created
+	 */
+	private MimeMessage message(ConfirmationMail mail) throws MessagingException {
+		MimeMessage message = new MimeMessage(session);
+		message.setFrom(sender);
+		message.setRecipient(Message.RecipientType.TO, new InternetAddress(mail.getRecipient()));
+		message.setSubject(mail.getSubject(), "UTF-8");
+		message.setText(mail.getText(), "UTF-8");
+		message.setSentDate(new Date());
+		message.saveChanges();
+		return message;
+	}
+
+	/**
+	 * Closes an SMTP session, ignoring the errors.
+	 * @param transport the SMTP session
+	 */
+	private void closeQuietly(Transport transport) {
+		try {
+			transport.close();
+		} catch (MessagingException e) {
+			logger.debug("The SMTP session cannot be closed cleanly");
+		}
+	}
+}
@@ -0,0 +1,8 @@
+/**
+ * 
+ */
+/**
+ * @author Mario Posta
+ *
+ */
+package homeworkProject.mail;
\ No newline at end of file
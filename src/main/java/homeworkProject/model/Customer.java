@@ -0,0 +1,130 @@
+package homeworkProject.model;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+
+/**
+ * Class for representing a customer who has ordered tickets.
+ * The identifiers are allocated in blocks from a pooled sequence.
+ * 
+ * @author Mario Posta
+ */
+@Entity
+public class Customer {
+
+	/**
+	 * Identifier of the customer.
+	 */
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customerSequence")
+	@SequenceGenerator(name = "customerSequence", sequenceName = "customer_sequence", allocationSize = 50)
+	private Long id;
+
+	/**
+	 * Name of the customer.
+	 */
+	private String name;
+
+	/**
+	 * E-mail address of the customer.
+	 */
+	private String email;
+
+	/**
+	 * Telephone number of the customer.
+	 */
+	private String telephone;
+
+	/**
+	 * Postal code of the customer.
+	 */
+	private String postalCode;
+
+	/**
+	 * City of the customer.
+	 */
+	private String city;
+
+	/**
+	 * Street of the customer.
+	 */
+	private String street;
+
+	/**
+	 * Default constructor for this class.
+	 */
+	public Customer() {
+	}
+
+	/**
+	 * Constructor for this class.
+	 * @param person the personal informations of the customer
+	 */
+	public Customer(Person person) {
+		this.name = person.getName();
+		this.email = person.getEmail();
+		this.telephone = person.getTelephone();
+		this.postalCode = person.getPostalCode();
+		this.city = person.getCity();
+		this.street = person.getStreet();
+	}
+
+	/**
+	 * Returns the identifier of the customer.
+	 * @return the identifier of the customer, {@code null} if it has not been persisted
+	 */
+	public Long getId() {
+		return id;
+	}
+
+	/**
+	 * Returns the name of the customer.
+	 * @return the name of the customer
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns the e-mail address of the customer.
+	 * @return the e-mail address of the customer
+	 */
+	public String getEmail() {
+		return email;
+	}
+
+	/**
+	 * Returns the telephone number of the customer.
+	 * @return the telephone number of the customer
+	 */
+	public String getTelephone() {
+		return telephone;
+	}
+
+	/**
+	 * Returns the postal code of the customer.
+	 * @return the postal code of the customer
+	 */
+	public String getPostalCode() {
+		return postalCode;
+	}
+
+	/**
+	 * Returns the city of the customer.
+	 * @return the city of the customer
+	 */
+	public String getCity() {
+		return city;
+	}
+
+	/**
+	 * Returns the street of the customer.
+	 * @return the street of the customer
+	 */
+	public String getStreet() {
+		return street;
+	}
+}
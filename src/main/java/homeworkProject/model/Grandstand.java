@@ -0,0 +1,113 @@
+package homeworkProject.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Enum for representing the grandstands of the Hungaroring
+ * with the price of their tickets and the width of their rows.
+ * 
+ * @author Mario Posta
+ */
+public enum Grandstand {
+
+	/**
+	 * The Super Gold grandstand.
+	 */
+	SUPER_GOLD("Super Gold", 450, 20),
+	/**
+	 * The Gold 1 grandstand.
+	 */
+	GOLD_1("Gold 1", 300, 30),
+	/**
+	 * The Gold 2 grandstand.
+	 */
+	GOLD_2("Gold 2", 300, 30),
+	/**
+	 * The Silver 1 grandstand.
+	 */
+	SILVER_1("Silver 1", 250, 40),
+	/**
+	 * The Silver 2 grandstand.
+	 */
+	SILVER_2("Silver 2", 250, 40),
+	/**
+	 * The Bronze 1 grandstand.
+	 */
+	BRONZE_1("Bronze 1", 100, 50),
+	/**
+	 * The Bronze 2 grandstand.
+	 */
+	BRONZE_2("Bronze 2", 100, 50);
+
+	/**
+	 * Grandstands keyed by the type of their ticket.
+	 */
+	private static final Map<String, Grandstand> BY_TYPE = new HashMap<>();
+	
+	static {
+		for (Grandstand grandstand : values()) {
+			BY_TYPE.put(grandstand.type, grandstand);
+		}
+	}
+
+	/**
+	 * Type of the ticket of the grandstand.
+	 */
+	private final String type;
+
+	/**
+	 * Price of one ticket of the grandstand.
+	 */
+	private final int price;
+
+	/**
+	 * Number of the seats of a row of the grandstand.
+	 */
+	private final int seatsPerRow;
+
+	/**
+	 * Constructor for this enum.
+	 * @param type the type of the ticket
+	 * @param price the price of one ticket
+	 * @param seatsPerRow the number of the seats of a row
+	 */
+	Grandstand(String type, int price, int seatsPerRow) {
+		this.type = type;
+		this.price = price;
+		this.seatsPerRow = seatsPerRow;
+	}
+
+	/**
+	 * Returns the type of the ticket of the grandstand.
+	 * @return the type of the ticket
+	 */
+	public String getType() {
+		return type;
+	}
+
+	/**
+	 * Returns the price of one ticket of the grandstand.
+	 * @return the price of one ticket
+	 */
+	public int getPrice() {
+		return price;
+	}
+
+	/**
+	 * Returns the number of the seats of a row of the grandstand.
+	 * @return the number of the seats of a row
+	 */
+	public int getSeatsPerRow() {
+		return seatsPerRow;
+	}
+
+	/**
+	 * Returns the grandstand of the given ticket type.
+	 * @param type the type of the ticket
+	 * @return the grandstand, or {@code null} if the type is unknown
+	 */
+	public static Grandstand fromType(String type) {
+		return type == null ? null : BY_TYPE.get(type);
+	}
+}
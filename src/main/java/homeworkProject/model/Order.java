@@ -0,0 +1,160 @@
+package homeworkProject.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.persistence.CascadeType;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.OneToMany;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+
+/**
+ * Class for representing an order of tickets.
+ * The order is persisted with its customer and lines in the transaction
+ * which decrements the ticket amounts. The table is not called Order,
+ * because it is a reserved word of SQL. The idempotency key is unique,
+ * so an order cannot be saved twice even by concurrent application instances.
+ * 
+ * @author Mario Posta
+ */
+@Entity(name = "TicketOrder")
+@Table(name = "TicketOrder")
+public class Order {
+
+	/**
+	 * Identifier of the order.
+	 */
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orderSequence")
+	@SequenceGenerator(name = "orderSequence", sequenceName = "order_sequence", allocationSize = 50)
+	private Long id;
+
+	/**
+	 * Idempotency key of the checkout, {@code null} if the checkout has no key.
+	 */
+	@Column(unique = true)
+	private String idempotencyKey;
+
+	/**
+	 * Customer of the order.
+	 */
+	@ManyToOne(cascade = CascadeType.PERSIST, fetch = FetchType.LAZY, optional = false)
+	@JoinColumn(name = "customer_id")
+	private Customer customer;
+
+	/**
+	 * Time of the order in milliseconds.
+	 */
+	private long orderTime;
+
+	/**
+	 * Total price of the order.
+	 */
+	private int totalPrice;
+
+	/**
+	 * Lines of the order.
+	 */
+	@OneToMany(mappedBy = "order", cascade = CascadeType.ALL)
+	private List<OrderLine> lines = new ArrayList<>();
+
+	/**
+	 * Default constructor for this class.
+	 */
+	public Order() {
+	}
+
+	/**
+	 * Constructor for this class.
+	 * @param customer the customer of the order
+	 * @param orderTime the time of the order in milliseconds
+	 * @param totalPrice the total price of the order
+	 */
+	public Order(Customer customer, long orderTime, int totalPrice) {
+		this(null, customer, orderTime, totalPrice);
+	}
+
+	/**
+	 * Constructor for this class.
+	 * @param idempotencyKey the idempotency key of the checkout, {@code null} if there is no key
+	 * @param customer the customer of the order
+	 * @param orderTime the time of the order in milliseconds
+	 * @param totalPrice the total price of the order
+	 */
+	public Order(String idempotencyKey, Customer customer, long orderTime, int totalPrice) {
+		this.idempotencyKey = idempotencyKey;
+		this.customer = customer;
+		this.orderTime = orderTime;
+		this.totalPrice = totalPrice;
+	}
+
+	/**
+	 * Adds a line to the order.
+	 * @param type the type of the ticket
+	 * @param price the price of the line
+	 * @param amount the amount of the ticket
+	 * @return the new line
+	 */
+	public OrderLine addLine(String type, int price, int amount) {
+		OrderLine line = new OrderLine(this, type, price, amount);
+		lines.add(line);
+		return line;
+	}
+
+	/**
+	 * Returns the identifier of the order.
+	 * @return the identifier of the order, {@code null} if it has not been persisted
+	 */
+	public Long getId() {
+		return id;
+	}
+
+	/**
+	 * Returns the idempotency key of the checkout.
+	 * @return the idempotency key, {@code null} if the checkout has no key
+	 */
+	public String getIdempotencyKey() {
+		return idempotencyKey;
+	}
+
+	/**
+	 * Returns the customer of the order.
+	 * @return the customer of the order
+	 */
+	public Customer getCustomer() {
+		return customer;
+	}
+
+	/**
+	 * Returns the time of the order.
+	 * @return the time of the order in milliseconds
+	 */
+	public long getOrderTime() {
+		return orderTime;
+	}
+
+	/**
+	 * Returns the total price of the order.
+	 * @return the total price of the order
+	 */
+	public int getTotalPrice() {
+		return totalPrice;
+	}
+
+	/**
+	 * Returns the lines of the order.
+	 * @return the read-only list of the lines
+	 */
+	public List<OrderLine> getLines() {
+		return Collections.unmodifiableList(lines);
+	}
+}
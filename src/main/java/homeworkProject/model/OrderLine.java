@@ -0,0 +1,144 @@
+package homeworkProject.model;
+
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.Lob;
+import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
+
+/**
+ * Class for representing a line of an order.
+ * 
+ * @author Mario Posta
+ */
+@Entity
+public class OrderLine {
+
+	/**
+	 * Identifier of the line.
+	 */
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orderLineSequence")
+	@SequenceGenerator(name = "orderLineSequence", sequenceName = "order_line_sequence", allocationSize = 50)
+	private Long id;
+
+	/**
+	 * Order of the line.
+	 */
+	@ManyToOne(fetch = FetchType.LAZY, optional = false)
+	@JoinColumn(name = "order_id")
+	private Order order;
+
+	/**
+	 * Type of the ticket.
+	 */
+	private String type;
+
+	/**
+	 * Price of the line.
+	 */
+	private int price;
+
+	/**
+	 * Amount of the ticket.
+	 */
+	private int amount;
+
+	/**
+	 * Numbers of the sold seats separated by commas, {@code null} if they are not known.
+	 */
+	@Lob
+	private String seats;
+
+	/**
+	 * Default constructor for this class.
+	 */
+	public OrderLine() {
+	}
+
+	/**
+	 * Constructor for this class.
+	 * @param order the order of the line
+	 * @param type the type of the ticket
+	 * @param price the price of the line
+	 * @param amount the amount of the ticket
+	 */
+	OrderLine(Order order, String type, int price, int amount) {
+		this.order = order;
+		this.type = type;
+		this.price = price;
+		this.amount = amount;
+	}
+
+	/**
+	 * Returns the identifier of the line.
+	 * @return the identifier of the line, {@code null} if it has not been persisted
+	 */
+	public Long getId() {
+		return id;
+	}
+
+	/**
+	 * Returns the order of the line.
+	 * @return the order of the line
+	 */
+	public Order getOrder() {
+		return order;
+	}
+
+	/**
+	 * Returns the type of the ticket.
+	 * @return the type of the ticket
+	 */
+	public String getType() {
+		return type;
+	}
+
+	/**
+	 * Returns the price of the line.
+	 * @return the price of the line
+	 */
+	public int getPrice() {
+		return price;
+	}
+
+	/**
+	 * Returns the amount of the ticket.
+	 * @return the amount of the ticket
+	 */
+	public int getAmount() {
+		return amount;
+	}
+
+	/**
+	 * Returns the numbers of the sold seats of the line.
+	 * @return the numbers of the seats in ascending order, empty if they are not known
+	 */
+	public int[] getSeats() {
+		if (seats == null || seats.isEmpty())
+			return new int[0];
+		String[] numbers = seats.split(",");
+		int[] parsed = new int[numbers.length];
+		for (int i = 0; i < numbers.length; i++)
+			parsed[i] = Integer.parseInt(numbers[i]);
+		return parsed;
+	}
+
+	/**
+	 * Sets the numbers of the sold seats of the line.
+	 * @param seats the numbers of the seats in ascending order
+	 */
+	public void setSeats(int[] seats) {
+		StringBuilder numbers = new StringBuilder();
+		for (int seat : seats) {
+			if (numbers.length() > 0)
+				numbers.append(',');
+			numbers.append(seat);
+		}
+		this.seats = numbers.toString();
+	}
+}
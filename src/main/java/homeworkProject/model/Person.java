@@ -1,8 +1,5 @@
 package homeworkProject.model;
 
-import javafx.beans.property.SimpleStringProperty;
-import javafx.beans.property.StringProperty;
-
 /**
  * Class for representing a person who orders.
  * 
@@ -13,32 +10,32 @@ public class Person {
 	/**
 	 * Name of the person.
 	 */
-    private final StringProperty name;
+    private String name;
     
 	/**
 	 * E-mail address of the person.
 	 */
-    private final StringProperty email;
+    private String email;
     
     /**
      * Telephone number of the person.
      */
-    private final StringProperty telephone;
+    private String telephone;
     
     /**
      * Postal code of the person.
      */
-    private final StringProperty postalCode;
+    private String postalCode;
     
     /**
      * City of the person.
      */
-    private final StringProperty city;
+    private String city;
     
     /**
      * Street of the person.
      */
-    private final StringProperty street;
+    private String street;
     
     /**
      * Default constructor for this class.
@@ -58,12 +55,12 @@ public class Person {
 	 */
 	public Person(String name, String email, String telephone, String postalCode,
 			String city, String street) {
-		this.name = new SimpleStringProperty(name);
-		this.email = new SimpleStringProperty(email);
-		this.telephone = new SimpleStringProperty(telephone);
-		this.postalCode = new SimpleStringProperty(postalCode);
-		this.city = new SimpleStringProperty(city);
-		this.street = new SimpleStringProperty(street);
+		this.name = name;
+		this.email = email;
+		this.telephone = telephone;
+		this.postalCode = postalCode;
+		this.city = city;
+		this.street = street;
 	}
 
 	/**
@@ -71,7 +68,7 @@ public class Person {
 	 * @return the name of the person
 	 */
     public String getName() {
-        return name.get();
+        return name;
     }
 
     /**
@@ -79,23 +76,16 @@ public class Person {
      * @param name the name of the person
      */
     public void setName(String name) {
-        this.name.set(name);
+        this.name = name;
     }
 
-    /**
-     * Returns the name of the person as property.
-     * @return the name of the person.
-     */
-    public StringProperty nameProperty() {
-        return name;
-    }
 
 	/**
 	 * Returns the email of the person.
 	 * @return the email of the person
 	 */
     public String getEmail() {
-        return email.get();
+        return email;
     }
 
     /**
@@ -103,23 +93,16 @@ public class Person {
      * @param email the e-mail address of the person
      */
     public void setEmail(String email) {
-        this.email.set(email);
+        this.email = email;
     }
 
-    /**
-     * Returns the e-mail address of the person as property.
-     * @return the e-mail address of the person
-     */
-    public StringProperty emailProperty() {
-        return email;
-    }
     
 	/**
 	 * Return the telephone number of the person.
 	 * @return the telephone number of the person
 	 */
     public String getTelephone() {
-        return telephone.get();
+        return telephone;
     }
 
     /**
@@ -127,23 +110,16 @@ public class Person {
      * @param telephone the telephone number of the person
      */
     public void setTelephone(String telephone) {
-        this.telephone.set(telephone);
+        this.telephone = telephone;
     }
 
-    /**
-     * Returns the telephone number of the person as property.
-     * @return the telephone number of the person
-     */
-    public StringProperty telephoneProperty() {
-        return telephone;
-    }
 
 	/**
 	 * Return the postal code of the person.
 	 * @return the postal code of the person
 	 */
     public String getPostalCode() {
-        return postalCode.get();
+        return postalCode;
     }
 
     /**
@@ -151,23 +127,16 @@ public class Person {
      * @param postalCode the postal code of the person
      */
     public void setPostalCode (String postalCode) {
-        this.postalCode.set(postalCode);
+        this.postalCode = postalCode;
     }
 
-	/**
-	 * Return the postal code of the person as property.
-	 * @return the postal code of the person
-	 */
-    public StringProperty postalCodeProperty() {
-        return postalCode;
-    }
 
 	/**
 	 * Return the city of the person.
 	 * @return the city of the person
 	 */
     public String getCity() {
-        return city.get();
+        return city;
     }
 
     /**
@@ -175,23 +144,16 @@ public class Person {
      * @param city the city of the person
      */
     public void setCity(String city) {
-        this.city.set(city);
+        this.city = city;
     }
 
-	/**
-	 * Return the city of the person as property.
-	 * @return the city of the person
-	 */
-    public StringProperty cityProperty() {
-        return city;
-    }
     
 	/**
 	 * Return the street of the person.
 	 * @return the street of the person
 	 */
     public String getStreet() {
-        return street.get();
+        return street;
     }
 
     /**
@@ -199,15 +161,8 @@ public class Person {
      * @param street the street of the person
      */
     public void setStreet(String street) {
-        this.street.set(street);
+        this.street = street;
     }
 
-	/**
-	 * Return the street of the person as property.
-	 * @return the street of the person
-	 */
-    public StringProperty streetProperty() {
-        return street;
-    }
  
 }
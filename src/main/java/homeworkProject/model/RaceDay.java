@@ -0,0 +1,51 @@
+package homeworkProject.model;
+
+/**
+ * Enum for representing the days of the Grand Prix weekend.
+ * 
+ * @author Mario Posta
+ */
+public enum RaceDay {
+
+	/**
+	 * The day of the free practices.
+	 */
+	FRIDAY("Friday"),
+	/**
+	 * The day of the qualifying.
+	 */
+	SATURDAY("Saturday"),
+	/**
+	 * The day of the race.
+	 */
+	SUNDAY("Sunday");
+
+	/**
+	 * Name of the day.
+	 */
+	private final String name;
+
+	/**
+	 * Constructor for this enum.
+	 * @param name the name of the day
+	 */
+	RaceDay(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Returns the name of the day.
+	 * @return the name of the day
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns the bit of the day in a mask of days.
+	 * @return the bit of the day
+	 */
+	public int getMask() {
+		return 1 << ordinal();
+	}
+}
@@ -0,0 +1,75 @@
+package homeworkProject.model;
+
+/**
+ * Enum for representing the passes of the Grand Prix weekend with the days they cover.
+ * 
+ * @author Mario Posta
+ */
+public enum RacePass {
+
+	/**
+	 * The pass of Friday.
+	 */
+	FRIDAY("Friday", RaceDay.FRIDAY),
+	/**
+	 * The pass of Saturday.
+	 */
+	SATURDAY("Saturday", RaceDay.SATURDAY),
+	/**
+	 * The pass of Sunday.
+	 */
+	SUNDAY("Sunday", RaceDay.SUNDAY),
+	/**
+	 * The pass of the whole weekend.
+	 */
+	WEEKEND("3-day pass", RaceDay.FRIDAY, RaceDay.SATURDAY, RaceDay.SUNDAY);
+
+	/**
+	 * Name of the pass.
+	 */
+	private final String name;
+
+	/**
+	 * Mask of the days covered by the pass.
+	 */
+	private final int days;
+
+	/**
+	 * Constructor for this enum.
+	 * @param name the name of the pass
+	 * @param days the days covered by the pass
+	 */
+	RacePass(String name, RaceDay... days) {
+		this.name = name;
+		int mask = 0;
+		for (RaceDay day : days) {
+			mask |= day.getMask();
+		}
+		this.days = mask;
+	}
+
+	/**
+	 * Returns the name of the pass.
+	 * @return the name of the pass
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns the mask of the days covered by the pass.
+	 * @return the mask of the days, see {@link RaceDay#getMask()}
+	 */
+	public int getDays() {
+		return days;
+	}
+
+	/**
+	 * Decides whether the pass covers a day.
+	 * @param day the day
+	 * @return {@code true} if the pass is valid on the day, {@code false} otherwise
+	 */
+	public boolean covers(RaceDay day) {
+		return (days & day.getMask()) != 0;
+	}
+}
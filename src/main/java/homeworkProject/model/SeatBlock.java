@@ -0,0 +1,126 @@
+package homeworkProject.model;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * Class for representing a block of the sold seats of a grandstand.
+ * The seats are stored as a bitmap with one bit per seat, and a block holds
+ * {@link #SEATS} seats, so a sale only rewrites the blocks of its seats.
+ *
+ * @author Mario Posta
+ */
+@Entity
+public class SeatBlock {
+
+	/**
+	 * Number of the seats of a block.
+	 */
+	public static final int SEATS = 4096;
+
+	/**
+	 * Identifier of the block, the type of the ticket and the index of the block.
+	 */
+	@Id
+	private String id;
+
+	/**
+	 * Type of the ticket.
+	 */
+	private String type;
+
+	/**
+	 * Index of the block in the grandstand.
+	 */
+	private int blockIndex;
+
+	/**
+	 * Bitmap of the sold seats of the block, from the lowest bit of the first byte.
+	 */
+	@Column(length = SEATS / Byte.SIZE)
+	private byte[] seats;
+
+	/**
+	 * Default constructor for this class.
+	 */
+	public SeatBlock() {
+	}
+
+	/**
+	 * Constructor for a block without sold seats.
+	 * @param type the type of the ticket
+	 * @param blockIndex the index of the block in the grandstand
+	 */
+	public SeatBlock(String type, int blockIndex) {
+		this.id = idOf(type, blockIndex);
+		this.type = type;
+		this.blockIndex = blockIndex;
+		this.seats = new byte[SEATS / Byte.SIZE];
+	}
+
+	/**
+	 * Returns the identifier of a block.
+	 * @param type the type of the ticket
+	 * @param blockIndex the index of the block in the grandstand
+	 * @return the identifier of the block
+	 */
+	public static String idOf(String type, int blockIndex) {
+		return type + "/" + blockIndex;
+	}
+
+	/**
+	 * Returns the index of the block of a seat.
+	 * @param seat the number of the seat in the grandstand
+	 * @return the index of the block
+	 */
+	public static int blockOf(int seat) {
+		return seat / SEATS;
+	}
+
+	/**
+	 * Marks the given seats of the block as sold, the seats of other blocks are ignored.
+	 * @param soldSeats the numbers of the seats in the grandstand
+	 */
+	public void markSold(int[] soldSeats) {
+		byte[] updated = seats.clone();
+		for (int seat : soldSeats) {
+			int offset = seat - blockIndex * SEATS;
+			if (offset >= 0 && offset < SEATS)
+				updated[offset / Byte.SIZE] |= 1 << (offset % Byte.SIZE);
+		}
+		seats = updated;
+	}
+
+	/**
+	 * Returns the identifier of the block.
+	 * @return the identifier of the block
+	 */
+	public String getId() {
+		return id;
+	}
+
+	/**
+	 * Returns the type of the ticket.
+	 * @return the type of the ticket
+	 */
+	public String getType() {
+		return type;
+	}
+
+	/**
+	 * Returns the index of the block in the grandstand.
+	 * @return the index of the block
+	 */
+	public int getBlockIndex() {
+		return blockIndex;
+	}
+
+	/**
+	 * Returns the bitmap of the sold seats of the block.
+	 * @return the bitmap of the sold seats
+	 */
+	public byte[] getSeats() {
+		return seats;
+	}
+}
@@ -1,10 +1,5 @@
 package homeworkProject.model;
 
-import javafx.beans.property.IntegerProperty;
-import javafx.beans.property.SimpleIntegerProperty;
-import javafx.beans.property.SimpleStringProperty;
-import javafx.beans.property.StringProperty;
-
 /**
  * Class for representing a ticket.
  * 
@@ -16,21 +11,21 @@ public class Ticket {
 	/**
 	 * Type for the ticket.
 	 */
-	private final StringProperty type;
+	private String type;
 	/**
 	 * Price for the ticket.
 	 */
-	private final IntegerProperty price;
+	private int price;
 	/**
 	 * Amount for the ticket.
 	 */
-	private final IntegerProperty amount;
+	private int amount;
 	
     /**
      * Default constructor for this class.
      */
 	public Ticket() {
-		this(null, null, null);
+		this(null, 0, 0);
 	}
 	
 	/**
@@ -41,9 +36,9 @@ public class Ticket {
 	 */
 	public Ticket(String type, Integer price, Integer amount) {
 		super();
-		this.type = new SimpleStringProperty(type);
-		this.price = new SimpleIntegerProperty(price);
-		this.amount = new SimpleIntegerProperty(amount);
+		this.type = type;
+		this.price = price;
+		this.amount = amount;
 	}
 	
 	/**
@@ -51,7 +46,7 @@ public class Ticket {
 	 * @return the type of the ticket
 	 */
     public String getType() {
-        return type.get();
+        return type;
     }
 
     /**
@@ -59,15 +54,7 @@ public class Ticket {
      * @param type the type of the ticket
      */
     public void setName(String type) {
-        this.type.set(type);
-    }
-
-    /**
-     * Return the type of the ticket as property.
-     * @return the tpye of the ticket
-     */
-    public StringProperty typeProperty() {
-        return type;
+        this.type = type;
     }
     
     /**
@@ -75,7 +62,7 @@ public class Ticket {
      * @return the price of the ticket
      */
     public Integer getPrice() {
-        return price.get();
+        return price;
     }
 
     /**
@@ -83,15 +70,7 @@ public class Ticket {
      * @param price the price of the ticket.
      */
     public void setPrice(Integer price) {
-        this.price.set(price);
-    }
-
-    /**
-     * Returns the price of the ticket as property.
-     * @return the price of the ticket
-     */
-    public IntegerProperty priceProperty() {
-        return price;
+        this.price = price;
     }
     
     /**
@@ -99,7 +78,7 @@ public class Ticket {
      * @return the amount of the ticket
      */
     public Integer getAmount() {
-        return amount.get();
+        return amount;
     }
 
     /**
@@ -107,14 +86,6 @@ public class Ticket {
      * @param amount the amount of the ticket
      */
     public void setAmount(Integer amount) {
-        this.amount.set(amount);
-    }
-
-    /**
-     * Return the amount of the ticket as property.
-     * @return the amount of the ticket
-     */
-    public IntegerProperty amountProperty() {
-        return amount;
+        this.amount = amount;
     }
 }
\ No newline at end of file
@@ -5,6 +5,8 @@ import javax.persistence.Id;
 
 /**
  * Class for representing a ticket.
+ * The amount is the number of the available tickets of the grandstand,
+ * and its sold seats are stored in {@link SeatBlock}s.
  * 
  * @author Mario Posta
  */
@@ -21,6 +23,15 @@ public class TicketData {
 	 * Price for the ticket.
 	 */
 	private Integer amount;
+	/**
+	 * Number of the seats of the grandstand, {@code null} if it has been stored by an earlier version.
+	 */
+	private Integer capacity;
+	/**
+	 * Number of the last segment of the write-behind log which has been applied to the amount,
+	 * {@code null} if no segment has been applied.
+	 */
+	private Long appliedSegment;
 	
     /**
      * Default constructor for this class.
@@ -30,14 +41,25 @@ public class TicketData {
 	}
 	
 	/**
-	 * Constructor for this class.
+	 * Constructor for this class, every seat of the grandstand is available.
 	 * @param type the type of the ticket
 	 * @param amount the amount of the ticket
 	 */
 	public TicketData(String type, Integer amount) {
+		this(type, amount, amount);
+	}
+	
+	/**
+	 * Constructor for this class.
+	 * @param type the type of the ticket
+	 * @param amount the amount of the ticket
+	 * @param capacity the number of the seats of the grandstand
+	 */
+	public TicketData(String type, Integer amount, Integer capacity) {
 		super();
 		this.type = type;
 		this.amount = amount;
+		this.capacity = capacity;
 	}
 	
 	/**
@@ -71,4 +93,28 @@ public class TicketData {
     public void setAmount(Integer amount) {
         this.amount = amount;
     }
+
+    /**
+     * Returns the number of the seats of the grandstand.
+     * @return the number of the seats, {@code null} if it is not known
+     */
+    public Integer getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of the last applied segment of the write-behind log.
+     * @return the number of the segment, {@code null} if no segment has been applied
+     */
+    public Long getAppliedSegment() {
+        return appliedSegment;
+    }
+
+    /**
+     * Sets the number of the last applied segment of the write-behind log.
+     * @param appliedSegment the number of the segment, {@code null} if no segment has been applied
+     */
+    public void setAppliedSegment(Long appliedSegment) {
+        this.appliedSegment = appliedSegment;
+    }
 }
\ No newline at end of file
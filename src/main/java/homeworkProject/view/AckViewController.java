@@ -14,7 +14,7 @@ import javafx.stage.Stage;
  * 
  * @author Mario Posta
  */
-public class AckViewController {
+public class AckViewController implements ResettableController {
 	
     /**
      * Logger for tracking the application.
@@ -96,5 +96,13 @@ public class AckViewController {
         
         logger.debug("Person details has been set on the AckView");
     }
+    
+    /**
+     * Forgets the person of the previous showing.
+     */
+    @Override
+    public void reset() {
+    	this.person = null;
+    }
 
 }
@@ -0,0 +1,91 @@
+package homeworkProject.view;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+import homeworkProject.data.InventoryListener;
+import homeworkProject.data.TicketService;
+import javafx.animation.AnimationTimer;
+
+/**
+ * Class for pushing the changes of the inventory into a view.
+ * The changed types are only collected by the selling threads, and they are shown
+ * by a timer which runs once per frame on the JavaFX thread. So a burst of sales
+ * costs at most one update of the view per frame, and the shown amounts are always
+ * read from the inventory when they are shown.
+ *
+ * @author Mario Posta
+ */
+public class LiveAvailability extends AnimationTimer implements InventoryListener {
+
+	/**
+	 * TicketService which publishes the changes of the inventory.
+	 */
+	private final TicketService ticketService;
+
+	/**
+	 * Shows the available amount of a type in the view.
+	 */
+	private final BiConsumer<String, Integer> view;
+
+	/**
+	 * Types which have changed since the last frame.
+	 */
+	private final Set<String> changedTypes = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Constructor for LiveAvailability.
+	 * @param ticketService the ticketService which publishes the changes of the inventory
+	 * @param view shows the available amount of a type in the view, called on the JavaFX thread
+	 */
+	public LiveAvailability(TicketService ticketService, BiConsumer<String, Integer> view) {
+		this.ticketService = ticketService;
+		this.view = view;
+	}
+
+	/**
+	 * Subscribes to the changes of the inventory and starts the updates of the view.
+	 */
+	@Override
+	public void start() {
+		ticketService.subscribe(this);
+		super.start();
+	}
+
+	/**
+	 * Stops the updates of the view and unsubscribes from the changes of the inventory.
+	 */
+	@Override
+	public void stop() {
+		super.stop();
+		ticketService.unsubscribe(this);
+		changedTypes.clear();
+	}
+
+	/**
+	 * Remembers a changed type until the next frame.
+	 * @param type the type of the changed ticket
+	 */
+	@Override
+	public void inventoryChanged(String type) {
+		changedTypes.add(type);
+	}
+
+	/**
+	 * Shows the amounts of the types which have changed since the last frame.
+	 * @param now the time of the frame in nanoseconds
+	 */
+	@Override
+	public void handle(long now) {
+		if (changedTypes.isEmpty())
+			return;
+		Iterator<String> iterator = changedTypes.iterator();
+		while (iterator.hasNext()) {
+			String type = iterator.next();
+			iterator.remove();
+			view.accept(type, ticketService.getInventory().getAvailable(type));
+		}
+	}
+}
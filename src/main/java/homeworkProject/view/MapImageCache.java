@@ -0,0 +1,225 @@
+package homeworkProject.view;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javafx.scene.image.Image;
+
+/**
+ * Class for keeping the decoded resolutions of a map image.
+ * The image is decoded at a few pre-scaled resolutions, the levels, each of them
+ * on the background threads of JavaFX, so showing the map never waits for the decoder.
+ * The decoded levels are kept until their pixels exceed the budget of the cache,
+ * then the least recently used levels are dropped and decoded again when they are needed.
+ * The methods are called on the JavaFX application thread.
+ *
+ * @author Mario Posta
+ */
+public class MapImageCache {
+
+	/**
+	 * Scales of the levels compared to the size of the source image, from the smallest to the full size.
+	 */
+	private static final double[] SCALES = {0.25, 0.5, 1.0};
+
+	/**
+	 * Default budget of the decoded pixels, which is about 64 MB of ARGB pixels.
+	 */
+	public static final long DEFAULT_MAX_PIXELS = 16L * 1024 * 1024;
+
+	/**
+	 * Logger for tracking the application.
+	 */
+	private Logger logger = LoggerFactory.getLogger(MapImageCache.class);
+
+	/**
+	 * URL of the source image.
+	 */
+	private final String url;
+
+	/**
+	 * Budget of the decoded pixels.
+	 */
+	private final long maxPixels;
+
+	/**
+	 * Width of the source image.
+	 */
+	private final int sourceWidth;
+
+	/**
+	 * Height of the source image.
+	 */
+	private final int sourceHeight;
+
+	/**
+	 * Decoded or decoding levels keyed by their index, in the order of their last use.
+	 */
+	private final Map<Integer, Image> levels = new LinkedHashMap<>(SCALES.length, 0.75f, true);
+
+	/**
+	 * Constructor for MapImageCache.
+	 * Only the header of the image is read, the pixels are decoded by {@link #preload()} or {@link #get(int)}.
+	 * @param resource the resource of the source image
+	 * @param maxPixels the budget of the decoded pixels
+	 * @throws IllegalArgumentException if the resource does not exist or its size cannot be read
+	 */
+	public MapImageCache(String resource, long maxPixels) {
+		URL location = MapImageCache.class.getClassLoader().getResource(resource);
+		if (location == null)
+			throw new IllegalArgumentException("Unknown image: " + resource);
+		this.url = location.toString();
+		this.maxPixels = maxPixels;
+		int[] size = readSize(location);
+		this.sourceWidth = size[0];
+		this.sourceHeight = size[1];
+	}
+
+	/**
+	 * Starts decoding the smallest level, which is enough to show the whole map.
+	 */
+	public void preload() {
+		get(0);
+	}
+
+	/**
+	 * Returns the number of the levels.
+	 * @return the number of the levels
+	 */
+	public int getLevelCount() {
+		return SCALES.length;
+	}
+
+	/**
+	 * Returns the scale of a level compared to the size of the source image.
+	 * @param level the index of the level
+	 * @return the scale of the level
+	 */
+	public double getScale(int level) {
+		return SCALES[level];
+	}
+
+	/**
+	 * Returns the width of the source image.
+	 * @return the width in pixels
+	 */
+	public int getSourceWidth() {
+		return sourceWidth;
+	}
+
+	/**
+	 * Returns the height of the source image.
+	 * @return the height in pixels
+	 */
+	public int getSourceHeight() {
+		return sourceHeight;
+	}
+
+	/**
+	 * Returns the smallest level which has enough pixels for the given zoom.
+	 * @param zoom the shown size compared to the size of the source image
+	 * @return the index of the level
+	 */
+	public int levelFor(double zoom) {
+		for (int level = 0; level < SCALES.length; level++) {
+			if (SCALES[level] >= zoom)
+				return level;
+		}
+		return SCALES.length - 1;
+	}
+
+	/**
+	 * Returns a level, and starts decoding it in the background if it is not cached.
+	 * @param level the index of the level
+	 * @return the image of the level, which may still be decoding
+	 */
+	public Image get(int level) {
+		Image image = levels.get(level);
+		if (image == null || image.isError()) {
+			image = new Image(url, Math.round(sourceWidth * SCALES[level]), Math.round(sourceHeight * SCALES[level]),
+					true, true, true);
+			levels.put(level, image);
+			logger.debug("Decoding the level " + level + " of the map");
+			evict(level);
+		}
+		return image;
+	}
+
+	/**
+	 * Returns the largest decoded level which is not larger than the given level.
+	 * @param level the index of the wanted level
+	 * @return the image of the decoded level, {@code null} if no such level has been decoded yet
+	 */
+	public Image getDecoded(int level) {
+		for (int candidate = level; candidate >= 0; candidate--) {
+			Image image = levels.get(candidate);
+			if (image != null && image.getProgress() >= 1 && !image.isError())
+				return image;
+		}
+		return null;
+	}
+
+	/**
+	 * Drops the least recently used levels while the pixels exceed the budget.
+	 * @param kept the index of the level which is never dropped
+	 */
+	private void evict(int kept) {
+		long pixels = 0;
+		for (Integer level : levels.keySet()) {
+			pixels += pixels(level);
+		}
+		Iterator<Integer> iterator = levels.keySet().iterator();
+		while (pixels > maxPixels && iterator.hasNext()) {
+			Integer level = iterator.next();
+			if (level != kept) {
+				pixels -= pixels(level);
+				iterator.remove();
+				logger.debug("The level " + level + " of the map has been dropped");
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of the pixels of a level.
+	 * @param level the index of the level
+	 * @return the number of the pixels
+	 */
+	private long pixels(int level) {
+		return Math.round(sourceWidth * SCALES[level]) * Math.round(sourceHeight * SCALES[level]);
+	}
+
+	/**
+	 * Reads the size of an image from its header without decoding its pixels.
+	 * @param location the location of the image
+	 * @return the width and the height of the image
+	 * @throws IllegalArgumentException if the size cannot be read
+	 */
+	private static int[] readSize(URL location) {
+		try (InputStream in = location.openStream(); ImageInputStream stream = ImageIO.createImageInputStream(in)) {
+			Iterator<ImageReader> readers = stream == null ? null : ImageIO.getImageReaders(stream);
+			if (readers != null && readers.hasNext()) {
+				ImageReader reader = readers.next();
+				try {
+					reader.setInput(stream);
+					return new int[] {reader.getWidth(0), reader.getHeight(0)};
+				} finally {
+					reader.dispose();
+				}
+			}
+		} catch (IOException e) {
+			throw new IllegalArgumentException("The size of the image cannot be read: " + location, e);
+		}
+		throw new IllegalArgumentException("Unknown image format: " + location);
+	}
+}
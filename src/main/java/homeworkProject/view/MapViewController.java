@@ -1,55 +1,268 @@
 package homeworkProject.view;
 
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import homeworkProject.MainFX;
 import javafx.fxml.FXML;
+import javafx.geometry.Bounds;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.control.ScrollPane;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
+import javafx.scene.layout.Pane;
 import javafx.stage.Stage;
 
 /**
  * Class for controlling the scene that is represented by MapView.fxml.
- * 
+ * The map is cut into square tiles, and only the tiles which are visible in the
+ * scroll pane are put into the scene. The tiles are views of the cached level of
+ * the map which fits the zoom, so panning and zooming never copy or decode pixels
+ * on the JavaFX application thread.
+ *
  * @author Mario Posta
  */
 public class MapViewController {
-	
+
+	/**
+	 * Size of a tile in shown pixels.
+	 */
+	private static final double TILE_SIZE = 256;
+
+	/**
+	 * Ratio of the zoom of one click on a zoom button.
+	 */
+	private static final double ZOOM_STEP = 1.5;
+
+	/**
+	 * Largest zoom compared to the size of the source image.
+	 */
+	private static final double MAX_ZOOM = 2.0;
+
     /**
      * Logger for tracking the application.
      */
     private Logger logger = LoggerFactory.getLogger(MainFX.class);
-    
+
 	/**
-	 * ImageView for the map of Hungaroring.
+	 * ScrollPane for panning the map of Hungaroring.
 	 */
 	@FXML
-	private ImageView imageView;
-	
+	private ScrollPane mapScrollPane;
+
+	/**
+	 * Pane of the visible tiles of the map.
+	 */
+	@FXML
+	private Pane tilePane;
+
 	/**
 	 * Stage for the map of Hungaroring.
 	 */
 	@SuppressWarnings("unused")
 	private Stage dialogStage;
 
+	/**
+	 * Cache of the decoded levels of the map.
+	 */
+	private MapImageCache mapImageCache;
+
+	/**
+	 * Shown size of the map compared to the size of the source image, {@code 0} until the map is shown first.
+	 */
+	private double zoom;
+
+	/**
+	 * Zoom which fits the whole width of the map into the scroll pane.
+	 */
+	private double fitZoom;
+
+	/**
+	 * Image which the shown tiles are views of.
+	 */
+	private Image tileImage;
+
+	/**
+	 * Level which is being decoded and shown when it is ready, {@code null} if no level is awaited.
+	 */
+	private Image awaitedImage;
+
+	/**
+	 * Shown tiles keyed by their row and column.
+	 */
+	private final Map<Long, ImageView> tiles = new HashMap<>();
+
+	/**
+	 * Initializes the controller class. Renders the visible tiles whenever the map is panned or resized.
+	 */
+	@FXML
+	private void initialize() {
+		mapScrollPane.hvalueProperty().addListener((observable, oldValue, newValue) -> renderTiles());
+		mapScrollPane.vvalueProperty().addListener((observable, oldValue, newValue) -> renderTiles());
+		mapScrollPane.viewportBoundsProperty().addListener((observable, oldValue, newValue) -> renderTiles());
+	}
+
+	/**
+	 * Sets the cache of the decoded levels of the map.
+	 * @param mapImageCache the cache of the map
+	 */
+	public void setMapImageCache(MapImageCache mapImageCache) {
+		this.mapImageCache = mapImageCache;
+	}
+
     /**
      * Sets the stage of the scene of the map.
+     * The map fits the width of the stage when it is shown first.
      * @param dialogStage the stage that represents the dialog
      */
     public void setDialogStage(Stage dialogStage) {
     	this.dialogStage = dialogStage;
-    	setImageView();
+    	dialogStage.setOnShown(event -> {
+    		if (zoom == 0)	{
+    			fitZoom = mapScrollPane.getViewportBounds().getWidth() / mapImageCache.getSourceWidth();
+    			zoom = fitZoom;
+    		}
+    		renderTiles();
+    	});
         logger.debug("DialogeStage has been set in the MapView");
 
     }
-    
+
+    /**
+     * Called when the user clicks on the + button. Enlarges the map.
+     */
+    @FXML
+    private void handleZoomIn() {
+    	setZoom(Math.min(MAX_ZOOM, zoom * ZOOM_STEP));
+    }
+
+    /**
+     * Called when the user clicks on the - button. Reduces the map, at most to the width of the stage.
+     */
+    @FXML
+    private void handleZoomOut() {
+    	setZoom(Math.max(fitZoom, zoom / ZOOM_STEP));
+    }
+
+    /**
+     * Changes the zoom of the map and renders the tiles again.
+     * @param zoom the new zoom compared to the size of the source image
+     */
+    private void setZoom(double zoom) {
+    	if (zoom == this.zoom || this.zoom == 0)
+    		return;
+    	this.zoom = zoom;
+    	clearTiles();
+    	renderTiles();
+        logger.debug("Circuit map has been zoomed to " + Math.round(zoom * 100) + "%");
+    }
+
+    /**
+     * Shows the tiles which are visible in the scroll pane and removes the others.
+     * If the level of the zoom is still being decoded, a smaller decoded level is shown
+     * until it is ready.
+     */
+    private void renderTiles() {
+    	if (mapImageCache == null || zoom == 0)
+    		return;
+    	int level = mapImageCache.levelFor(zoom);
+    	Image image = mapImageCache.get(level);
+    	if (image.getProgress() < 1)	{
+    		awaitLevel(image);
+    		image = mapImageCache.getDecoded(level);
+    		if (image == null)
+    			return;
+    	}
+    	if (image != tileImage)	{
+    		clearTiles();
+    		tileImage = image;
+    	}
+
+    	double contentWidth = mapImageCache.getSourceWidth() * zoom;
+    	double contentHeight = mapImageCache.getSourceHeight() * zoom;
+    	tilePane.setPrefSize(contentWidth, contentHeight);
+    	Bounds viewport = mapScrollPane.getViewportBounds();
+    	double left = Math.max(0, contentWidth - viewport.getWidth()) * mapScrollPane.getHvalue();
+    	double top = Math.max(0, contentHeight - viewport.getHeight()) * mapScrollPane.getVvalue();
+    	int firstColumn = (int) (left / TILE_SIZE);
+    	int lastColumn = (int) (Math.min(left + viewport.getWidth(), contentWidth - 1) / TILE_SIZE);
+    	int firstRow = (int) (top / TILE_SIZE);
+    	int lastRow = (int) (Math.min(top + viewport.getHeight(), contentHeight - 1) / TILE_SIZE);
+
+    	Iterator<Map.Entry<Long, ImageView>> iterator = tiles.entrySet().iterator();
+    	while (iterator.hasNext()) {
+    		Map.Entry<Long, ImageView> tile = iterator.next();
+    		int row = (int) (tile.getKey() >>> 32);
+    		int column = (int) (long) tile.getKey();
+    		if (row < firstRow || row > lastRow || column < firstColumn || column > lastColumn)	{
+    			tilePane.getChildren().remove(tile.getValue());
+    			iterator.remove();
+    		}
+    	}
+    	double imageScale = image.getWidth() / contentWidth;
+    	for (int row = firstRow; row <= lastRow; row++) {
+    		for (int column = firstColumn; column <= lastColumn; column++) {
+    			long key = ((long) row << 32) | column;
+    			if (!tiles.containsKey(key))	{
+    				ImageView tile = createTile(image, row, column, contentWidth, contentHeight, imageScale);
+    				tiles.put(key, tile);
+    				tilePane.getChildren().add(tile);
+    			}
+    		}
+    	}
+    }
+
+    /**
+     * Creates the tile of the given row and column as a view of a part of the image.
+     * @param image the level of the map
+     * @param row the row of the tile
+     * @param column the column of the tile
+     * @param contentWidth the shown width of the whole map
+     * @param contentHeight the shown height of the whole map
+     * @param imageScale the pixels of the image per shown pixel
+     * @return the tile
+     */
+    private ImageView createTile(Image image, int row, int column, double contentWidth, double contentHeight,
+    		double imageScale) {
+    	double x = column * TILE_SIZE;
+    	double y = row * TILE_SIZE;
+    	double width = Math.min(TILE_SIZE, contentWidth - x);
+    	double height = Math.min(TILE_SIZE, contentHeight - y);
+    	ImageView tile = new ImageView(image);
+    	tile.setViewport(new Rectangle2D(x * imageScale, y * imageScale, width * imageScale, height * imageScale));
+    	tile.setFitWidth(width);
+    	tile.setFitHeight(height);
+    	tile.setSmooth(true);
+    	tile.setLayoutX(x);
+    	tile.setLayoutY(y);
+    	return tile;
+    }
+
+    /**
+     * Renders the tiles again when the given level has been decoded.
+     * @param image the level which is being decoded
+     */
+    private void awaitLevel(Image image) {
+    	if (image == awaitedImage)
+    		return;
+    	awaitedImage = image;
+    	image.progressProperty().addListener((observable, oldValue, progress) -> {
+    		if (progress.doubleValue() >= 1 && image == awaitedImage)	{
+    			awaitedImage = null;
+    			renderTiles();
+    		}
+    	});
+    }
+
     /**
-     * Sets the proper image of the Hungaroring and binds it to the stage.
-     * It uses the Hungaroring.jpg from the resources map.
+     * Removes every shown tile.
      */
-    private void setImageView(){
-        imageView.setImage(new Image(MapViewController.class.getClassLoader().getResource("Hungaroring.jpg").toString()));
-        logger.debug("Circuit map has been loaded.");
+    private void clearTiles() {
+    	tilePane.getChildren().clear();
+    	tiles.clear();
     }
-}
\ No newline at end of file
+}
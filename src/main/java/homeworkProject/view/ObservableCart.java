@@ -0,0 +1,63 @@
+package homeworkProject.view;
+
+import homeworkProject.businessLogic.ShoppingCart;
+import homeworkProject.model.Ticket;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+/**
+ * Class for showing a shopping cart in JavaFX controls.
+ * The observable list is only created when a view attaches to the shopping cart,
+ * so the shopping carts without a user interface stay small.
+ *
+ * @author Mario Posta
+ */
+public class ObservableCart implements ShoppingCart.Listener {
+
+	/**
+	 * Lines of the shopping cart.
+	 */
+	private final ObservableList<Ticket> items = FXCollections.observableArrayList();
+
+	/**
+	 * Read-only view of the lines of the shopping cart.
+	 */
+	private final ObservableList<Ticket> readOnlyItems = FXCollections.unmodifiableObservableList(items);
+
+	/**
+	 * Attaches a new observable list to the shopping cart.
+	 * @param shoppingCart the shopping cart to show
+	 * @return the observable shopping cart
+	 */
+	public static ObservableCart attach(ShoppingCart shoppingCart) {
+		ObservableCart observableCart = new ObservableCart();
+		shoppingCart.setListener(observableCart);
+		observableCart.cartChanged(shoppingCart);
+		return observableCart;
+	}
+
+	/**
+	 * Detaches the observable list from the shopping cart.
+	 * @param shoppingCart the shown shopping cart
+	 */
+	public void detach(ShoppingCart shoppingCart) {
+		shoppingCart.setListener(null);
+	}
+
+	/**
+	 * Returns the read-only lines of the shopping cart.
+	 * @return the lines of the shopping cart
+	 */
+	public ObservableList<Ticket> getItems() {
+		return readOnlyItems;
+	}
+
+	/**
+	 * Copies the lines of the changed shopping cart.
+	 * @param shoppingCart the changed shopping cart
+	 */
+	@Override
+	public void cartChanged(ShoppingCart shoppingCart) {
+		items.setAll(shoppingCart.asList());
+	}
+}
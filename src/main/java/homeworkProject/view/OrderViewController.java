@@ -1,16 +1,21 @@
 package homeworkProject.view;
 
+import java.util.UUID;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import homeworkProject.MainFX;
 import homeworkProject.businessLogic.TicketHandling;
-import homeworkProject.data.TicketService;
+import homeworkProject.businessLogic.TicketHold;
+import homeworkProject.data.AsyncTicketService;
+import homeworkProject.data.CheckoutResult;
 import homeworkProject.model.Person;
-import homeworkProject.model.Ticket;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
+import javafx.scene.Node;
 import javafx.scene.control.Alert;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
 import javafx.scene.control.Alert.AlertType;
 import javafx.stage.Stage;
@@ -20,7 +25,7 @@ import javafx.stage.Stage;
  * 
  * @author Mario Posta
  */
-public class OrderViewController {
+public class OrderViewController implements ResettableController {
 	
     /**
      * Logger for tracking the application.
@@ -62,6 +67,12 @@ public class OrderViewController {
 	 */
     @FXML
     private TextField streetField;
+    
+    /**
+     * Indicator which is shown while the order is being saved.
+     */
+    @FXML
+    private ProgressIndicator progressIndicator;
 
     /**
      * Person object for store and display the information
@@ -80,20 +91,35 @@ public class OrderViewController {
     private Stage dialogStage;
     
 	/**
-	 * Instance of the TicketService class to control ticket transactions.
+	 * The tickets which are held while the order is finalized.
 	 */
-	private TicketService ticketService;
+	private TicketHold ticketHold;
+	
+	/**
+	 * Idempotency key of the order of the held tickets, so a repeated click sells them only once.
+	 */
+	private String idempotencyKey;
 	
     /**
      * Indicates whether the user clicked on the Order button.
      */
     private boolean orderClicked = false;
     
+    /**
+     * Indicates whether the order is being saved.
+     */
+    private boolean busy = false;
+    
 	/**
 	 * TicketHandling for managing the ticket transactions.
 	 */
 	private TicketHandling ticketHandling;
 	
+	/**
+	 * AsyncTicketService for running the ticket transactions off the JavaFX application thread.
+	 */
+	private AsyncTicketService asyncTicketService;
+	
 	/**
 	 * Sets the ticketHandling transaction manager object.
 	 * @param ticketHandling the only ticketHanlding instance
@@ -101,6 +127,14 @@ public class OrderViewController {
 	public void setTicketHandling(TicketHandling ticketHandling) {
 		this.ticketHandling = ticketHandling;
 	}
+	
+	/**
+	 * Sets the service which runs the ticket transactions in the background.
+	 * @param asyncTicketService the asyncTicketService of the application
+	 */
+	public void setAsyncTicketService(AsyncTicketService asyncTicketService) {
+		this.asyncTicketService = asyncTicketService;
+	}
 
     /**
      * Sets the person to be edited in the dialog.
@@ -129,19 +163,36 @@ public class OrderViewController {
 	}
 	
 	/**
-	 * Sets TicketService for transactions.
-	 * @param ticketService the ticketService object to control ticket transactions
+	 * Sets the tickets which are held while the order is finalized.
+	 * @param ticketHold the held tickets of the shopping cart
 	 */
-	public void setTicketService(TicketService ticketService){
-		this.ticketService = ticketService;
+	public void setTicketHold(TicketHold ticketHold){
+		this.ticketHold = ticketHold;
+		this.idempotencyKey = UUID.randomUUID().toString();
 	}
 
     /**
      * Sets the stage of this dialog.
+     * The stage cannot be closed while the order is being saved.
      * @param dialogStage the stage of this scene
      */
     public void setDialogStage(Stage dialogStage) {
         this.dialogStage = dialogStage;
+        dialogStage.setOnCloseRequest(event -> {
+        	if (busy)
+        		event.consume();
+        });
+    }
+
+    /**
+     * Forgets the order of the previous showing.
+     */
+    @Override
+    public void reset() {
+    	orderClicked = false;
+    	ticketHold = null;
+    	idempotencyKey = null;
+    	setBusy(false);
     }
 
     /**
@@ -156,7 +207,8 @@ public class OrderViewController {
 
     /**
      * Called when the user clicks on the Order button.
-     * Binds the person object fields with datas from the Textfields.
+     * Binds the person object fields with datas from the Textfields,
+     * and saves the order in the background.
      */
     @FXML
     private void handleOrder() {
@@ -171,14 +223,10 @@ public class OrderViewController {
             person.setPostalCode(postalCodeField.getText());
             person.setCity(cityField.getText());
             person.setStreet(streetField.getText());
-        	orderClicked = true;
-    		dialogStage.close();
-    		
-    		for (Ticket ticket : ticketHandling.getShoppingCart()) {
-				ticketService.modifyTicketData(ticket.getType(), ticket.getAmount());
-			}
-    		
-    		logger.debug("Person datas has been read from the OrderView");
+
+            setBusy(true);
+            asyncTicketService.supply(() -> ticketHandling.checkout(ticketHold, person, idempotencyKey))
+            		.whenCompleteAsync(this::showResult, Platform::runLater);
     	}
     	else	{
     		handleWarning("Warning", "Bad inputs", errorMessage);
@@ -186,6 +234,46 @@ public class OrderViewController {
     	}
     }
     
+    /**
+     * Closes the stage if the order has been saved, warns the user otherwise.
+     * Called on the JavaFX application thread. A failed order can be sent again,
+     * its idempotency key guarantees that the tickets are sold only once.
+     * @param result the result of the checkout, {@code null} if the checkout has failed
+     * @param error the cause of the failure, {@code null} if the checkout has finished
+     */
+    private void showResult(CheckoutResult result, Throwable error) {
+    	setBusy(false);
+    	if (error != null)	{
+    		handleWarning("Error", "No connection", "Sorry, the order cannot be saved now, please try again");
+    		logger.error("The order cannot be saved", error);
+    		return;
+    	}
+    	if (!result.isSuccessful())	{
+    		handleWarning("Error", "No enough ticket", "Sorry, there is no enough tickets of "
+    				+ ticketHandling.describeShortfalls(result));
+    		logger.warn("There is no enough ticket for the order");
+    		return;
+    	}
+
+    	orderClicked = true;
+    	dialogStage.close();
+    	
+    	logger.debug("Person datas has been read from the OrderView");
+    }
+    
+    /**
+     * Disables the view and shows the progress indicator while the order is being saved.
+     * @param busy {@code true} if the order is being saved, {@code false} otherwise
+     */
+    private void setBusy(boolean busy) {
+    	this.busy = busy;
+    	for (Node node : progressIndicator.getParent().getChildrenUnmodifiable()) {
+    		if (node != progressIndicator)
+    			node.setDisable(busy);
+    	}
+    	progressIndicator.setVisible(busy);
+    }
+    
     /**
      * Handles the warning messages if something went wrong during the order.
      * @param title the title of the message
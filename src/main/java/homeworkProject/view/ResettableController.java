@@ -0,0 +1,15 @@
+package homeworkProject.view;
+
+/**
+ * Interface for the controllers of the views which are reused by the {@link ViewRegistry}.
+ *
+ * @author Mario Posta
+ */
+public interface ResettableController {
+
+	/**
+	 * Called before a reused view is shown again.
+	 * Clears the state which has been left by the previous showing.
+	 */
+	void reset();
+}
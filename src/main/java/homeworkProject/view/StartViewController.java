@@ -5,11 +5,18 @@ import org.slf4j.LoggerFactory;
 
 import homeworkProject.MainFX;
 import homeworkProject.businessLogic.TicketHandling;
-import homeworkProject.data.TicketService;
+import homeworkProject.businessLogic.TicketHold;
+import homeworkProject.data.AsyncTicketService;
+import homeworkProject.model.Grandstand;
 import homeworkProject.model.Person;
 import homeworkProject.model.Ticket;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.fxml.FXML;
+import javafx.scene.Node;
 import javafx.scene.control.Alert;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
@@ -93,27 +100,48 @@ public class StartViewController {
     @FXML
     private TextField bronze2Field;
     
+    /**
+     * Indicator which is shown while the tickets of the shopping cart are being held.
+     */
+    @FXML
+    private ProgressIndicator progressIndicator;
+    
     /**
      * Instance of the MainFX class to handle the calls to open another stage.
      */
 	private MainFX mainFX;
 	
 	/**
-	 * Instance of the TicketService class to control ticket transactions.
+	 * Observable view of the shopping cart of the ticketHandling.
 	 */
-	private TicketService ticketService;
+	private ObservableCart observableCart;
 	
 	/**
 	 * TicketHandling for managing the ticket transactions.
 	 */
 	private TicketHandling ticketHandling;
 	
+	/**
+	 * AsyncTicketService for running the ticket transactions off the JavaFX application thread.
+	 */
+	private AsyncTicketService asyncTicketService;
+	
+	/**
+	 * Sets the service which runs the ticket transactions in the background.
+	 * @param asyncTicketService the asyncTicketService of the application
+	 */
+	public void setAsyncTicketService(AsyncTicketService asyncTicketService) {
+		this.asyncTicketService = asyncTicketService;
+	}
+	
 	/**
 	 * Sets the ticketHandling transaction manager object.
 	 * @param ticketHandling the only ticketHanlding instance
 	 */
 	public void setTicketHandling(TicketHandling ticketHandling) {
 		this.ticketHandling = ticketHandling;
+		this.observableCart = ObservableCart.attach(ticketHandling.getCart());
+		shoppingCartTable.setItems(observableCart.getItems());
 	}
 	
     /**
@@ -124,9 +152,9 @@ public class StartViewController {
     @FXML
     private void initialize() {
         // Initialize the person table with the two columns.
-        typeColumn.setCellValueFactory(cellData -> cellData.getValue().typeProperty());
-        priceColumn.setCellValueFactory(cellData -> cellData.getValue().priceProperty().asObject());
-        amountColumn.setCellValueFactory(cellData -> cellData.getValue().amountProperty().asObject());
+        typeColumn.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(cellData.getValue().getType()));
+        priceColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getPrice()));
+        amountColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getAmount()));
         logger.debug("Shopping cart has been initialized");
     }
     
@@ -144,8 +172,8 @@ public class StartViewController {
         
         if (ticketHandling == null)
         	System.out.println("csuma---------------------");
-        ticketHandling.getShoppingCart().clear();
-        shoppingCartTable.setItems(ticketHandling.getShoppingCart());
+        ticketHandling.clearShoppingCart();
+        refreshShoppingCart();
         
         logger.debug("StartView has been initialized");
     }
@@ -159,15 +187,16 @@ public class StartViewController {
 	}
 	
 	/**
-	 * Sets TicketService for transactions.
-	 * @param ticketService the ticketService object to controll ticket transactions
+	 * Refreshes the cells of the shopping cart table,
+	 * because the merged lines change in place.
 	 */
-	public void setTicketService(TicketService ticketService){
-		this.ticketService = ticketService;
+	private void refreshShoppingCart() {
+		shoppingCartTable.refresh();
 	}
     
 	/**
 	 * Handles the actions after the user clicks on the Next button of the StartView.
+	 * The tickets are held in the background, the view is disabled until the hold is ready.
 	 */
     @FXML
     private void handleNext() {
@@ -178,21 +207,61 @@ public class StartViewController {
     	}
     	
     	else {
-    		for (Ticket ticket : ticketHandling.getShoppingCart()) {
-				if (ticketService.checkAvailableTickets(ticket.getType(), ticket.getAmount()) == false)	{
-					handleWarning("Error", "No enough ticket", "Sorry, there is no enough tickets");
-			        logger.warn("There is no enough ticket for the order");
-					return;
-			}
+    		setBusy(true);
+    		asyncTicketService.supply(ticketHandling::holdShoppingCart)
+    				.whenCompleteAsync(this::showOrderView, Platform::runLater);
     	}
-	    	Person tempPerson = new Person();
-	    	boolean orderClicked = mainFX.showOrderView(tempPerson);
-	    	if (orderClicked)	{
-	    		logger.debug("Next button has been clicked on the StartView");
-	    		mainFX.showAckView(tempPerson);
-	    		initStartView();
-	    	}
+    }
+    
+    /**
+     * Opens the order of the held tickets when the hold is ready.
+     * Called on the JavaFX application thread.
+     * @param ticketHold the hold of the shopping cart, {@code null} if holding has failed
+     * @param error the cause of the failure, {@code null} if the hold is ready
+     */
+    private void showOrderView(TicketHold ticketHold, Throwable error) {
+    	setBusy(false);
+    	if (error != null)	{
+    		handleWarning("Error", "No connection", "Sorry, the tickets cannot be held now, please try again");
+    		logger.error("Holding the shopping cart has failed", error);
+    		return;
+    	}
+    	if (!ticketHold.isActive())	{
+    		handleWarning("Error", "No enough ticket", "Sorry, there is no enough tickets of "
+    				+ ticketHandling.describeShortfalls(ticketHold.getReservation()));
+    		logger.warn("There is no enough ticket for the order");
+    		return;
+    	}
+    	Person tempPerson = new Person();
+    	boolean orderClicked = mainFX.showOrderView(tempPerson, ticketHold);
+    	if (orderClicked)	{
+    		logger.debug("Next button has been clicked on the StartView");
+    		mainFX.showAckView(tempPerson);
+    		initStartView();
+    	}
+    	else	{
+    		ticketHandling.releaseHold(ticketHold);
+    	}
+    }
+    
+    /**
+     * Disables the view and shows the progress indicator while the application is starting.
+     * @param loading {@code true} while the application is starting, {@code false} when it is ready
+     */
+    public void setLoading(boolean loading) {
+    	setBusy(loading);
+    }
+    
+    /**
+     * Disables the view and shows the progress indicator while a ticket transaction is running.
+     * @param busy {@code true} if a transaction is running, {@code false} otherwise
+     */
+    private void setBusy(boolean busy) {
+    	for (Node node : progressIndicator.getParent().getChildrenUnmodifiable()) {
+    		if (node != progressIndicator)
+    			node.setDisable(busy);
     	}
+    	progressIndicator.setVisible(busy);
     }
     
     /**
@@ -222,6 +291,7 @@ public class StartViewController {
         Ticket selectedTicket = shoppingCartTable.getSelectionModel().getSelectedItem();
         if (selectedTicket != null) {
         	ticketHandling.removeFromCart(selectedTicket);
+        	refreshShoppingCart();
         	logger.debug("A ticket has been deleted from the shopping cart");
         } else {
         	handleWarning("Warning", "No Selection", "Please select a ticket to remove");
@@ -236,15 +306,7 @@ public class StartViewController {
      */
     @FXML
     private void handleSuperGoldAddToCart() {
-        if (ticketHandling.isInputValidTickets(superGoldField.getText())) {
-        	Ticket ticket = new Ticket("Super Gold", 450*Integer.parseInt(superGoldField.getText()), Integer.parseInt(superGoldField.getText()));
-        	ticketHandling.addToCart(ticket);
-        	logger.debug("Super Gold ticket(s) has been added to the shopping cart");
-        } else	{
-        	handleWarning("Warning", "Bad amount", "Please give an integer which is greater than 0");
-        	
-        	logger.warn("Bad amount of Super Gold tickets");
-        }
+        addToCart(Grandstand.SUPER_GOLD, superGoldField);
     }
     
     /**
@@ -254,16 +316,7 @@ public class StartViewController {
      */
     @FXML
     private void handleGold1AddToCart() {
-        if (ticketHandling.isInputValidTickets(gold1Field.getText())) {
-        	Ticket ticket = new Ticket("Gold 1", 300*Integer.parseInt(gold1Field.getText()), Integer.parseInt(gold1Field.getText()));
-        	ticketHandling.addToCart(ticket);
-        	
-        	logger.debug("Gold 1 ticket(s) has been added to the shopping cart");
-        } else	{
-        	handleWarning("Warning", "Bad amount", "Please give an integer which is greater than 0");
-        
-        	logger.warn("Bad amount of Gold 1 tickets");
-        }
+        addToCart(Grandstand.GOLD_1, gold1Field);
     }
     
     /**
@@ -273,16 +326,7 @@ public class StartViewController {
      */
     @FXML
     private void handleGold2AddToCart() {
-        if (ticketHandling.isInputValidTickets(gold2Field.getText())) {
-        	Ticket ticket = new Ticket("Gold 2", 300*Integer.parseInt(gold2Field.getText()), Integer.parseInt(gold2Field.getText()));
-        	ticketHandling.addToCart(ticket);
-        	
-        	logger.debug("Gold 2 ticket(s) has been added to the shopping cart");
-        } else	{
-        	handleWarning("Warning", "Bad amount", "Please give an integer which is greater than 0");
-        
-        	logger.warn("Bad amount of Gold 2 tickets");
-        }
+        addToCart(Grandstand.GOLD_2, gold2Field);
     }
     
     /**
@@ -292,16 +336,7 @@ public class StartViewController {
      */
     @FXML
     private void handleSilver1AddToCart() {
-        if (ticketHandling.isInputValidTickets(silver1Field.getText())) {
-        	Ticket ticket = new Ticket("Silver 1", 250*Integer.parseInt(silver1Field.getText()), Integer.parseInt(silver1Field.getText()));
-        	ticketHandling.addToCart(ticket);
-        	
-        	logger.debug("Silver 1 ticket(s) has been added to the shopping cart");
-        } else	{
-        	handleWarning("Warning", "Bad amount", "Please give an integer which is greater than 0");
-        
-        	logger.warn("Bad amount of Silver 1 tickets");
-        }
+        addToCart(Grandstand.SILVER_1, silver1Field);
     }
     
     /**
@@ -311,16 +346,7 @@ public class StartViewController {
      */
     @FXML
     private void handleSilver2AddToCart() {
-        if (ticketHandling.isInputValidTickets(silver2Field.getText())) {
-        	Ticket ticket = new Ticket("Silver 2", 250*Integer.parseInt(silver2Field.getText()), Integer.parseInt(silver2Field.getText()));
-        	ticketHandling.addToCart(ticket);
-        	
-        	logger.debug("Silver 2 ticket(s) has been added to the shopping cart");
-        } else	{
-        	handleWarning("Warning", "Bad amount", "Please give an integer which is greater than 0");
-        
-        	logger.warn("Bad amount of Silver 2 tickets");
-        }
+        addToCart(Grandstand.SILVER_2, silver2Field);
     }
     
     /**
@@ -330,16 +356,7 @@ public class StartViewController {
      */
     @FXML
     private void handleBronze1AddToCart() {
-        if (ticketHandling.isInputValidTickets(bronze1Field.getText())) {
-        	Ticket ticket = new Ticket("Bronze 1", 100*Integer.parseInt(bronze1Field.getText()), Integer.parseInt(bronze1Field.getText()));
-        	ticketHandling.addToCart(ticket);
-        	
-        	logger.debug("Bronze 1 ticket(s) has been added to the shopping cart");
-        } else	{
-        	handleWarning("Warning", "Bad amount",  "Please give an integer which is greater than 0");
-        
-        	logger.warn("Bad amount of Bronze 1 tickets");
-        }
+        addToCart(Grandstand.BRONZE_1, bronze1Field);
     }
     
     /**
@@ -349,15 +366,21 @@ public class StartViewController {
      */
     @FXML
     private void handleBronze2AddToCart() {
-        if (ticketHandling.isInputValidTickets(bronze2Field.getText())) {
-        	Ticket ticket = new Ticket("Bronze 2", 100*Integer.parseInt(bronze2Field.getText()), Integer.parseInt(bronze2Field.getText()));
-        	ticketHandling.addToCart(ticket);
-        	
-        	logger.debug("Bronze 2 ticket(s) has been added to the shopping cart");
+        addToCart(Grandstand.BRONZE_2, bronze2Field);
+    }
+    
+    /**
+     * Adds the tickets of the grandstand to the shopping cart
+     * with the amount of the given text field.
+     * @param grandstand the grandstand of the tickets
+     * @param amountField the text field of the amount
+     */
+    private void addToCart(Grandstand grandstand, TextField amountField) {
+        if (ticketHandling.addToCart(grandstand, amountField.getText())) {
+        	refreshShoppingCart();
+        	logger.debug(grandstand.getType() + " ticket(s) has been added to the shopping cart");
         } else	{
         	handleWarning("Warning", "Bad amount", "Please give an integer which is greater than 0");
-        
-        	logger.warn("Bad amount of Bronze 2 tickets");
         }
     }
     
@@ -1,13 +1,12 @@
 package homeworkProject.view;
 
-import java.util.List;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import homeworkProject.MainFX;
 import homeworkProject.data.TicketService;
-import homeworkProject.model.TicketData;
 import javafx.fxml.FXML;
 import javafx.scene.control.Label;
 import javafx.stage.Stage;
@@ -69,6 +68,11 @@ public class TicketViewController {
 	 * Instance of the TicketService class to control ticket transactions.
 	 */
 	private TicketService ticketService;
+	
+	/**
+	 * Pushes the changes of the inventory into the labels while the stage is shown.
+	 */
+	private LiveAvailability liveAvailability;
     
     /**
      * DialogerStage for the stage of this scene.
@@ -78,11 +82,22 @@ public class TicketViewController {
 
 	/**
 	 * Sets the stage of this scene.
+	 * Every time the stage is shown, the available tickets are shown
+	 * and kept live until the stage is hidden.
 	 * @param dialogStage the dialogStage of this scene
 	 */
     public void setDialogStage(Stage dialogStage) {
     	this.dialogStage = dialogStage;
-    	showAvailableTicketData();
+    	dialogStage.setOnShown(event -> {
+    		if (liveAvailability == null)
+    			liveAvailability = new LiveAvailability(ticketService, this::showAmount);
+    		showAvailableTicketData();
+    		liveAvailability.start();
+    	});
+    	dialogStage.setOnHidden(event -> {
+    		if (liveAvailability != null)
+    			liveAvailability.stop();
+    	});
     }
     	
 	/**
@@ -95,27 +110,37 @@ public class TicketViewController {
 	
 	/**
 	 * Method for showing available tickets.
+	 * The amounts are read from the in-memory inventory, which is the same source
+	 * as the live updates, so the labels do not jump when the first update arrives.
 	 */
     private void showAvailableTicketData()	{
         logger.debug("Ticket query has been reveived");
 
-    	List<TicketData> TicketDatas = ticketService.getAvailableTickets();
-    	for (TicketData TicketData : TicketDatas) {
-			if (TicketData.getType().equals("Super Gold"))
-				superGoldLabel.setText(TicketData.getAmount().toString());
-			if (TicketData.getType().equals("Gold 1"))
-				gold1Label.setText(TicketData.getAmount().toString());
-			if (TicketData.getType().equals("Gold 2"))
-				gold2Label.setText(TicketData.getAmount().toString());
-			if (TicketData.getType().equals("Silver 1"))
-				silver1Label.setText(TicketData.getAmount().toString());
-			if (TicketData.getType().equals("Silver 2"))
-				silver2Label.setText(TicketData.getAmount().toString());
-			if (TicketData.getType().equals("Bronze 1"))
-				bronze1Label.setText(TicketData.getAmount().toString());
-			if (TicketData.getType().equals("Bronze 2"))
-				bronze2Label.setText(TicketData.getAmount().toString());
+    	for (Map.Entry<String, Integer> amount : ticketService.getInventory().snapshot().entrySet()) {
+    		showAmount(amount.getKey(), amount.getValue());
     	}
     	
     }
+    
+    /**
+     * Shows the available amount of a ticket type in its label.
+     * @param type the type of the ticket
+     * @param amount the available amount of the ticket
+     */
+    private void showAmount(String type, Integer amount)	{
+		if (type.equals("Super Gold"))
+			superGoldLabel.setText(amount.toString());
+		if (type.equals("Gold 1"))
+			gold1Label.setText(amount.toString());
+		if (type.equals("Gold 2"))
+			gold2Label.setText(amount.toString());
+		if (type.equals("Silver 1"))
+			silver1Label.setText(amount.toString());
+		if (type.equals("Silver 2"))
+			silver2Label.setText(amount.toString());
+		if (type.equals("Bronze 1"))
+			bronze1Label.setText(amount.toString());
+		if (type.equals("Bronze 2"))
+			bronze2Label.setText(amount.toString());
+    }
 }
@@ -0,0 +1,200 @@
+package homeworkProject.view;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+
+/**
+ * Class for keeping the dialog views of the application.
+ * Every view is parsed from its FXML file and put on its own stage only once,
+ * then the stage and the controller are reused by every showing. The controllers
+ * which implement {@link ResettableController} are reset before they are reused.
+ * The views are loaded on the JavaFX application thread.
+ *
+ * @author Mario Posta
+ */
+public class ViewRegistry {
+
+	/**
+	 * Class for representing a loaded view.
+	 * @param <C> the type of the controller of the view
+	 */
+	public static class View<C> {
+
+		/**
+		 * Stage of the view.
+		 */
+		private final Stage stage;
+
+		/**
+		 * Controller of the view.
+		 */
+		private final C controller;
+
+		/**
+		 * Constructor for View.
+		 * @param stage the stage of the view
+		 * @param controller the controller of the view
+		 */
+		View(Stage stage, C controller) {
+			this.stage = stage;
+			this.controller = controller;
+		}
+
+		/**
+		 * Returns the stage of the view.
+		 * @return the stage of the view
+		 */
+		public Stage getStage() {
+			return stage;
+		}
+
+		/**
+		 * Returns the controller of the view.
+		 * @return the controller of the view
+		 */
+		public C getController() {
+			return controller;
+		}
+	}
+
+	/**
+	 * Class for representing how a view is loaded.
+	 */
+	private static class Registration {
+
+		/**
+		 * Title of the stage.
+		 */
+		private final String title;
+
+		/**
+		 * Sets up the new controller with its stage.
+		 */
+		private final BiConsumer<Object, Stage> setUp;
+
+		/**
+		 * Constructor for Registration.
+		 * @param title the title of the stage
+		 * @param setUp sets up the new controller with its stage
+		 */
+		Registration(String title, BiConsumer<Object, Stage> setUp) {
+			this.title = title;
+			this.setUp = setUp;
+		}
+	}
+
+	/**
+	 * Logger for tracking the application.
+	 */
+	private Logger logger = LoggerFactory.getLogger(ViewRegistry.class);
+
+	/**
+	 * Owner of the stages of the views.
+	 */
+	private final Stage owner;
+
+	/**
+	 * Registrations of the views keyed by their FXML file.
+	 */
+	private final Map<String, Registration> registrations = new LinkedHashMap<>();
+
+	/**
+	 * Loaded views keyed by their FXML file.
+	 */
+	private final Map<String, View<?>> views = new LinkedHashMap<>();
+
+	/**
+	 * Constructor for ViewRegistry.
+	 * @param owner the owner of the stages of the views
+	 */
+	public ViewRegistry(Stage owner) {
+		this.owner = owner;
+	}
+
+	/**
+	 * Registers a view.
+	 * @param <C> the type of the controller of the view
+	 * @param fxml the FXML file of the view
+	 * @param title the title of the stage of the view
+	 * @param setUp sets up the new controller with its stage, called once per view
+	 */
+	@SuppressWarnings("unchecked")
+	public <C> void register(String fxml, String title, BiConsumer<C, Stage> setUp) {
+		registrations.put(fxml, new Registration(title, (controller, stage) -> setUp.accept((C) controller, stage)));
+	}
+
+	/**
+	 * Loads every registered view which has not been loaded yet.
+	 */
+	public void preload() {
+		for (String fxml : registrations.keySet()) {
+			if (!views.containsKey(fxml))
+				views.put(fxml, load(fxml));
+		}
+		logger.debug(views.size() + " view(s) have been preloaded");
+	}
+
+	/**
+	 * Returns a registered view. The view is loaded at the first call,
+	 * and its controller is reset at the next calls.
+	 * @param <C> the type of the controller of the view
+	 * @param fxml the FXML file of the view
+	 * @return the view
+	 * @throws IllegalArgumentException if the view has not been registered
+	 * @throws UncheckedIOException if the FXML file cannot be loaded
+	 */
+	@SuppressWarnings("unchecked")
+	public <C> View<C> get(String fxml) {
+		View<?> view = views.get(fxml);
+		if (view == null) {
+			view = load(fxml);
+			views.put(fxml, view);
+		} else if (view.getController() instanceof ResettableController) {
+			((ResettableController) view.getController()).reset();
+		}
+		return (View<C>) view;
+	}
+
+	/**
+	 * Parses the FXML file of a view and puts the view on a new modal stage.
+	 * @param fxml the FXML file of the view
+	 * @return the loaded view
+	 * @throws IllegalArgumentException if the view has not been registered
+	 * @throws UncheckedIOException if the FXML file cannot be loaded
+	 */
+	private View<?> load(String fxml) {
+		Registration registration = registrations.get(fxml);
+		if (registration == null)
+			throw new IllegalArgumentException("Unknown view: " + fxml);
+		FXMLLoader loader = new FXMLLoader();
+		loader.setLocation(ViewRegistry.class.getClassLoader().getResource(fxml));
+		Parent page;
+		try {
+			page = loader.load();
+		} catch (IOException e) {
+			throw new UncheckedIOException("The view cannot be loaded: " + fxml, e);
+		}
+
+		Stage stage = new Stage();
+		stage.setTitle(registration.title);
+		stage.initModality(Modality.WINDOW_MODAL);
+		stage.initOwner(owner);
+		stage.setScene(new Scene(page));
+		Object controller = loader.getController();
+		registration.setUp.accept(controller, stage);
+		logger.debug("View has been loaded: " + fxml);
+		return new View<>(stage, controller);
+	}
+}
@@ -0,0 +1,68 @@
+import homeworkProject.data.AsyncTicketService;
+import homeworkProject.data.CheckoutResult;
+import homeworkProject.data.LocalTicketStore;
+import homeworkProject.data.TicketService;
+import homeworkProject.model.Ticket;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Class for the unit tests of the asynchronous ticket service.
+ *
+ * @author Mario Posta
+ */
+public class testAsyncTicketService {
+
+	/**
+	 * Tests whether the operations run on the worker threads and complete their futures or not.
+	 * @throws Exception if the test fails
+	 */
+	@Test
+	public void testCheckout() throws Exception	{
+		TicketService ticketService = new TicketService(new LocalTicketStore());
+		AsyncTicketService asyncTicketService = new AsyncTicketService(ticketService, 2);
+		asyncTicketService.initializeDatabase().get(5, TimeUnit.SECONDS);
+
+		List<Ticket> cart = new ArrayList<>(Arrays.asList(new Ticket("Gold 1", 600, 2)));
+		CompletableFuture<CheckoutResult> checkout = asyncTicketService.checkout(cart);
+		cart.clear();
+		CompletableFuture<String> worker = asyncTicketService.supply(() -> Thread.currentThread().getName());
+
+		assertTrue(checkout.get(5, TimeUnit.SECONDS).isSuccessful());
+		assertTrue(worker.get(5, TimeUnit.SECONDS).startsWith("ticket-service-"));
+		assertEquals(98, ticketService.getInventory().getAvailable("Gold 1"));
+		assertFalse(asyncTicketService.checkAvailableTickets("Gold 1", 99).get(5, TimeUnit.SECONDS));
+		asyncTicketService.shutdown(1000);
+	}
+
+	/**
+	 * Tests whether a failed operation completes its future exceptionally or not.
+	 * @throws Exception if the test fails
+	 */
+	@Test
+	public void testFailure() throws Exception	{
+		TicketService ticketService = new TicketService(new LocalTicketStore());
+		AsyncTicketService asyncTicketService = new AsyncTicketService(ticketService, 1);
+
+		CompletableFuture<CheckoutResult> failed = asyncTicketService.supply(() -> {
+			throw new IllegalStateException("The database is down");
+		});
+		try {
+			failed.get(5, TimeUnit.SECONDS);
+			fail();
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+		assertNull(asyncTicketService.findCheckout("unknown").get(5, TimeUnit.SECONDS));
+		asyncTicketService.shutdown(1000);
+	}
+}
@@ -0,0 +1,280 @@
+
+import homeworkProject.api.CheckoutServer;
+import homeworkProject.businessLogic.HoldManager;
+import homeworkProject.data.TicketService;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Class for the tests of the HTTP checkout API against loopback
+ * with an in-memory database.
+ *
+ * @author Mario Posta
+ */
+public class testCheckoutServer {
+
+	/**
+	 * Valid personal informations for the checkout.
+	 */
+	private static final String PERSON = "name=Test+Person&email=test%40example.com&telephone=123"
+			+ "&postalCode=4000&city=Debrecen&street=Main+street";
+
+	/**
+	 * EntityManagerFactory of the in-memory database.
+	 */
+	private EntityManagerFactory entityManagerFactory;
+
+	/**
+	 * TicketService of the server.
+	 */
+	private TicketService ticketService;
+
+	/**
+	 * HoldManager of the server.
+	 */
+	private HoldManager holdManager;
+
+	/**
+	 * The server under test.
+	 */
+	private CheckoutServer checkoutServer;
+
+	/**
+	 * Starts the server on a free loopback port over a freshly initialized database.
+	 * @throws IOException if the server cannot be started
+	 */
+	@Before
+	public void setUp() throws IOException	{
+		entityManagerFactory = Persistence.createEntityManagerFactory("TicketDataTestUnit");
+		ticketService = new TicketService(entityManagerFactory);
+		ticketService.initializeDatabase();
+		holdManager = new HoldManager(ticketService, HoldManager.DEFAULT_HOLD_MILLIS);
+		checkoutServer = new CheckoutServer(ticketService, holdManager,
+				new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		checkoutServer.start();
+	}
+
+	/**
+	 * Stops the server and closes the database.
+	 */
+	@After
+	public void tearDown()	{
+		checkoutServer.stop();
+		holdManager.shutdown();
+		entityManagerFactory.close();
+	}
+
+	/**
+	 * Tests whether the availability lists every grandstand or not.
+	 * @throws IOException if the request fails
+	 */
+	@Test
+	public void testAvailability() throws IOException	{
+		String[] response = request("GET", "/availability", null);
+
+		assertEquals("200", response[0]);
+		assertTrue(response[1].contains("\"Super Gold\":100"));
+		assertTrue(response[1].contains("\"Bronze 2\":100"));
+	}
+
+	/**
+	 * Tests whether a checkout sells every line of the shopping cart or not.
+	 * @throws IOException if the request fails
+	 */
+	@Test
+	public void testCheckout() throws IOException	{
+		String cartId = createCart();
+		assertEquals("200", request("POST", "/carts/" + cartId + "/lines", "type=Super+Gold&amount=2")[0]);
+		assertEquals("200", request("POST", "/carts/" + cartId + "/lines", "type=Bronze+2&amount=5")[0]);
+		assertEquals("200", request("POST", "/carts/" + cartId + "/hold", "")[0]);
+
+		String[] response = request("POST", "/carts/" + cartId + "/checkout", PERSON);
+
+		assertEquals("200", response[0]);
+		assertTrue(response[1].contains("\"successful\":true"));
+		assertTrue(response[1].contains("\"total\":1400"));
+		String availability = request("GET", "/availability", null)[1];
+		assertTrue(availability.contains("\"Super Gold\":98"));
+		assertTrue(availability.contains("\"Bronze 2\":95"));
+		assertEquals("404", request("GET", "/carts/" + cartId, null)[0]);
+	}
+
+	/**
+	 * Tests whether a retried checkout with the same idempotency key sells the tickets only once or not.
+	 * @throws IOException if the request fails
+	 */
+	@Test
+	public void testRetriedCheckout() throws IOException	{
+		String cartId = createCart();
+		request("POST", "/carts/" + cartId + "/lines", "type=Gold+2&amount=3");
+
+		String[] response = request("POST", "/carts/" + cartId + "/checkout", PERSON, "retry-1");
+		String[] retried = request("POST", "/carts/" + cartId + "/checkout", PERSON, "retry-1");
+
+		assertEquals("200", response[0]);
+		assertTrue(response[1].contains("\"replayed\":false"));
+		assertEquals("200", retried[0]);
+		assertTrue(retried[1].contains("\"replayed\":true"));
+		assertTrue(retried[1].contains("\"total\":900"));
+		assertTrue(request("GET", "/availability", null)[1].contains("\"Gold 2\":97"));
+		assertEquals("404", request("POST", "/carts/" + cartId + "/checkout", PERSON, "retry-2")[0]);
+	}
+
+	/**
+	 * Tests whether a shopping cart with too many tickets is rejected or not.
+	 * @throws IOException if the request fails
+	 */
+	@Test
+	public void testCheckoutWithoutEnoughTickets() throws IOException	{
+		String cartId = createCart();
+		request("POST", "/carts/" + cartId + "/lines", "type=Gold+1&amount=1");
+		request("POST", "/carts/" + cartId + "/lines", "type=Silver+2&amount=101");
+
+		String[] response = request("POST", "/carts/" + cartId + "/checkout", PERSON);
+
+		assertEquals("409", response[0]);
+		assertTrue(response[1].contains("{\"type\":\"Silver 2\",\"amount\":101,\"accepted\":false}"));
+		assertTrue(response[1].contains("\"shortfalls\":{\"Silver 2\":1}"));
+		String availability = request("GET", "/availability", null)[1];
+		assertTrue(availability.contains("\"Gold 1\":100"));
+		assertTrue(availability.contains("\"Silver 2\":100"));
+	}
+
+	/**
+	 * Tests whether the invalid inputs are rejected or not.
+	 * @throws IOException if the request fails
+	 */
+	@Test
+	public void testInvalidInputs() throws IOException	{
+		String cartId = createCart();
+
+		assertEquals("400", request("POST", "/carts/" + cartId + "/lines", "type=Platinum&amount=1")[0]);
+		assertEquals("400", request("POST", "/carts/" + cartId + "/lines", "type=Gold+2&amount=0")[0]);
+		assertEquals("400", request("POST", "/carts/" + cartId + "/checkout", "name=Test")[0]);
+		assertEquals("404", request("GET", "/carts/unknown", null)[0]);
+	}
+
+	/**
+	 * Tests whether an idle shopping cart is dropped and its hold is released or not.
+	 * @throws IOException if the request fails
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	@Test
+	public void testIdleCart() throws IOException, InterruptedException	{
+		checkoutServer.stop();
+		checkoutServer = new CheckoutServer(ticketService, holdManager,
+				new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 300);
+		checkoutServer.start();
+		String cartId = createCart();
+		request("POST", "/carts/" + cartId + "/lines", "type=Gold+1&amount=2");
+		assertEquals("200", request("POST", "/carts/" + cartId + "/hold", "")[0]);
+		assertTrue(request("GET", "/availability", null)[1].contains("\"Gold 1\":98"));
+
+		for (int i = 0; i < 300 && !request("GET", "/availability", null)[1].contains("\"Gold 1\":100"); i++)
+			Thread.sleep(10);
+
+		assertTrue(request("GET", "/availability", null)[1].contains("\"Gold 1\":100"));
+		assertEquals("404", request("GET", "/carts/" + cartId, null)[0]);
+	}
+
+	/**
+	 * Tests whether a new shopping cart is refused while the maximal number of the carts is open or not.
+	 * @throws IOException if the request fails
+	 */
+	@Test
+	public void testMaxCarts() throws IOException	{
+		checkoutServer.stop();
+		checkoutServer = new CheckoutServer(ticketService, holdManager,
+				new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), CheckoutServer.DEFAULT_SESSION_IDLE_MILLIS, 2);
+		checkoutServer.start();
+		String first = createCart();
+		createCart();
+
+		assertEquals("503", request("POST", "/carts", "")[0]);
+
+		assertEquals("204", request("DELETE", "/carts/" + first, null)[0]);
+		createCart();
+		assertEquals("503", request("POST", "/carts", "")[0]);
+	}
+
+	/**
+	 * Creates a shopping cart.
+	 * @return the identifier of the shopping cart
+	 * @throws IOException if the request fails
+	 */
+	private String createCart() throws IOException	{
+		String[] response = request("POST", "/carts", "");
+		assertEquals("201", response[0]);
+		Matcher matcher = Pattern.compile("\"cartId\":\"([^\"]+)\"").matcher(response[1]);
+		assertTrue(matcher.find());
+		return matcher.group(1);
+	}
+
+	/**
+	 * Sends a request to the server.
+	 * @param method the HTTP method
+	 * @param path the path of the endpoint
+	 * @param body the form encoded body, {@code null} if there is no body
+	 * @return the status code and the body of the response
+	 * @throws IOException if the request fails
+	 */
+	private String[] request(String method, String path, String body) throws IOException	{
+		return request(method, path, body, null);
+	}
+
+	/**
+	 * Sends a request to the server with an idempotency key.
+	 * @param method the HTTP method
+	 * @param path the path of the endpoint
+	 * @param body the form encoded body, {@code null} if there is no body
+	 * @param idempotencyKey the idempotency key of the request, {@code null} if there is no key
+	 * @return the status code and the body of the response
+	 * @throws IOException if the request fails
+	 */
+	private String[] request(String method, String path, String body, String idempotencyKey) throws IOException	{
+		URL url = new URL("http://127.0.0.1:" + checkoutServer.getPort() + path);
+		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+		connection.setRequestMethod(method);
+		if (idempotencyKey != null)
+			connection.setRequestProperty("Idempotency-Key", idempotencyKey);
+		if (body != null) {
+			connection.setDoOutput(true);
+			connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+			try (OutputStream out = connection.getOutputStream()) {
+				out.write(body.getBytes(StandardCharsets.UTF_8));
+			}
+		}
+		int status = connection.getResponseCode();
+		InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+		ByteArrayOutputStream content = new ByteArrayOutputStream();
+		if (in != null) {
+			try (InputStream stream = in) {
+				byte[] buffer = new byte[1024];
+				int read;
+				while ((read = stream.read(buffer)) != -1)
+					content.write(buffer, 0, read);
+			}
+		}
+		connection.disconnect();
+		return new String[] {String.valueOf(status), new String(content.toByteArray(), StandardCharsets.UTF_8)};
+	}
+}
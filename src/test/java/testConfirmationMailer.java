@@ -0,0 +1,310 @@
+import homeworkProject.mail.ConfirmationMail;
+import homeworkProject.mail.ConfirmationMailer;
+import homeworkProject.mail.MailOutbox;
+import homeworkProject.mail.MailTransport;
+import homeworkProject.mail.SmtpMailTransport;
+import homeworkProject.model.Customer;
+import homeworkProject.model.Order;
+import homeworkProject.model.Person;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Class for the tests of the confirmation e-mails against a local SMTP stand-in.
+ *
+ * @author Mario Posta
+ */
+public class testConfirmationMailer {
+
+	/**
+	 * Class for a local SMTP server which accepts every e-mail and remembers the recipients.
+	 */
+	private static class SmtpStandIn implements Runnable {
+
+		/**
+		 * Socket of the server.
+		 */
+		private final ServerSocket serverSocket;
+
+		/**
+		 * Recipients of the received e-mails.
+		 */
+		private final List<String> recipients = new CopyOnWriteArrayList<>();
+
+		/**
+		 * Number of the accepted connections.
+		 */
+		private final AtomicInteger connections = new AtomicInteger();
+
+		/**
+		 * Constructor for SmtpStandIn, which starts the server on a free loopback port.
+		 * @throws IOException if the server cannot be started
+		 */
+		SmtpStandIn() throws IOException {
+			serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+			Thread thread = new Thread(this, "smtp-stand-in");
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		@Override
+		public void run() {
+			while (!serverSocket.isClosed()) {
+				try {
+					Socket socket = serverSocket.accept();
+					connections.incrementAndGet();
+					Thread thread = new Thread(() -> serve(socket));
+					thread.setDaemon(true);
+					thread.start();
+				} catch (IOException e) {
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Answers the commands of one connection.
+		 * @param socket the socket of the connection
+		 */
+		private void serve(Socket socket) {
+			try (Socket connection = socket) {
+				BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+				OutputStream out = connection.getOutputStream();
+				reply(out, "220 localhost ESMTP");
+				String recipient = null;
+				String line;
+				while ((line = in.readLine()) != null) {
+					String command = line.toUpperCase();
+					if (command.startsWith("EHLO") || command.startsWith("HELO"))
+						reply(out, "250 localhost");
+					else if (command.startsWith("RCPT TO:")) {
+						recipient = line.substring(line.indexOf('<') + 1, line.indexOf('>'));
+						reply(out, "250 OK");
+					} else if (command.startsWith("DATA")) {
+						reply(out, "354 End data with <CR><LF>.<CR><LF>");
+						while ((line = in.readLine()) != null && !line.equals("."))
+							;
+						recipients.add(recipient);
+						reply(out, "250 OK");
+					} else if (command.startsWith("QUIT")) {
+						reply(out, "221 Bye");
+						return;
+					} else
+						reply(out, "250 OK");
+				}
+			} catch (IOException e) {
+				// the client has closed the connection
+			}
+		}
+
+		/**
+		 * Sends a reply line.
+		 * @param out the stream of the connection
+		 * @param reply the reply
+		 * @throws IOException if the reply cannot be sent
+		 */
+		private static void reply(OutputStream out, String reply) throws IOException {
+			out.write((reply + "\r\n").getBytes(StandardCharsets.UTF_8));
+			out.flush();
+		}
+
+		/**
+		 * Stops the server.
+		 * @throws IOException if the server cannot be stopped
+		 */
+		void close() throws IOException {
+			serverSocket.close();
+		}
+	}
+
+	/**
+	 * Directory of the outbox.
+	 */
+	private Path directory;
+
+	/**
+	 * The SMTP stand-in.
+	 */
+	private SmtpStandIn smtp;
+
+	/**
+	 * Creates the outbox directory and starts the SMTP stand-in.
+	 * @throws IOException if the directory or the server cannot be created
+	 */
+	@Before
+	public void setUp() throws IOException	{
+		directory = Files.createTempDirectory("outbox");
+		smtp = new SmtpStandIn();
+	}
+
+	/**
+	 * Stops the SMTP stand-in and deletes the outbox directory.
+	 * @throws IOException if the directory cannot be deleted
+	 */
+	@After
+	public void tearDown() throws IOException	{
+		smtp.close();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+			for (Path file : stream)
+				Files.delete(file);
+		}
+		Files.delete(directory);
+	}
+
+	/**
+	 * Tests whether the e-mails are delivered over the pooled SMTP sessions or not.
+	 * @throws Exception if the test fails
+	 */
+	@Test
+	public void testDelivery() throws Exception	{
+		MailOutbox outbox = new MailOutbox(directory);
+		ConfirmationMailer confirmationMailer = new ConfirmationMailer(outbox, smtpTransport(2), 2);
+		confirmationMailer.start();
+
+		for (int i = 0; i < 30; i++)
+			assertTrue(confirmationMailer.submit(order("customer" + i + "@example.com")));
+
+		assertTrue(await(() -> confirmationMailer.getStats().getSent() == 30));
+		confirmationMailer.shutdown(1000);
+		assertEquals(30, smtp.recipients.size());
+		assertTrue(smtp.recipients.contains("customer7@example.com"));
+		assertTrue(smtp.connections.get() <= 2);
+		assertEquals(0, outbox.size());
+	}
+
+	/**
+	 * Tests whether the failed batches are retried and the unsent e-mails survive a restart or not.
+	 * @throws Exception if the test fails
+	 */
+	@Test
+	public void testRetryAndRestart() throws Exception	{
+		AtomicInteger attempts = new AtomicInteger();
+		MailTransport failingTransport = new MailTransport() {
+			@Override
+			public void send(List<ConfirmationMail> mails, Consumer<ConfirmationMail> finished) throws IOException {
+				attempts.incrementAndGet();
+				throw new IOException("The server is down");
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		ConfirmationMailer stoppedMailer = new ConfirmationMailer(new MailOutbox(directory), failingTransport, 1, 10, 5, 10, 20);
+		stoppedMailer.start();
+		for (int i = 0; i < 3; i++)
+			stoppedMailer.submit(order("restart" + i + "@example.com"));
+		assertTrue(await(() -> attempts.get() >= 3));
+		stoppedMailer.shutdown(0);
+		assertTrue(stoppedMailer.getStats().getFailures() >= 3);
+
+		MailOutbox outbox = new MailOutbox(directory);
+		assertEquals(3, outbox.size());
+		ConfirmationMailer restartedMailer = new ConfirmationMailer(outbox, smtpTransport(1), 1);
+		restartedMailer.start();
+
+		assertTrue(await(() -> smtp.recipients.size() == 3));
+		restartedMailer.shutdown(1000);
+		assertEquals(0, outbox.size());
+	}
+
+	/**
+	 * Tests whether a full queue neither blocks the submit nor loses e-mails or not.
+	 * @throws Exception if the test fails
+	 */
+	@Test
+	public void testBackpressure() throws Exception	{
+		CountDownLatch blocked = new CountDownLatch(1);
+		MailTransport smtpTransport = smtpTransport(1);
+		MailTransport slowTransport = new MailTransport() {
+			@Override
+			public void send(List<ConfirmationMail> mails, Consumer<ConfirmationMail> finished) throws IOException {
+				try {
+					blocked.await();
+				} catch (InterruptedException e) {
+					throw new IOException(e);
+				}
+				smtpTransport.send(mails, finished);
+			}
+
+			@Override
+			public void close() {
+				smtpTransport.close();
+			}
+		};
+		ConfirmationMailer confirmationMailer = new ConfirmationMailer(new MailOutbox(directory), slowTransport, 1, 2, 2, 10, 20);
+		confirmationMailer.start();
+
+		long start = System.nanoTime();
+		for (int i = 0; i < 10; i++)
+			assertTrue(confirmationMailer.submit(order("queued" + i + "@example.com")));
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+		assertTrue(confirmationMailer.getStats().getOverflows() > 0);
+		assertTrue(confirmationMailer.getStats().getQueueDepth() <= 2);
+
+		blocked.countDown();
+		assertTrue(await(() -> confirmationMailer.getStats().getSent() == 10));
+		confirmationMailer.shutdown(1000);
+		assertEquals(10, smtp.recipients.size());
+	}
+
+	/**
+	 * Creates a transport to the SMTP stand-in.
+	 * @param sessions the number of the pooled SMTP sessions
+	 * @return the transport
+	 * @throws Exception if the transport cannot be created
+	 */
+	private MailTransport smtpTransport(int sessions) throws Exception	{
+		return new SmtpMailTransport("127.0.0.1", smtp.serverSocket.getLocalPort(), null, null, "tickets@example.com", sessions);
+	}
+
+	/**
+	 * Creates an order of one Gold 1 ticket.
+	 * @param email the e-mail address of the customer
+	 * @return the order
+	 */
+	private Order order(String email)	{
+		Order order = new Order(new Customer(new Person("Anna", email, "123", "4000", "Debrecen", "Main street")), 1L, 300);
+		order.addLine("Gold 1", 300, 1);
+		return order;
+	}
+
+	/**
+	 * Waits until the condition holds, at most five seconds.
+	 * @param condition the condition to wait for
+	 * @return {@code true} if the condition holds, {@code false} if the wait has timed out
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	private boolean await(BooleanSupplier condition) throws InterruptedException	{
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!condition.getAsBoolean()) {
+			if (System.nanoTime() > deadline)
+				return false;
+			Thread.sleep(10);
+		}
+		return true;
+	}
+}
@@ -0,0 +1,190 @@
+
+import homeworkProject.businessLogic.HoldManager;
+import homeworkProject.businessLogic.TicketHold;
+import homeworkProject.data.CheckoutResult;
+import homeworkProject.data.LocalTicketStore;
+import homeworkProject.data.TicketService;
+import homeworkProject.model.Customer;
+import homeworkProject.model.Order;
+import homeworkProject.model.Person;
+import homeworkProject.model.Ticket;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Class for the unit tests of the holds of the shopping carts.
+ *
+ * @author Mario Posta
+ */
+public class testHoldManager {
+
+	/**
+	 * TicketService over the local storage engine.
+	 */
+	private TicketService ticketService;
+
+	/**
+	 * HoldManager with short holds.
+	 */
+	private HoldManager holdManager;
+
+	/**
+	 * Initializes the inventory and the holds.
+	 */
+	@Before
+	public void setUp()	{
+		ticketService = new TicketService(new LocalTicketStore());
+		ticketService.initializeDatabase();
+		holdManager = new HoldManager(ticketService, 1);
+	}
+
+	/**
+	 * Stops the holds.
+	 */
+	@After
+	public void tearDown()	{
+		holdManager.shutdown();
+	}
+
+	/**
+	 * Tests whether a hold which is confirmed twice is sold only once or not.
+	 */
+	@Test
+	public void testConfirmTwice()	{
+		HoldManager longHolds = new HoldManager(ticketService, HoldManager.DEFAULT_HOLD_MILLIS);
+		TicketHold hold = longHolds.placeHold(Arrays.asList(new Ticket("Gold 1", 600, 2)));
+
+		CheckoutResult first = longHolds.confirm(hold);
+		CheckoutResult repeated = longHolds.confirm(hold);
+		longHolds.shutdown();
+
+		assertTrue(first.isSuccessful());
+		assertTrue(repeated.isSuccessful());
+		assertTrue(repeated.isReplayed());
+		assertEquals(98, ticketService.getInventory().getAvailable("Gold 1"));
+	}
+
+	/**
+	 * Tests whether an expired hold is checked out again only once or not.
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	@Test
+	public void testExpiredHold() throws InterruptedException	{
+		TicketHold hold = holdManager.placeHold(Arrays.asList(new Ticket("Silver 1", 500, 2)));
+		awaitExpiry(hold);
+		assertEquals(100, ticketService.getInventory().getAvailable("Silver 1"));
+
+		CheckoutResult first = holdManager.confirm(hold, order());
+		CheckoutResult repeated = holdManager.confirm(hold, order());
+
+		assertTrue(first.isSuccessful());
+		assertFalse(first.isReplayed());
+		assertEquals(500, first.getTotalPrice());
+		assertTrue(repeated.isReplayed());
+		assertEquals(TicketHold.State.CONFIRMED, hold.getState());
+		assertEquals(98, ticketService.getInventory().getAvailable("Silver 1"));
+	}
+
+	/**
+	 * Tests whether an expired hold stays expired if its tickets have been sold meanwhile or not.
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	@Test
+	public void testExpiredHoldSoldOut() throws InterruptedException	{
+		TicketHold hold = holdManager.placeHold(Arrays.asList(new Ticket("Silver 1", 500, 2)));
+		awaitExpiry(hold);
+		assertTrue(ticketService.modifyTicketData("Silver 1", 99));
+
+		assertFalse(holdManager.confirm(hold, order()).isSuccessful());
+		assertEquals(TicketHold.State.EXPIRED, hold.getState());
+		assertEquals(1, ticketService.getInventory().getAvailable("Silver 1"));
+	}
+
+	/**
+	 * Tests whether a released hold is rejected without selling its tickets or not.
+	 */
+	@Test
+	public void testReleasedHold()	{
+		TicketHold hold = holdManager.placeHold(Arrays.asList(new Ticket("Bronze 1", 100, 1)));
+		holdManager.release(hold);
+
+		assertFalse(holdManager.confirm(hold).isSuccessful());
+		assertEquals(TicketHold.State.RELEASED, hold.getState());
+		assertEquals(100, ticketService.getInventory().getAvailable("Bronze 1"));
+	}
+
+	/**
+	 * Tests whether a hold whose sale has failed can be confirmed again with the same idempotency key or not.
+	 */
+	@Test
+	public void testFailedConfirmation()	{
+		AtomicBoolean down = new AtomicBoolean(true);
+		TicketService failingService = new TicketService(new LocalTicketStore() {
+			@Override
+			public synchronized String decrement(List<CheckoutResult.Line> lines, Order order) {
+				if (down.get())
+					throw new IllegalStateException("The database is down");
+				return super.decrement(lines, order);
+			}
+		});
+		failingService.initializeDatabase();
+		HoldManager longHolds = new HoldManager(failingService, HoldManager.DEFAULT_HOLD_MILLIS);
+		TicketHold hold = longHolds.placeHold(Arrays.asList(new Ticket("Silver 1", 500, 2)));
+		Order order = order("failed-1");
+
+		try {
+			longHolds.confirm(hold, order);
+			fail("The sale has not failed");
+		} catch (IllegalStateException e) {
+			assertEquals(TicketHold.State.EXPIRED, hold.getState());
+			assertEquals(100, failingService.getInventory().getAvailable("Silver 1"));
+		}
+		down.set(false);
+		CheckoutResult retried = longHolds.confirm(hold, order("failed-1"));
+		longHolds.shutdown();
+
+		assertTrue(retried.isSuccessful());
+		assertFalse(retried.isReplayed());
+		assertEquals(TicketHold.State.CONFIRMED, hold.getState());
+		assertEquals(98, failingService.getInventory().getAvailable("Silver 1"));
+	}
+
+	/**
+	 * Waits until the hold expires.
+	 * @param hold the hold to wait for
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	private void awaitExpiry(TicketHold hold) throws InterruptedException	{
+		for (int i = 0; i < 200 && hold.getState() == TicketHold.State.ACTIVE; i++)
+			Thread.sleep(10);
+		assertEquals(TicketHold.State.EXPIRED, hold.getState());
+	}
+
+	/**
+	 * Creates the order of two Silver 1 tickets.
+	 * @return the order
+	 */
+	private Order order()	{
+		return order(null);
+	}
+
+	/**
+	 * Creates the order of two Silver 1 tickets with an idempotency key.
+	 * @param idempotencyKey the idempotency key of the order, {@code null} if there is no key
+	 * @return the order
+	 */
+	private Order order(String idempotencyKey)	{
+		Customer customer = new Customer(new Person("Anna", "anna@example.com", "123", "4000", "Debrecen", "Main street"));
+		Order order = new Order(idempotencyKey, customer, 1L, 500);
+		order.addLine("Silver 1", 500, 2);
+		return order;
+	}
+}
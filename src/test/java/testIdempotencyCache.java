@@ -0,0 +1,172 @@
+import homeworkProject.data.CheckoutResult;
+import homeworkProject.data.IdempotencyCache;
+import homeworkProject.data.LocalTicketStore;
+import homeworkProject.data.TicketService;
+import homeworkProject.model.Customer;
+import homeworkProject.model.Order;
+import homeworkProject.model.Person;
+import homeworkProject.model.Ticket;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Class for the unit tests of the idempotent checkouts.
+ *
+ * @author Mario Posta
+ */
+public class testIdempotencyCache {
+
+	/**
+	 * Tests whether a repeated key is answered without running the checkout again or not.
+	 */
+	@Test
+	public void testRepeatedKey()	{
+		IdempotencyCache idempotencyCache = new IdempotencyCache(key -> null, 10, 60000);
+		AtomicInteger runs = new AtomicInteger();
+
+		CheckoutResult first = idempotencyCache.execute("key", () -> {
+			runs.incrementAndGet();
+			return successful();
+		});
+		CheckoutResult repeated = idempotencyCache.execute("key", () -> {
+			runs.incrementAndGet();
+			return successful();
+		});
+
+		assertEquals(1, runs.get());
+		assertFalse(first.isReplayed());
+		assertTrue(repeated.isReplayed());
+		assertEquals(1, idempotencyCache.getStats().getHits());
+		assertEquals(1, idempotencyCache.getStats().getMisses());
+	}
+
+	/**
+	 * Tests whether the oldest keys are evicted and the failed checkouts are forgotten or not.
+	 */
+	@Test
+	public void testEviction()	{
+		IdempotencyCache idempotencyCache = new IdempotencyCache(key -> null, 2, 60000);
+		idempotencyCache.execute("a", this::successful);
+		idempotencyCache.execute("b", this::successful);
+		idempotencyCache.execute("c", this::successful);
+		try {
+			idempotencyCache.execute("d", () -> {
+				throw new IllegalStateException("failed");
+			});
+			fail();
+		} catch (IllegalStateException e) {
+			assertEquals("failed", e.getMessage());
+		}
+
+		assertEquals(1, idempotencyCache.size());
+		assertNull(idempotencyCache.find("a"));
+		assertNull(idempotencyCache.find("b"));
+		assertNotNull(idempotencyCache.find("c"));
+		assertNull(idempotencyCache.find("d"));
+	}
+
+	/**
+	 * Tests whether an unsuccessful checkout is forgotten, so it can be retried, or not.
+	 */
+	@Test
+	public void testRejectedCheckout()	{
+		IdempotencyCache idempotencyCache = new IdempotencyCache(key -> null, 10, 60000);
+
+		CheckoutResult rejected = idempotencyCache.execute("key", CheckoutResult::new);
+		CheckoutResult retried = idempotencyCache.execute("key", this::successful);
+
+		assertFalse(rejected.isSuccessful());
+		assertTrue(retried.isSuccessful());
+		assertFalse(retried.isReplayed());
+		assertEquals(2, idempotencyCache.getStats().getMisses());
+	}
+
+	/**
+	 * Tests whether a key whose checkout is still running is kept by the eviction or not.
+	 */
+	@Test
+	public void testRunningKey()	{
+		IdempotencyCache idempotencyCache = new IdempotencyCache(key -> null, 1, 60000);
+		AtomicInteger remembered = new AtomicInteger();
+
+		idempotencyCache.execute("running", () -> {
+			idempotencyCache.execute("other", this::successful);
+			remembered.set(idempotencyCache.size());
+			return successful();
+		});
+
+		assertEquals(2, remembered.get());
+	}
+
+	/**
+	 * Tests whether only the keys which may have been stored are looked up in the order store or not.
+	 */
+	@Test
+	public void testStoredKeys()	{
+		AtomicInteger lookups = new AtomicInteger();
+		IdempotencyCache idempotencyCache = new IdempotencyCache(key -> {
+			lookups.incrementAndGet();
+			return null;
+		}, () -> Arrays.asList("stored"), 10, 60000);
+
+		idempotencyCache.execute("new", this::successful);
+		assertEquals(0, lookups.get());
+		idempotencyCache.execute("stored", this::successful);
+		assertEquals(1, lookups.get());
+		assertNull(idempotencyCache.find("unknown"));
+		assertEquals(1, lookups.get());
+	}
+
+	/**
+	 * Tests whether a repeated order is sold only once, even after the key has been forgotten, or not.
+	 */
+	@Test
+	public void testRepeatedOrder()	{
+		LocalTicketStore ticketStore = new LocalTicketStore();
+		TicketService ticketService = new TicketService(ticketStore);
+		ticketService.initializeDatabase();
+
+		CheckoutResult first = ticketService.checkoutOnce("order-1", () -> sell(ticketService, "order-1"));
+		CheckoutResult repeated = ticketService.checkoutOnce("order-1", () -> sell(ticketService, "order-1"));
+		TicketService restartedService = new TicketService(ticketStore);
+		CheckoutResult restarted = restartedService.checkoutOnce("order-1", () -> sell(restartedService, "order-1"));
+
+		assertTrue(first.isSuccessful());
+		assertTrue(repeated.isSuccessful());
+		assertTrue(repeated.isReplayed());
+		assertTrue(restarted.isReplayed());
+		assertEquals(600, restarted.getTotalPrice());
+		assertEquals(2, restarted.getLines().get(0).getAmount());
+		assertEquals(98, ticketService.getInventory().getAvailable("Gold 1"));
+		assertEquals(1, ticketStore.getOrders().size());
+		assertEquals(1, restartedService.getIdempotencyCache().getStats().getStoreHits());
+	}
+
+	/**
+	 * Sells a Gold 1 ticket without an order.
+	 * @return the successful result of the checkout
+	 */
+	private CheckoutResult successful()	{
+		TicketService ticketService = new TicketService(new LocalTicketStore());
+		ticketService.initializeDatabase();
+		return ticketService.checkout(Arrays.asList(new Ticket("Gold 1", 300, 1)));
+	}
+
+	/**
+	 * Sells two Gold 1 tickets with an order.
+	 * @param ticketService the service which sells the tickets
+	 * @param idempotencyKey the idempotency key of the order
+	 * @return the result of the checkout
+	 */
+	private CheckoutResult sell(TicketService ticketService, String idempotencyKey)	{
+		Customer customer = new Customer(new Person("Anna", "anna@example.com", "123", "4000", "Debrecen", "Main street"));
+		Order order = new Order(idempotencyKey, customer, 1L, 600);
+		order.addLine("Gold 1", 300, 2);
+		return ticketService.checkout(Arrays.asList(new Ticket("Gold 1", 600, 2)), order);
+	}
+}
@@ -0,0 +1,247 @@
+
+import homeworkProject.data.CheckoutResult;
+import homeworkProject.data.LocalTicketStore;
+import homeworkProject.data.SeatMap;
+import homeworkProject.data.TicketService;
+import homeworkProject.model.Customer;
+import homeworkProject.model.Order;
+import homeworkProject.model.Person;
+import homeworkProject.model.Ticket;
+import homeworkProject.model.TicketData;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Class for the unit tests of the local storage engine.
+ *
+ * @author Mario Posta
+ */
+public class testLocalTicketStore {
+
+	/**
+	 * Tests whether a checkout is all-or-nothing on the local storage engine or not.
+	 */
+	@Test
+	public void testCheckout()	{
+		TicketService ticketService = new TicketService(new LocalTicketStore());
+		ticketService.initializeDatabase();
+
+		CheckoutResult sold = ticketService.checkout(Arrays.asList(
+				new Ticket("Gold 1", 600, 2), new Ticket("Bronze 1", 100, 1)));
+		CheckoutResult rejected = ticketService.checkout(Arrays.asList(
+				new Ticket("Gold 1", 300, 1), new Ticket("Bronze 1", 10000, 100)));
+
+		assertTrue(sold.isSuccessful());
+		assertFalse(rejected.isSuccessful());
+		assertEquals(Integer.valueOf(98), amount(ticketService.getTicketStore().loadTickets(), "Gold 1"));
+		assertEquals(Integer.valueOf(99), amount(ticketService.getTicketStore().loadTickets(), "Bronze 1"));
+	}
+
+	/**
+	 * Tests whether the shopping cart is checked at once with the missing tickets of every type or not.
+	 */
+	@Test
+	public void testCheckAvailableTickets()	{
+		TicketService ticketService = new TicketService(new LocalTicketStore());
+		ticketService.initializeDatabase();
+		List<Ticket> cart = Arrays.asList(new Ticket("Gold 1", 300, 1), new Ticket("Silver 2", 25250, 101),
+				new Ticket("Bronze 1", 10300, 103));
+
+		Map<String, Integer> shortfalls = ticketService.checkAvailableTickets(cart);
+		CheckoutResult rejected = ticketService.checkout(cart);
+
+		assertEquals(2, shortfalls.size());
+		assertEquals(Integer.valueOf(1), shortfalls.get("Silver 2"));
+		assertEquals(Integer.valueOf(3), shortfalls.get("Bronze 1"));
+		assertEquals(shortfalls, rejected.getShortfalls());
+		assertTrue(ticketService.checkAvailableTickets(Arrays.asList(new Ticket("Gold 1", 300, 1))).isEmpty());
+	}
+
+	/**
+	 * Tests whether the order is saved only with a successful checkout or not.
+	 */
+	@Test
+	public void testOrderWithCheckout()	{
+		LocalTicketStore ticketStore = new LocalTicketStore();
+		TicketService ticketService = new TicketService(ticketStore);
+		ticketService.initializeDatabase();
+		Customer customer = new Customer(new Person("Anna", "anna@example.com", "123", "4000", "Debrecen", "Main street"));
+
+		Order sold = new Order(customer, 1L, 600);
+		sold.addLine("Gold 1", 300, 2);
+		Order rejected = new Order(customer, 2L, 1000000);
+		rejected.addLine("Bronze 1", 100, 10000);
+
+		assertTrue(ticketService.checkout(Arrays.asList(new Ticket("Gold 1", 600, 2)), sold).isSuccessful());
+		assertFalse(ticketService.checkout(Arrays.asList(new Ticket("Bronze 1", 1000000, 10000)), rejected).isSuccessful());
+		assertEquals(1, ticketStore.getOrders().size());
+		assertSame(sold, ticketStore.getOrders().get(0));
+		assertEquals("Anna", ticketStore.getOrders().get(0).getCustomer().getName());
+		assertEquals(2, ticketStore.getOrders().get(0).getLines().get(0).getAmount());
+	}
+
+	/**
+	 * Tests whether the file-backed engine keeps the amounts after reopening or not.
+	 * @throws IOException if the file cannot be written
+	 */
+	@Test
+	public void testJournal() throws IOException	{
+		Path file = Files.createTempFile("tickets", ".journal");
+		try {
+			LocalTicketStore ticketStore = new LocalTicketStore(file);
+			TicketService ticketService = new TicketService(ticketStore);
+			ticketService.initializeDatabase();
+			ticketService.modifyTicketData("Silver 1", 7);
+
+			assertEquals(Integer.valueOf(93), amount(new LocalTicketStore(file).loadTickets(), "Silver 1"));
+
+			ticketStore.close();
+
+			assertEquals(7, Files.readAllLines(file).size());
+			assertEquals(Integer.valueOf(93), amount(new LocalTicketStore(file).loadTickets(), "Silver 1"));
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	/**
+	 * Tests whether a restart keeps the sold tickets and seeds only the missing grandstands or not.
+	 * @throws IOException if the file cannot be written
+	 */
+	@Test
+	public void testInitializeInventory() throws IOException	{
+		Path file = Files.createTempFile("tickets", ".journal");
+		try {
+			LocalTicketStore ticketStore = new LocalTicketStore(file);
+			ticketStore.createTickets(Collections.singletonMap("Gold 2", 40));
+			TicketService ticketService = new TicketService(ticketStore);
+			assertEquals(6, ticketService.initializeInventory());
+			ticketService.modifyTicketData("Silver 1", 7);
+			ticketStore.close();
+
+			LocalTicketStore restartedStore = new LocalTicketStore(file);
+			TicketService restartedService = new TicketService(restartedStore);
+			assertEquals(0, restartedService.initializeInventory());
+			assertEquals(93, restartedService.getInventory().getAvailable("Silver 1"));
+			assertEquals(40, restartedService.getInventory().getAvailable("Gold 2"));
+			assertEquals(100, restartedService.getInventory().getAvailable("Bronze 2"));
+			restartedStore.close();
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	/**
+	 * Tests whether a restart keeps the sold seats, and only the sold seats, or not.
+	 * @throws IOException if the file cannot be written
+	 */
+	@Test
+	public void testSoldSeats() throws IOException	{
+		Path file = Files.createTempFile("tickets", ".journal");
+		try {
+			LocalTicketStore ticketStore = new LocalTicketStore(file);
+			TicketService ticketService = new TicketService(ticketStore);
+			ticketService.initializeDatabase();
+			CheckoutResult held = ticketService.reserve(Arrays.asList(new Ticket("Gold 1", 600, 2)));
+			CheckoutResult sold = ticketService.checkout(Arrays.asList(new Ticket("Gold 1", 900, 3)));
+			ticketService.release(held);
+			ticketStore.close();
+
+			assertArrayEquals(new int[] {73, 74, 75}, sold.getLines().get(0).getSeats());
+			LocalTicketStore restartedStore = new LocalTicketStore(file);
+			TicketService restartedService = new TicketService(restartedStore);
+			restartedService.loadInventory();
+			SeatMap seatMap = restartedService.getInventory().getSeatMap("Gold 1");
+			assertEquals(97, seatMap.getAvailable());
+			assertFalse(seatMap.isClaimed(44));
+			assertTrue(seatMap.isSold(73));
+			assertTrue(seatMap.isSold(75));
+			restartedStore.close();
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	/**
+	 * Tests whether an amount which differs from the sold seats is repaired from the seats
+	 * without inventing sold seats or not.
+	 * @throws IOException if the file cannot be written
+	 */
+	@Test
+	public void testRepairedAmount() throws IOException	{
+		Path file = Files.createTempFile("tickets", ".journal");
+		try {
+			LocalTicketStore ticketStore = new LocalTicketStore(file);
+			TicketService ticketService = new TicketService(ticketStore);
+			ticketService.initializeDatabase();
+			ticketService.modifyTicketData("Gold 1", 2);
+			ticketService.applySales(Collections.singletonMap("Gold 1", 5));
+			ticketStore.close();
+
+			LocalTicketStore restartedStore = new LocalTicketStore(file);
+			TicketService restartedService = new TicketService(restartedStore);
+			restartedService.loadInventory();
+			SeatMap seatMap = restartedService.getInventory().getSeatMap("Gold 1");
+			assertEquals(98, seatMap.getAvailable());
+			assertEquals(Integer.valueOf(98), amount(restartedStore.loadTickets(), "Gold 1"));
+			restartedStore.close();
+
+			assertEquals(Integer.valueOf(98), amount(new LocalTicketStore(file).loadTickets(), "Gold 1"));
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	/**
+	 * Tests whether the sales of the write-behind log keep their applied segment after reopening and compacting or not.
+	 * @throws IOException if the file cannot be written
+	 */
+	@Test
+	public void testAppliedSegments() throws IOException	{
+		Path file = Files.createTempFile("tickets", ".journal");
+		try {
+			LocalTicketStore ticketStore = new LocalTicketStore(file);
+			ticketStore.createTickets(Collections.singletonMap("Gold 1", 100));
+			assertTrue(ticketStore.applySales(Collections.singletonMap("Gold 1", 2),
+					Collections.singletonMap("Gold 1", new int[] {5, 6}), 7).isEmpty());
+			assertEquals(Collections.singleton("Gold 1"), ticketStore.applySales(Collections.singletonMap("Gold 1", 1000),
+					Collections.singletonMap("Gold 1", new int[] {8}), 9));
+
+			assertEquals(Long.valueOf(7), new LocalTicketStore(file).loadTickets().get(0).getAppliedSegment());
+
+			ticketStore.close();
+
+			LocalTicketStore compactedStore = new LocalTicketStore(file);
+			assertEquals(Integer.valueOf(98), amount(compactedStore.loadTickets(), "Gold 1"));
+			assertEquals(Long.valueOf(7), compactedStore.loadTickets().get(0).getAppliedSegment());
+			assertEquals(0x60, compactedStore.loadSoldSeats().get("Gold 1")[0]);
+			compactedStore.close();
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	/**
+	 * Returns the amount of the given type.
+	 * @param tickets the stored ticket amounts
+	 * @param type the type of the ticket
+	 * @return the amount of the ticket, {@code null} if there is no such type
+	 */
+	private Integer amount(List<TicketData> tickets, String type)	{
+		for (TicketData ticketData : tickets) {
+			if (ticketData.getType().equals(type))
+				return ticketData.getAmount();
+		}
+		return null;
+	}
+}
@@ -0,0 +1,156 @@
+
+import homeworkProject.data.OrderJournal;
+import homeworkProject.data.OrderJournalReader;
+import homeworkProject.data.OrderRecord;
+import homeworkProject.model.Person;
+import homeworkProject.model.Ticket;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Class for the tests of the order journal.
+ *
+ * @author Mario Posta
+ */
+public class testOrderJournal {
+
+	/**
+	 * Directory of the journal.
+	 */
+	private Path directory;
+
+	/**
+	 * Creates the directory of the journal.
+	 * @throws IOException if the directory cannot be created
+	 */
+	@Before
+	public void setUp() throws IOException	{
+		directory = Files.createTempDirectory("orders");
+	}
+
+	/**
+	 * Deletes the directory of the journal.
+	 * @throws IOException if the directory cannot be deleted
+	 */
+	@After
+	public void tearDown() throws IOException	{
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+			for (Path segment : stream)
+				Files.delete(segment);
+		}
+		Files.delete(directory);
+	}
+
+	/**
+	 * Tests whether the orders are read back with every field or not.
+	 * @throws IOException if the journal cannot be opened
+	 */
+	@Test
+	public void testReadBack() throws IOException	{
+		OrderJournal orderJournal = new OrderJournal(directory, OrderJournal.DEFAULT_SEGMENT_SIZE);
+		assertEquals(1, orderJournal.append(order("Anna", 2)));
+		assertEquals(2, orderJournal.append(order("B\u00e9la", 3)));
+		orderJournal.close();
+
+		List<OrderRecord> orders = new ArrayList<>();
+		long lastSequence = OrderJournalReader.read(directory, 2, orders::add);
+
+		assertEquals(2, lastSequence);
+		assertEquals(1, orders.size());
+		assertEquals(2, orders.get(0).getSequence());
+		assertEquals("B\u00e9la", orders.get(0).getCustomer().getName());
+		assertEquals("Debrecen", orders.get(0).getCustomer().getCity());
+		assertEquals("Gold 1", orders.get(0).getLines().get(0).getType());
+		assertEquals(Integer.valueOf(3), orders.get(0).getLines().get(0).getAmount());
+		assertEquals(900, orders.get(0).getTotalPrice());
+	}
+
+	/**
+	 * Tests whether the journal rolls its segments and continues after reopening or not.
+	 * @throws IOException if the journal cannot be opened
+	 */
+	@Test
+	public void testRollingAndReopen() throws IOException	{
+		OrderJournal orderJournal = new OrderJournal(directory, 256);
+		for (int i = 0; i < 10; i++)
+			orderJournal.append(order("Customer " + i, 1));
+		orderJournal.close();
+
+		assertTrue(segmentCount() > 1);
+
+		OrderJournal reopenedJournal = new OrderJournal(directory, 256);
+		assertEquals(10, reopenedJournal.getLastSequence());
+		assertEquals(11, reopenedJournal.append(order("Customer 10", 1)));
+		reopenedJournal.close();
+
+		List<OrderRecord> orders = new ArrayList<>();
+		OrderJournalReader.read(directory, 1, orders::add);
+		assertEquals(11, orders.size());
+		for (int i = 0; i < orders.size(); i++)
+			assertEquals("Customer " + i, orders.get(i).getCustomer().getName());
+	}
+
+	/**
+	 * Tests whether the concurrent appends are all durable with shared syncs or not.
+	 * @throws IOException if the journal cannot be opened
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	@Test
+	public void testConcurrentAppends() throws IOException, InterruptedException	{
+		OrderJournal orderJournal = new OrderJournal(directory, OrderJournal.DEFAULT_SEGMENT_SIZE);
+		Thread[] threads = new Thread[8];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(() -> {
+				for (int j = 0; j < 50; j++)
+					orderJournal.append(order("Concurrent", 1));
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads)
+			thread.join();
+		orderJournal.close();
+
+		assertEquals(400, orderJournal.getLastSequence());
+		assertTrue(orderJournal.getSyncCount() <= 400);
+		List<OrderRecord> orders = new ArrayList<>();
+		OrderJournalReader.read(directory, 1, orders::add);
+		assertEquals(400, orders.size());
+	}
+
+	/**
+	 * Creates an order of Gold 1 tickets.
+	 * @param name the name of the customer
+	 * @param amount the amount of the tickets
+	 * @return the order
+	 */
+	private OrderRecord order(String name, int amount)	{
+		Person customer = new Person(name, "test@example.com", "123", "4000", "Debrecen", "Main street");
+		return new OrderRecord(customer, Arrays.asList(new Ticket("Gold 1", 300 * amount, amount)), 300 * amount);
+	}
+
+	/**
+	 * Returns the number of the segment files.
+	 * @return the number of the segment files
+	 * @throws IOException if the directory cannot be read
+	 */
+	private int segmentCount() throws IOException	{
+		int count = 0;
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+			for (Path segment : stream)
+				count++;
+		}
+		return count;
+	}
+}
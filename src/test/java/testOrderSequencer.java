@@ -0,0 +1,249 @@
+
+import homeworkProject.businessLogic.HoldManager;
+import homeworkProject.businessLogic.TicketHandling;
+import homeworkProject.businessLogic.TicketHold;
+import homeworkProject.data.CheckoutResult;
+import homeworkProject.data.LocalTicketStore;
+import homeworkProject.data.OrderSequencer;
+import homeworkProject.data.TicketService;
+import homeworkProject.data.WriteBehindLog;
+import homeworkProject.model.Grandstand;
+import homeworkProject.model.Order;
+import homeworkProject.model.Person;
+import homeworkProject.model.Ticket;
+import homeworkProject.model.TicketData;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Class for the unit tests of the single-writer order sequencer.
+ *
+ * @author Mario Posta
+ */
+public class testOrderSequencer {
+
+	/**
+	 * Local storage engine of the tickets.
+	 */
+	private LocalTicketStore ticketStore;
+
+	/**
+	 * TicketService in write-behind mode.
+	 */
+	private TicketService ticketService;
+
+	/**
+	 * Directory of the write-behind log.
+	 */
+	private Path directory;
+
+	/**
+	 * Write-behind log of the TicketService, which is flushed only by the tests.
+	 */
+	private WriteBehindLog writeBehindLog;
+
+	/**
+	 * Initializes the inventory and switches it to write-behind mode.
+	 * @throws IOException if the log cannot be opened
+	 */
+	@Before
+	public void setUp() throws IOException	{
+		ticketStore = new LocalTicketStore();
+		ticketService = new TicketService(ticketStore);
+		ticketService.initializeDatabase();
+		directory = Files.createTempDirectory("sequencer");
+		writeBehindLog = new WriteBehindLog(ticketService, directory, 60000, 60000);
+		ticketService.setWriteBehindLog(writeBehindLog);
+	}
+
+	/**
+	 * Deletes the write-behind log.
+	 * @throws IOException if the log cannot be deleted
+	 */
+	@After
+	public void tearDown() throws IOException	{
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+			for (Path segment : stream)
+				Files.delete(segment);
+		}
+		Files.delete(directory);
+	}
+
+	/**
+	 * Tests whether the concurrent checkouts of the sequencer sell every ticket only once or not.
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	@Test
+	public void testConcurrentCheckouts() throws InterruptedException	{
+		OrderSequencer sequencer = new OrderSequencer(ticketService, 16);
+		sequencer.start();
+
+		AtomicInteger sold = new AtomicInteger();
+		Thread[] threads = new Thread[8];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(() -> {
+				for (int j = 0; j < 20; j++) {
+					if (sequencer.checkout(Arrays.asList(new Ticket("Gold 1", 300, 1)), null).isSuccessful())
+						sold.incrementAndGet();
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads)
+			thread.join();
+		sequencer.shutdown(10000);
+		writeBehindLog.drain();
+
+		assertEquals(100, sold.get());
+		assertEquals(Integer.valueOf(0), amount("Gold 1"));
+		assertEquals(0, ticketService.getInventory().getAvailable("Gold 1"));
+	}
+
+	/**
+	 * Tests whether a batch of the sequencer is written to the write-behind log and flushed to the store or not.
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	@Test
+	public void testWriteBehindBatch() throws InterruptedException	{
+		OrderSequencer sequencer = new OrderSequencer(ticketService, OrderSequencer.DEFAULT_CAPACITY);
+		sequencer.start();
+
+		AtomicInteger sold = new AtomicInteger();
+		Thread[] threads = new Thread[10];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(() -> {
+				if (sequencer.checkout(Arrays.asList(new Ticket("Silver 1", 250, 3), new Ticket("Bronze 1", 100, 1)), null).isSuccessful())
+					sold.incrementAndGet();
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads)
+			thread.join();
+		CheckoutResult rejected = sequencer.checkout(Arrays.asList(new Ticket("Silver 1", 250, 71)), null);
+		sequencer.shutdown(10000);
+
+		assertEquals(10, sold.get());
+		assertFalse(rejected.isSuccessful());
+		assertEquals(Integer.valueOf(30), writeBehindLog.getPending().get("Silver 1"));
+		assertEquals(70, ticketService.getInventory().getAvailable("Silver 1"));
+
+		writeBehindLog.drain();
+
+		assertEquals(Integer.valueOf(70), amount("Silver 1"));
+		assertEquals(Integer.valueOf(90), amount("Bronze 1"));
+	}
+
+	/**
+	 * Tests whether the confirmed holds of a TicketHandling are sold by the sequencer only once
+	 * for their idempotency key or not.
+	 */
+	@Test
+	public void testHeldCheckouts()	{
+		OrderSequencer sequencer = new OrderSequencer(ticketService, 4);
+		sequencer.start();
+		HoldManager holdManager = new HoldManager(ticketService, HoldManager.DEFAULT_HOLD_MILLIS);
+		holdManager.setOrderSequencer(sequencer);
+		TicketHandling ticketHandling = new TicketHandling(holdManager);
+		ticketHandling.addToCart(Grandstand.GOLD_2, "2");
+		Person customer = new Person("Anna", "anna@example.com", "123", "4000", "Debrecen", "Main street");
+
+		TicketHold hold = ticketHandling.holdShoppingCart();
+		CheckoutResult first = ticketHandling.checkout(hold, customer, "sequenced-1");
+		CheckoutResult repeated = ticketHandling.checkout(ticketHandling.holdShoppingCart(), customer, "sequenced-1");
+		sequencer.shutdown(10000);
+		holdManager.shutdown();
+
+		assertTrue(first.isSuccessful());
+		assertFalse(first.isReplayed());
+		assertEquals(2, first.getLines().get(0).getSeats().length);
+		assertTrue(repeated.isReplayed());
+		assertEquals(98, ticketService.getInventory().getAvailable("Gold 2"));
+		assertEquals(Integer.valueOf(2), writeBehindLog.getPending().get("Gold 2"));
+		assertEquals(1, ticketStore.getOrders().size());
+	}
+
+	/**
+	 * Tests whether the sequencer is refused without write-behind mode, and the checkouts
+	 * are refused before the start and after the shutdown or not.
+	 */
+	@Test
+	public void testShutdown()	{
+		OrderSequencer direct = new OrderSequencer(new TicketService(new LocalTicketStore()), 4);
+		try {
+			direct.start();
+			fail("The sequencer has been started without write-behind mode");
+		} catch (IllegalStateException e) {
+			assertTrue(e.getMessage().contains("write-behind"));
+		}
+
+		OrderSequencer sequencer = new OrderSequencer(ticketService, 4);
+		try {
+			sequencer.checkout(Arrays.asList(new Ticket("Gold 2", 300, 1)), null);
+			fail("The checkout has been accepted before the start");
+		} catch (RejectedExecutionException e) {
+			assertEquals(100, ticketService.getInventory().getAvailable("Gold 2"));
+		}
+		sequencer.start();
+		sequencer.shutdown(10000);
+		try {
+			sequencer.checkout(Arrays.asList(new Ticket("Gold 2", 300, 1)), null);
+			fail("The checkout has been accepted after the shutdown");
+		} catch (RejectedExecutionException e) {
+			assertEquals(100, ticketService.getInventory().getAvailable("Gold 2"));
+		}
+	}
+
+	/**
+	 * Tests whether the checkouts are rejected instead of waiting forever when the writer thread dies or not.
+	 * @throws IOException if the log cannot be opened
+	 */
+	@Test
+	public void testWriterFailure() throws IOException	{
+		TicketService failingService = new TicketService(new LocalTicketStore()) {
+			@Override
+			public void commitReservations(List<CheckoutResult> reservations, List<Order> orders) {
+				throw new AssertionError("The writer has died");
+			}
+		};
+		failingService.initializeDatabase();
+		failingService.setWriteBehindLog(new WriteBehindLog(failingService, directory, 60000, 60000));
+		OrderSequencer sequencer = new OrderSequencer(failingService, 4);
+		sequencer.start();
+
+		for (int i = 0; i < 2; i++) {
+			try {
+				sequencer.checkout(Arrays.asList(new Ticket("Gold 2", 300, 1)), null);
+				fail("The checkout has been accepted by a dead writer");
+			} catch (RejectedExecutionException e) {
+				assertTrue(e.getMessage().contains("order sequencer"));
+			}
+		}
+		sequencer.shutdown(10000);
+	}
+
+	/**
+	 * Returns the amount of the ticket which is stored in the store.
+	 * @param type the type of the ticket
+	 * @return the stored amount, {@code null} if the type is unknown
+	 */
+	private Integer amount(String type) {
+		for (TicketData ticketData : ticketStore.loadTickets()) {
+			if (ticketData.getType().equals(type))
+				return ticketData.getAmount();
+		}
+		return null;
+	}
+}
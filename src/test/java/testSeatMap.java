@@ -0,0 +1,185 @@
+
+import homeworkProject.data.SeatMap;
+import homeworkProject.data.SeatQuality;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.Test;
+
+/**
+ * Class for the unit tests of the bitset of the numbered seats.
+ *
+ * @author Mario Posta
+ */
+public class testSeatMap {
+
+	/**
+	 * Tests whether the seats are claimed from the first unclaimed seat and released by their numbers or not.
+	 */
+	@Test
+	public void testClaimAndRelease()	{
+		SeatMap seatMap = new SeatMap(100, 20);
+
+		assertArrayEquals(new int[] {0, 1, 2}, seatMap.claim(3));
+		assertArrayEquals(new int[] {3, 4}, seatMap.claim(2));
+		assertEquals(95, seatMap.getAvailable());
+		assertEquals(1, seatMap.release(new int[] {1}));
+		assertEquals(0, seatMap.release(new int[] {1}));
+		assertArrayEquals(new int[] {1, 5}, seatMap.claim(2));
+		assertNull(seatMap.claim(95));
+		assertNull(seatMap.claim(0));
+		assertEquals(1, seatMap.getRow(25));
+		assertEquals(5, seatMap.getSeatInRow(25));
+		assertEquals(5, seatMap.getRows());
+	}
+
+	/**
+	 * Tests whether the sold seats are kept by the releases and restored from their bitmap or not.
+	 */
+	@Test
+	public void testSoldSeats()	{
+		SeatMap seatMap = new SeatMap(130, 40);
+		int[] seats = seatMap.claim(70);
+		assertEquals(4, seatMap.markSold(new int[] {0, 63, 64, 69}));
+		assertEquals(66, seatMap.release(seats));
+		assertTrue(seatMap.isSold(64));
+		assertFalse(seatMap.isClaimed(65));
+		assertEquals(0, seatMap.release(new int[] {0, 63, 64, 69}));
+
+		byte[] bitmap = new byte[17];
+		bitmap[0] = 1;
+		bitmap[8] = 3;
+		bitmap[16] = (byte) 0xFF;
+		SeatMap restored = new SeatMap(130, 40, bitmap);
+		assertEquals(130 - 5, restored.getAvailable());
+		assertTrue(restored.isSold(0));
+		assertTrue(restored.isSold(65));
+		assertTrue(restored.isSold(129));
+		assertArrayEquals(new int[] {1, 2}, restored.claim(2));
+		assertEquals(2, restored.release(new int[] {1, 2}));
+	}
+
+	/**
+	 * Tests whether concurrent claims give every seat of the circuit only once or not.
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	@Test
+	public void testConcurrentClaims() throws InterruptedException	{
+		final SeatMap seatMap = new SeatMap(70000, 50);
+		final AtomicIntegerArray owners = new AtomicIntegerArray(70000);
+
+		Thread[] threads = new Thread[8];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(() -> {
+				int[] seats;
+				while ((seats = seatMap.claim(3)) != null) {
+					for (int seat : seats)
+						owners.incrementAndGet(seat);
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads)
+			thread.join();
+
+		assertEquals(1, seatMap.getAvailable());
+		int claimed = 0;
+		for (int seat = 0; seat < owners.length(); seat++) {
+			assertTrue(owners.get(seat) <= 1);
+			claimed += owners.get(seat);
+		}
+		assertEquals(69999, claimed);
+	}
+
+	/**
+	 * Tests whether a group gets the best adjacent seats of a row, and no seats if it cannot sit together, or not.
+	 */
+	@Test
+	public void testClaimTogether()	{
+		SeatMap seatMap = new SeatMap(50, 10);
+
+		assertEquals(10, seatMap.getLongestFreeRun());
+		assertArrayEquals(new int[] {23, 24, 25, 26}, seatMap.claimTogether(4, SeatQuality.CENTRE));
+		assertArrayEquals(new int[] {13, 14, 15}, seatMap.claimTogether(3, SeatQuality.CENTRE));
+		assertArrayEquals(new int[] {33, 34, 35}, seatMap.claimTogether(3, SeatQuality.CENTRE));
+		assertArrayEquals(new int[] {20, 21, 22}, seatMap.claimTogether(3, SeatQuality.CENTRE));
+		assertNull(seatMap.claimTogether(11, SeatQuality.CENTRE));
+		assertEquals(37, seatMap.getAvailable());
+
+		seatMap.claim(seatMap.getAvailable());
+		assertEquals(0, seatMap.getLongestFreeRun());
+		assertEquals(2, seatMap.release(new int[] {5, 6}));
+		assertEquals(2, seatMap.getLongestFreeRun());
+		assertArrayEquals(new int[] {5, 6}, seatMap.claimTogether(2, SeatQuality.CENTRE));
+		assertEquals(2, seatMap.release(new int[] {7, 9}));
+		assertNull(seatMap.claimTogether(2, SeatQuality.CENTRE));
+		assertEquals(2, seatMap.getAvailable());
+		assertEquals(1, seatMap.getLongestFreeRun());
+	}
+
+	/**
+	 * Tests whether concurrent groups sit together without sharing seats and leave a correct index or not.
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	@Test
+	public void testConcurrentClaimTogether() throws InterruptedException	{
+		final SeatMap seatMap = new SeatMap(70000, 50);
+		final AtomicIntegerArray owners = new AtomicIntegerArray(70000);
+		final AtomicInteger apart = new AtomicInteger();
+
+		Thread[] threads = new Thread[8];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(() -> {
+				int[] seats;
+				while ((seats = seatMap.claimTogether(4, SeatQuality.CENTRE)) != null) {
+					if (seatMap.getRow(seats[0]) != seatMap.getRow(seats[3]) || seats[0] + 3 != seats[3])
+						apart.incrementAndGet();
+					for (int seat : seats)
+						owners.incrementAndGet(seat);
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads)
+			thread.join();
+
+		assertEquals(0, apart.get());
+		assertTrue(seatMap.getLongestFreeRun() < 4);
+		int claimed = 0;
+		for (int seat = 0; seat < owners.length(); seat++) {
+			assertTrue(owners.get(seat) <= 1);
+			claimed += owners.get(seat);
+		}
+		assertEquals(70000 - seatMap.getAvailable(), claimed);
+	}
+
+	/**
+	 * Tests whether concurrent groups which are claimed and released leave every seat free in the index or not.
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	@Test
+	public void testConcurrentClaimAndRelease() throws InterruptedException	{
+		final SeatMap seatMap = new SeatMap(200, 50);
+
+		Thread[] threads = new Thread[8];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(() -> {
+				for (int round = 0; round < 5000; round++) {
+					int[] seats = seatMap.claimTogether(4, SeatQuality.CENTRE);
+					if (seats != null)
+						seatMap.release(seats);
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads)
+			thread.join();
+
+		assertEquals(200, seatMap.getAvailable());
+		assertEquals(50, seatMap.getLongestFreeRun());
+		assertArrayEquals(new int[] {0, 1}, seatMap.claim(2));
+	}
+}
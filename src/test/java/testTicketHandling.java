@@ -1,10 +1,14 @@
 
+import homeworkProject.businessLogic.ShoppingCart;
 import homeworkProject.businessLogic.TicketHandling;
 
+import homeworkProject.model.Grandstand;
 import homeworkProject.model.Ticket;
 
 import static org.junit.Assert.*;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Test;
 
 /**
@@ -110,4 +114,94 @@ public class testTicketHandling {
 		
 		assertEquals(sizeBeforeRemoving, sizeAfterRemoving+1);
 	}
+	
+	/**
+	 * Tests whether the tickets of a grandstand are priced properly or not.
+	 */
+	@Test
+	public void testAddToCartWithGrandstand()	{
+		TicketHandling ticketHandling = new TicketHandling();
+		
+		assertEquals(true, ticketHandling.addToCart(Grandstand.SUPER_GOLD, "2"));
+		assertEquals(true, ticketHandling.addToCart(Grandstand.BRONZE_1, "3"));
+		assertEquals(true, ticketHandling.addToCart(Grandstand.SUPER_GOLD, "1"));
+		assertEquals(false, ticketHandling.addToCart(Grandstand.GOLD_1, "0"));
+		assertEquals(false, ticketHandling.addToCart(Grandstand.GOLD_1, "abc"));
+		
+		assertEquals(2, ticketHandling.getShoppingCart().size());
+		assertEquals(Integer.valueOf(3), ticketHandling.getShoppingCart().get(0).getAmount());
+		assertEquals(Integer.valueOf(1350), ticketHandling.getShoppingCart().get(0).getPrice());
+		assertEquals(1650, ticketHandling.getTotalPrice());
+	}
+	
+	/**
+	 * Tests whether the ticket is removed by its type or not.
+	 */
+	@Test
+	public void testRemoveFromCartByType()	{
+		TicketHandling ticketHandling = new TicketHandling();
+		ticketHandling.addToCart(new Ticket("Gold 1", 300, 1));
+		ticketHandling.addToCart(new Ticket("Bronze 2", 100, 1));
+		ticketHandling.removeFromCart(new Ticket(new String("Bronze 2"), 100, 1));
+		
+		assertEquals(1, ticketHandling.getShoppingCart().size());
+		assertEquals("Gold 1", ticketHandling.getShoppingCart().get(0).getType());
+	}
+	
+	/**
+	 * Tests whether the last line takes the position of a line which has been removed from the middle,
+	 * and a type which is not a grandstand can be added again after its removal or not.
+	 */
+	@Test
+	public void testRemoveFromMiddleOfCart()	{
+		ShoppingCart shoppingCart = new ShoppingCart();
+		shoppingCart.add(new Ticket("Gold 1", 300, 1));
+		shoppingCart.add(new Ticket("SG", 45, 1));
+		shoppingCart.add(new Ticket("Bronze 2", 100, 1));
+		shoppingCart.remove("SG");
+		shoppingCart.add(new Ticket("Bronze 2", 100, 1));
+		shoppingCart.add(new Ticket("SG", 45, 2));
+		
+		assertEquals(3, shoppingCart.size());
+		assertEquals("Gold 1", shoppingCart.asList().get(0).getType());
+		assertEquals("Bronze 2", shoppingCart.asList().get(1).getType());
+		assertEquals(Integer.valueOf(2), shoppingCart.asList().get(1).getAmount());
+		assertEquals("SG", shoppingCart.asList().get(2).getType());
+		assertEquals(2, shoppingCart.getAmount("SG"));
+		assertEquals(545, shoppingCart.getTotalPrice());
+
+		shoppingCart.remove("Gold 1");
+
+		assertEquals(2, shoppingCart.size());
+		assertEquals("SG", shoppingCart.asList().get(0).getType());
+		assertEquals("Bronze 2", shoppingCart.asList().get(1).getType());
+		assertEquals(0, shoppingCart.getAmount("Gold 1"));
+		assertEquals(245, shoppingCart.getTotalPrice());
+	}
+	
+	/**
+	 * Tests whether the shopping cart keeps its amounts and notifies its listener or not.
+	 */
+	@Test
+	public void testShoppingCartListener()	{
+		TicketHandling ticketHandling = new TicketHandling();
+		ShoppingCart shoppingCart = ticketHandling.getCart();
+		AtomicInteger changes = new AtomicInteger();
+		shoppingCart.setListener(cart -> changes.incrementAndGet());
+		
+		ticketHandling.addToCart(Grandstand.SILVER_2, "4");
+		ticketHandling.addToCart(Grandstand.SILVER_2, "2");
+		ticketHandling.addToCart(new Ticket("SG", 45, 45));
+		
+		assertEquals(6, shoppingCart.getAmount("Silver 2"));
+		assertEquals(45, shoppingCart.getAmount("SG"));
+		assertEquals(0, shoppingCart.getAmount("Gold 1"));
+		assertEquals(3, changes.get());
+		
+		ticketHandling.clearShoppingCart();
+		
+		assertEquals(0, shoppingCart.getAmount("Silver 2"));
+		assertEquals(0, ticketHandling.getTotalPrice());
+		assertEquals(4, changes.get());
+	}
 }
@@ -0,0 +1,125 @@
+
+import homeworkProject.data.InventoryListener;
+import homeworkProject.data.TicketInventory;
+import homeworkProject.data.WeekendInventory;
+import homeworkProject.model.Grandstand;
+import homeworkProject.model.RaceDay;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Class for the unit tests of the in-memory ticket inventory.
+ *
+ * @author Mario Posta
+ */
+public class testTicketInventory {
+
+	/**
+	 * Tests whether the reservation respects the available amount or not.
+	 */
+	@Test
+	public void testClaim()	{
+		TicketInventory inventory = new TicketInventory();
+		inventory.register("Super Gold", 10);
+
+		assertEquals(4, inventory.claim("Super Gold", 4).length);
+		assertEquals(6, inventory.getAvailable("Super Gold"));
+		assertNull(inventory.claim("Super Gold", 7));
+		assertEquals(6, inventory.claim("Super Gold", 6).length);
+		assertEquals(0, inventory.getAvailable("Super Gold"));
+		assertNull(inventory.claim("Super Gold", 1));
+		assertNull(inventory.claim("Gold 1", 1));
+		assertNull(inventory.claim("Super Gold", 0));
+	}
+
+	/**
+	 * Tests whether the released tickets are available again or not.
+	 */
+	@Test
+	public void testRelease()	{
+		TicketInventory inventory = new TicketInventory();
+		inventory.register("Gold 1", 5);
+		int[] seats = inventory.claim("Gold 1", 5);
+		inventory.release("Gold 1", new int[] {seats[0], seats[2], seats[4]});
+
+		assertEquals(3, inventory.getAvailable("Gold 1"));
+		assertEquals(true, inventory.isAvailable("Gold 1", 3));
+		assertEquals(false, inventory.isAvailable("Gold 1", 4));
+	}
+
+	/**
+	 * Tests whether concurrent reservations oversell the inventory or not.
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	@Test
+	public void testConcurrentReservations() throws InterruptedException	{
+		final TicketInventory inventory = new TicketInventory();
+		final AtomicInteger sold = new AtomicInteger();
+		inventory.register("Bronze 2", 1000);
+
+		Thread[] threads = new Thread[8];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(() -> {
+				while (inventory.claim("Bronze 2", 3) != null)
+					sold.addAndGet(3);
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads)
+			thread.join();
+
+		assertEquals(999, sold.get());
+		assertEquals(1, inventory.getAvailable("Bronze 2"));
+	}
+
+	/**
+	 * Tests whether the claims and releases of a grandstand take and give back every day of the weekend or not.
+	 */
+	@Test
+	public void testWeekendDays()	{
+		TicketInventory inventory = new TicketInventory();
+		inventory.register("Silver 2", 10);
+		inventory.register("Extra", 10);
+		WeekendInventory weekendInventory = inventory.getWeekendInventory();
+
+		int[] seats = inventory.claim("Silver 2", 4);
+		assertNotNull(inventory.claim("Extra", 4));
+		for (RaceDay day : RaceDay.values())
+			assertEquals(6, weekendInventory.getAvailable(Grandstand.SILVER_2, day));
+		assertEquals(0, weekendInventory.daysWithTickets(Grandstand.SILVER_2, 7));
+
+		inventory.release("Silver 2", new int[] {seats[0], seats[1]});
+		assertEquals(8, weekendInventory.getAvailable(Grandstand.SILVER_2, RaceDay.SATURDAY));
+		assertNull(inventory.claim("Silver 2", 9));
+		assertEquals(8, weekendInventory.getAvailable(Grandstand.SILVER_2, RaceDay.SUNDAY));
+		assertEquals(8, inventory.getAvailable("Silver 2"));
+	}
+
+	/**
+	 * Tests whether the listeners are notified about the changes or not.
+	 */
+	@Test
+	public void testListeners()	{
+		TicketInventory inventory = new TicketInventory();
+		List<String> changes = new ArrayList<>();
+		inventory.register("Silver 1", 4);
+		InventoryListener listener = changes::add;
+		inventory.addListener(listener);
+
+		int[] seats = inventory.claim("Silver 1", 2);
+		assertNull(inventory.claim("Silver 1", 3));
+		inventory.release("Silver 1", new int[] {seats[0]});
+		assertEquals(Arrays.asList("Silver 1", "Silver 1"), changes);
+
+		inventory.removeListener(listener);
+		inventory.release("Silver 1", new int[] {seats[1]});
+		assertEquals(2, changes.size());
+	}
+}
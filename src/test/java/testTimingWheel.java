@@ -0,0 +1,93 @@
+
+import homeworkProject.businessLogic.TimingWheel;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Class for the unit tests of the timing wheel which expires the holds.
+ *
+ * @author Mario Posta
+ */
+public class testTimingWheel {
+
+	/**
+	 * Tests whether a timeout expires at its deadline or not.
+	 */
+	@Test
+	public void testExpiry()	{
+		TimingWheel timingWheel = new TimingWheel(10, 0);
+		AtomicInteger expired = new AtomicInteger();
+		timingWheel.schedule(expired::incrementAndGet, 55);
+
+		timingWheel.advance(50);
+		assertEquals(0, expired.get());
+		timingWheel.advance(60);
+		assertEquals(1, expired.get());
+		timingWheel.advance(1000);
+		assertEquals(1, expired.get());
+	}
+
+	/**
+	 * Tests whether a cancelled timeout is skipped or not.
+	 */
+	@Test
+	public void testCancel()	{
+		TimingWheel timingWheel = new TimingWheel(10, 0);
+		AtomicInteger expired = new AtomicInteger();
+		TimingWheel.Timeout timeout = timingWheel.schedule(expired::incrementAndGet, 100);
+
+		assertEquals(true, timeout.cancel());
+		assertEquals(false, timeout.cancel());
+		timingWheel.advance(200);
+		assertEquals(0, expired.get());
+	}
+
+	/**
+	 * Tests whether the timeouts of the higher levels expire at the proper tick or not.
+	 */
+	@Test
+	public void testCascade()	{
+		TimingWheel timingWheel = new TimingWheel(1, 0);
+		long[] deadlines = {63, 64, 65, 4095, 4096, 4097, 300000, 20000000};
+		long[] expiredAt = new long[deadlines.length];
+		for (int i = 0; i < deadlines.length; i++) {
+			final int index = i;
+			timingWheel.schedule(() -> expiredAt[index] = -1, deadlines[i]);
+		}
+
+		for (long now = 1; now <= 20000000; now = Math.min(20000000, now + 1 + now / 1000)) {
+			timingWheel.advance(now);
+			for (int i = 0; i < deadlines.length; i++) {
+				if (expiredAt[i] == -1) {
+					assertTrue("expired before the deadline", now >= deadlines[i]);
+					expiredAt[i] = now;
+				}
+			}
+			if (now == 20000000)
+				break;
+		}
+		for (int i = 0; i < deadlines.length; i++) {
+			assertTrue("not expired", expiredAt[i] > 0);
+		}
+	}
+
+	/**
+	 * Tests whether a large amount of timeouts expire together or not.
+	 */
+	@Test
+	public void testManyTimeouts()	{
+		TimingWheel timingWheel = new TimingWheel(100, 0);
+		AtomicInteger expired = new AtomicInteger();
+		for (int i = 0; i < 100000; i++) {
+			timingWheel.schedule(expired::incrementAndGet, 600000 + i % 1000);
+		}
+
+		assertEquals(0, timingWheel.advance(599000));
+		assertEquals(100000, timingWheel.advance(601100));
+		assertEquals(100000, expired.get());
+	}
+}
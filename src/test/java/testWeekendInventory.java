@@ -0,0 +1,72 @@
+import homeworkProject.data.WeekendInventory;
+import homeworkProject.model.Grandstand;
+import homeworkProject.model.RaceDay;
+import homeworkProject.model.RacePass;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Class for the unit tests of the inventory of the days of the weekend.
+ *
+ * @author Mario Posta
+ */
+public class testWeekendInventory {
+
+	/**
+	 * Tests whether a pass takes every day it covers, or none of them, or not.
+	 */
+	@Test
+	public void testTryReserve()	{
+		WeekendInventory inventory = new WeekendInventory();
+		inventory.register(Grandstand.SILVER_2, 10);
+		inventory.register(Grandstand.SILVER_2, RaceDay.SUNDAY, 4);
+
+		assertTrue(inventory.tryReserve(Grandstand.SILVER_2, RacePass.SATURDAY, 3));
+		assertTrue(inventory.tryReserve(Grandstand.SILVER_2, RacePass.WEEKEND, 4));
+		assertEquals(6, inventory.getAvailable(Grandstand.SILVER_2, RaceDay.FRIDAY));
+		assertEquals(3, inventory.getAvailable(Grandstand.SILVER_2, RaceDay.SATURDAY));
+		assertEquals(0, inventory.getAvailable(Grandstand.SILVER_2, RaceDay.SUNDAY));
+		assertFalse(inventory.tryReserve(Grandstand.SILVER_2, RacePass.WEEKEND, 1));
+		assertEquals(6, inventory.getAvailable(Grandstand.SILVER_2, RaceDay.FRIDAY));
+		assertFalse(inventory.tryReserve(Grandstand.SILVER_2, RacePass.FRIDAY, 0));
+		assertFalse(inventory.tryReserve(Grandstand.GOLD_1, RacePass.FRIDAY, 1));
+
+		inventory.release(Grandstand.SILVER_2, RacePass.WEEKEND, 4);
+		assertEquals(4, inventory.getAvailable(Grandstand.SILVER_2, RaceDay.SUNDAY));
+		assertEquals(7, inventory.getAvailable(Grandstand.SILVER_2, RaceDay.SATURDAY));
+	}
+
+	/**
+	 * Tests whether the days with enough tickets are found for every day at once or not.
+	 */
+	@Test
+	public void testDaysWithTickets()	{
+		WeekendInventory inventory = new WeekendInventory();
+		inventory.register(Grandstand.SILVER_2, RaceDay.FRIDAY, 8);
+		inventory.register(Grandstand.SILVER_2, RaceDay.SATURDAY, 7);
+		inventory.register(Grandstand.SILVER_2, RaceDay.SUNDAY, WeekendInventory.MAX_AMOUNT);
+		inventory.register(Grandstand.BRONZE_1, 8);
+
+		assertEquals(RaceDay.FRIDAY.getMask() | RaceDay.SUNDAY.getMask(), inventory.daysWithTickets(Grandstand.SILVER_2, 8));
+		assertEquals(RaceDay.SUNDAY.getMask(), inventory.daysWithTickets(Grandstand.SILVER_2, 9));
+		assertEquals(RaceDay.SUNDAY.getMask(), inventory.daysWithTickets(Grandstand.SILVER_2, WeekendInventory.MAX_AMOUNT));
+		assertEquals(0, inventory.daysWithTickets(Grandstand.SILVER_2, WeekendInventory.MAX_AMOUNT + 1));
+
+		int[] days = inventory.daysWithTickets(8);
+		assertEquals(7, days[Grandstand.BRONZE_1.ordinal()]);
+		assertEquals(0, days[Grandstand.GOLD_2.ordinal()]);
+		assertEquals(7, inventory.daysWithTickets(Grandstand.GOLD_2, 0));
+	}
+
+	/**
+	 * Tests whether a release beyond the largest amount of a day is refused or not.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testReleaseOverflow()	{
+		WeekendInventory inventory = new WeekendInventory();
+		inventory.register(Grandstand.GOLD_1, RaceDay.FRIDAY, WeekendInventory.MAX_AMOUNT);
+		inventory.release(Grandstand.GOLD_1, RacePass.WEEKEND, 1);
+	}
+}
@@ -0,0 +1,271 @@
+
+import homeworkProject.data.CheckoutResult;
+import homeworkProject.data.LocalTicketStore;
+import homeworkProject.data.TicketService;
+import homeworkProject.data.WriteBehindLog;
+import homeworkProject.model.Ticket;
+import homeworkProject.model.TicketData;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Class for the tests of the write-behind persistence
+ * with an in-memory database.
+ *
+ * @author Mario Posta
+ */
+public class testWriteBehindLog {
+
+	/**
+	 * EntityManagerFactory of the in-memory database.
+	 */
+	private EntityManagerFactory entityManagerFactory;
+
+	/**
+	 * TicketService over the in-memory database.
+	 */
+	private TicketService ticketService;
+
+	/**
+	 * Directory of the log.
+	 */
+	private Path directory;
+
+	/**
+	 * Initializes the database and creates the directory of the log.
+	 * @throws IOException if the directory cannot be created
+	 */
+	@Before
+	public void setUp() throws IOException	{
+		entityManagerFactory = Persistence.createEntityManagerFactory("TicketDataTestUnit");
+		ticketService = new TicketService(entityManagerFactory);
+		ticketService.initializeDatabase();
+		directory = Files.createTempDirectory("write-behind");
+	}
+
+	/**
+	 * Closes the database and deletes the directory of the log.
+	 * @throws IOException if the directory cannot be deleted
+	 */
+	@After
+	public void tearDown() throws IOException	{
+		entityManagerFactory.close();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+			for (Path segment : stream)
+				Files.delete(segment);
+		}
+		Files.delete(directory);
+	}
+
+	/**
+	 * Tests whether the sales update the inventory at once and the database at the flush or not.
+	 * @throws IOException if the log cannot be opened
+	 */
+	@Test
+	public void testFlush() throws IOException	{
+		WriteBehindLog writeBehindLog = new WriteBehindLog(ticketService, directory, 60000, 60000);
+		ticketService.setWriteBehindLog(writeBehindLog);
+
+		assertTrue(ticketService.modifyTicketData("Gold 1", 3));
+		assertTrue(ticketService.modifyTicketData("Gold 1", 2));
+		assertFalse(ticketService.modifyTicketData("Silver 1", 101));
+
+		assertEquals(95, ticketService.getInventory().getAvailable("Gold 1"));
+		assertEquals(Integer.valueOf(100), databaseAmount("Gold 1"));
+		assertEquals(Integer.valueOf(5), writeBehindLog.getPending().get("Gold 1"));
+
+		writeBehindLog.drain();
+
+		assertEquals(Integer.valueOf(95), databaseAmount("Gold 1"));
+		assertEquals(Integer.valueOf(100), databaseAmount("Silver 1"));
+		assertTrue(writeBehindLog.getPending().isEmpty());
+		assertEquals(0, segmentCount());
+	}
+
+	/**
+	 * Tests whether the unflushed sales are replayed with their seats when the log is opened again or not.
+	 * @throws IOException if the log cannot be opened
+	 */
+	@Test
+	public void testRecovery() throws IOException	{
+		WriteBehindLog writeBehindLog = new WriteBehindLog(ticketService, directory, 60000, 60000);
+		ticketService.setWriteBehindLog(writeBehindLog);
+		CheckoutResult sold = ticketService.checkout(Arrays.asList(
+				new Ticket("Super Gold", 900, 2),
+				new Ticket("Bronze 2", 400, 4)));
+		ticketService.setWriteBehindLog(null);
+
+		assertEquals(Integer.valueOf(100), databaseAmount("Super Gold"));
+
+		WriteBehindLog reopenedLog = new WriteBehindLog(ticketService, directory, 60000, 60000);
+
+		assertEquals(Integer.valueOf(98), databaseAmount("Super Gold"));
+		assertEquals(Integer.valueOf(96), databaseAmount("Bronze 2"));
+		assertEquals(98, ticketService.getInventory().getAvailable("Super Gold"));
+		for (int seat : sold.getLines().get(1).getSeats())
+			assertTrue(ticketService.getInventory().getSeatMap("Bronze 2").isSold(seat));
+		assertFalse(ticketService.getInventory().getSeatMap("Bronze 2").isClaimed(0));
+
+		reopenedLog.drain();
+	}
+
+	/**
+	 * Tests whether a segment which has been committed but not deleted is skipped when the log is opened again or not.
+	 * @throws IOException if the log cannot be opened
+	 */
+	@Test
+	public void testCommittedSegment() throws IOException	{
+		WriteBehindLog writeBehindLog = new WriteBehindLog(ticketService, directory, 60000, 60000);
+		ticketService.setWriteBehindLog(writeBehindLog);
+		ticketService.modifyTicketData("Gold 2", 3);
+		Map<Path, byte[]> segments = new HashMap<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+			for (Path segment : stream)
+				segments.put(segment, Files.readAllBytes(segment));
+		}
+		writeBehindLog.drain();
+		ticketService.setWriteBehindLog(null);
+		for (Map.Entry<Path, byte[]> segment : segments.entrySet())
+			Files.write(segment.getKey(), segment.getValue());
+
+		WriteBehindLog reopenedLog = new WriteBehindLog(ticketService, directory, 60000, 60000);
+		ticketService.setWriteBehindLog(reopenedLog);
+		ticketService.modifyTicketData("Gold 2", 1);
+		reopenedLog.drain();
+
+		assertEquals(Integer.valueOf(96), databaseAmount("Gold 2"));
+		assertEquals(0, segmentCount());
+	}
+
+	/**
+	 * Tests whether the sales which the database rejects stay pending with their segments or not.
+	 * @throws IOException if the log cannot be opened
+	 */
+	@Test
+	public void testRejectedSales() throws IOException	{
+		WriteBehindLog writeBehindLog = new WriteBehindLog(ticketService, directory, 60000, 60000);
+		ticketService.setWriteBehindLog(writeBehindLog);
+		ticketService.modifyTicketData("Silver 1", 5);
+		ticketService.modifyTicketData("Bronze 1", 2);
+		ticketService.applySales(Collections.singletonMap("Silver 1", 98));
+
+		writeBehindLog.flush();
+
+		assertEquals(Integer.valueOf(2), databaseAmount("Silver 1"));
+		assertEquals(Integer.valueOf(98), databaseAmount("Bronze 1"));
+		assertEquals(Collections.singletonMap("Silver 1", 5), writeBehindLog.getPending());
+		assertEquals(2, segmentCount());
+
+		writeBehindLog.drain();
+		ticketService.setWriteBehindLog(null);
+		ticketService.createTicket("Silver 1", 100);
+		WriteBehindLog reopenedLog = new WriteBehindLog(ticketService, directory, 60000, 60000);
+
+		assertEquals(Integer.valueOf(95), databaseAmount("Silver 1"));
+		assertEquals(Integer.valueOf(98), databaseAmount("Bronze 1"));
+		assertTrue(reopenedLog.getPending().isEmpty());
+		reopenedLog.drain();
+	}
+
+	/**
+	 * Tests whether a sale older than the maximal lag is flushed by the checkout or not.
+	 * @throws IOException if the log cannot be opened
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	@Test
+	public void testMaxLag() throws IOException, InterruptedException	{
+		WriteBehindLog writeBehindLog = new WriteBehindLog(ticketService, directory, 1, 1);
+		ticketService.setWriteBehindLog(writeBehindLog);
+
+		ticketService.modifyTicketData("Silver 2", 1);
+		Thread.sleep(20);
+		ticketService.modifyTicketData("Silver 2", 1);
+
+		assertEquals(Integer.valueOf(98), databaseAmount("Silver 2"));
+
+		writeBehindLog.drain();
+	}
+
+	/**
+	 * Tests whether a sale is kept when the flush of the checkout fails on a lagging database or not.
+	 * @throws IOException if the log cannot be opened
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	@Test
+	public void testLaggingFailure() throws IOException, InterruptedException	{
+		AtomicBoolean down = new AtomicBoolean(true);
+		LocalTicketStore ticketStore = new LocalTicketStore() {
+			@Override
+			public synchronized Set<String> applySales(Map<String, Integer> sales, Map<String, int[]> seats, long segment) {
+				if (down.get())
+					throw new IllegalStateException("The database is down");
+				return super.applySales(sales, seats, segment);
+			}
+		};
+		TicketService failingService = new TicketService(ticketStore);
+		failingService.initializeDatabase();
+		WriteBehindLog writeBehindLog = new WriteBehindLog(failingService, directory, 1, 1);
+		failingService.setWriteBehindLog(writeBehindLog);
+
+		assertTrue(failingService.modifyTicketData("Bronze 2", 2));
+		Thread.sleep(20);
+		assertTrue(failingService.modifyTicketData("Bronze 2", 3));
+
+		assertEquals(95, failingService.getInventory().getAvailable("Bronze 2"));
+		assertEquals(Integer.valueOf(5), writeBehindLog.getPending().get("Bronze 2"));
+
+		down.set(false);
+		writeBehindLog.drain();
+
+		for (TicketData ticketData : ticketStore.loadTickets()) {
+			if (ticketData.getType().equals("Bronze 2"))
+				assertEquals(Integer.valueOf(95), ticketData.getAmount());
+		}
+		assertEquals(0, segmentCount());
+	}
+
+	/**
+	 * Returns the amount of the ticket which is stored in the database.
+	 * @param type the type of the ticket
+	 * @return the stored amount of the ticket
+	 */
+	private Integer databaseAmount(String type)	{
+		for (TicketData ticketData : ticketService.getAvailableTickets()) {
+			if (ticketData.getType().equals(type))
+				return ticketData.getAmount();
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the number of the segment files in the directory of the log.
+	 * @return the number of the segment files
+	 * @throws IOException if the directory cannot be read
+	 */
+	private int segmentCount() throws IOException	{
+		int count = 0;
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+			for (Path segment : stream)
+				count++;
+		}
+		return count;
+	}
+}